@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@
 
 package org.eclipse.core.databinding.observable;
 
+import org.eclipse.core.internal.databinding.observable.DependencyScheduler;
+import org.eclipse.core.internal.databinding.observable.IDependencyChangeListener;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ListenerList;
 
@@ -111,16 +113,93 @@ import org.eclipse.core.runtime.ListenerList;
 		return -1;
 	}
 
+	/**
+	 * Constant for {@link #dispatchEvent(ObservableEvent, int)} to notify all
+	 * listeners.
+	 */
+	static final int ALL_LISTENERS = 0;
+
+	/**
+	 * Constant for {@link #dispatchEvent(ObservableEvent, int)} to only notify
+	 * the {@link IDependencyChangeListener}s of computed observables.
+	 */
+	static final int DEPENDENCY_LISTENERS = 1;
+
+	/**
+	 * Constant for {@link #dispatchEvent(ObservableEvent, int)} to notify all
+	 * listeners but the {@link IDependencyChangeListener}s.
+	 */
+	static final int OTHER_LISTENERS = 2;
+
 	protected void fireEvent(ObservableEvent event) {
+		RealmTransaction transaction = realm.transaction;
+		if (transaction != null && transaction.defer(this, event)) {
+			if (event instanceof ChangeEvent) {
+				// Computed observables read within the transaction must be
+				// recomputed.
+				dispatchEvent(event, DEPENDENCY_LISTENERS);
+			}
+			return;
+		}
+		dispatchEvent(event, ALL_LISTENERS);
+	}
+
+	/**
+	 * Notifies the listeners of the given event immediately.
+	 *
+	 * @param event     the event
+	 * @param listeners {@link #ALL_LISTENERS}, {@link #DEPENDENCY_LISTENERS} or
+	 *                  {@link #OTHER_LISTENERS}
+	 */
+	void dispatchEvent(ObservableEvent event, int listeners) {
 		Object listenerType = event.getListenerType();
 		int listenerTypeIndex = findListenerTypeIndex(listenerType);
-		if (listenerTypeIndex != -1) {
-			for (IObservablesListener listener : listenerLists[listenerTypeIndex]) {
+		if (listenerTypeIndex == -1) {
+			return;
+		}
+		ListenerList<IObservablesListener> listenerList = listenerLists[listenerTypeIndex];
+		if (listeners == OTHER_LISTENERS || !hasDependencyListener(listenerList)) {
+			// No computed observable is notified directly.
+			dispatchEvent(event, listeners, listenerList);
+			return;
+		}
+
+		// Computed observables notified by the listeners are updated once the
+		// outermost event has been dispatched.
+		DependencyScheduler scheduler = DependencyScheduler.getCurrent();
+		scheduler.beginDispatch();
+		try {
+			dispatchEvent(event, listeners, listenerList);
+		} catch (RuntimeException | Error e) {
+			try {
+				scheduler.endDispatch();
+			} catch (RuntimeException e2) {
+				e.addSuppressed(e2);
+			}
+			throw e;
+		}
+		scheduler.endDispatch();
+	}
+
+	private static void dispatchEvent(ObservableEvent event, int listeners,
+			ListenerList<IObservablesListener> listenerList) {
+		for (IObservablesListener listener : listenerList) {
+			if (listeners == ALL_LISTENERS
+					|| (listener instanceof IDependencyChangeListener) == (listeners == DEPENDENCY_LISTENERS)) {
 				event.dispatch(listener);
 			}
 		}
 	}
 
+	private static boolean hasDependencyListener(ListenerList<IObservablesListener> listenerList) {
+		for (IObservablesListener listener : listenerList) {
+			if (listener instanceof IDependencyChangeListener) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 *
 	 */
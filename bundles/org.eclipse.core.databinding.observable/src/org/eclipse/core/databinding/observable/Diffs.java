@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,9 +29,11 @@ import java.util.Set;
 
 import org.eclipse.core.databinding.observable.list.ListDiff;
 import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.list.ListDiffStrategy;
 import org.eclipse.core.databinding.observable.map.MapDiff;
 import org.eclipse.core.databinding.observable.set.SetDiff;
 import org.eclipse.core.databinding.observable.value.ValueDiff;
+import org.eclipse.core.internal.databinding.observable.MyersListDiff;
 
 /**
  * @since 1.0
@@ -228,6 +230,30 @@ public class Diffs {
 	 * @since 1.6
 	 */
 	public static <E> ListDiff<E> computeListDiff(List<? extends E> oldList, List<? extends E> newList) {
+		return computeListDiff(oldList, newList, ListDiffStrategy.DETECT_MOVES);
+	}
+
+	/**
+	 * Returns a {@link ListDiff} describing the change between the specified
+	 * old and new list states, computed with the given strategy.
+	 *
+	 * @param <E>
+	 *            the list element type
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param strategy
+	 *            the algorithm computing the differences
+	 * @return the differences between oldList and newList
+	 * @since 1.10
+	 */
+	public static <E> ListDiff<E> computeListDiff(List<? extends E> oldList, List<? extends E> newList,
+			ListDiffStrategy strategy) {
+		if (strategy == ListDiffStrategy.MINIMAL_EDITS) {
+			return createListDiff(MyersListDiff.<E>computeListDiffEntries(oldList, newList));
+		}
 		List<ListDiffEntry<E>> diffEntries = new ArrayList<>();
 		createListDiffs(new ArrayList<>(oldList), newList, diffEntries);
 		return createListDiff(diffEntries);
@@ -250,13 +276,35 @@ public class Diffs {
 	 */
 	public static <E> ListDiff<E> computeLazyListDiff(final List<? extends E> oldList,
 			final List<? extends E> newList) {
+		return computeLazyListDiff(oldList, newList, ListDiffStrategy.DETECT_MOVES);
+	}
+
+	/**
+	 * Returns a lazily computed {@link ListDiff} describing the change between
+	 * the specified old and new list states, computed with the given strategy.
+	 *
+	 * @param <E>
+	 *            the list element type
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param strategy
+	 *            the algorithm computing the differences
+	 * @return a lazily computed {@link ListDiff} describing the change between
+	 *         the specified old and new list states.
+	 * @since 1.10
+	 */
+	public static <E> ListDiff<E> computeLazyListDiff(final List<? extends E> oldList,
+			final List<? extends E> newList, final ListDiffStrategy strategy) {
 		return new ListDiff<E>() {
 			ListDiff<E> lazyDiff;
 
 			@Override
 			public ListDiffEntry<E>[] getDifferences() {
 				if (lazyDiff == null) {
-					lazyDiff = Diffs.computeListDiff(oldList, newList);
+					lazyDiff = Diffs.computeListDiff(oldList, newList, strategy);
 				}
 				return lazyDiff.getDifferences();
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,10 +15,13 @@
  *******************************************************************************/
 package org.eclipse.core.databinding.observable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.databinding.util.Policy;
-import org.eclipse.core.internal.databinding.identity.IdentitySet;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -64,20 +67,57 @@ import org.eclipse.core.runtime.Status;
 public class ObservableTracker {
 
 	/**
-	 * Threadlocal storage pointing to the current Set of IObservables, or null
-	 * if none. Note that this is actually the top of a stack. Whenever a method
-	 * changes the current value, it remembers the old value as a local variable
-	 * and restores the old value when the method exits.
+	 * The tracking state of a thread. Note that the fields are actually the top
+	 * of a stack. Whenever a method changes the current value, it remembers the
+	 * old value as a local variable and restores the old value when the method
+	 * exits.
 	 */
-	private static ThreadLocal<IChangeListener> currentChangeListener = new ThreadLocal<>();
+	private static final class TrackingState {
+		/**
+		 * The maximum size of a set that is reused, so that a single large
+		 * computation doesn't keep a large table alive.
+		 */
+		private static final int MAX_POOLED_SET_SIZE = 64;
 
-	private static ThreadLocal<IStaleListener> currentStaleListener = new ThreadLocal<>();
+		/**
+		 * The maximum number of reused sets, which only matters for nested
+		 * computations.
+		 */
+		private static final int MAX_POOL_SIZE = 8;
 
-	private static ThreadLocal<Set<IObservable>> currentGetterCalledSet = new ThreadLocal<>();
+		IChangeListener changeListener;
 
-	private static ThreadLocal<Set<IObservable>> currentObservableCreatedSet = new ThreadLocal<>();
+		IStaleListener staleListener;
 
-	private static ThreadLocal<Integer> currentIgnoreCount = new ThreadLocal<>();
+		/** The current set of read observables, or null if none. */
+		Set<IObservable> getterCalledSet;
+
+		/** The current set of created observables, or null if none. */
+		Set<IObservable> observableCreatedSet;
+
+		int ignoreCount;
+
+		private final List<Set<IObservable>> pool = new ArrayList<>();
+
+		Set<IObservable> acquireSet() {
+			int size = pool.size();
+			if (size > 0) {
+				return pool.remove(size - 1);
+			}
+			return Collections.newSetFromMap(new IdentityHashMap<>());
+		}
+
+		IObservable[] releaseSet(Set<IObservable> set) {
+			IObservable[] result = set.toArray(new IObservable[set.size()]);
+			if (result.length <= MAX_POOLED_SET_SIZE && pool.size() < MAX_POOL_SIZE) {
+				set.clear();
+				pool.add(set);
+			}
+			return result;
+		}
+	}
+
+	private static final ThreadLocal<TrackingState> currentState = ThreadLocal.withInitial(TrackingState::new);
 
 	/**
 	 * Invokes the given runnable, and returns the set of IObservables that were
@@ -97,31 +137,32 @@ public class ObservableTracker {
 	 */
 	public static IObservable[] runAndMonitor(Runnable runnable,
 			IChangeListener changeListener, IStaleListener staleListener) {
+		TrackingState state = currentState.get();
 		// Remember the previous value in the listener stack
-		Set<IObservable> lastObservableSet = currentGetterCalledSet.get();
-		IChangeListener lastChangeListener = currentChangeListener.get();
-		IStaleListener lastStaleListener = currentStaleListener.get();
-		Integer lastIgnore = currentIgnoreCount.get();
+		Set<IObservable> lastObservableSet = state.getterCalledSet;
+		IChangeListener lastChangeListener = state.changeListener;
+		IStaleListener lastStaleListener = state.staleListener;
+		int lastIgnore = state.ignoreCount;
 
-		Set<IObservable> observableSet = new IdentitySet<>();
+		Set<IObservable> observableSet = state.acquireSet();
 		// Push the new listeners to the top of the stack
-		currentGetterCalledSet.set(observableSet);
-		currentChangeListener.set(changeListener);
-		currentStaleListener.set(staleListener);
-		currentIgnoreCount.set(null);
+		state.getterCalledSet = observableSet;
+		state.changeListener = changeListener;
+		state.staleListener = staleListener;
+		state.ignoreCount = 0;
 		try {
 			runnable.run();
 		} finally {
 			// Pop the new listener off the top of the stack (by restoring the
 			// previous listener)
-			currentGetterCalledSet.set(lastObservableSet);
-			currentChangeListener.set(lastChangeListener);
-			currentStaleListener.set(lastStaleListener);
-			checkUnmatchedIgnore(runnable);
-			currentIgnoreCount.set(lastIgnore);
+			state.getterCalledSet = lastObservableSet;
+			state.changeListener = lastChangeListener;
+			state.staleListener = lastStaleListener;
+			checkUnmatchedIgnore(state, runnable);
+			state.ignoreCount = lastIgnore;
 		}
 
-		return observableSet.toArray(new IObservable[observableSet.size()]);
+		return state.releaseSet(observableSet);
 	}
 
 	/**
@@ -141,34 +182,35 @@ public class ObservableTracker {
 	 * @since 1.2
 	 */
 	public static IObservable[] runAndCollect(Runnable runnable) {
-		Set<IObservable> lastObservableCreatedSet = currentObservableCreatedSet.get();
-		Integer lastIgnore = currentIgnoreCount.get();
+		TrackingState state = currentState.get();
+		Set<IObservable> lastObservableCreatedSet = state.observableCreatedSet;
+		int lastIgnore = state.ignoreCount;
 
-		Set<IObservable> observableSet = new IdentitySet<>();
+		Set<IObservable> observableSet = state.acquireSet();
 		// Push the new listeners to the top of the stack
-		currentObservableCreatedSet.set(observableSet);
-		currentIgnoreCount.set(null);
+		state.observableCreatedSet = observableSet;
+		state.ignoreCount = 0;
 		try {
 			runnable.run();
 		} finally {
 			// Pop the new listener off the top of the stack (by restoring the
 			// previous listener)
-			currentObservableCreatedSet.set(lastObservableCreatedSet);
-			checkUnmatchedIgnore(runnable);
-			currentIgnoreCount.set(lastIgnore);
+			state.observableCreatedSet = lastObservableCreatedSet;
+			checkUnmatchedIgnore(state, runnable);
+			state.ignoreCount = lastIgnore;
 		}
 
-		return observableSet.toArray(new IObservable[observableSet.size()]);
+		return state.releaseSet(observableSet);
 	}
 
-	private static void checkUnmatchedIgnore(Runnable runnable) {
-		if (isIgnore()) {
+	private static void checkUnmatchedIgnore(TrackingState state, Runnable runnable) {
+		if (state.ignoreCount != 0) {
 			Policy.getLog()
 					.log(new Status(
 							IStatus.ERROR,
 							Policy.JFACE_DATABINDING,
 							"There were " //$NON-NLS-1$
-									+ currentIgnoreCount.get()
+									+ state.ignoreCount
 									+ " unmatched setIgnore(true) invocations in runnable " //$NON-NLS-1$
 									+ runnable));
 		}
@@ -193,15 +235,14 @@ public class ObservableTracker {
 	 * @since 1.3
 	 */
 	public static void setIgnore(boolean ignore) {
-		Integer lastCount = currentIgnoreCount.get();
+		TrackingState state = currentState.get();
 
-		int newCount = (lastCount == null ? 0 : lastCount.intValue())
-				+ (ignore ? 1 : -1);
+		int newCount = state.ignoreCount + (ignore ? 1 : -1);
 
 		if (newCount < 0)
 			throw new IllegalStateException("Ignore count is already zero"); //$NON-NLS-1$
 
-		currentIgnoreCount.set(newCount == 0 ? null : Integer.valueOf(newCount));
+		state.ignoreCount = newCount;
 	}
 
 	/**
@@ -231,10 +272,6 @@ public class ObservableTracker {
 				+ Integer.toHexString(System.identityHashCode(observable));
 	}
 
-	private static boolean isIgnore() {
-		return currentIgnoreCount.get() != null;
-	}
-
 	/**
 	 * Notifies the ObservableTracker that an observable was read from. The
 	 * JavaDoc for methods that invoke this method should include the following
@@ -254,16 +291,17 @@ public class ObservableTracker {
 			Assert.isTrue(false, "Getter called outside realm of observable " //$NON-NLS-1$
 					+ toString(observable));
 
-		if (isIgnore())
+		TrackingState state = currentState.get();
+		if (state.ignoreCount != 0)
 			return;
 
-		Set<IObservable> getterCalledSet = currentGetterCalledSet.get();
+		Set<IObservable> getterCalledSet = state.getterCalledSet;
 		if (getterCalledSet != null && getterCalledSet.add(observable)) {
 			// If anyone is listening for observable usage...
-			IChangeListener changeListener = currentChangeListener.get();
+			IChangeListener changeListener = state.changeListener;
 			if (changeListener != null)
 				observable.addChangeListener(changeListener);
-			IStaleListener staleListener = currentStaleListener.get();
+			IStaleListener staleListener = state.staleListener;
 			if (staleListener != null)
 				observable.addStaleListener(staleListener);
 		}
@@ -277,9 +315,10 @@ public class ObservableTracker {
 	 * @since 1.2
 	 */
 	public static void observableCreated(IObservable observable) {
-		if (isIgnore())
+		TrackingState state = currentState.get();
+		if (state.ignoreCount != 0)
 			return;
-		Set<IObservable> observableCreatedSet = currentObservableCreatedSet.get();
+		Set<IObservable> observableCreatedSet = state.observableCreatedSet;
 		if (observableCreatedSet != null) {
 			observableCreatedSet.add(observable);
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.TimerTask;
 
 import org.eclipse.core.databinding.util.Policy;
 import org.eclipse.core.internal.databinding.observable.Queue;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
@@ -124,6 +125,11 @@ public abstract class Realm {
 
 	Queue workQueue = new Queue();
 
+	/**
+	 * The running transaction, only accessed from within this realm.
+	 */
+	RealmTransaction transaction;
+
 	/**
 	 * Runs the given runnable. If an exception occurs within the runnable, it is
 	 * logged and not re-thrown. If the runnable implements {@link ISafeRunnable},
@@ -323,6 +329,55 @@ public abstract class Realm {
 		}
 	}
 
+	/**
+	 * Runs the given runnable in a transaction. The change events of the
+	 * observables of this realm are not fired while the runnable runs, but
+	 * afterwards, merged into one event per observable and event type. For
+	 * example, a list which is changed several times fires a single list
+	 * change event containing all the diff entries, and a value which is set
+	 * several times fires a single value change event from the first old
+	 * value to the last new value.
+	 * <p>
+	 * The merged events are fired in the order in which the observables first
+	 * changed. Computed observables depending on them are notified once all
+	 * merged events have been fired, in the order of their dependencies. This
+	 * way, a computed observable which depends on many changed observables is
+	 * recomputed once rather than once per change.
+	 * </p>
+	 * <p>
+	 * Computed observables are marked dirty immediately when one of their
+	 * dependencies changes, so a computed observable read within the runnable
+	 * is recomputed from the current values.
+	 * </p>
+	 * <p>
+	 * Stale, dispose and value changing events are fired immediately. The
+	 * diffs of list, set and map change events are evaluated when the events
+	 * are fired, rather than when a listener accesses them. If a transaction is
+	 * already running, the runnable becomes part of it.
+	 * </p>
+	 * <p>
+	 * Must be called from within this realm.
+	 * </p>
+	 *
+	 * @param runnable
+	 *            the runnable changing observables of this realm
+	 * @since 1.10
+	 */
+	public void runInTransaction(Runnable runnable) {
+		Assert.isTrue(isCurrent(), "This operation must be run within the realm"); //$NON-NLS-1$
+		if (transaction != null) {
+			runnable.run();
+			return;
+		}
+		RealmTransaction newTransaction = new RealmTransaction();
+		transaction = newTransaction;
+		try {
+			runnable.run();
+		} finally {
+			newTransaction.commit(this);
+		}
+	}
+
 	/**
 	 * Sets the provided <code>realm</code> as the default for the duration of
 	 * {@link Runnable#run()} and resets the previous realm after completion.
@@ -0,0 +1,404 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueDiff;
+import org.eclipse.core.internal.databinding.observable.DependencyScheduler;
+import org.eclipse.core.internal.databinding.observable.IDependencyChangeListener;
+import org.eclipse.core.internal.databinding.observable.LazyListDiff;
+import org.eclipse.core.internal.databinding.observable.LazySetDiff;
+
+/**
+ * Collects the change events fired while a transaction of a realm is running,
+ * and fires them merged into one event per observable and event type when the
+ * transaction ends.
+ *
+ * @see Realm#runInTransaction(Runnable)
+ * @since 1.10
+ */
+/* package */class RealmTransaction {
+
+	/**
+	 * Identifies the pending event of a type for an observable.
+	 */
+	private static final class Key {
+		final ChangeManager changeManager;
+		final Object listenerType;
+
+		Key(ChangeManager changeManager, Object listenerType) {
+			this.changeManager = changeManager;
+			this.listenerType = listenerType;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return changeManager == other.changeManager && listenerType == other.listenerType;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(changeManager) * 31 + System.identityHashCode(listenerType);
+		}
+	}
+
+	/**
+	 * The merged changes of one observable. Collection diffs may be computed
+	 * lazily against the current state of the observable, so they are
+	 * evaluated when they are merged, before the next change happens. The
+	 * lazy diffs of computed lists and sets are merged without computing them,
+	 * so that the computed collection is not recomputed for each change. Value
+	 * diffs remain lazy since only the first old and the last new value
+	 * matter.
+	 */
+	private static abstract class PendingEvent {
+		abstract void merge(ObservableEvent event);
+
+		/**
+		 * @return the merged event, or <code>null</code> if the changes cancel
+		 *         each other out
+		 */
+		abstract ObservableEvent createEvent();
+	}
+
+	private static final class PendingChange extends PendingEvent {
+		private final ObservableEvent event;
+
+		PendingChange(ObservableEvent event) {
+			this.event = event;
+		}
+
+		@Override
+		void merge(ObservableEvent event) {
+			// A generic change event carries no information besides its source.
+		}
+
+		@Override
+		ObservableEvent createEvent() {
+			return event;
+		}
+	}
+
+	private static final class PendingValueChange<T> extends PendingEvent {
+		private final ValueChangeEvent<T> firstEvent;
+		private ValueDiff<T> lastDiff;
+
+		PendingValueChange(ValueChangeEvent<T> event) {
+			this.firstEvent = event;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		void merge(ObservableEvent event) {
+			lastDiff = ((ValueChangeEvent<T>) event).diff;
+		}
+
+		@Override
+		ObservableEvent createEvent() {
+			if (lastDiff == firstEvent.diff) {
+				return firstEvent;
+			}
+			final T oldValue = firstEvent.diff.getOldValue();
+			final T newValue = lastDiff.getNewValue();
+			if (Objects.equals(oldValue, newValue)) {
+				return null;
+			}
+			return new ValueChangeEvent<>(firstEvent.getObservableValue(), Diffs.createValueDiff(oldValue, newValue));
+		}
+	}
+
+	private static final class PendingListChange<E> extends PendingEvent {
+		private final ListChangeEvent<E> firstEvent;
+		private final List<ListDiffEntry<E>> entries = new ArrayList<>();
+		/** The merged lazy diffs of a computed list, not computed yet. */
+		private LazyListDiff<E> lazyDiff;
+
+		PendingListChange(ListChangeEvent<E> event) {
+			this.firstEvent = event;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		void merge(ObservableEvent event) {
+			ListDiff<E> diff = ((ListChangeEvent<E>) event).diff;
+			if (diff instanceof LazyListDiff && entries.isEmpty()) {
+				LazyListDiff<E> next = (LazyListDiff<E>) diff;
+				lazyDiff = lazyDiff == null ? next : lazyDiff.merge(next);
+				return;
+			}
+			if (lazyDiff != null) {
+				entries.addAll(Arrays.asList(lazyDiff.getDifferences()));
+				lazyDiff = null;
+			}
+			// Applying the entries one after the other has the combined effect.
+			entries.addAll(Arrays.asList(diff.getDifferences()));
+		}
+
+		@Override
+		ObservableEvent createEvent() {
+			if (lazyDiff != null) {
+				return new ListChangeEvent<>(firstEvent.getObservableList(), lazyDiff);
+			}
+			return new ListChangeEvent<>(firstEvent.getObservableList(), Diffs.createListDiff(entries));
+		}
+	}
+
+	private static final class PendingSetChange<E> extends PendingEvent {
+		private final SetChangeEvent<E> firstEvent;
+		private final Set<E> additions = new HashSet<>();
+		private final Set<E> removals = new HashSet<>();
+		/** The merged lazy diffs of a computed set, not computed yet. */
+		private LazySetDiff<E> lazyDiff;
+
+		PendingSetChange(SetChangeEvent<E> event) {
+			this.firstEvent = event;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		void merge(ObservableEvent event) {
+			SetDiff<E> diff = ((SetChangeEvent<E>) event).diff;
+			if (diff instanceof LazySetDiff && additions.isEmpty() && removals.isEmpty()) {
+				LazySetDiff<E> next = (LazySetDiff<E>) diff;
+				lazyDiff = lazyDiff == null ? next : lazyDiff.merge(next);
+				return;
+			}
+			if (lazyDiff != null) {
+				additions.addAll(lazyDiff.getAdditions());
+				removals.addAll(lazyDiff.getRemovals());
+				lazyDiff = null;
+			}
+			for (E element : diff.getRemovals()) {
+				if (!additions.remove(element)) {
+					removals.add(element);
+				}
+			}
+			for (E element : diff.getAdditions()) {
+				if (!removals.remove(element)) {
+					additions.add(element);
+				}
+			}
+		}
+
+		@Override
+		ObservableEvent createEvent() {
+			if (lazyDiff != null) {
+				return new SetChangeEvent<>(firstEvent.getObservableSet(), lazyDiff);
+			}
+			return new SetChangeEvent<>(firstEvent.getObservableSet(), Diffs.createSetDiff(additions, removals));
+		}
+	}
+
+	private static final class PendingMapChange<K, V> extends PendingEvent {
+		private final MapChangeEvent<K, V> firstEvent;
+		/** The values of the changed keys before the first change. */
+		private final Map<K, V> oldValues = new HashMap<>();
+		/** The changed keys which were not in the map before the first change. */
+		private final Set<K> absentKeys = new HashSet<>();
+		/** The values of the changed keys which are in the map now. */
+		private final Map<K, V> newValues = new HashMap<>();
+		/** The changed keys which are not in the map now. */
+		private final Set<K> removedKeys = new HashSet<>();
+
+		PendingMapChange(MapChangeEvent<K, V> event) {
+			this.firstEvent = event;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		void merge(ObservableEvent event) {
+			MapDiff<K, V> diff = ((MapChangeEvent<K, V>) event).diff;
+			for (K key : diff.getAddedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					absentKeys.add(key);
+				}
+				removedKeys.remove(key);
+				newValues.put(key, diff.getNewValue(key));
+			}
+			for (K key : diff.getChangedKeys()) {
+				if (!absentKeys.contains(key) && !oldValues.containsKey(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+				newValues.put(key, diff.getNewValue(key));
+			}
+			for (K key : diff.getRemovedKeys()) {
+				if (!absentKeys.contains(key) && !oldValues.containsKey(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+				newValues.remove(key);
+				removedKeys.add(key);
+			}
+		}
+
+		@Override
+		ObservableEvent createEvent() {
+			Set<K> added = new HashSet<>();
+			Set<K> changed = new HashSet<>();
+			for (Map.Entry<K, V> entry : newValues.entrySet()) {
+				K key = entry.getKey();
+				if (absentKeys.contains(key)) {
+					added.add(key);
+				} else if (!Objects.equals(oldValues.get(key), entry.getValue())) {
+					changed.add(key);
+				}
+			}
+			Set<K> removed = new HashSet<>(removedKeys);
+			removed.removeAll(absentKeys);
+			return new MapChangeEvent<>(firstEvent.getObservableMap(),
+					Diffs.createMapDiff(added, removed, changed, oldValues, newValues));
+		}
+	}
+
+	/**
+	 * The pending events in the order in which the observables first changed.
+	 */
+	private final Map<Key, PendingEvent> pendingEvents = new LinkedHashMap<>();
+
+	/**
+	 * Defers the given event until the end of the transaction, merging it with
+	 * the pending event of the same observable and type.
+	 *
+	 * @param changeManager
+	 *            the change manager firing the event
+	 * @param event
+	 *            the event
+	 * @return <code>false</code> if the event cannot be deferred and must be
+	 *         fired immediately
+	 */
+	boolean defer(ChangeManager changeManager, ObservableEvent event) {
+		Key key = new Key(changeManager, event.getListenerType());
+		PendingEvent pending = pendingEvents.get(key);
+		if (pending == null) {
+			pending = createPendingEvent(event);
+			if (pending == null) {
+				return false;
+			}
+			pendingEvents.put(key, pending);
+		}
+		pending.merge(event);
+		return true;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static PendingEvent createPendingEvent(ObservableEvent event) {
+		if (event instanceof ChangeEvent) {
+			return new PendingChange(event);
+		} else if (event instanceof ValueChangeEvent) {
+			return new PendingValueChange((ValueChangeEvent) event);
+		} else if (event instanceof ListChangeEvent) {
+			return new PendingListChange((ListChangeEvent) event);
+		} else if (event instanceof SetChangeEvent) {
+			return new PendingSetChange((SetChangeEvent) event);
+		} else if (event instanceof MapChangeEvent) {
+			return new PendingMapChange((MapChangeEvent) event);
+		}
+		// Stale, dispose and vetoable events must be seen immediately.
+		return null;
+	}
+
+	/**
+	 * Fires the pending events. The events are dispatched as one propagation of
+	 * the {@link DependencyScheduler}, so a computed observable depending on
+	 * many changed observables is notified and recomputed once, after the
+	 * computed observables it depends on. Events fired by the listeners are
+	 * dispatched immediately, since the transaction is over.
+	 * <p>
+	 * The computed observables were already notified of the change events of
+	 * their dependencies during the transaction, see
+	 * {@link IDependencyChangeListener}, so the merged change events are only
+	 * fired to the other listeners. The merged events of the computed
+	 * observables themselves are fired like all others.
+	 * </p>
+	 *
+	 * @param realm
+	 *            the realm of the transaction, which must not refer to this
+	 *            transaction any more once all events have been fired
+	 */
+	void commit(Realm realm) {
+		realm.transaction = null;
+		RuntimeException exception = null;
+		DependencyScheduler scheduler = DependencyScheduler.getCurrent();
+		scheduler.beginDispatch();
+		try {
+			// An observable value which is back at its old value has not changed.
+			Map<Key, ObservableEvent> events = new LinkedHashMap<>();
+			Set<ChangeManager> unchanged = new HashSet<>();
+			for (Map.Entry<Key, PendingEvent> entry : pendingEvents.entrySet()) {
+				ObservableEvent event;
+				try {
+					event = entry.getValue().createEvent();
+				} catch (RuntimeException e) {
+					if (exception == null) {
+						exception = e;
+					}
+					continue;
+				}
+				if (event == null) {
+					unchanged.add(entry.getKey().changeManager);
+				} else {
+					events.put(entry.getKey(), event);
+				}
+			}
+			for (Map.Entry<Key, ObservableEvent> entry : events.entrySet()) {
+				ChangeManager changeManager = entry.getKey().changeManager;
+				ObservableEvent event = entry.getValue();
+				if (event instanceof ChangeEvent && unchanged.contains(changeManager)) {
+					continue;
+				}
+				try {
+					changeManager.dispatchEvent(event, ChangeManager.OTHER_LISTENERS);
+				} catch (RuntimeException e) {
+					// Don't lose the remaining events, they describe changes
+					// which have already happened.
+					if (exception == null) {
+						exception = e;
+					}
+				}
+			}
+		} finally {
+			try {
+				scheduler.endDispatch();
+			} catch (RuntimeException e) {
+				if (exception == null) {
+					exception = e;
+				}
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+}
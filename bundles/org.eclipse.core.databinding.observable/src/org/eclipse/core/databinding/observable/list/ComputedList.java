@@ -1,5 +1,5 @@
 /************************************************************************************************************
- * Copyright (c) 2007, 2017 Matthew Hall and others.
+ * Copyright (c) 2007, 2021 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,9 +20,9 @@ package org.eclipse.core.databinding.observable.list;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import org.eclipse.core.databinding.observable.ChangeEvent;
-import org.eclipse.core.databinding.observable.Diffs;
 import org.eclipse.core.databinding.observable.IChangeListener;
 import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.IStaleListener;
@@ -30,6 +30,9 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.DependencyScheduler;
+import org.eclipse.core.internal.databinding.observable.IDependencyChangeListener;
+import org.eclipse.core.internal.databinding.observable.LazyListDiff;
 
 /**
  * A lazily calculated list that automatically computes and registers listeners
@@ -86,6 +89,14 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 	private boolean dirty = true;
 	private boolean stale = false;
 
+	/**
+	 * The position of this computed list in the graph of computed
+	 * observables, see {@link DependencyScheduler}.
+	 */
+	private int rank;
+
+	private boolean notificationScheduled;
+
 	private IObservable[] dependencies = new IObservable[0];
 
 	/**
@@ -156,7 +167,7 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 	 * </p>
 	 *
 	 */
-	private class PrivateInterface implements Runnable, IChangeListener,
+	private class PrivateInterface implements Runnable, IDependencyChangeListener,
 			IStaleListener {
 		@Override
 		public void run() {
@@ -181,6 +192,8 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 
 	private Object elementType;
 
+	private ListDiffStrategy listDiffStrategy = ListDiffStrategy.DETECT_MOVES;
+
 	@Override
 	protected int doGetSize() {
 		return doGetList().size();
@@ -198,13 +211,19 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 	}
 
 	final List<E> doGetList() {
+		DependencyScheduler scheduler = DependencyScheduler.getCurrent();
 		if (dirty) {
 			// This line will do the following:
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-					privateInterface, privateInterface, null);
+			IObservable[] newDependencies;
+			int outerRank = scheduler.beginComputation();
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(privateInterface, privateInterface, null);
+			} finally {
+				rank = scheduler.endComputation(outerRank);
+			}
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -226,6 +245,8 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 			dependencies = newDependencies;
 
 			dirty = false;
+		} else {
+			scheduler.computedObservableRead(rank);
 		}
 
 		return cachedList;
@@ -253,21 +274,32 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 
 			stopListening();
 
+			if (notificationScheduled) {
+				// The scheduled event reports the latest list as well.
+				return;
+			}
+
 			// copy the old list
 			final List<E> oldList = new ArrayList<>(cachedList);
 			// Fire the "dirty" event. This implementation recomputes the new
 			// list lazily.
-			fireListChange(new ListDiff<E>() {
-				ListDiffEntry<E>[] differences;
-
-				@Override
-				public ListDiffEntry<E>[] getDifferences() {
-					if (differences == null) {
-						differences = Diffs.computeListDiff(oldList, getList()).getDifferences();
+			Runnable notification = () -> fireListChange(
+					new LazyListDiff<>(oldList, this::getList, listDiffStrategy));
+
+			DependencyScheduler scheduler = DependencyScheduler.getCurrent();
+			if (scheduler.isDispatching()) {
+				// Fire once all computed observables this list depends on are
+				// dirty as well.
+				notificationScheduled = true;
+				scheduler.schedule(rank, () -> {
+					notificationScheduled = false;
+					if (!isDisposed()) {
+						notification.run();
 					}
-					return differences;
-				}
-			});
+				});
+			} else {
+				notification.run();
+			}
 		}
 	}
 
@@ -300,6 +332,21 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 		return elementType;
 	}
 
+	/**
+	 * Sets the algorithm used to compute the differences between the old and
+	 * the recalculated list, which are reported to the list change listeners.
+	 * The default is {@link ListDiffStrategy#DETECT_MOVES}.
+	 * {@link ListDiffStrategy#MINIMAL_EDITS} is considerably faster for large
+	 * lists in which many elements are added or removed at once.
+	 *
+	 * @param strategy
+	 *            the algorithm computing the list differences
+	 * @since 1.10
+	 */
+	public void setListDiffStrategy(ListDiffStrategy strategy) {
+		this.listDiffStrategy = Objects.requireNonNull(strategy);
+	}
+
 	@Override
 	public synchronized void addChangeListener(IChangeListener listener) {
 		super.addChangeListener(listener);
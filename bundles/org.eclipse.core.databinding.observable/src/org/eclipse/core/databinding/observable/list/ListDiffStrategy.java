@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.databinding.observable.list;
+
+import java.util.List;
+
+import org.eclipse.core.databinding.observable.Diffs;
+
+/**
+ * The algorithms which can be used to compute the difference between two list
+ * states.
+ *
+ * @see Diffs#computeListDiff(List, List, ListDiffStrategy)
+ * @see Diffs#computeLazyListDiff(List, List, ListDiffStrategy)
+ * @since 1.10
+ */
+public enum ListDiffStrategy {
+	/**
+	 * Walks through the new list and looks up each element which differs from
+	 * the old list in the remaining elements of both lists. Elements which
+	 * changed their position are reported as pairs of adjacent remove and add
+	 * entries, which {@link ListDiff#accept(ListDiffVisitor)} reports as moves.
+	 * <p>
+	 * The running time is quadratic in the size of the lists when many elements
+	 * are added or removed. This is the strategy used by
+	 * {@link Diffs#computeListDiff(List, List)}.
+	 */
+	DETECT_MOVES,
+
+	/**
+	 * Computes a shortest sequence of additions and removals with the
+	 * algorithm of Eugene W. Myers, in time proportional to the size of the
+	 * lists times the number of differences. Elements which occur in only one
+	 * of the lists are discarded up front through a hash lookup, so runs of
+	 * added or removed elements are found in linear time. If no element occurs
+	 * twice in either list, the remaining elements are matched as a longest
+	 * increasing subsequence in <code>O(n log n)</code> time.
+	 * <p>
+	 * Elements which changed their position are reported as a removal and a
+	 * separate addition, adjacent removals and additions are paired up so that
+	 * {@link ListDiff#accept(ListDiffVisitor)} reports them as replacements.
+	 * The elements must implement {@link Object#hashCode()} consistently with
+	 * {@link Object#equals(Object)}.
+	 */
+	MINIMAL_EDITS
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 Matthew Hall and others.
+ * Copyright (c) 2008, 2021 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,7 +21,6 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.eclipse.core.databinding.observable.ChangeEvent;
-import org.eclipse.core.databinding.observable.Diffs;
 import org.eclipse.core.databinding.observable.IChangeListener;
 import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.IStaleListener;
@@ -29,6 +28,9 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.DependencyScheduler;
+import org.eclipse.core.internal.databinding.observable.IDependencyChangeListener;
+import org.eclipse.core.internal.databinding.observable.LazySetDiff;
 
 /**
  * A lazily calculated set that automatically computes and registers listeners
@@ -82,6 +84,14 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 	private boolean dirty = true;
 	private boolean stale = false;
 
+	/**
+	 * The position of this computed set in the graph of computed
+	 * observables, see {@link DependencyScheduler}.
+	 */
+	private int rank;
+
+	private boolean notificationScheduled;
+
 	private IObservable[] dependencies = new IObservable[0];
 
 	/**
@@ -152,7 +162,7 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 	 * </p>
 	 *
 	 */
-	private class PrivateInterface implements Runnable, IChangeListener,
+	private class PrivateInterface implements Runnable, IDependencyChangeListener,
 			IStaleListener {
 		@Override
 		public void run() {
@@ -192,13 +202,19 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 	}
 
 	final Set<E> doGetSet() {
+		DependencyScheduler scheduler = DependencyScheduler.getCurrent();
 		if (dirty) {
 			// This line will do the following:
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-privateInterface, privateInterface, null);
+			IObservable[] newDependencies;
+			int outerRank = scheduler.beginComputation();
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(privateInterface, privateInterface, null);
+			} finally {
+				rank = scheduler.endComputation(outerRank);
+			}
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -220,6 +236,8 @@ privateInterface, privateInterface, null);
 			dependencies = newDependencies;
 
 			dirty = false;
+		} else {
+			scheduler.computedObservableRead(rank);
 		}
 
 		return cachedSet;
@@ -248,27 +266,29 @@ privateInterface, privateInterface, null);
 
 			stopListening();
 
+			if (notificationScheduled) {
+				// The scheduled event reports the latest set as well.
+				return;
+			}
+
 			// Fire the "dirty" event. This implementation recomputes the new
 			// set lazily.
-			fireSetChange(new SetDiff<E>() {
-				SetDiff<E> delegate;
-
-				private SetDiff<E> getDelegate() {
-					if (delegate == null)
-						delegate = Diffs.computeSetDiff(oldSet, getSet());
-					return delegate;
-				}
-
-				@Override
-				public Set<E> getAdditions() {
-					return getDelegate().getAdditions();
-				}
-
-				@Override
-				public Set<E> getRemovals() {
-					return getDelegate().getRemovals();
-				}
-			});
+			Runnable notification = () -> fireSetChange(new LazySetDiff<>(oldSet, this::getSet));
+
+			DependencyScheduler scheduler = DependencyScheduler.getCurrent();
+			if (scheduler.isDispatching()) {
+				// Fire once all computed observables this set depends on are
+				// dirty as well.
+				notificationScheduled = true;
+				scheduler.schedule(rank, () -> {
+					notificationScheduled = false;
+					if (!isDisposed()) {
+						notification.run();
+					}
+				});
+			} else {
+				notification.run();
+			}
 		}
 	}
 
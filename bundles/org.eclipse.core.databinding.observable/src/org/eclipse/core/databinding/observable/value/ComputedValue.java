@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.internal.databinding.observable.DependencyScheduler;
+import org.eclipse.core.internal.databinding.observable.IDependencyChangeListener;
 
 /**
  * A Lazily calculated value that automatically computes and registers listeners
@@ -65,6 +67,12 @@ import org.eclipse.core.databinding.observable.list.IObservableList;
  * addends.add(Integer.valueOf(10));
  * System.out.println(sum.getValue()); // =&gt; 13
  * </pre>
+ * <p>
+ * When a change propagates through a graph of computed observables, every
+ * computed observable is notified after the computed observables it depends on,
+ * so its value is recomputed at most once and never from a mix of old and new
+ * values of its dependencies.
+ * </p>
  *
  * @param <T>
  *            the type of value being observed
@@ -79,6 +87,14 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 	private T cachedValue = null;
 
+	/**
+	 * The position of this computed value in the graph of computed
+	 * observables, see {@link DependencyScheduler}.
+	 */
+	private int rank;
+
+	private boolean notificationScheduled;
+
 	/**
 	 * Array of observables this computed value depends on. This field has a
 	 * value of <code>null</code> if we are not currently listening.
@@ -163,7 +179,7 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 	 * </p>
 	 *
 	 */
-	private class PrivateInterface implements Runnable, IChangeListener,
+	private class PrivateInterface implements Runnable, IDependencyChangeListener,
 			IStaleListener {
 		@Override
 		public void run() {
@@ -190,13 +206,19 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 	@Override
 	protected final T doGetValue() {
+		DependencyScheduler scheduler = DependencyScheduler.getCurrent();
 		if (dirty) {
 			// This line will do the following:
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-					privateInterface, privateInterface, null);
+			IObservable[] newDependencies;
+			int outerRank = scheduler.beginComputation();
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(privateInterface, privateInterface, null);
+			} finally {
+				rank = scheduler.endComputation(outerRank);
+			}
 
 			stale = false;
 			for (IObservable observable : newDependencies) {
@@ -211,6 +233,8 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 			dependencies = newDependencies;
 
 			dirty = false;
+		} else {
+			scheduler.computedObservableRead(rank);
 		}
 
 		return cachedValue;
@@ -232,11 +256,16 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 			stopListening();
 
+			if (notificationScheduled) {
+				// The scheduled event reports the latest value as well.
+				return;
+			}
+
 			// copy the old value
 			final T oldValue = cachedValue;
 			// Fire the "dirty" event. This implementation recomputes the new
 			// value lazily.
-			fireValueChange(new ValueDiff<T>() {
+			Runnable notification = () -> fireValueChange(new ValueDiff<T>() {
 
 				@Override
 				public T getOldValue() {
@@ -248,6 +277,21 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 					return getValue();
 				}
 			});
+
+			DependencyScheduler scheduler = DependencyScheduler.getCurrent();
+			if (scheduler.isDispatching()) {
+				// Fire once all computed observables this value depends on
+				// are dirty as well.
+				notificationScheduled = true;
+				scheduler.schedule(rank, () -> {
+					notificationScheduled = false;
+					if (!isDisposed()) {
+						notification.run();
+					}
+				});
+			} else {
+				notification.run();
+			}
 		}
 	}
 
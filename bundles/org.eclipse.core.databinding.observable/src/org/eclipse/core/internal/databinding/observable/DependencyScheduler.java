@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.PriorityQueue;
+
+/**
+ * Schedules the change notifications of computed observables, so that a graph
+ * of computed observables is updated in topological order.
+ * <p>
+ * Every computed observable has a rank, which is one more than the highest
+ * rank of the computed observables read by its last computation. Observables
+ * which are not computed have rank 0. While change events are dispatched, a
+ * computed observable whose dependency changed only marks itself dirty and
+ * schedules its notification. Once the outermost event has been dispatched,
+ * the scheduled notifications are run in the order of increasing rank. So
+ * when the listeners of a computed observable are notified, all the computed
+ * observables it depends on are already dirty, and it is recomputed once from
+ * consistent values, even if several of its dependencies changed.
+ * <p>
+ * There is one scheduler per thread, which must only be used from within the
+ * realm of the observables.
+ *
+ * @since 1.10
+ */
+public final class DependencyScheduler {
+
+	private static final ThreadLocal<DependencyScheduler> current = ThreadLocal
+			.withInitial(DependencyScheduler::new);
+
+	private static final class Notification implements Comparable<Notification> {
+		final int rank;
+		final long sequence;
+		final Runnable runnable;
+
+		Notification(int rank, long sequence, Runnable runnable) {
+			this.rank = rank;
+			this.sequence = sequence;
+			this.runnable = runnable;
+		}
+
+		@Override
+		public int compareTo(Notification other) {
+			if (rank != other.rank) {
+				return rank < other.rank ? -1 : 1;
+			}
+			return Long.compare(sequence, other.sequence);
+		}
+	}
+
+	private final PriorityQueue<Notification> notifications = new PriorityQueue<>();
+
+	private long nextSequence;
+
+	private int dispatchDepth;
+
+	private boolean flushing;
+
+	/**
+	 * The highest rank of the computed observables read by the running
+	 * computation.
+	 */
+	private int maxRankRead;
+
+	private DependencyScheduler() {
+	}
+
+	/**
+	 * @return the scheduler of the calling thread
+	 */
+	public static DependencyScheduler getCurrent() {
+		return current.get();
+	}
+
+	/**
+	 * Must be called before a computed observable computes its value.
+	 *
+	 * @return the state of the enclosing computation, to be passed to
+	 *         {@link #endComputation(int)}
+	 */
+	public int beginComputation() {
+		int outerMaxRankRead = maxRankRead;
+		maxRankRead = 0;
+		return outerMaxRankRead;
+	}
+
+	/**
+	 * Must be called after a computed observable computed its value, also if
+	 * the computation failed.
+	 *
+	 * @param outerMaxRankRead
+	 *            the value returned by {@link #beginComputation()}
+	 * @return the new rank of the computed observable
+	 */
+	public int endComputation(int outerMaxRankRead) {
+		int rank = maxRankRead + 1;
+		// The enclosing computation has read the computed observable.
+		maxRankRead = Math.max(outerMaxRankRead, rank);
+		return rank;
+	}
+
+	/**
+	 * Notes that the value of a computed observable has been read.
+	 *
+	 * @param rank
+	 *            the rank of the computed observable
+	 */
+	public void computedObservableRead(int rank) {
+		if (rank > maxRankRead) {
+			maxRankRead = rank;
+		}
+	}
+
+	/**
+	 * @return whether change events are being dispatched, in which case
+	 *         computed observables should {@link #schedule(int, Runnable)
+	 *         schedule} their notifications
+	 */
+	public boolean isDispatching() {
+		return dispatchDepth > 0;
+	}
+
+	/**
+	 * Schedules the change notification of a computed observable. It runs once
+	 * the outermost event has been dispatched and the notifications of the
+	 * computed observables of lower rank have run.
+	 *
+	 * @param rank
+	 *            the rank of the computed observable
+	 * @param notification
+	 *            fires the change events of the computed observable
+	 */
+	public void schedule(int rank, Runnable notification) {
+		notifications.add(new Notification(rank, nextSequence++, notification));
+	}
+
+	/**
+	 * Must be called before an event is dispatched to its listeners.
+	 */
+	public void beginDispatch() {
+		dispatchDepth++;
+	}
+
+	/**
+	 * Must be called after an event has been dispatched to its listeners. Runs
+	 * the scheduled notifications if this was the outermost event.
+	 */
+	public void endDispatch() {
+		if (--dispatchDepth > 0 || flushing || notifications.isEmpty()) {
+			return;
+		}
+		flushing = true;
+		RuntimeException exception = null;
+		try {
+			Notification notification;
+			while ((notification = notifications.poll()) != null) {
+				// The notification dispatches events, which schedule the
+				// notifications of the dependent computed observables.
+				dispatchDepth++;
+				try {
+					notification.runnable.run();
+				} catch (RuntimeException e) {
+					// The other observables have changed as well.
+					if (exception == null) {
+						exception = e;
+					}
+				} finally {
+					dispatchDepth--;
+				}
+			}
+		} finally {
+			flushing = false;
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.Realm;
+
+/**
+ * The change listener a computed observable adds to the observables it
+ * depends on. Unlike other listeners, it is notified of change events
+ * immediately while a transaction of the realm is running, so that a computed
+ * observable read within the transaction is marked dirty and recomputed from
+ * the current values of its dependencies. It is not notified again when the
+ * transaction ends.
+ *
+ * @see Realm#runInTransaction(Runnable)
+ * @since 1.10
+ */
+public interface IDependencyChangeListener extends IChangeListener {
+}
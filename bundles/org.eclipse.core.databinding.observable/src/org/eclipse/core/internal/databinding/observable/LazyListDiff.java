@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.list.ListDiffStrategy;
+
+/**
+ * The diff of a computed list, computed on first use from a copy of the old
+ * list to the current list. The diffs of several changes of the same list can
+ * be merged without computing them, see {@link #merge(LazyListDiff)}.
+ *
+ * @param <E>
+ *            the type of the list elements
+ * @since 1.10
+ */
+public final class LazyListDiff<E> extends ListDiff<E> {
+
+	private final List<E> oldList;
+
+	private final Supplier<List<E>> newList;
+
+	private final ListDiffStrategy strategy;
+
+	private ListDiffEntry<E>[] differences;
+
+	/**
+	 * @param oldList
+	 *            a copy of the list before the change
+	 * @param newList
+	 *            returns the current list, computing it if needed
+	 * @param strategy
+	 *            the strategy used to compute the differences
+	 */
+	public LazyListDiff(List<E> oldList, Supplier<List<E>> newList, ListDiffStrategy strategy) {
+		this.oldList = oldList;
+		this.newList = newList;
+		this.strategy = strategy;
+	}
+
+	@Override
+	public ListDiffEntry<E>[] getDifferences() {
+		if (differences == null) {
+			differences = Diffs.computeListDiff(oldList, newList.get(), strategy).getDifferences();
+		}
+		return differences;
+	}
+
+	/**
+	 * Returns the diff from the old list of this diff to the new list of the
+	 * given diff, which describes a later change of the same list.
+	 *
+	 * @param next
+	 *            the diff of the later change
+	 * @return the merged diff, which has not been computed yet
+	 */
+	public LazyListDiff<E> merge(LazyListDiff<E> next) {
+		return new LazyListDiff<>(oldList, next.newList, next.strategy);
+	}
+}
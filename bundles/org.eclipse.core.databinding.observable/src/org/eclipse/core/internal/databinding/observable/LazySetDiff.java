@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+
+/**
+ * The diff of a computed set, computed on first use from a copy of the old set
+ * to the current set. The diffs of several changes of the same set can be
+ * merged without computing them, see {@link #merge(LazySetDiff)}.
+ *
+ * @param <E>
+ *            the type of the set elements
+ * @since 1.10
+ */
+public final class LazySetDiff<E> extends SetDiff<E> {
+
+	private final Set<E> oldSet;
+
+	private final Supplier<Set<E>> newSet;
+
+	private SetDiff<E> delegate;
+
+	/**
+	 * @param oldSet
+	 *            a copy of the set before the change
+	 * @param newSet
+	 *            returns the current set, computing it if needed
+	 */
+	public LazySetDiff(Set<E> oldSet, Supplier<Set<E>> newSet) {
+		this.oldSet = oldSet;
+		this.newSet = newSet;
+	}
+
+	private SetDiff<E> getDelegate() {
+		if (delegate == null) {
+			delegate = Diffs.computeSetDiff(oldSet, newSet.get());
+		}
+		return delegate;
+	}
+
+	@Override
+	public Set<E> getAdditions() {
+		return getDelegate().getAdditions();
+	}
+
+	@Override
+	public Set<E> getRemovals() {
+		return getDelegate().getRemovals();
+	}
+
+	/**
+	 * Returns the diff from the old set of this diff to the new set of the given
+	 * diff, which describes a later change of the same set.
+	 *
+	 * @param next
+	 *            the diff of the later change
+	 * @return the merged diff, which has not been computed yet
+	 */
+	public LazySetDiff<E> merge(LazySetDiff<E> next) {
+		return new LazySetDiff<>(oldSet, next.newSet);
+	}
+}
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.list.ListDiffStrategy;
+
+/**
+ * Computes the entries of a list diff from a longest common subsequence of the
+ * old and new list.
+ * <p>
+ * The common prefix and suffix of the lists are matched first. The remaining
+ * elements are interned to integer ids through a hash map, and elements which
+ * occur in only one of the lists are dropped since they can never be matched.
+ * If no id occurs twice, the common subsequence is found as the longest
+ * increasing subsequence of the old positions in new list order (the
+ * Hunt-Szymanski approach for lists of distinct elements). Otherwise the
+ * linear space variant of Myers' O(ND) algorithm is run on the ids.
+ *
+ * @since 1.10
+ * @see ListDiffStrategy#MINIMAL_EDITS
+ */
+public class MyersListDiff {
+
+	private final int[] oldIds;
+	private final int[] newIds;
+
+	/**
+	 * For each position of the old list, the matched position in the new list
+	 * or -1.
+	 */
+	private final int[] oldToNew;
+
+	/**
+	 * The positions in the old and new lists of the entries of
+	 * {@link #oldIds} and {@link #newIds}.
+	 */
+	private final int[] oldPositions;
+	private final int[] newPositions;
+
+	private MyersListDiff(int[] oldIds, int[] oldPositions, int[] newIds, int[] newPositions, int[] oldToNew) {
+		this.oldIds = oldIds;
+		this.oldPositions = oldPositions;
+		this.newIds = newIds;
+		this.newPositions = newPositions;
+		this.oldToNew = oldToNew;
+	}
+
+	/**
+	 * Returns the entries of a shortest list diff which transforms
+	 * <code>oldList</code> into <code>newList</code>.
+	 *
+	 * @param <E>
+	 *            the list element type
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the diff entries, in the order they are to be processed
+	 */
+	public static <E> List<ListDiffEntry<E>> computeListDiffEntries(List<? extends E> oldList,
+			List<? extends E> newList) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+		int[] oldToNew = new int[oldElements.length];
+		Arrays.fill(oldToNew, -1);
+
+		int start = 0;
+		int oldEnd = oldElements.length;
+		int newEnd = newElements.length;
+		while (start < oldEnd && start < newEnd && Objects.equals(oldElements[start], newElements[start])) {
+			oldToNew[start] = start;
+			start++;
+		}
+		while (start < oldEnd && start < newEnd
+				&& Objects.equals(oldElements[oldEnd - 1], newElements[newEnd - 1])) {
+			oldToNew[--oldEnd] = --newEnd;
+		}
+
+		if (start < oldEnd && start < newEnd) {
+			matchMiddle(oldElements, newElements, start, oldEnd, newEnd, oldToNew);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<ListDiffEntry<E>> entries = createEntries((E[]) oldElements, (E[]) newElements, oldToNew);
+		return entries;
+	}
+
+	private static void matchMiddle(Object[] oldElements, Object[] newElements, int start, int oldEnd, int newEnd,
+			int[] oldToNew) {
+		// Intern the elements of the old list and count their occurrences.
+		Map<Object, Integer> ids = new HashMap<>();
+		int[] oldIdOf = new int[oldEnd - start];
+		int[] counts = new int[oldEnd - start];
+		for (int i = start; i < oldEnd; i++) {
+			Integer id = ids.get(oldElements[i]);
+			if (id == null) {
+				id = Integer.valueOf(ids.size());
+				ids.put(oldElements[i], id);
+			}
+			oldIdOf[i - start] = id.intValue();
+			counts[id.intValue()]++;
+		}
+
+		// Keep the new elements which also occur in the old list.
+		boolean distinct = true;
+		boolean[] inNewList = new boolean[ids.size()];
+		int[] newIds = new int[newEnd - start];
+		int[] newPositions = new int[newEnd - start];
+		int newCount = 0;
+		for (int j = start; j < newEnd; j++) {
+			Integer id = ids.get(newElements[j]);
+			if (id != null) {
+				int value = id.intValue();
+				if (inNewList[value] || counts[value] > 1) {
+					distinct = false;
+				}
+				inNewList[value] = true;
+				newIds[newCount] = value;
+				newPositions[newCount] = j;
+				newCount++;
+			}
+		}
+		if (newCount == 0) {
+			return;
+		}
+
+		if (distinct) {
+			matchDistinct(oldIdOf, start, newIds, newPositions, newCount, oldToNew);
+			return;
+		}
+
+		// Keep the old elements which also occur in the new list.
+		int[] oldIds = new int[oldEnd - start];
+		int[] oldPositions = new int[oldEnd - start];
+		int oldCount = 0;
+		for (int i = start; i < oldEnd; i++) {
+			int id = oldIdOf[i - start];
+			if (inNewList[id]) {
+				oldIds[oldCount] = id;
+				oldPositions[oldCount] = i;
+				oldCount++;
+			}
+		}
+
+		new MyersListDiff(oldIds, oldPositions, newIds, newPositions, oldToNew).match(0, oldCount, 0, newCount);
+	}
+
+	/**
+	 * Matches lists in which every element occurs at most once. The old
+	 * positions of the new elements, in new list order, are reduced to their
+	 * longest increasing subsequence.
+	 */
+	private static void matchDistinct(int[] oldIdOf, int start, int[] newIds, int[] newPositions, int newCount,
+			int[] oldToNew) {
+		int[] oldPositionOfId = new int[oldIdOf.length];
+		for (int i = 0; i < oldIdOf.length; i++) {
+			oldPositionOfId[oldIdOf[i]] = i;
+		}
+
+		// tails[k] is the index of the smallest value ending an increasing
+		// subsequence of length k + 1.
+		int[] tails = new int[newCount];
+		int[] predecessors = new int[newCount];
+		int length = 0;
+		for (int j = 0; j < newCount; j++) {
+			int value = oldPositionOfId[newIds[j]];
+			int k;
+			if (length == 0 || oldPositionOfId[newIds[tails[length - 1]]] < value) {
+				// Fast path for runs of insertions and removals.
+				k = length;
+			} else {
+				int low = 0;
+				int high = length - 1;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (oldPositionOfId[newIds[tails[mid]]] < value) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				k = low;
+			}
+			predecessors[j] = k > 0 ? tails[k - 1] : -1;
+			tails[k] = j;
+			if (k == length) {
+				length++;
+			}
+		}
+
+		for (int j = length > 0 ? tails[length - 1] : -1; j != -1; j = predecessors[j]) {
+			oldToNew[start + oldPositionOfId[newIds[j]]] = newPositions[j];
+		}
+	}
+
+	/**
+	 * Matches the ids in the given ranges, splitting them at the middle snake
+	 * of a shortest edit script.
+	 */
+	private void match(int oldStart, int oldEnd, int newStart, int newEnd) {
+		while (oldStart < oldEnd && newStart < newEnd && oldIds[oldStart] == newIds[newStart]) {
+			matched(oldStart++, newStart++);
+		}
+		while (oldStart < oldEnd && newStart < newEnd && oldIds[oldEnd - 1] == newIds[newEnd - 1]) {
+			matched(--oldEnd, --newEnd);
+		}
+		if (oldStart == oldEnd || newStart == newEnd) {
+			return;
+		}
+
+		int n = oldEnd - oldStart;
+		int m = newEnd - newStart;
+		int maxD = (n + m + 1) / 2;
+		int offset = maxD;
+		int[] forward = new int[2 * maxD + 2];
+		int[] backward = new int[2 * maxD + 2];
+		Arrays.fill(forward, -1);
+		Arrays.fill(backward, -1);
+		forward[offset + 1] = 0;
+		backward[offset + 1] = 0;
+		int delta = n - m;
+		// If the total number of edits is odd, the forward path overlaps the
+		// backward path first.
+		boolean front = (delta & 1) != 0;
+		int forwardStart = 0;
+		int forwardEnd = 0;
+		int backwardStart = 0;
+		int backwardEnd = 0;
+		for (int d = 0; d < maxD; d++) {
+			for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+				int index = offset + k;
+				int x;
+				if (k == -d || (k != d && forward[index - 1] < forward[index + 1])) {
+					x = forward[index + 1];
+				} else {
+					x = forward[index - 1] + 1;
+				}
+				int y = x - k;
+				while (x < n && y < m && oldIds[oldStart + x] == newIds[newStart + y]) {
+					x++;
+					y++;
+				}
+				forward[index] = x;
+				if (x > n) {
+					forwardEnd += 2;
+				} else if (y > m) {
+					forwardStart += 2;
+				} else if (front) {
+					int backwardIndex = offset + delta - k;
+					if (backwardIndex >= 0 && backwardIndex < backward.length && backward[backwardIndex] != -1
+							&& x >= n - backward[backwardIndex]) {
+						split(oldStart, oldEnd, newStart, newEnd, x, y);
+						return;
+					}
+				}
+			}
+
+			for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+				int index = offset + k;
+				int x;
+				if (k == -d || (k != d && backward[index - 1] < backward[index + 1])) {
+					x = backward[index + 1];
+				} else {
+					x = backward[index - 1] + 1;
+				}
+				int y = x - k;
+				while (x < n && y < m && oldIds[oldEnd - x - 1] == newIds[newEnd - y - 1]) {
+					x++;
+					y++;
+				}
+				backward[index] = x;
+				if (x > n) {
+					backwardEnd += 2;
+				} else if (y > m) {
+					backwardStart += 2;
+				} else if (!front) {
+					int forwardIndex = offset + delta - k;
+					if (forwardIndex >= 0 && forwardIndex < forward.length && forward[forwardIndex] != -1) {
+						int forwardX = forward[forwardIndex];
+						int forwardY = offset + forwardX - forwardIndex;
+						if (forwardX >= n - x) {
+							split(oldStart, oldEnd, newStart, newEnd, forwardX, forwardY);
+							return;
+						}
+					}
+				}
+			}
+		}
+		// The ranges have nothing in common.
+	}
+
+	private void split(int oldStart, int oldEnd, int newStart, int newEnd, int x, int y) {
+		match(oldStart, oldStart + x, newStart, newStart + y);
+		match(oldStart + x, oldEnd, newStart + y, newEnd);
+	}
+
+	private void matched(int oldIndex, int newIndex) {
+		oldToNew[oldPositions[oldIndex]] = newPositions[newIndex];
+	}
+
+	/**
+	 * Creates the entries which remove the unmatched old elements and add the
+	 * unmatched new elements. Within each run of differences, removals and
+	 * additions alternate at the same position so that they are reported as
+	 * replacements.
+	 */
+	private static <E> List<ListDiffEntry<E>> createEntries(E[] oldElements, E[] newElements, int[] oldToNew) {
+		List<ListDiffEntry<E>> entries = new ArrayList<>();
+		int position = 0;
+		int i = 0;
+		int j = 0;
+		while (i < oldElements.length || j < newElements.length) {
+			if (i < oldElements.length && oldToNew[i] == j) {
+				i++;
+				j++;
+				position++;
+				continue;
+			}
+			int oldRunEnd = i;
+			while (oldRunEnd < oldElements.length && oldToNew[oldRunEnd] == -1) {
+				oldRunEnd++;
+			}
+			int newRunEnd = oldRunEnd < oldElements.length ? oldToNew[oldRunEnd] : newElements.length;
+			while (i < oldRunEnd && j < newRunEnd) {
+				entries.add(Diffs.createListDiffEntry(position, false, oldElements[i++]));
+				entries.add(Diffs.createListDiffEntry(position++, true, newElements[j++]));
+			}
+			while (i < oldRunEnd) {
+				entries.add(Diffs.createListDiffEntry(position, false, oldElements[i++]));
+			}
+			while (j < newRunEnd) {
+				entries.add(Diffs.createListDiffEntry(position++, true, newElements[j++]));
+			}
+		}
+		return entries;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 IBM Corporation and others.
+ * Copyright (c) 2010, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
 import org.eclipse.jface.bindings.Binding;
@@ -123,13 +125,44 @@ public class BindingTable {
 
 	public static final BindingComparator BEST_SEQUENCE = new BindingComparator();
 
+	/**
+	 * A node of the trie of the trigger sequences of the table. The path from the root to a node
+	 * spells out a trigger sequence, and the node holds the bindings of that sequence. Nodes which
+	 * hold nothing and have no children are removed, so the trie only contains the sequences of
+	 * the bindings of the table and their prefixes.
+	 */
+	private static final class TriggerNode {
+		final TriggerNode parent;
+		final Trigger trigger;
+		Map<Trigger, TriggerNode> children;
+		/** The active binding of the sequence, i.e. its perfect match */
+		Binding binding;
+		/** All bindings of the sequence sorted by {@link #BEST_SEQUENCE}, if there are several */
+		ArrayList<Binding> orderedBindings;
+		/** The bindings of the sequence which conflict with each other */
+		ArrayList<Binding> conflicts;
+		/** The active bindings of the longer sequences starting with the sequence */
+		ArrayList<Binding> partialMatches;
+
+		TriggerNode(TriggerNode parent, Trigger trigger) {
+			this.parent = parent;
+			this.trigger = trigger;
+		}
+
+		TriggerNode getChild(Trigger childTrigger) {
+			return children == null ? null : children.get(childTrigger);
+		}
+
+		boolean isEmpty() {
+			return binding == null && orderedBindings == null && conflicts == null
+					&& partialMatches == null && (children == null || children.isEmpty());
+		}
+	}
+
 	private Context tableId;
-	private ArrayList<Binding> bindings = new ArrayList<>();
-	private Map<TriggerSequence, Binding> bindingsByTrigger = new HashMap<>();
+	private Set<Binding> bindings = new LinkedHashSet<>();
 	private Map<ParameterizedCommand, ArrayList<Binding>> bindingsByCommand = new HashMap<>();
-	private Map<TriggerSequence, ArrayList<Binding>> bindingsByPrefix = new HashMap<>();
-	private Map<TriggerSequence, ArrayList<Binding>> conflicts = new HashMap<>();
-	private Map<TriggerSequence, ArrayList<Binding>> orderedBindingsByTrigger = new HashMap<>();
+	private final TriggerNode root = new TriggerNode(null, null);
 
 	/**
 	 * @param context
@@ -148,17 +181,69 @@ public class BindingTable {
 
 	public Collection<Binding> getConflicts() {
 		Collection<Binding> conflictsList = new ArrayList<>();
-		for (ArrayList<Binding> conflictsForTrigger : conflicts.values()) {
-			if (conflictsForTrigger != null) {
-				conflictsList.addAll(conflictsForTrigger);
+		collectConflicts(root, conflictsList);
+		return conflictsList;
+	}
+
+	private static void collectConflicts(TriggerNode node, Collection<Binding> conflictsList) {
+		if (node.conflicts != null) {
+			conflictsList.addAll(node.conflicts);
+		}
+		if (node.children != null) {
+			for (TriggerNode child : node.children.values()) {
+				collectConflicts(child, conflictsList);
 			}
 		}
-		return conflictsList;
 	}
 
 	// checks both the active bindings and conflicts list
 	public Collection<Binding> getConflictsFor(TriggerSequence triggerSequence) {
-		return conflicts.get(triggerSequence);
+		TriggerNode node = findNode(triggerSequence);
+		return node == null ? null : node.conflicts;
+	}
+
+	/**
+	 * Returns the node of the given sequence, or <code>null</code> if the trie does not contain
+	 * the sequence.
+	 */
+	private TriggerNode findNode(TriggerSequence sequence) {
+		TriggerNode node = root;
+		for (Trigger trigger : sequence.getTriggers()) {
+			node = node.getChild(trigger);
+			if (node == null) {
+				return null;
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Returns the node of the given sequence, adding it and its prefixes to the trie if needed.
+	 */
+	private TriggerNode getNode(TriggerSequence sequence) {
+		TriggerNode node = root;
+		for (Trigger trigger : sequence.getTriggers()) {
+			TriggerNode child = node.getChild(trigger);
+			if (child == null) {
+				if (node.children == null) {
+					node.children = new HashMap<>(4);
+				}
+				child = new TriggerNode(node, trigger);
+				node.children.put(trigger, child);
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	/**
+	 * Removes the given node and its ancestors from the trie as long as they are empty.
+	 */
+	private void prune(TriggerNode node) {
+		while (node != root && node.isEmpty()) {
+			node.parent.children.remove(node.trigger);
+			node = node.parent;
+		}
 	}
 
 	public void addBinding(Binding binding) {
@@ -166,14 +251,13 @@ public class BindingTable {
 			throw new IllegalArgumentException("Binding context " + binding.getContextId() //$NON-NLS-1$
 					+ " does not match " + getId()); //$NON-NLS-1$
 		}
-		ArrayList<Binding> bindingList = orderedBindingsByTrigger.get(binding.getTriggerSequence());
-		Binding possibleConflict = bindingsByTrigger.get(binding.getTriggerSequence());
-		if (bindingList == null || bindingList.isEmpty()) {
+		TriggerNode node = getNode(binding.getTriggerSequence());
+		ArrayList<Binding> bindingList = node.orderedBindings;
+		Binding possibleConflict = node.binding;
+		if (bindingList == null) {
 			if (possibleConflict != null) {
-				if (bindingList == null) {
-					bindingList = new ArrayList<>();
-					orderedBindingsByTrigger.put(binding.getTriggerSequence(), bindingList);
-				}
+				bindingList = new ArrayList<>();
+				node.orderedBindings = bindingList;
 				bindingList.add(binding);
 				bindingList.add(possibleConflict);
 				bindingList.sort(BEST_SEQUENCE);
@@ -183,18 +267,17 @@ public class BindingTable {
 			bindingList.sort(BEST_SEQUENCE);
 		}
 
-		if (possibleConflict != null && bindingList != null && !bindingList.isEmpty()
-				&& bindingList.get(0) != possibleConflict) {
-			removeBindingSimple(possibleConflict);
+		if (possibleConflict != null && bindingList != null && bindingList.get(0) != possibleConflict) {
+			removeBindingSimple(node, possibleConflict);
 			possibleConflict = null;
 		}
 
-		evaluateOrderedBindings(binding.getTriggerSequence(), binding);
+		evaluateOrderedBindings(node, binding);
 	}
 
-	private void addBindingSimple(Binding binding) {
+	private void addBindingSimple(TriggerNode node, Binding binding) {
 		bindings.add(binding);
-		bindingsByTrigger.put(binding.getTriggerSequence(), binding);
+		node.binding = binding;
 
 		ArrayList<Binding> sequences = bindingsByCommand.get(binding.getParameterizedCommand());
 		if (sequences == null) {
@@ -204,30 +287,29 @@ public class BindingTable {
 		sequences.add(binding);
 		sequences.sort(BEST_SEQUENCE);
 
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings == null) {
-				bindings = new ArrayList<>();
-				bindingsByPrefix.put(prefs[i], bindings);
+		// the binding is a partial match of all non-empty proper prefixes of its sequence
+		for (TriggerNode prefix = node.parent; prefix != null && prefix != root; prefix = prefix.parent) {
+			if (prefix.partialMatches == null) {
+				prefix.partialMatches = new ArrayList<>();
 			}
-			bindings.add(binding);
+			prefix.partialMatches.add(binding);
 		}
 	}
 
-	private void removeBindingSimple(Binding binding) {
+	private void removeBindingSimple(TriggerNode node, Binding binding) {
 		bindings.remove(binding);
-		bindingsByTrigger.remove(binding.getTriggerSequence());
+		node.binding = null;
 		ArrayList<Binding> sequences = bindingsByCommand.get(binding.getParameterizedCommand());
 
 		if (sequences != null) {
 			sequences.remove(binding);
 		}
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings != null) {
-				bindings.remove(binding);
+		for (TriggerNode prefix = node.parent; prefix != null && prefix != root; prefix = prefix.parent) {
+			if (prefix.partialMatches != null) {
+				prefix.partialMatches.remove(binding);
+				if (prefix.partialMatches.isEmpty()) {
+					prefix.partialMatches = null;
+				}
 			}
 		}
 	}
@@ -237,48 +319,45 @@ public class BindingTable {
 			throw new IllegalArgumentException("Binding context " + binding.getContextId() //$NON-NLS-1$
 					+ " does not match " + getId()); //$NON-NLS-1$
 		}
-		ArrayList<Binding> bindingList = orderedBindingsByTrigger.get(binding.getTriggerSequence());
-		Binding possibleConflict = bindingsByTrigger.get(binding.getTriggerSequence());
-		if (possibleConflict == binding) {
-			removeBindingSimple(binding);
-			if (bindingList != null) {
-				bindingList.remove(binding);
-				if (bindingList.isEmpty()) {
-					orderedBindingsByTrigger.remove(binding.getTriggerSequence());
-				} else {
-					evaluateOrderedBindings(binding.getTriggerSequence(), null);
-				}
-			}
-		} else if (bindingList != null) {
+		TriggerNode node = findNode(binding.getTriggerSequence());
+		if (node == null) {
+			return;
+		}
+		ArrayList<Binding> bindingList = node.orderedBindings;
+		if (node.binding == binding) {
+			removeBindingSimple(node, binding);
+		}
+		if (bindingList != null) {
 			bindingList.remove(binding);
 			if (bindingList.isEmpty()) {
-				orderedBindingsByTrigger.remove(binding.getTriggerSequence());
+				node.orderedBindings = null;
 			} else {
-				evaluateOrderedBindings(binding.getTriggerSequence(), null);
+				evaluateOrderedBindings(node, null);
 			}
 		}
+		prune(node);
 	}
 
 	/**
 	 * @param binding
 	 */
-	private void evaluateOrderedBindings(TriggerSequence sequence, Binding binding) {
-		ArrayList<Binding> bindingList = orderedBindingsByTrigger.get(sequence);
+	private void evaluateOrderedBindings(TriggerNode node, Binding binding) {
+		ArrayList<Binding> bindingList = node.orderedBindings;
 
 		// calculate binding to be used or any conflicts
 		if (bindingList != null) {
 			if (bindingList.isEmpty()) {
-				orderedBindingsByTrigger.remove(sequence);
+				node.orderedBindings = null;
 			} else if (bindingList.size() > 1) {
 				Binding msb = bindingList.get(0);
 				Binding lsb = bindingList.get(1);
 				int rc = compareSchemes(BEST_SEQUENCE.getActiveSchemes(), msb.getSchemeId(),
 						lsb.getSchemeId());
 				if (rc == 0) {
-					ArrayList<Binding> conflictList = conflicts.get(sequence);
+					ArrayList<Binding> conflictList = node.conflicts;
 					if (conflictList == null) {
 						conflictList = new ArrayList<>();
-						conflicts.put(sequence, conflictList);
+						node.conflicts = conflictList;
 					} else {
 						conflictList.clear();
 					}
@@ -295,27 +374,28 @@ public class BindingTable {
 						prev = next;
 					}
 				} else {
-					conflicts.remove(sequence);
-					if (bindingsByTrigger.get(sequence) == null) {
-						addBindingSimple(msb);
+					node.conflicts = null;
+					if (node.binding == null) {
+						addBindingSimple(node, msb);
 					}
 				}
 			} else {
-				if (bindingsByTrigger.get(sequence) == null) {
-					addBindingSimple(bindingList.get(0));
+				if (node.binding == null) {
+					addBindingSimple(node, bindingList.get(0));
 				}
-				orderedBindingsByTrigger.remove(sequence);
+				node.orderedBindings = null;
 			}
 		} else if (binding != null) {
-			conflicts.remove(sequence);
-			if (bindingsByTrigger.get(sequence) == null) {
-				addBindingSimple(binding);
+			node.conflicts = null;
+			if (node.binding == null) {
+				addBindingSimple(node, binding);
 			}
 		}
 	}
 
 	public Binding getPerfectMatch(TriggerSequence trigger) {
-		return bindingsByTrigger.get(trigger);
+		TriggerNode node = findNode(trigger);
+		return node == null ? null : node.binding;
 	}
 
 	public Binding getBestSequenceFor(ParameterizedCommand command) {
@@ -333,12 +413,13 @@ public class BindingTable {
 	}
 
 	public Collection<Binding> getPartialMatches(TriggerSequence sequence) {
-		return bindingsByPrefix.get(sequence);
+		TriggerNode node = findNode(sequence);
+		return node == null ? null : node.partialMatches;
 	}
 
 	public boolean isPartialMatch(TriggerSequence seq) {
-		ArrayList<Binding> values = bindingsByPrefix.get(seq);
-		return values != null && !values.isEmpty();
+		TriggerNode node = findNode(seq);
+		return node != null && node.partialMatches != null;
 	}
 
 	public Collection<Binding> getBindings() {
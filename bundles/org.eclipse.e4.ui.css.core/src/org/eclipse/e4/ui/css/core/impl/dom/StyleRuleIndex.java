@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.AbstractDescendantSelector;
+import org.eclipse.e4.ui.css.core.impl.sac.AbstractElementSelector;
+import org.eclipse.e4.ui.css.core.impl.sac.AbstractSiblingSelector;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSConditionalSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSStyleRule;
+
+/**
+ * Index of the selectors of a list of style rules, keyed by the id, class or
+ * element name required by the rightmost simple selector of each selector.
+ * Only the selectors whose key is carried by an element (and the selectors
+ * without a key) need to be matched against it, instead of every selector of
+ * every style sheet.
+ * <p>
+ * {@link #getCandidates(Element)} returns the selectors in the order in which
+ * they appear in the style sheets, so the cascade is the same as when all
+ * selectors are matched one after the other.
+ * </p>
+ */
+final class StyleRuleIndex {
+
+	/**
+	 * A selector of a style rule together with its position among all selectors
+	 * of the indexed rules.
+	 */
+	static final class Entry {
+		final int ordinal;
+		final CSSStyleRule rule;
+		final ExtendedSelector selector;
+		/**
+		 * Whether the selector only depends on the element names, ids and classes
+		 * of the element and its ancestors
+		 */
+		final boolean shareable;
+
+		Entry(int ordinal, CSSStyleRule rule, ExtendedSelector selector) {
+			this.ordinal = ordinal;
+			this.rule = rule;
+			this.selector = selector;
+			this.shareable = isShareable(selector);
+		}
+	}
+
+	private static final int ID = 0;
+	private static final int CLASS = 1;
+	private static final int TYPE = 2;
+
+	/** Selectors which can match any element */
+	private final List<Entry> universal = new ArrayList<>();
+
+	private final Map<String, List<Entry>> byId = new HashMap<>();
+
+	private final Map<String, List<Entry>> byClass = new HashMap<>();
+
+	private final Map<String, List<Entry>> byType = new HashMap<>();
+
+	/**
+	 * Creates the index of the style rules in the given list. Rules which are
+	 * not {@link ExtendedCSSRule} style rules are ignored.
+	 *
+	 * @param rules the combined rules of all style sheets
+	 */
+	StyleRuleIndex(List<CSSRule> rules) {
+		int ordinal = 0;
+		for (CSSRule rule : rules) {
+			if (rule.getType() != CSSRule.STYLE_RULE || !(rule instanceof ExtendedCSSRule)) {
+				continue;
+			}
+			SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+			int l = selectorList.getLength();
+			for (int j = 0; j < l; j++) {
+				Selector selector = selectorList.item(j);
+				if (selector instanceof ExtendedSelector) {
+					add(new Entry(ordinal++, (CSSStyleRule) rule, (ExtendedSelector) selector));
+				}
+			}
+		}
+	}
+
+	private void add(Entry entry) {
+		String[] key = new String[3];
+		collectKeys(entry.selector, key);
+		if (key[ID] != null) {
+			byId.computeIfAbsent(key[ID], k -> new ArrayList<>()).add(entry);
+		} else if (key[CLASS] != null) {
+			byClass.computeIfAbsent(key[CLASS], k -> new ArrayList<>()).add(entry);
+		} else if (key[TYPE] != null) {
+			byType.computeIfAbsent(key[TYPE], k -> new ArrayList<>()).add(entry);
+		} else {
+			universal.add(entry);
+		}
+	}
+
+	/**
+	 * Fills the id, class and element name an element must carry to be matched
+	 * by the rightmost simple selector of the given selector.
+	 */
+	private static void collectKeys(Selector selector, String[] key) {
+		if (selector instanceof AbstractDescendantSelector) {
+			collectKeys(((AbstractDescendantSelector) selector).getSimpleSelector(), key);
+		} else if (selector instanceof AbstractSiblingSelector) {
+			collectKeys(((AbstractSiblingSelector) selector).getSiblingSelector(), key);
+		} else if (selector instanceof CSSConditionalSelectorImpl) {
+			CSSConditionalSelectorImpl conditional = (CSSConditionalSelectorImpl) selector;
+			collectKeys(conditional.getCondition(), key);
+			collectKeys(conditional.getSimpleSelector(), key);
+		} else if (selector instanceof AbstractElementSelector
+				&& selector.getSelectorType() == Selector.SAC_ELEMENT_NODE_SELECTOR) {
+			// the element name is compared case-sensitively, regardless of the
+			// namespace
+			String name = ((AbstractElementSelector) selector).getLocalName();
+			if (name != null) {
+				key[TYPE] = name;
+			}
+		}
+	}
+
+	private static void collectKeys(Condition condition, String[] key) {
+		if (condition instanceof CSSIdConditionImpl) {
+			key[ID] = ((CSSIdConditionImpl) condition).getValue();
+		} else if (condition instanceof CSSClassConditionImpl) {
+			String value = ((CSSClassConditionImpl) condition).getValue();
+			// a class containing white space can never be matched by a single
+			// class of the element, do not index it
+			if (value != null && value.indexOf(' ') == -1 && key[CLASS] == null) {
+				key[CLASS] = value;
+			}
+		} else if (condition.getConditionType() == Condition.SAC_AND_CONDITION
+				&& condition instanceof CombinatorCondition) {
+			collectKeys(((CombinatorCondition) condition).getFirstCondition(), key);
+			collectKeys(((CombinatorCondition) condition).getSecondCondition(), key);
+		}
+	}
+
+	/**
+	 * Answers whether the given selector only tests the element names, ids and
+	 * classes of an element and its ancestors. Elements for which these are the
+	 * same are matched by the same shareable selectors.
+	 */
+	private static boolean isShareable(Selector selector) {
+		if (selector instanceof AbstractDescendantSelector) {
+			AbstractDescendantSelector descendant = (AbstractDescendantSelector) selector;
+			return isShareable(descendant.getAncestorSelector()) && isShareable(descendant.getSimpleSelector());
+		} else if (selector instanceof CSSConditionalSelectorImpl) {
+			CSSConditionalSelectorImpl conditional = (CSSConditionalSelectorImpl) selector;
+			return isShareable(conditional.getSimpleSelector()) && isShareable(conditional.getCondition());
+		} else if (selector instanceof AbstractElementSelector
+				&& selector.getSelectorType() == Selector.SAC_ELEMENT_NODE_SELECTOR) {
+			return ((AbstractElementSelector) selector).getNamespaceURI() == null;
+		}
+		// sibling selectors depend on the siblings and pseudo elements on the
+		// state of the element
+		return false;
+	}
+
+	private static boolean isShareable(Condition condition) {
+		if (condition instanceof CSSIdConditionImpl || condition instanceof CSSClassConditionImpl) {
+			return true;
+		} else if (condition.getConditionType() == Condition.SAC_AND_CONDITION
+				&& condition instanceof CombinatorCondition) {
+			return isShareable(((CombinatorCondition) condition).getFirstCondition())
+					&& isShareable(((CombinatorCondition) condition).getSecondCondition());
+		}
+		// pseudo classes and other attributes depend on the state of the element
+		return false;
+	}
+
+	/**
+	 * Answers whether all of the given candidates are shareable, i.e. whether
+	 * every element with the same element names, ids and classes as the element
+	 * of the candidates (and of its ancestors) has the same computed style.
+	 *
+	 * @param candidates the candidates returned by {@link #getCandidates(Element)}
+	 * @return true if the computed style may be shared
+	 */
+	static boolean isShareable(List<Entry> candidates) {
+		for (Entry candidate : candidates) {
+			if (!candidate.shareable) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the selectors which may match the given element, in the order in
+	 * which they appear in the style sheets. All other selectors are known not
+	 * to match the element.
+	 *
+	 * @param element the element to style
+	 * @return the candidate selectors, must not be modified
+	 */
+	List<Entry> getCandidates(Element element) {
+		List<List<Entry>> sources = new ArrayList<>(4);
+		if (!universal.isEmpty()) {
+			sources.add(universal);
+		}
+		if (!byType.isEmpty()) {
+			addSource(sources, byType.get(getType(element)));
+		}
+		if (!byId.isEmpty()) {
+			String id = getId(element);
+			if (id != null) {
+				addSource(sources, byId.get(id));
+			}
+		}
+		if (!byClass.isEmpty()) {
+			String classes = getClasses(element);
+			if (classes != null) {
+				int length = classes.length();
+				int start = 0;
+				while (start < length) {
+					while (start < length && Character.isSpaceChar(classes.charAt(start))) {
+						start++;
+					}
+					int end = start;
+					while (end < length && !Character.isSpaceChar(classes.charAt(end))) {
+						end++;
+					}
+					if (end > start) {
+						List<Entry> source = byClass.get(classes.substring(start, end));
+						// the same class may be listed more than once
+						if (source != null && !sources.contains(source)) {
+							sources.add(source);
+						}
+					}
+					start = end;
+				}
+			}
+		}
+
+		switch (sources.size()) {
+		case 0:
+			return Collections.emptyList();
+		case 1:
+			return sources.get(0);
+		default:
+			List<Entry> candidates = new ArrayList<>();
+			for (List<Entry> source : sources) {
+				candidates.addAll(source);
+			}
+			candidates.sort((e1, e2) -> Integer.compare(e1.ordinal, e2.ordinal));
+			return candidates;
+		}
+	}
+
+	private static void addSource(List<List<Entry>> sources, List<Entry> source) {
+		if (source != null) {
+			sources.add(source);
+		}
+	}
+
+	static String getType(Element element) {
+		return element.getPrefix() == null ? element.getNodeName() : element.getLocalName();
+	}
+
+	static String getId(Element element) {
+		if (element instanceof CSSStylableElement) {
+			return ((CSSStylableElement) element).getCSSId();
+		}
+		return element.getAttribute("id"); //$NON-NLS-1$
+	}
+
+	static String getClasses(Element element) {
+		if (element instanceof CSSStylableElement) {
+			return ((CSSStylableElement) element).getCSSClass();
+		}
+		return element.getAttribute("class"); //$NON-NLS-1$
+	}
+}
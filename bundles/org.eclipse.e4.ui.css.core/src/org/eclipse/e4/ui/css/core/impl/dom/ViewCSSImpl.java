@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 Angelo Zerr and others.
+ * Copyright (c) 2008, 2021 Angelo Zerr and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,10 @@
 package org.eclipse.e4.ui.css.core.impl.dom;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
 import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
 import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
@@ -47,6 +50,124 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	private boolean ruleCachingEnabled;
 	/** Cached state of combined CSS rules for the current stylesheets */
 	private List<CSSRule> currentCombinedRules;
+	/** Index of the selectors of {@link #currentCombinedRules} */
+	private StyleRuleIndex currentRuleIndex;
+	/**
+	 * Computed styles shared by elements with the same element name, id, classes
+	 * and ancestors, for {@link #currentRuleIndex}
+	 */
+	private final Map<StyleKey, CSSStyleDeclaration> sharedStyles = new HashMap<>();
+	private long sharedStyleHits;
+	private long sharedStyleMisses;
+
+	/**
+	 * Upper bound of the number of shared styles. Elements with unique ids add
+	 * an entry each, so the cache is cleared rather than growing with the number
+	 * of elements ever styled.
+	 */
+	private static final int MAX_SHARED_STYLES = 10000;
+
+	/**
+	 * Identifies the elements which are matched by the same shareable selectors:
+	 * the element name, id and classes of the element and of all its ancestors.
+	 */
+	private static final class StyleKey {
+		private final String type;
+		private final String id;
+		private final String classes;
+		private final String pseudoElt;
+		private final StyleKey parent;
+		private final int hash;
+
+		StyleKey(Element element, String pseudoElt, StyleKey parent) {
+			this.type = StyleRuleIndex.getType(element);
+			this.id = StyleRuleIndex.getId(element);
+			this.classes = StyleRuleIndex.getClasses(element);
+			this.pseudoElt = pseudoElt;
+			this.parent = parent;
+			this.hash = Objects.hash(type, id, classes, pseudoElt, parent);
+		}
+
+		static StyleKey create(Element element, Node[] hierarchy, String pseudoElt) {
+			StyleKey parent = null;
+			if (hierarchy != null) {
+				for (int i = hierarchy.length - 1; i >= 0; i--) {
+					if (hierarchy[i] instanceof Element) {
+						parent = new StyleKey((Element) hierarchy[i], null, parent);
+					}
+				}
+			}
+			return new StyleKey(element, pseudoElt, parent);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof StyleKey)) {
+				return false;
+			}
+			StyleKey other = (StyleKey) obj;
+			return hash == other.hash && Objects.equals(type, other.type) && Objects.equals(id, other.id)
+					&& Objects.equals(classes, other.classes) && Objects.equals(pseudoElt, other.pseudoElt)
+					&& Objects.equals(parent, other.parent);
+		}
+	}
+
+	/**
+	 * Collects the style declarations of the selectors matching an element, in
+	 * the order in which they are matched, and merges them.
+	 */
+	private static final class MatchingStyles {
+		private final Element elt;
+		private final Node[] hierarchy;
+		private final String pseudoElt;
+		private StyleWrapper firstStyleDeclaration;
+		private List<StyleWrapper> styleDeclarations;
+		private int position;
+
+		MatchingStyles(Element elt, Node[] hierarchy, String pseudoElt) {
+			this.elt = elt;
+			this.hierarchy = hierarchy;
+			this.pseudoElt = pseudoElt;
+		}
+
+		void match(CSSStyleRule rule, ExtendedSelector selector) {
+			if (!selector.match(elt, hierarchy, 0, pseudoElt)) {
+				return;
+			}
+			StyleWrapper wrapper = new StyleWrapper(rule.getStyle(), selector.getSpecificity(), position++);
+			if (firstStyleDeclaration == null) {
+				firstStyleDeclaration = wrapper;
+			} else {
+				// There is several Style Declarations which
+				// match the current element
+				if (styleDeclarations == null) {
+					styleDeclarations = new ArrayList<>();
+					styleDeclarations.add(firstStyleDeclaration);
+				}
+				styleDeclarations.add(wrapper);
+			}
+		}
+
+		CSSStyleDeclaration getComputedStyle() {
+			if (styleDeclarations != null) {
+				// There is several Style Declarations which match the element, merge the CSS
+				// Property value.
+				return new CSSComputedStyleImpl(styleDeclarations);
+			}
+			if (firstStyleDeclaration != null) {
+				return firstStyleDeclaration.style;
+			}
+			return null;
+		}
+	}
 
 	/**
 	 * Creates a new ViewCSS.
@@ -73,9 +194,47 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	 */
 	@Override
 	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
+		if (this.ruleCachingEnabled) {
+			return getComputedStyle(getRuleIndex(), elt, pseudoElt);
+		}
 		return getComputedStyle(getCombinedRules(), elt, pseudoElt);
 	}
 
+	/**
+	 * Returns the number of computed styles which were shared with a previously
+	 * styled element since this view was created.
+	 *
+	 * @return the number of shared style cache hits
+	 */
+	public long getSharedStyleHits() {
+		return sharedStyleHits;
+	}
+
+	/**
+	 * Returns the number of shareable computed styles which had to be computed
+	 * since this view was created.
+	 *
+	 * @return the number of shared style cache misses
+	 */
+	public long getSharedStyleMisses() {
+		return sharedStyleMisses;
+	}
+
+	/**
+	 * Retrieves the index of the combined CSS rules for all current stylesheets,
+	 * which is cached together with the rules. Must only be called when rule
+	 * caching is enabled.
+	 *
+	 * @return index of the CSS rules for all style sheets
+	 */
+	private StyleRuleIndex getRuleIndex() {
+		if (this.currentRuleIndex == null) {
+			this.currentRuleIndex = new StyleRuleIndex(getCombinedRules());
+			this.sharedStyles.clear();
+		}
+		return this.currentRuleIndex;
+	}
+
 	/**
 	 * Retrieves the combined list of CSS rules for all current stylesheets. This
 	 * method returns a cached state when the stylesheets are the same as on its
@@ -112,20 +271,9 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	}
 
 	private CSSStyleDeclaration getComputedStyle(List<CSSRule> ruleList, Element elt, String pseudoElt) {
-		Node parent = elt.getParentNode();
-
-		Node[] hierarchy = null;
-		if (parent != null) {
-			List<Node> hierarchyList = new ArrayList<>();
-			for (Node n = parent; n != null; n = n.getParentNode()) {
-				hierarchyList.add(n);
-			}
-			hierarchy = hierarchyList.toArray(new Node[hierarchyList.size()]);
-		}
+		Node[] hierarchy = getHierarchy(elt);
 
-		List<StyleWrapper> styleDeclarations = null;
-		StyleWrapper firstStyleDeclaration = null;
-		int position = 0;
+		MatchingStyles matchingStyles = new MatchingStyles(elt, hierarchy, pseudoElt);
 		for (CSSRule rule : ruleList) {
 			if (rule.getType() != CSSRule.STYLE_RULE || (!(rule instanceof ExtendedCSSRule)) ) {
 				continue; // we only handle the CSSRule.STYLE_RULE and ExtendedCSSRule case
@@ -138,44 +286,81 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 			for (int j = 0; j < l; j++) {
 				Selector selector = selectorList.item(j);
 				if (selector instanceof ExtendedSelector) {
-					ExtendedSelector extendedSelector = (ExtendedSelector) selector;
-					if (extendedSelector.match(elt, hierarchy, 0, pseudoElt)) {
-						CSSStyleDeclaration style = styleRule.getStyle();
-						int specificity = extendedSelector.getSpecificity();
-						StyleWrapper wrapper = new StyleWrapper(style, specificity, position++);
-						if (firstStyleDeclaration == null) {
-							firstStyleDeclaration = wrapper;
-						} else {
-							// There is several Style Declarations which
-							// match the current element
-							if (styleDeclarations == null) {
-								styleDeclarations = new ArrayList<>();
-								styleDeclarations.add(firstStyleDeclaration);
-							}
-							styleDeclarations.add(wrapper);
-						}
-					}
+					matchingStyles.match(styleRule, (ExtendedSelector) selector);
 				}
 			}
 		}
-		if (styleDeclarations != null) {
-			// There is several Style Declarations which match the element, merge the CSS
-			// Property value.
-			return new CSSComputedStyleImpl(styleDeclarations);
+		return matchingStyles.getComputedStyle();
+	}
+
+	/**
+	 * Same as {@link #getComputedStyle(List, Element, String)}, but only matches
+	 * the selectors of the index which may apply to the element. The candidates
+	 * are returned in the order of the style sheets, so the positions of the
+	 * matching declarations are the same.
+	 * <p>
+	 * If all candidates only depend on element names, ids and classes, the
+	 * computed style is shared with the elements which have the same ones, and
+	 * their ancestors too.
+	 * </p>
+	 */
+	private CSSStyleDeclaration getComputedStyle(StyleRuleIndex ruleIndex, Element elt, String pseudoElt) {
+		List<StyleRuleIndex.Entry> candidates = ruleIndex.getCandidates(elt);
+		if (candidates.isEmpty()) {
+			return null;
+		}
+		Node[] hierarchy = getHierarchy(elt);
+		if (!StyleRuleIndex.isShareable(candidates)) {
+			return getComputedStyle(candidates, elt, hierarchy, pseudoElt);
 		}
-		if (firstStyleDeclaration != null) {
-			return firstStyleDeclaration.style;
+
+		StyleKey key = StyleKey.create(elt, hierarchy, pseudoElt);
+		CSSStyleDeclaration style = sharedStyles.get(key);
+		if (style != null || sharedStyles.containsKey(key)) {
+			sharedStyleHits++;
+			return style;
 		}
-		return null;
+		sharedStyleMisses++;
+		style = getComputedStyle(candidates, elt, hierarchy, pseudoElt);
+		if (sharedStyles.size() >= MAX_SHARED_STYLES) {
+			sharedStyles.clear();
+		}
+		sharedStyles.put(key, style);
+		return style;
+	}
+
+	private CSSStyleDeclaration getComputedStyle(List<StyleRuleIndex.Entry> candidates, Element elt,
+			Node[] hierarchy, String pseudoElt) {
+		MatchingStyles matchingStyles = new MatchingStyles(elt, hierarchy, pseudoElt);
+		for (StyleRuleIndex.Entry candidate : candidates) {
+			matchingStyles.match(candidate.rule, candidate.selector);
+		}
+		return matchingStyles.getComputedStyle();
+	}
+
+	private static Node[] getHierarchy(Element elt) {
+		Node parent = elt.getParentNode();
+		if (parent == null) {
+			return null;
+		}
+		List<Node> hierarchyList = new ArrayList<>();
+		for (Node n = parent; n != null; n = n.getParentNode()) {
+			hierarchyList.add(n);
+		}
+		return hierarchyList.toArray(new Node[hierarchyList.size()]);
 	}
 
 	@Override
 	public void styleSheetAdded(StyleSheet styleSheet) {
 		currentCombinedRules = null;
+		currentRuleIndex = null;
+		sharedStyles.clear();
 	}
 
 	@Override
 	public void styleSheetRemoved(StyleSheet styleSheet) {
 		currentCombinedRules = null;
+		currentRuleIndex = null;
+		sharedStyles.clear();
 	}
 }
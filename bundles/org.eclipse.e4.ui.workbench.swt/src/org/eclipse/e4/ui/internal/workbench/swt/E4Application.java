@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2020 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -360,6 +360,18 @@ public class E4Application implements IApplication {
 				.map(Boolean::parseBoolean).orElse(Boolean.FALSE);
 		eclipseContext.set(IWorkbench.CLEAR_PERSISTED_STATE, clearPersistedState);
 
+		Boolean binaryModel = getArgValue(E4Workbench.BINARY_MODEL, appContext, false)
+				.map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+		eclipseContext.set(E4Workbench.BINARY_MODEL, binaryModel);
+
+		Boolean parallelFragments = getArgValue(E4Workbench.PARALLEL_MODEL_FRAGMENTS, appContext, false)
+				.map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+		eclipseContext.set(E4Workbench.PARALLEL_MODEL_FRAGMENTS, parallelFragments);
+
+		Boolean cacheFragments = getArgValue(E4Workbench.CACHE_MODEL_FRAGMENTS, appContext, false)
+				.map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+		eclipseContext.set(E4Workbench.CACHE_MODEL_FRAGMENTS, cacheFragments);
+
 		String resourceHandler = getArgValue(IWorkbench.MODEL_RESOURCE_HANDLER, appContext, false)
 				.orElse("bundleclass://org.eclipse.e4.ui.workbench/" + ResourceHandler.class.getName());
 
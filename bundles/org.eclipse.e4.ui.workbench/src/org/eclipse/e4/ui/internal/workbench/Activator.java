@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,8 @@ import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_CONTEXTS;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_CONTEXTS_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_CONTEXTS_VERBOSE;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_CONTEXTS_VERBOSE_FLAG;
+import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_EVENTS;
+import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_EVENTS_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_FOCUS;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_FOCUS_FLAG;
@@ -144,6 +146,7 @@ public class Activator implements BundleActivator, DebugOptionsListener {
 		DEBUG_MENUS = options.getBooleanOption(PI_WORKBENCH + DEBUG_MENUS_FLAG, false);
 		DEBUG_RENDERER = options.getBooleanOption(PI_WORKBENCH + DEBUG_RENDERER_FLAG, false);
 		DEBUG_WORKBENCH = options.getBooleanOption(PI_WORKBENCH + DEBUG_WORKBENCH_FLAG, false);
+		DEBUG_EVENTS = options.getBooleanOption(PI_WORKBENCH + DEBUG_EVENTS_FLAG, false);
 	}
 
 	public DebugTrace getTrace() {
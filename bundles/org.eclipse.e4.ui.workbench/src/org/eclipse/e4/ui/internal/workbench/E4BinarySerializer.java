@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
+
+/**
+ * Saves and loads the contents of an {@link E4XMIResource} in the EMF binary
+ * format, which is much faster to load than XMI.
+ * <p>
+ * The binary data is preceded by a header with a format version and by the ids
+ * of the elements, which the EMF binary format does not keep. Like
+ * {@link E4XMISave}, the elements which shall not be persisted are left out.
+ * </p>
+ */
+public final class E4BinarySerializer {
+
+	/** "E4MB" */
+	private static final int MAGIC = 0x45344D42;
+
+	/**
+	 * The version of the format, to be incremented whenever it changes
+	 * incompatibly.
+	 */
+	private static final int VERSION = 1;
+
+	private E4BinarySerializer() {
+	}
+
+	/**
+	 * Writes the contents of the given resource to the given stream.
+	 *
+	 * @param resource     the resource to save
+	 * @param outputStream the stream to write to, which is not closed
+	 * @throws IOException if the stream could not be written
+	 */
+	public static void save(E4XMIResource resource, OutputStream outputStream) throws IOException {
+		// Save a copy, so that elements can be left out without changing the model
+		Copier copier = new Copier();
+		Collection<EObject> copies = copier.copyAll(resource.getContents());
+		copier.copyReferences();
+		Resource binaryResource = new BinaryResourceImpl(resource.getURI());
+		binaryResource.getContents().addAll(copies);
+		removeFilteredElements(resource, copier, binaryResource);
+
+		Map<EObject, EObject> originals = new IdentityHashMap<>();
+		for (Entry<EObject, EObject> entry : copier.entrySet()) {
+			originals.put(entry.getValue(), entry.getKey());
+		}
+		List<String> ids = new ArrayList<>();
+		for (TreeIterator<EObject> it = binaryResource.getAllContents(); it.hasNext();) {
+			ids.add(resource.getID(originals.get(it.next())));
+		}
+
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(ids.size());
+		for (String id : ids) {
+			out.writeBoolean(id != null);
+			if (id != null) {
+				out.writeUTF(id);
+			}
+		}
+		out.flush();
+		binaryResource.save(outputStream, null);
+		outputStream.flush();
+	}
+
+	private static void removeFilteredElements(E4XMIResource resource, Copier copier, Resource binaryResource) {
+		List<EObject> filtered = new ArrayList<>();
+		for (TreeIterator<EObject> it = resource.getAllContents(); it.hasNext();) {
+			EObject element = it.next();
+			if (E4XMISave.isFiltered(element)) {
+				filtered.add(copier.get(element));
+				it.prune();
+			}
+		}
+		if (filtered.isEmpty()) {
+			return;
+		}
+		for (EObject element : filtered) {
+			EcoreUtil.remove(element);
+		}
+
+		// Drop the references to the elements which have been left out, as
+		// E4XMISave does by not resolving them
+		Map<EObject, Collection<Setting>> references = EcoreUtil.ExternalCrossReferencer.find(binaryResource);
+		for (Entry<EObject, Collection<Setting>> entry : references.entrySet()) {
+			EObject target = entry.getKey();
+			if (target.eIsProxy() || target.eResource() != null) {
+				continue;
+			}
+			for (Setting setting : entry.getValue()) {
+				EStructuralFeature feature = setting.getEStructuralFeature();
+				if (feature.isMany()) {
+					((List<?>) setting.get(false)).remove(target);
+				} else {
+					setting.unset();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the contents of the given resource from the given stream, as written
+	 * by {@link #save(E4XMIResource, OutputStream)}.
+	 *
+	 * @param resource    the empty resource to load
+	 * @param inputStream the stream to read from, which is not closed
+	 * @throws IOException if the stream could not be read, or does not contain
+	 *                     a model of the current version
+	 */
+	public static void load(E4XMIResource resource, InputStream inputStream) throws IOException {
+		DataInputStream in = new DataInputStream(inputStream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a binary application model"); //$NON-NLS-1$
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported binary application model version " + version); //$NON-NLS-1$
+		}
+		String[] ids = new String[in.readInt()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = in.readBoolean() ? in.readUTF() : null;
+		}
+
+		Resource binaryResource = new BinaryResourceImpl(resource.getURI());
+		binaryResource.load(inputStream, null);
+		List<EObject> contents = new ArrayList<>(binaryResource.getContents());
+		resource.getContents().addAll(contents);
+
+		int i = 0;
+		for (TreeIterator<EObject> it = resource.getAllContents(); it.hasNext(); i++) {
+			EObject element = it.next();
+			if (i >= ids.length) {
+				throw new IOException("The binary application model has more elements than ids"); //$NON-NLS-1$
+			}
+			if (ids[i] != null) {
+				resource.setID(element, ids[i]);
+			}
+		}
+		if (i != ids.length) {
+			throw new IOException("The binary application model has less elements than ids"); //$NON-NLS-1$
+		}
+	}
+}
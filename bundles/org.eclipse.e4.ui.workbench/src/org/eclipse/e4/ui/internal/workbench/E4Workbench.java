@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 BestSolution.at and others.
+ * Copyright (c) 2008, 2021 BestSolution.at and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -87,6 +87,34 @@ public class E4Workbench implements IWorkbench {
 	 */
 	public static final String FORCED_SHOW_LOCATION = "forcedShowLocation"; //$NON-NLS-1$
 
+	/**
+	 * The argument for whether the workbench model is also persisted in a
+	 * binary format, which is loaded faster than XMI at startup<br>
+	 * <br>
+	 * Value is: <code>binaryWorkbenchModel</code>
+	 */
+	public static final String BINARY_MODEL = "binaryWorkbenchModel"; //$NON-NLS-1$
+
+	/**
+	 * The argument for whether the resources of the model fragments are loaded
+	 * concurrently at startup<br>
+	 * <br>
+	 * Value is: <code>parallelModelFragments</code>
+	 */
+	public static final String PARALLEL_MODEL_FRAGMENTS = "parallelModelFragments"; //$NON-NLS-1$
+
+	/**
+	 * The argument for whether the model fragments are only merged into a
+	 * persisted model if the contributing bundles or their fragment resources
+	 * have changed since they were last merged. The fragments are always merged
+	 * if one of them contributes an element which is not persisted, such as an
+	 * element whose persisted state turns off persisting it. Model processors
+	 * run either way.<br>
+	 * <br>
+	 * Value is: <code>cacheModelFragments</code>
+	 */
+	public static final String CACHE_MODEL_FRAGMENTS = "cacheModelFragments"; //$NON-NLS-1$
+
 	private final String id;
 	private ServiceRegistration<?> osgiRegistration;
 
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the model events sent by a {@link UIEventPublisher} by topic, and
+ * reports the number of events per second and the count of each topic at most
+ * once per interval, and at the end of each batch of events.
+ *
+ * @see Policy#DEBUG_EVENTS_FLAG
+ */
+public final class EventStatistics {
+
+	private final long reportInterval;
+
+	private final LongSupplier clock;
+
+	private final Consumer<String> reporter;
+
+	private final Map<String, int[]> countsByTopic = new HashMap<>();
+
+	private long intervalStart;
+
+	private int published;
+
+	private int coalesced;
+
+	/**
+	 * @param reportInterval the minimum time between two reports, in
+	 *                       milliseconds
+	 * @param clock          the current time, in milliseconds
+	 * @param reporter       receives the reports
+	 */
+	public EventStatistics(long reportInterval, LongSupplier clock, Consumer<String> reporter) {
+		this.reportInterval = reportInterval;
+		this.clock = clock;
+		this.reporter = reporter;
+		this.intervalStart = clock.getAsLong();
+	}
+
+	/**
+	 * Counts an event which has been sent, and reports the counts if the
+	 * interval has passed.
+	 *
+	 * @param topic the topic of the event
+	 */
+	public void published(String topic) {
+		countsByTopic.computeIfAbsent(topic, t -> new int[1])[0]++;
+		published++;
+		report(false);
+	}
+
+	/**
+	 * Counts an event which has been merged into another one, or dropped, and
+	 * was therefore not sent.
+	 */
+	public void coalesced() {
+		coalesced++;
+	}
+
+	/**
+	 * Reports the counts since the last report, if any event has been sent.
+	 *
+	 * @param force <code>true</code> to report even if the interval has not
+	 *              passed yet
+	 */
+	public void report(boolean force) {
+		long now = clock.getAsLong();
+		long elapsed = now - intervalStart;
+		if (published == 0 || (!force && elapsed < reportInterval)) {
+			return;
+		}
+		List<Map.Entry<String, int[]>> counts = new ArrayList<>(countsByTopic.entrySet());
+		counts.sort((e1, e2) -> Integer.compare(e2.getValue()[0], e1.getValue()[0]));
+		StringBuilder message = new StringBuilder();
+		message.append("Sent ").append(published).append(" model events in ").append(elapsed) //$NON-NLS-1$ //$NON-NLS-2$
+				.append(" ms (").append(published * 1000L / Math.max(elapsed, 1)).append(" events/s), ") //$NON-NLS-1$ //$NON-NLS-2$
+				.append(coalesced).append(" coalesced"); //$NON-NLS-1$
+		for (Map.Entry<String, int[]> count : counts) {
+			message.append("\n\t").append(count.getKey()).append(": ").append(count.getValue()[0]); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		reporter.accept(message.toString());
+
+		countsByTopic.clear();
+		published = 0;
+		coalesced = 0;
+		intervalStart = now;
+	}
+}
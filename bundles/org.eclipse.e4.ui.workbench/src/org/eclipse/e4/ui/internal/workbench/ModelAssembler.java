@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2020 BestSolution.at and others.
+ * Copyright (c) 2010, 2021 BestSolution.at and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,10 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,7 +35,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.inject.Inject;
+import javax.inject.Named;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IContributor;
 import org.eclipse.core.runtime.IExtension;
@@ -41,6 +49,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.contributions.IContributionFactory;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.model.application.MApplication;
@@ -58,9 +67,12 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.osgi.framework.Bundle;
 
 /**
  * The ModelAssembler is responsible for adding {@link MModelFragment fragments}
@@ -88,8 +100,24 @@ public class ModelAssembler {
 	@Inject
 	private IExtensionRegistry registry;
 
+	@Inject
+	@Optional
+	@Named(E4Workbench.PARALLEL_MODEL_FRAGMENTS)
+	private boolean parallelFragments;
+
+	@Inject
+	@Optional
+	@Named(E4Workbench.CACHE_MODEL_FRAGMENTS)
+	private boolean cacheFragments;
+
 	private static final String EXTENSION_POINT_ID = "org.eclipse.e4.workbench.model"; //$NON-NLS-1$
 
+	/**
+	 * The key of the persisted state of the application which identifies the
+	 * fragments merged into the model.
+	 */
+	private static final String FRAGMENTS_KEY = "org.eclipse.e4.ui.workbench.modelFragments"; //$NON-NLS-1$
+
 	private static final String INITIAL = "initial"; //$NON-NLS-1$
 	private static final String NOTEXISTS = "notexists"; //$NON-NLS-1$
 
@@ -124,26 +152,119 @@ public class ModelAssembler {
 	 *
 	 */
 	private void processFragments(IExtension[] extensions, boolean initial) {
-		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
+		String fragmentsKey = null;
+		if (cacheFragments) {
+			fragmentsKey = computeFragmentsKey(extensions);
+			if (!initial && fragmentsKey.equals(application.getPersistedState().get(FRAGMENTS_KEY))) {
+				logger.debug("Model fragments are unchanged and already merged"); //$NON-NLS-1$
+				return;
+			}
+		}
+
+		List<IConfigurationElement> fragmentElements = new ArrayList<>();
 		for (IExtension extension : extensions) {
 			IConfigurationElement[] ces = extension.getConfigurationElements();
 			for (IConfigurationElement ce : ces) {
 				if ("fragment".equals(ce.getName()) && (initial || !INITIAL.equals(ce.getAttribute("apply")))) { //$NON-NLS-1$ //$NON-NLS-2$
-					MModelFragments fragmentsContainer = getFragmentsContainer(ce);
-					if (fragmentsContainer == null) {
-						continue;
-					}
-					for (MModelFragment fragment : fragmentsContainer.getFragments()) {
-						boolean checkExist = !initial && NOTEXISTS.equals(ce.getAttribute("apply")); //$NON-NLS-1$
-						wrappers.add(new ModelFragmentWrapper(fragmentsContainer, fragment,
-								ce.getContributor().getName(), URIHelper.constructPlatformURI(ce.getContributor()),
-								checkExist)); // $NON-NLS-1$
-					}
+					fragmentElements.add(ce);
 				}
 			}
 		}
 
+		List<MModelFragments> fragmentsContainers = parallelFragments ? getFragmentsContainers(fragmentElements)
+				: null;
+		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
+		for (int i = 0; i < fragmentElements.size(); i++) {
+			IConfigurationElement ce = fragmentElements.get(i);
+			MModelFragments fragmentsContainer = parallelFragments ? fragmentsContainers.get(i)
+					: getFragmentsContainer(ce);
+			if (fragmentsContainer == null) {
+				continue;
+			}
+			for (MModelFragment fragment : fragmentsContainer.getFragments()) {
+				boolean checkExist = !initial && NOTEXISTS.equals(ce.getAttribute("apply")); //$NON-NLS-1$
+				wrappers.add(new ModelFragmentWrapper(fragmentsContainer, fragment,
+						ce.getContributor().getName(), URIHelper.constructPlatformURI(ce.getContributor()),
+						checkExist)); // $NON-NLS-1$
+			}
+		}
+
+		if (fragmentsKey != null && containsFilteredElements(wrappers)) {
+			// some of the merged elements will not be persisted, so the
+			// fragments have to be merged again at the next start
+			fragmentsKey = null;
+			application.getPersistedState().remove(FRAGMENTS_KEY);
+		}
+
 		processFragmentWrappers(wrappers);
+
+		if (fragmentsKey != null) {
+			application.getPersistedState().put(FRAGMENTS_KEY, fragmentsKey);
+		}
+	}
+
+	/**
+	 * Checks whether any of the elements contributed by the given fragments, or
+	 * any of their children, is left out when the model is saved.
+	 *
+	 * @param wrappers the fragments to merge
+	 * @return <code>true</code> if an element of the fragments is not persisted
+	 * @see E4XMISave#isFiltered(EObject)
+	 */
+	private static boolean containsFilteredElements(Collection<ModelFragmentWrapper> wrappers) {
+		for (ModelFragmentWrapper wrapper : wrappers) {
+			for (MApplicationElement element : wrapper.getModelFragment().getElements()) {
+				if (E4XMISave.isFiltered((EObject) element)) {
+					return true;
+				}
+				TreeIterator<EObject> it = EcoreUtil.getAllContents((EObject) element, true);
+				while (it.hasNext()) {
+					if (E4XMISave.isFiltered(it.next())) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes a key which identifies the fragments contributed by the given
+	 * extensions, including the versions of the contributing bundles and the
+	 * contents of the fragment resources, so that a changed resource is noticed
+	 * even if the version of its bundle is not. The fragments merged into a
+	 * persisted model do not have to be merged again as long as the key does
+	 * not change.
+	 *
+	 * @param extensions the sorted extensions
+	 * @return the key
+	 */
+	private String computeFragmentsKey(IExtension[] extensions) {
+		URIConverter uriConverter = ((EObject) application).eResource().getResourceSet().getURIConverter();
+		ByteArrayOutputStream key = new ByteArrayOutputStream();
+		for (IExtension extension : extensions) {
+			for (IConfigurationElement ce : extension.getConfigurationElements()) {
+				if (!"fragment".equals(ce.getName())) { //$NON-NLS-1$
+					continue;
+				}
+				String bundleName = ce.getContributor().getName();
+				Bundle bundle = Activator.getDefault().getBundleForName(bundleName);
+				String entry = bundleName + '_' + (bundle == null ? null : bundle.getVersion()) + '/'
+						+ ce.getAttribute("uri") + ';' + ce.getAttribute("apply") + '\n'; //$NON-NLS-1$ //$NON-NLS-2$
+				key.writeBytes(entry.getBytes(StandardCharsets.UTF_8));
+				URI uri = ce.getAttribute("uri") == null ? null : getFragmentsURI(ce); //$NON-NLS-1$
+				if (uri == null) {
+					continue;
+				}
+				try (InputStream in = uriConverter.createInputStream(uri)) {
+					in.transferTo(key);
+				} catch (IOException e) {
+					// the fragment cannot be read and is reported when it is
+					// merged; it is identified by its location only
+				}
+			}
+		}
+		return UUID.nameUUIDFromBytes(key.toByteArray()).toString();
 	}
 
 	/**
@@ -267,8 +388,104 @@ public class ModelAssembler {
 	}
 
 	private MModelFragments getFragmentsContainer(IConfigurationElement ce) {
+		URI uri = getFragmentsURI(ce);
+		if (uri == null) {
+			return null;
+		}
+
 		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
 		ResourceSet resourceSet = applicationResource.getResourceSet();
+		String bundleName = ce.getContributor().getName();
+		Resource resource;
+		try {
+			resource = resourceSet.getResource(uri, true);
+		} catch (RuntimeException e) {
+			logger.warn(e, "Unable to read model extension from \"" + uri + "\" of \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return null;
+		}
+		return getFragmentsContainer(ce, resource);
+	}
+
+	/**
+	 * Loads the fragment resources of the given configuration elements
+	 * concurrently. Each resource is loaded into a short-lived resource set of
+	 * its own, since the resource set of the application is not thread safe.
+	 * The loaded resources are then added to the resource set of the
+	 * application in the calling thread, in the order of the configuration
+	 * elements, so that the result does not depend on the order in which they
+	 * are loaded.
+	 *
+	 * @param ces the configuration elements of the fragments
+	 * @return the fragments containers, in the order of the configuration
+	 *         elements, with <code>null</code> for the fragments which could not
+	 *         be loaded
+	 */
+	private List<MModelFragments> getFragmentsContainers(List<IConfigurationElement> ces) {
+		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
+		ResourceSet resourceSet = applicationResource.getResourceSet();
+		Map<URI, CompletableFuture<Resource>> loads = new HashMap<>();
+		List<URI> uris = new ArrayList<>();
+		for (IConfigurationElement ce : ces) {
+			URI uri = getFragmentsURI(ce);
+			uris.add(uri);
+			if (uri == null || resourceSet.getResource(uri, false) != null) {
+				// already known to the resource set of the application
+				continue;
+			}
+			loads.computeIfAbsent(uri, u -> CompletableFuture.supplyAsync(() -> loadResource(resourceSet, u)));
+		}
+
+		List<MModelFragments> fragmentsContainers = new ArrayList<>();
+		for (int i = 0; i < ces.size(); i++) {
+			IConfigurationElement ce = ces.get(i);
+			URI uri = uris.get(i);
+			MModelFragments fragmentsContainer = null;
+			if (uri != null) {
+				try {
+					Resource resource = resourceSet.getResource(uri, false);
+					if (resource == null) {
+						resource = loads.get(uri).join();
+						resourceSet.getResources().add(resource);
+					} else if (!resource.isLoaded()) {
+						resource = resourceSet.getResource(uri, true);
+					}
+					fragmentsContainer = getFragmentsContainer(ce, resource);
+				} catch (CompletionException e) {
+					logger.warn(e.getCause(), "Unable to read model extension from \"" + uri + "\" of \"" //$NON-NLS-1$ //$NON-NLS-2$
+							+ ce.getContributor().getName() + "\""); //$NON-NLS-1$
+				} catch (RuntimeException e) {
+					logger.warn(e, "Unable to read model extension from \"" + uri + "\" of \"" //$NON-NLS-1$ //$NON-NLS-2$
+							+ ce.getContributor().getName() + "\""); //$NON-NLS-1$
+				}
+			}
+			fragmentsContainers.add(fragmentsContainer);
+		}
+		return fragmentsContainers;
+	}
+
+	/**
+	 * Loads the resource with the given URI into a new resource set configured
+	 * like the given one. The given resource set is only read.
+	 */
+	private static Resource loadResource(ResourceSet resourceSet, URI uri) {
+		ResourceSet loadingSet = new ResourceSetImpl();
+		loadingSet.setResourceFactoryRegistry(resourceSet.getResourceFactoryRegistry());
+		loadingSet.setURIConverter(resourceSet.getURIConverter());
+		loadingSet.setPackageRegistry(resourceSet.getPackageRegistry());
+		loadingSet.getLoadOptions().putAll(resourceSet.getLoadOptions());
+		Resource resource = loadingSet.createResource(uri);
+		if (resource == null) {
+			throw new CompletionException(new IllegalArgumentException("No resource factory for " + uri)); //$NON-NLS-1$
+		}
+		try {
+			resource.load(loadingSet.getLoadOptions());
+		} catch (Exception e) {
+			throw new CompletionException(e);
+		}
+		return resource;
+	}
+
+	private URI getFragmentsURI(IConfigurationElement ce) {
 		IContributor contributor = ce.getContributor();
 		String attrURI = ce.getAttribute("uri"); //$NON-NLS-1$
 		String bundleName = contributor.getName();
@@ -277,28 +494,20 @@ public class ModelAssembler {
 			return null;
 		}
 
-		URI uri;
 		try {
 			// check if the attrURI is already a platform URI
 			if (URIHelper.isPlatformURI(attrURI)) {
-				uri = URI.createURI(attrURI);
-			} else {
-				String path = bundleName + '/' + attrURI;
-				uri = URI.createPlatformPluginURI(path, false);
+				return URI.createURI(attrURI);
 			}
+			String path = bundleName + '/' + attrURI;
+			return URI.createPlatformPluginURI(path, false);
 		} catch (RuntimeException e) {
 			logger.warn(e, "Invalid location \"" + attrURI + "\" of model extension \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			return null;
 		}
+	}
 
-		Resource resource;
-		try {
-			resource = resourceSet.getResource(uri, true);
-		} catch (RuntimeException e) {
-			logger.warn(e, "Unable to read model extension from \"" + uri + "\" of \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			return null;
-		}
-
+	private MModelFragments getFragmentsContainer(IConfigurationElement ce, Resource resource) {
 		EList<?> contents = resource.getContents();
 		if (contents.isEmpty()) {
 			return null;
@@ -307,7 +516,7 @@ public class ModelAssembler {
 		Object extensionRoot = contents.get(0);
 
 		if (!(extensionRoot instanceof MModelFragments)) {
-			logger.warn("Unable to create model extension \"{0}\"", bundleName); //$NON-NLS-1$
+			logger.warn("Unable to create model extension \"{0}\"", ce.getContributor().getName()); //$NON-NLS-1$
 			return null;
 		}
 		return (MModelFragments) extensionRoot;
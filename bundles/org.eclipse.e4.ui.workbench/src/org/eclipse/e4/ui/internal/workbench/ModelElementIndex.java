@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Indexes the elements of an application model by element id, tag and class,
+ * so that {@link ModelServiceImpl} only has to search the parts of the model
+ * which lead to matching elements. It is kept up to date by the
+ * {@link UIEventPublisher} attached to the application.
+ * <p>
+ * The index does not know which elements a search with given flags would
+ * visit. It rather provides the candidate elements and everything a search
+ * passes to reach them: their containers and the placeholders referencing
+ * them or their containers.
+ * </p>
+ */
+final class ModelElementIndex {
+
+	private final MApplication application;
+
+	private final Map<String, Set<MApplicationElement>> elementsById = new HashMap<>();
+
+	private final Map<String, Set<MApplicationElement>> elementsByTag = new HashMap<>();
+
+	/** By implementation class, there are only a few of them. */
+	private final Map<Class<?>, Set<MApplicationElement>> elementsByClass = new HashMap<>();
+
+	private final Map<MUIElement, Set<MPlaceholder>> placeholdersByRef = new IdentityHashMap<>();
+
+	/**
+	 * Creates the index of the given application and of all its elements.
+	 *
+	 * @param application the application
+	 */
+	ModelElementIndex(MApplication application) {
+		this.application = application;
+		addTree((EObject) application);
+	}
+
+	MApplication getApplication() {
+		return application;
+	}
+
+	/**
+	 * @param element a model element
+	 * @return whether the given element and everything it contains are indexed
+	 */
+	boolean isIndexed(Object element) {
+		return element instanceof EObject && EcoreUtil.getRootContainer((EObject) element) == application;
+	}
+
+	/**
+	 * Updates the index after the given change of an indexed element.
+	 *
+	 * @param notification the change
+	 */
+	void notifyChanged(Notification notification) {
+		Object notifier = notification.getNotifier();
+		Object feature = notification.getFeature();
+		if (notification.isTouch() || !(notifier instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) notifier;
+
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID) {
+			if (isIndexed(element)) {
+				remove(elementsById, (String) notification.getOldValue(), element);
+				add(elementsById, element.getElementId(), element);
+			}
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			if (isIndexed(element)) {
+				// The tags may have been added or removed once or many times
+				updateTags(element, notification.getOldValue());
+				updateTags(element, notification.getNewValue());
+			}
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			if (isIndexed(element)) {
+				MPlaceholder placeholder = (MPlaceholder) element;
+				remove(placeholdersByRef, (MUIElement) notification.getOldValue(), placeholder);
+				add(placeholdersByRef, placeholder.getRef(), placeholder);
+			}
+		} else if (feature instanceof EReference && ((EReference) feature).isContainment()) {
+			switch (notification.getEventType()) {
+			case Notification.ADD:
+			case Notification.ADD_MANY:
+			case Notification.REMOVE:
+			case Notification.REMOVE_MANY:
+			case Notification.SET:
+			case Notification.UNSET:
+				if (isIndexed(element)) {
+					// Removed elements may have been moved to another container
+					forEachEObject(notification.getOldValue(), removed -> {
+						if (!isIndexed(removed)) {
+							removeTree(removed);
+						}
+					});
+					forEachEObject(notification.getNewValue(), this::addTree);
+				}
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private static void forEachEObject(Object value, Consumer<EObject> action) {
+		if (value instanceof EObject) {
+			action.accept((EObject) value);
+		} else if (value instanceof Collection<?>) {
+			for (Object object : (Collection<?>) value) {
+				if (object instanceof EObject) {
+					action.accept((EObject) object);
+				}
+			}
+		}
+	}
+
+	private void updateTags(MApplicationElement element, Object tags) {
+		if (tags instanceof String) {
+			updateTag(element, (String) tags);
+		} else if (tags instanceof Collection<?>) {
+			for (Object tag : (Collection<?>) tags) {
+				updateTag(element, (String) tag);
+			}
+		}
+	}
+
+	private void updateTag(MApplicationElement element, String tag) {
+		if (element.getTags().contains(tag)) {
+			add(elementsByTag, tag, element);
+		} else {
+			remove(elementsByTag, tag, element);
+		}
+	}
+
+	private void addTree(EObject root) {
+		add(root);
+		for (TreeIterator<EObject> it = root.eAllContents(); it.hasNext();) {
+			add(it.next());
+		}
+	}
+
+	private void removeTree(EObject root) {
+		remove(root);
+		for (TreeIterator<EObject> it = root.eAllContents(); it.hasNext();) {
+			remove(it.next());
+		}
+	}
+
+	private void add(EObject object) {
+		if (!(object instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) object;
+		add(elementsById, element.getElementId(), element);
+		add(elementsByClass, element.getClass(), element);
+		for (String tag : element.getTags()) {
+			add(elementsByTag, tag, element);
+		}
+		if (element instanceof MPlaceholder) {
+			add(placeholdersByRef, ((MPlaceholder) element).getRef(), (MPlaceholder) element);
+		}
+	}
+
+	private void remove(EObject object) {
+		if (!(object instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) object;
+		remove(elementsById, element.getElementId(), element);
+		remove(elementsByClass, element.getClass(), element);
+		for (String tag : element.getTags()) {
+			remove(elementsByTag, tag, element);
+		}
+		if (element instanceof MPlaceholder) {
+			remove(placeholdersByRef, ((MPlaceholder) element).getRef(), (MPlaceholder) element);
+		}
+	}
+
+	private static <K, V> void add(Map<K, Set<V>> index, K key, V value) {
+		if (key != null) {
+			index.computeIfAbsent(key, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(value);
+		}
+	}
+
+	private static <K, V> void remove(Map<K, Set<V>> index, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = index.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			index.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the elements a search has to pass to find the elements with the
+	 * given id, class and tags: the candidate elements, their containers and the
+	 * placeholders referencing any of these, recursively. All other elements and
+	 * their contents can be skipped.
+	 *
+	 * @param id          the element id, or <code>null</code>
+	 * @param clazz       the class, or <code>null</code>
+	 * @param tagsToMatch the tags, or <code>null</code>
+	 * @return the elements to search, or <code>null</code> if all elements must
+	 *         be searched
+	 */
+	Set<Object> getSearchPath(String id, Class<?> clazz, List<String> tagsToMatch) {
+		Collection<? extends MApplicationElement> candidates = null;
+		if (id != null) {
+			candidates = elementsById.getOrDefault(id, Collections.emptySet());
+		}
+		if (tagsToMatch != null) {
+			for (String tag : tagsToMatch) {
+				Set<MApplicationElement> tagged = elementsByTag.getOrDefault(tag, Collections.emptySet());
+				if (candidates == null || tagged.size() < candidates.size()) {
+					candidates = tagged;
+				}
+			}
+		}
+		if (clazz != null && (candidates == null || !candidates.isEmpty())) {
+			candidates = getInstances(clazz, candidates);
+		}
+		if (candidates == null) {
+			return null;
+		}
+
+		Set<Object> searchPath = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Object> pending = new ArrayDeque<>(candidates);
+		while (!pending.isEmpty()) {
+			for (EObject element = (EObject) pending.pop(); element != null
+					&& searchPath.add(element); element = element.eContainer()) {
+				Set<MPlaceholder> placeholders = placeholdersByRef.get(element);
+				if (placeholders != null) {
+					pending.addAll(placeholders);
+				}
+			}
+		}
+		return searchPath;
+	}
+
+	/**
+	 * @return the instances of the given class if there are fewer of them than
+	 *         the given candidates, otherwise the candidates
+	 */
+	private Collection<? extends MApplicationElement> getInstances(Class<?> clazz,
+			Collection<? extends MApplicationElement> candidates) {
+		int count = 0;
+		for (Map.Entry<Class<?>, Set<MApplicationElement>> entry : elementsByClass.entrySet()) {
+			if (clazz.isAssignableFrom(entry.getKey())) {
+				count += entry.getValue().size();
+			}
+		}
+		if (candidates != null && candidates.size() <= count) {
+			return candidates;
+		}
+		Set<MApplicationElement> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Map.Entry<Class<?>, Set<MApplicationElement>> entry : elementsByClass.entrySet()) {
+			if (clazz.isAssignableFrom(entry.getKey())) {
+				instances.addAll(entry.getValue());
+			}
+		}
+		return instances;
+	}
+}
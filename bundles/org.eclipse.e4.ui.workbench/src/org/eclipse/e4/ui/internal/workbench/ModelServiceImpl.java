@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2020 IBM Corporation and others.
+ * Copyright (c) 2010, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import java.util.Hashtable;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import org.eclipse.core.runtime.Assert;
@@ -170,12 +171,19 @@ public class ModelServiceImpl implements EModelService {
 
 	}
 
+	/**
+	 * @param searchPath the elements leading to the matching elements, or
+	 *                   <code>null</code> to search all elements
+	 */
 	private <T> void findElementsRecursive(MApplicationElement searchRoot, Class<T> clazz,
-			Selector matcher, LinkedHashSet<T> elements, int searchFlags) {
+			Selector matcher, LinkedHashSet<T> elements, int searchFlags, Set<Object> searchPath) {
 		Assert.isLegal(searchRoot != null);
 		if (searchFlags == 0) {
 			return;
 		}
+		if (searchPath != null && !searchPath.contains(searchRoot)) {
+			return;
+		}
 
 		// are *we* a match ?
 		boolean classMatch = clazz == null ? true : clazz.isInstance(searchRoot);
@@ -208,21 +216,21 @@ public class ModelServiceImpl implements EModelService {
 			}
 
 			for (MApplicationElement child : children) {
-				findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 			}
 		}
 
 		if (searchRoot instanceof MBindingContext && (searchFlags == ANYWHERE)) {
 			MBindingContext bindingContext = (MBindingContext) searchRoot;
 			for (MBindingContext child : bindingContext.getChildren()) {
-				findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 			}
 		}
 
 		if (searchRoot instanceof MBindingTable) {
 			MBindingTable bindingTable = (MBindingTable) searchRoot;
 			for (MKeyBinding child : bindingTable.getBindings()) {
-				findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 			}
 		}
 
@@ -242,7 +250,7 @@ public class ModelServiceImpl implements EModelService {
 				if((searchFlags & IN_SHARED_ELEMENTS) != 0) {
 					List<MUIElement> sharedElements = ((MWindow) searchRoot).getSharedElements();
 					for (MUIElement muiElement : sharedElements) {
-						findElementsRecursive(muiElement, clazz, matcher, elements, searchFlags);
+						findElementsRecursive(muiElement, clazz, matcher, elements, searchFlags, searchPath);
 					}
 				}
 
@@ -257,19 +265,19 @@ public class ModelServiceImpl implements EModelService {
 					MElementContainer<? extends MUIElement> container = searchContainer;
 					List<? extends MUIElement> children = container.getChildren();
 					for (MUIElement child : children) {
-						findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+						findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 					}
 				} else if ((searchFlags & IN_ACTIVE_PERSPECTIVE) != 0) {
 					// Only search the currently active perspective, if any
 					MPerspective active = ((MPerspectiveStack) searchContainer).getSelectedElement();
 					if (active != null) {
-						findElementsRecursive(active, clazz, matcher, elements, searchFlags);
+						findElementsRecursive(active, clazz, matcher, elements, searchFlags, searchPath);
 					}
 				} else if ((searchFlags & IN_SHARED_AREA) != 0) {
 					// Only recurse through the shared areas
 					List<MArea> areas = findElements(searchContainer, null, MArea.class);
 					for (MArea area : areas) {
-						findElementsRecursive(area, clazz, matcher, elements, searchFlags);
+						findElementsRecursive(area, clazz, matcher, elements, searchFlags, searchPath);
 					}
 				}
 			} else {
@@ -277,7 +285,7 @@ public class ModelServiceImpl implements EModelService {
 				MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) searchRoot;
 				List<MUIElement> children = container.getChildren();
 				for (MUIElement child : children) {
-					findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+					findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 				}
 			}
 		}
@@ -287,7 +295,7 @@ public class ModelServiceImpl implements EModelService {
 			MTrimmedWindow tw = (MTrimmedWindow) searchRoot;
 			List<MTrimBar> bars = tw.getTrimBars();
 			for (MTrimBar bar : bars) {
-				findElementsRecursive(bar, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(bar, clazz, matcher, elements, searchFlags, searchPath);
 			}
 		}
 
@@ -295,17 +303,17 @@ public class ModelServiceImpl implements EModelService {
 		if (searchRoot instanceof MWindow) {
 			MWindow window = (MWindow) searchRoot;
 			for (MWindow dw : window.getWindows()) {
-				findElementsRecursive(dw, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(dw, clazz, matcher, elements, searchFlags, searchPath);
 			}
 
 			MMenu menu = window.getMainMenu();
 			if (menu != null && (searchFlags & IN_MAIN_MENU) != 0) {
-				findElementsRecursive(menu, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(menu, clazz, matcher, elements, searchFlags, searchPath);
 			}
 			// Check for Handlers
 			if (searchFlags == ANYWHERE && MHandler.class.equals(clazz)) {
 				for (MHandler child : window.getHandlers()) {
-					findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+					findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 				}
 			}
 		}
@@ -313,7 +321,7 @@ public class ModelServiceImpl implements EModelService {
 		if (searchRoot instanceof MPerspective) {
 			MPerspective persp = (MPerspective) searchRoot;
 			for (MWindow dw : persp.getWindows()) {
-				findElementsRecursive(dw, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(dw, clazz, matcher, elements, searchFlags, searchPath);
 			}
 		}
 		// Search shared elements
@@ -323,7 +331,7 @@ public class ModelServiceImpl implements EModelService {
 			// Don't search in shared areas unless the flag is set
 			if (ph.getRef() != null
 					&& (!(ph.getRef() instanceof MArea) || (searchFlags & IN_SHARED_AREA) != 0)) {
-				findElementsRecursive(ph.getRef(), clazz, matcher, elements, searchFlags);
+				findElementsRecursive(ph.getRef(), clazz, matcher, elements, searchFlags, searchPath);
 			}
 		}
 
@@ -331,16 +339,16 @@ public class ModelServiceImpl implements EModelService {
 			MPart part = (MPart) searchRoot;
 
 			for (MMenu menu : part.getMenus()) {
-				findElementsRecursive(menu, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(menu, clazz, matcher, elements, searchFlags, searchPath);
 			}
 
 			MToolBar toolBar = part.getToolbar();
 			if (toolBar != null) {
-				findElementsRecursive(toolBar, clazz, matcher, elements, searchFlags);
+				findElementsRecursive(toolBar, clazz, matcher, elements, searchFlags, searchPath);
 			}
 			if (MHandler.class.equals(clazz)) {
 				for (MHandler child : part.getHandlers()) {
-					findElementsRecursive(child, clazz, matcher, elements, searchFlags);
+					findElementsRecursive(child, clazz, matcher, elements, searchFlags, searchPath);
 				}
 			}
 		}
@@ -414,8 +422,7 @@ public class ModelServiceImpl implements EModelService {
 
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz, List<String> tagsToMatch) {
-		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		return findElements(searchRoot, clazz, ANYWHERE, matcher);
+		return findElements(searchRoot, id, clazz, tagsToMatch, ANYWHERE);
 	}
 
 	@Override
@@ -427,24 +434,43 @@ public class ModelServiceImpl implements EModelService {
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
 		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		return findElements(searchRoot, clazz, searchFlags, matcher);
+		LinkedHashSet<T> elements = new LinkedHashSet<>();
+		Set<Object> searchPath = getSearchPath(searchRoot, id, clazz, tagsToMatch);
+		if (searchPath == null || !searchPath.isEmpty()) {
+			findElementsRecursive(searchRoot, clazz, matcher, elements, searchFlags, searchPath);
+		}
+		return new ArrayList<>(elements);
 	}
 
 	@Override
 	public <T> List<T> findElements(MApplicationElement searchRoot, Class<T> clazz,
 			int searchFlags, Selector matcher) {
 		LinkedHashSet<T> elements = new LinkedHashSet<>();
-		findElementsRecursive(searchRoot, clazz, matcher, elements, searchFlags);
+		findElementsRecursive(searchRoot, clazz, matcher, elements, searchFlags, null);
 		return new ArrayList<>(elements);
 	}
 
+	/**
+	 * Uses the index of the application, if the search root belongs to an
+	 * application which is indexed, to avoid searching the whole model.
+	 *
+	 * @return the elements leading to the elements with the given id, class
+	 *         and tags, or <code>null</code> if all elements must be searched
+	 */
+	private Set<Object> getSearchPath(MApplicationElement searchRoot, String id, Class<?> clazz,
+			List<String> tagsToMatch) {
+		UIEventPublisher publisher = appContext.get(UIEventPublisher.class);
+		ModelElementIndex index = publisher == null ? null : publisher.getElementIndex();
+		if (index == null || !index.isIndexed(searchRoot)) {
+			return null;
+		}
+		return index.getSearchPath(id, clazz, tagsToMatch);
+	}
+
 	private <T> Iterable<T> findPerspectiveElements(MUIElement searchRoot, String id,
 			Class<T> clazz,
 			List<String> tagsToMatch) {
-		LinkedHashSet<T> elements = new LinkedHashSet<>();
-		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		findElementsRecursive(searchRoot, clazz, matcher, elements, PRESENTATION);
-		return elements;
+		return findElements(searchRoot, id, clazz, tagsToMatch, PRESENTATION);
 	}
 
 	@Override
@@ -546,12 +572,29 @@ public class ModelServiceImpl implements EModelService {
 
 		MUIElement appElement = refWin == null ? null : refWin.getParent();
 		if (appElement instanceof MApplication) {
-			getNullRefPlaceHolders(element, refWin, true);
+			// the shared elements created for the placeholders are not rendered
+			// before the clone is added to the model
+			runBatched(() -> getNullRefPlaceHolders(element, refWin, true));
 		}
 
 		return element;
 	}
 
+	/**
+	 * Runs the given runnable with the events for its changes to the model
+	 * batched, if the application has an event publisher.
+	 *
+	 * @see UIEventPublisher#runBatched(Runnable)
+	 */
+	private void runBatched(Runnable runnable) {
+		UIEventPublisher publisher = appContext.get(UIEventPublisher.class);
+		if (publisher == null) {
+			runnable.run();
+		} else {
+			publisher.runBatched(runnable);
+		}
+	}
+
 	private List<MPlaceholder> getNullRefPlaceHolders(MUIElement element, MWindow refWin, boolean resolveAlways) {
 		// use appContext as MApplication.getContext() is null during the processing of
 		// the model processor classes
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 IBM Corporation and others.
+ * Copyright (c) 2013, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ public class Policy {
 	public static final String DEBUG_CONTEXTS_VERBOSE_FLAG = "/trace/eclipse.context.verbose"; //$NON-NLS-1$
 	public static final String DEBUG_WORKBENCH_FLAG = "/trace/workbench"; //$NON-NLS-1$
 	public static final String DEBUG_RENDERER_FLAG = "/trace/renderer"; //$NON-NLS-1$
+	public static final String DEBUG_EVENTS_FLAG = "/trace/events"; //$NON-NLS-1$
 
 	/***/
 	public static boolean DEBUG;
@@ -47,4 +48,6 @@ public class Policy {
 	public static boolean DEBUG_WORKBENCH;
 	/***/
 	public static boolean DEBUG_RENDERER;
+	/***/
+	public static boolean DEBUG_EVENTS;
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,11 +19,18 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -62,6 +69,12 @@ import org.osgi.framework.Bundle;
  */
 public class ResourceHandler implements IModelResourceHandler {
 
+	/**
+	 * The file extension of the binary copy of the model, which is saved next
+	 * to the XMI file if {@link E4Workbench#BINARY_MODEL} is set.
+	 */
+	private static final String BINARY_FILE_EXTENSION = "e4bin"; //$NON-NLS-1$
+
 	private ResourceSet resourceSet;
 	private Resource resource;
 
@@ -90,6 +103,11 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Named(IWorkbench.CLEAR_PERSISTED_STATE)
 	private boolean clearPersistedState;
 
+	@Inject
+	@Optional
+	@Named(E4Workbench.BINARY_MODEL)
+	private boolean binaryModel;
+
 	/**
 	 * Constructor.
 	 *
@@ -152,6 +170,7 @@ public class ResourceHandler implements IModelResourceHandler {
 
 		if (clearPersistedState && workbenchData != null && workbenchData.exists()) {
 			workbenchData.delete();
+			getBinaryLocation(restoreLocation).delete();
 		}
 
 		// last stored time-stamp
@@ -166,7 +185,12 @@ public class ResourceHandler implements IModelResourceHandler {
 
 		resource = null;
 		if (restore && saveAndRestore) {
-			resource = loadResource(restoreLocation);
+			if (binaryModel) {
+				resource = loadBinaryResource(restoreLocation);
+			}
+			if (resource == null) {
+				resource = loadResource(restoreLocation);
+			}
 			// If the saved model does not have any top-level windows, Eclipse will exit
 			// immediately, so throw out the persisted state and reinitialize with the defaults.
 			if (!hasTopLevelWindows(resource)) {
@@ -214,10 +238,65 @@ public class ResourceHandler implements IModelResourceHandler {
 		if (saveAndRestore) {
 			Map<String, Object> options = new HashMap<>();
 			options.put(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
+			options.put(Resource.OPTION_SAVE_ONLY_IF_CHANGED, Resource.OPTION_SAVE_ONLY_IF_CHANGED_MEMORY_BUFFER);
 			resource.save(options);
+			if (binaryModel) {
+				saveBinaryResource();
+			}
+		}
+	}
+
+	/**
+	 * Saves a binary copy of the model next to the XMI file, which is loaded
+	 * instead of the XMI file as long as it is not older.
+	 */
+	private void saveBinaryResource() {
+		URI uri = resource.getURI();
+		if (!uri.isFile() || !(resource instanceof E4XMIResource)) {
+			return;
+		}
+		Path binaryPath = getBinaryLocation(uri).toPath();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			E4BinarySerializer.save((E4XMIResource) resource, out);
+			// Never leave a partially written file behind
+			Path tempPath = binaryPath.resolveSibling(binaryPath.getFileName() + ".tmp"); //$NON-NLS-1$
+			Files.write(tempPath, out.toByteArray());
+			Files.move(tempPath, binaryPath, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			// The XMI file has been saved, it will be loaded instead
+			logger.warn(e, "Unable to save the binary application model " + binaryPath); //$NON-NLS-1$
 		}
 	}
 
+	/**
+	 * @return the binary model saved with the given XMI file, or
+	 *         <code>null</code> if there is none or if the XMI file is more
+	 *         recent, as after an auto-save
+	 */
+	private Resource loadBinaryResource(URI uri) {
+		File xmiFile = new File(uri.toFileString());
+		File binaryFile = getBinaryLocation(uri);
+		if (!binaryFile.exists() || binaryFile.lastModified() < xmiFile.lastModified()) {
+			return null;
+		}
+		E4XMIResource binaryResource = (E4XMIResource) resourceSet.createResource(uri);
+		try (InputStream in = new BufferedInputStream(new FileInputStream(binaryFile))) {
+			E4BinarySerializer.load(binaryResource, in);
+			return binaryResource;
+		} catch (IOException | RuntimeException e) {
+			logger.warn(e, "Unable to load the binary application model " + binaryFile //$NON-NLS-1$
+					+ ", loading " + xmiFile + " instead"); //$NON-NLS-1$ //$NON-NLS-2$
+			resourceSet.getResources().remove(binaryResource);
+			return null;
+		}
+	}
+
+	private File getBinaryLocation(URI uri) {
+		return new File(uri.trimFileExtension().appendFileExtension(BINARY_FILE_EXTENSION).toFileString());
+	}
+
 	/**
 	 * Creates a resource with an app Model, used for saving copies of the main app model.
 	 *
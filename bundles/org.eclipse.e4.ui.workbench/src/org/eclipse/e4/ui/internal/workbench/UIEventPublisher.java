@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,11 +14,16 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.impl.StringToObjectMapImpl;
 import org.eclipse.e4.ui.model.application.impl.StringToStringMapImpl;
@@ -28,16 +33,54 @@ import org.eclipse.e4.ui.workbench.UIEvents.EventTags;
 import org.eclipse.e4.ui.workbench.UIEvents.EventTypes;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.util.EContentAdapter;
 
 /**
  * Transforms E4 MPart events into 3.x legacy events.
+ * <p>
+ * The events are sent synchronously, one for each change of the model, unless
+ * the changes are made within {@link #runBatched(Runnable)}.
+ * </p>
  */
 public class UIEventPublisher extends EContentAdapter {
 
 	private IEclipseContext context;
 
+	/**
+	 * The thread which created this publisher. Batching is limited to this
+	 * thread.
+	 */
+	private final Thread thread = Thread.currentThread();
+
+	/** The number of nested {@link #runBatched(Runnable)} calls. */
+	private int batchDepth;
+
+	/**
+	 * The events of the current batch, in the order in which they are sent.
+	 * Events which have been merged into later ones are <code>null</code>.
+	 */
+	private final List<UIEvent> pendingEvents = new ArrayList<>();
+
+	/**
+	 * The indexes of the pending attribute changes, by element and attribute
+	 * name.
+	 */
+	private final Map<MApplicationElement, Map<String, Integer>> pendingSets = new IdentityHashMap<>();
+
+	/** The event being formatted when events are sent immediately. */
+	private final UIEvent currentEvent = new UIEvent();
+
+	/**
+	 * The index of the application this publisher is attached to, or
+	 * <code>null</code>.
+	 */
+	private ModelElementIndex elementIndex;
+
+	private final EventStatistics statistics = Policy.DEBUG_EVENTS ? new EventStatistics(1000,
+			System::currentTimeMillis, message -> Activator.trace(Policy.DEBUG_EVENTS_FLAG, message, null)) : null;
+
 	/**
 	 * @param e4Context
 	 */
@@ -45,23 +88,159 @@ public class UIEventPublisher extends EContentAdapter {
 		this.context = e4Context;
 	}
 
+	/**
+	 * @return the index of the elements of the application this publisher is
+	 *         attached to, or <code>null</code> if it is not attached to an
+	 *         application
+	 */
+	ModelElementIndex getElementIndex() {
+		return elementIndex;
+	}
+
+	@Override
+	protected void setTarget(EObject target) {
+		super.setTarget(target);
+		if (elementIndex == null && target instanceof MApplication && target.eContainer() == null) {
+			elementIndex = new ModelElementIndex((MApplication) target);
+		}
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		super.unsetTarget(target);
+		if (elementIndex != null && target == elementIndex.getApplication()) {
+			elementIndex = null;
+		}
+	}
+
 	@Override
 	public void notifyChanged(Notification notification) {
 		super.notifyChanged(notification);
 
+		if (elementIndex != null) {
+			elementIndex.notifyChanged(notification);
+		}
+
 		// Ignore events that did not change the model value
 		if (notification.isTouch())
 			return;
 
+		if (batchDepth > 0 && Thread.currentThread() == thread) {
+			UIEvent event = new UIEvent();
+			if (formatData(notification, event)) {
+				addPendingEvent(notification, event);
+			}
+			return;
+		}
+
 		// Format the EMF event as an E4 UIEvent
-		Map<String, Object> argMap = new HashMap<>();
+		UIEvent event = Thread.currentThread() == thread ? currentEvent : new UIEvent();
+		event.clear();
+		if (formatData(notification, event)) {
+			send(event);
+		}
+	}
+
+	/**
+	 * Runs the given runnable and sends the events for the changes it makes to
+	 * the model once it has completed. Several changes of the same attribute of
+	 * an element are sent as one event with the first old value and the last
+	 * new value, and no event is sent if the attribute ends up with its
+	 * original value. All other events are sent in the order of the changes.
+	 * <p>
+	 * As no event is sent while the runnable runs, it must not rely on event
+	 * handlers, such as the renderers, reacting to its changes. Nested calls
+	 * send their events with the outermost call. Calls from other threads than
+	 * the one which created this publisher do not batch events.
+	 * </p>
+	 *
+	 * @param runnable the runnable changing the model
+	 */
+	public void runBatched(Runnable runnable) {
+		if (Thread.currentThread() != thread) {
+			runnable.run();
+			return;
+		}
+		batchDepth++;
+		try {
+			runnable.run();
+		} finally {
+			if (--batchDepth == 0) {
+				sendPendingEvents();
+			}
+		}
+	}
 
-		String topic = formatData(notification, argMap);
+	private void addPendingEvent(Notification notification, UIEvent event) {
+		if (notification.getEventType() != Notification.SET
+				|| !(notification.getNotifier() instanceof MApplicationElement)) {
+			pendingEvents.add(event);
+			return;
+		}
 
-		if (topic != null) {
-			IEventBroker eventManager = context.get(IEventBroker.class);
-			eventManager.send(topic, argMap);
+		// Merge the changes of the same attribute into the last one
+		Map<String, Integer> elementSets = pendingSets.computeIfAbsent(event.element, e -> new HashMap<>());
+		Integer index = elementSets.get(event.attributeName);
+		if (index != null) {
+			UIEvent previous = pendingEvents.set(index.intValue(), null);
+			event.oldValue = previous.oldValue;
+			if (statistics != null) {
+				statistics.coalesced();
+			}
+			if (Objects.equals(event.oldValue, event.newValue)) {
+				elementSets.remove(event.attributeName);
+				if (statistics != null) {
+					statistics.coalesced();
+				}
+				return;
+			}
 		}
+		elementSets.put(event.attributeName, Integer.valueOf(pendingEvents.size()));
+		pendingEvents.add(event);
+	}
+
+	private void sendPendingEvents() {
+		// Events sent from the handlers of these events are not batched
+		List<UIEvent> events = new ArrayList<>(pendingEvents);
+		pendingEvents.clear();
+		pendingSets.clear();
+		for (UIEvent event : events) {
+			if (event != null) {
+				send(event);
+			}
+		}
+		if (statistics != null) {
+			statistics.report(true);
+		}
+	}
+
+	private void send(UIEvent event) {
+		// The event broker keeps the map as the data of the event, so each
+		// event needs a map of its own
+		Map<String, Object> argMap = new HashMap<>();
+		String topic = event.topic;
+		argMap.put(EventTags.TYPE, event.type);
+		argMap.put(EventTags.ELEMENT, event.element);
+		argMap.put(EventTags.ATTNAME, event.attributeName);
+		if (event.newValue != null) {
+			argMap.put(EventTags.NEW_VALUE, event.newValue);
+		}
+		if (event.oldValue != null) {
+			argMap.put(EventTags.OLD_VALUE, event.oldValue);
+		}
+		if (event.position != null) {
+			argMap.put(EventTags.POSITION, event.position);
+		}
+		if (event.element instanceof MUIElement) {
+			argMap.put(EventTags.WIDGET, ((MUIElement) event.element).getWidget());
+		}
+		event.clear();
+
+		if (statistics != null) {
+			statistics.published(topic);
+		}
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		eventManager.send(topic, argMap);
 	}
 
 	/**
@@ -102,7 +281,7 @@ public class UIEventPublisher extends EContentAdapter {
 	 * Likely there is some "simple" EMF wisdom we are missing to make this work with a couple of
 	 * annotations, a white swan and a full moon.
 	 */
-	private String formatData(final Notification notification, Map<String, Object> argMap) {
+	private boolean formatData(final Notification notification, UIEvent event) {
 		MApplicationElement appElement = null;
 		EStructuralFeature feature = null;
 		String attributeName = null;
@@ -196,12 +375,16 @@ public class UIEventPublisher extends EContentAdapter {
 			newValue = createMapEntry(key, notification.getNewValue());
 		} else {
 			// Unhandled notification type. Ignore event
-			return null;
+			return false;
+		}
+		if (topic == null) {
+			return false;
 		}
 
-		argMap.put(EventTags.TYPE, getEventType(notification));
-		argMap.put(EventTags.ELEMENT, appElement);
-		argMap.put(EventTags.ATTNAME, attributeName);
+		event.topic = topic;
+		event.type = getEventType(notification);
+		event.element = appElement;
+		event.attributeName = attributeName;
 
 		// no need to include UNSET
 		if (notification.getEventType() == Notification.SET
@@ -210,22 +393,12 @@ public class UIEventPublisher extends EContentAdapter {
 				|| notification.getEventType() == Notification.ADD_MANY
 				|| notification.getEventType() == Notification.REMOVE
 				|| notification.getEventType() == Notification.REMOVE_MANY) {
-			if (newValue != null) {
-				argMap.put(EventTags.NEW_VALUE, newValue);
-			}
-			if (oldValue != null) {
-				argMap.put(EventTags.OLD_VALUE, oldValue);
-			}
-			if (position != null) {
-				argMap.put(EventTags.POSITION, position);
-			}
+			event.newValue = newValue;
+			event.oldValue = oldValue;
+			event.position = position;
 		}
 
-		if (appElement instanceof MUIElement) {
-			argMap.put(EventTags.WIDGET, ((MUIElement) appElement).getWidget());
-		}
-
-		return topic;
+		return true;
 	}
 
 	private String getEventType(Notification notification) {
@@ -284,4 +457,28 @@ public class UIEventPublisher extends EContentAdapter {
 		String topicBase = "org/eclipse/e4/ui/model/application/ApplicationElement/"; //$NON-NLS-1$
 		return topicBase + attributeName + UIEvents.TOPIC_SEP + type;
 	}
+
+	/**
+	 * The arguments of an event, until they are copied into the argument map
+	 * when the event is sent.
+	 */
+	private static final class UIEvent {
+		String topic;
+		String type;
+		MApplicationElement element;
+		String attributeName;
+		Object oldValue;
+		Object newValue;
+		Object position;
+
+		void clear() {
+			topic = null;
+			type = null;
+			element = null;
+			attributeName = null;
+			oldValue = null;
+			newValue = null;
+			position = null;
+		}
+	}
 }
@@ -108,6 +108,14 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	private boolean isTreePathContentProvider = false;
 
+	/**
+	 * Indicates if structural refreshes should only create and dispose the
+	 * items of added and removed children.
+	 *
+	 * @see #setIncrementalRefresh(boolean)
+	 */
+	private boolean isIncrementalRefresh = false;
+
 	/**
 	 * Safe runnable used to update an item.
 	 */
@@ -2684,6 +2692,16 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 		Item[] items = getChildren(widget);
 
+		if (isIncrementalRefresh
+				&& updateChildrenIncrementally(widget, items, elementChildren, updateLabels)) {
+			// WORKAROUND
+			if (widget == tree && oldCnt == 0 && getItemCount(tree) != 0) {
+				tree.setRedraw(false);
+				tree.setRedraw(true);
+			}
+			return;
+		}
+
 		// save the expanded elements
 		CustomHashtable expanded = newHashtable(CustomHashtable.DEFAULT_CAPACITY); // assume
 																					// num
@@ -2830,6 +2848,145 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Updates the given items to correspond to the given child elements by
+	 * disposing the items of removed elements and creating items for added
+	 * elements. The items of elements which keep their relative order are left
+	 * in place, together with their expanded state and child items. Elements
+	 * which moved relative to the others get a new item.
+	 *
+	 * @param widget
+	 *            the parent widget
+	 * @param items
+	 *            the current child items of the widget
+	 * @param elementChildren
+	 *            the new child elements
+	 * @param updateLabels
+	 *            <code>true</code> to update labels for existing elements
+	 * @return <code>false</code> if nothing was changed because the child
+	 *         elements contain duplicates and cannot be matched to items
+	 */
+	private boolean updateChildrenIncrementally(Widget widget, Item[] items,
+			Object[] elementChildren, boolean updateLabels) {
+		CustomHashtable newIndices = newHashtable(elementChildren.length * 2 + 1);
+		for (int i = 0; i < elementChildren.length; i++) {
+			if (newIndices.put(elementChildren[i], Integer.valueOf(i)) != null) {
+				return false;
+			}
+		}
+
+		// the index of each item's element in the new children, or -1
+		int[] targets = new int[items.length];
+		for (int i = 0; i < items.length; i++) {
+			Object data = items[i].getData();
+			Object index = data == null ? null : newIndices.remove(data);
+			targets[i] = index == null ? -1 : ((Integer) index).intValue();
+		}
+		boolean[] keep = longestIncreasingSubsequence(targets);
+
+		// dispose all items which are not kept before associating any element,
+		// otherwise a later disassociate can remove a mapping made for a
+		// previous associate
+		CustomHashtable expanded = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		Item[] keptItems = new Item[elementChildren.length];
+		for (int i = 0; i < items.length; i++) {
+			Item item = items[i];
+			if (keep[i]) {
+				keptItems[targets[i]] = item;
+				continue;
+			}
+			Object data = item.getData();
+			if (data != null) {
+				if (getExpanded(item)) {
+					expanded.put(data, data);
+				}
+				disassociate(item);
+			}
+			item.dispose();
+		}
+
+		boolean created = false;
+		for (int i = 0; i < elementChildren.length; i++) {
+			Object newElement = elementChildren[i];
+			Item item = keptItems[i];
+			if (item == null) {
+				createTreeItem(widget, newElement, i);
+				created = true;
+				continue;
+			}
+			Object oldElement = item.getData();
+			if (oldElement != newElement) {
+				// the elements are equal, but may still have different labels
+				// or children
+				unmapElement(oldElement, item);
+				item.setData(newElement);
+				mapElement(newElement, item);
+			}
+			updatePlus(item, newElement);
+			if (updateLabels) {
+				updateItem(item, newElement);
+			} else {
+				associate(newElement, item);
+			}
+		}
+
+		// Restore expanded state for elements that moved. Make sure
+		// setExpanded is called after updatePlus (called in createTreeItem),
+		// since setExpanded(false) fails if item has no children.
+		if (created && expanded.size() > 0) {
+			items = getChildren(widget);
+			for (int i = 0; i < elementChildren.length; i++) {
+				if (keptItems[i] == null && expanded.containsKey(elementChildren[i])) {
+					setExpanded(items[i], true);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes a longest strictly increasing subsequence of the given values,
+	 * ignoring negative values, in O(n log n).
+	 *
+	 * @param values
+	 *            the values
+	 * @return for each index, whether the value at that index is part of the
+	 *         subsequence
+	 */
+	private static boolean[] longestIncreasingSubsequence(int[] values) {
+		// tails[k] is the index of the smallest value ending a subsequence
+		// of length k + 1
+		int[] tails = new int[values.length];
+		int[] previous = new int[values.length];
+		int length = 0;
+		for (int i = 0; i < values.length; i++) {
+			int value = values[i];
+			if (value < 0) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (values[tails[mid]] < value) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			previous[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+		boolean[] result = new boolean[values.length];
+		for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+			result[i] = true;
+		}
+		return result;
+	}
+
 	/** Returns true if children were pruned */
 	/*package*/ boolean optionallyPruneChildren(Item item, Object element) {
 		// need a dummy node if element is expandable;
@@ -3223,6 +3380,43 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		return null;
 	}
 
+	/**
+	 * Instructs the viewer to refresh the structure of the tree incrementally.
+	 * <p>
+	 * When set to <code>true</code>, a refresh matches the old and new children
+	 * of each refreshed element and only disposes the items of removed children
+	 * and creates items for added children. The items of unchanged children are
+	 * kept in place, together with their expanded state. This makes refreshing
+	 * elements with many children cheap if only a few of them changed. Items of
+	 * children that changed their position relative to the others are
+	 * recreated. If the children of an element contain duplicates, that element
+	 * is refreshed the default way.
+	 * </p>
+	 * <p>
+	 * By default, the viewer reuses the existing items by position and
+	 * reassigns their elements, which is cheaper when most children changed.
+	 * </p>
+	 *
+	 * @param incremental
+	 *            <code>true</code> to refresh the tree structure incrementally
+	 * @since 3.23
+	 */
+	public void setIncrementalRefresh(boolean incremental) {
+		this.isIncrementalRefresh = incremental;
+	}
+
+	/**
+	 * Returns whether the structure of the tree is refreshed incrementally.
+	 *
+	 * @return <code>true</code> if the tree structure is refreshed
+	 *         incrementally
+	 * @see #setIncrementalRefresh(boolean)
+	 * @since 3.23
+	 */
+	public boolean isIncrementalRefresh() {
+		return isIncrementalRefresh;
+	}
+
 	/**
 	 * Instructs {@link #isExpandable(Object)} to consult filters to more accurately
 	 * determine if an item can be expanded.
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * ElementWidgetMap maps the elements of a viewer to the widgets representing
+ * them. Elements and widgets cannot be null.
+ * <p>
+ * The map uses open addressing with linear probing over two parallel arrays,
+ * so mapping an element to a single widget does not allocate anything besides
+ * the occasional growth of the arrays. Only elements which are represented by
+ * more than one widget (e.g. equal elements in different branches of a tree)
+ * store a <code>Widget[]</code>. Removal shifts the following entries of a
+ * probe sequence back, so no tombstones are left behind and lookups stay fast
+ * after many removals.
+ * <p>
+ * Elements are compared with the given {@link IElementComparer}, or with
+ * their <code>equals</code> and <code>hashCode</code> methods if it is
+ * <code>null</code>.
+ */
+/* package */final class ElementWidgetMap {
+
+	private static final int MINIMUM_CAPACITY = 16;
+
+	private static final Widget[] NO_WIDGETS = new Widget[0];
+
+	private final IElementComparer comparer;
+
+	/**
+	 * The elements, or <code>null</code> for empty slots. The length is a
+	 * power of two.
+	 */
+	private Object[] keys;
+
+	/**
+	 * The <code>Widget</code> or <code>Widget[]</code> of the element in the
+	 * same slot of {@link #keys}.
+	 */
+	private Object[] values;
+
+	private int size;
+
+	/**
+	 * The number of entries at which the arrays are grown, i.e. three quarters
+	 * of the capacity.
+	 */
+	private int threshold;
+
+	/**
+	 * Creates a new map.
+	 *
+	 * @param expectedSize
+	 *            the number of elements expected to be mapped
+	 * @param comparer
+	 *            the comparer to use, or <code>null</code>
+	 */
+	ElementWidgetMap(int expectedSize, IElementComparer comparer) {
+		this.comparer = comparer;
+		int capacity = MINIMUM_CAPACITY;
+		while (capacity - (capacity >> 2) <= expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Creates a new map with the contents of the given map, using the given
+	 * comparer.
+	 *
+	 * @param source
+	 *            the map to copy
+	 * @param comparer
+	 *            the comparer to use, or <code>null</code>
+	 */
+	ElementWidgetMap(ElementWidgetMap source, IElementComparer comparer) {
+		this(source.size, comparer);
+		Object[] sourceKeys = source.keys;
+		Object[] sourceValues = source.values;
+		for (int i = 0; i < sourceKeys.length; i++) {
+			Object key = sourceKeys[i];
+			if (key != null) {
+				int index = indexOf(key);
+				if (index < 0) {
+					insert(-index - 1, key, sourceValues[i]);
+				} else {
+					// the new comparer considers both elements equal
+					for (Widget widget : toArray(sourceValues[i])) {
+						add(key, widget);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of mapped elements.
+	 *
+	 * @return the number of mapped elements
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the first widget mapped to the given element.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the first widget, or <code>null</code> if none
+	 */
+	Widget getFirst(Object element) {
+		int index = indexOf(element);
+		if (index < 0) {
+			return null;
+		}
+		Object value = values[index];
+		return value instanceof Widget ? (Widget) value : ((Widget[]) value)[0];
+	}
+
+	/**
+	 * Returns the widgets mapped to the given element. The returned array must
+	 * not be changed.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the widgets, or an empty array if none
+	 */
+	Widget[] get(Object element) {
+		int index = indexOf(element);
+		return index < 0 ? NO_WIDGETS : toArray(values[index]);
+	}
+
+	/**
+	 * Maps the given element to the given widget, in addition to the widgets
+	 * it is already mapped to. Does nothing if the element is already mapped
+	 * to the widget.
+	 *
+	 * @param element
+	 *            the element
+	 * @param widget
+	 *            the widget
+	 */
+	void add(Object element, Widget widget) {
+		if (element == null || widget == null) {
+			return;
+		}
+		int index = indexOf(element);
+		if (index < 0) {
+			insert(-index - 1, element, widget);
+			return;
+		}
+		Object value = values[index];
+		if (value instanceof Widget) {
+			if (value != widget) {
+				values[index] = new Widget[] { (Widget) value, widget };
+			}
+		} else {
+			Widget[] widgets = (Widget[]) value;
+			for (Widget existing : widgets) {
+				if (existing == widget) {
+					return;
+				}
+			}
+			Widget[] updatedWidgets = new Widget[widgets.length + 1];
+			System.arraycopy(widgets, 0, updatedWidgets, 0, widgets.length);
+			updatedWidgets[widgets.length] = widget;
+			values[index] = updatedWidgets;
+		}
+	}
+
+	/**
+	 * Removes all mappings of the given element.
+	 *
+	 * @param element
+	 *            the element
+	 */
+	void remove(Object element) {
+		int index = indexOf(element);
+		if (index >= 0) {
+			delete(index);
+		}
+	}
+
+	/**
+	 * Removes the mapping of the given element to the given widget. Does
+	 * nothing if the element does not map to the widget.
+	 *
+	 * @param element
+	 *            the element
+	 * @param widget
+	 *            the widget
+	 */
+	void remove(Object element, Widget widget) {
+		int index = indexOf(element);
+		if (index < 0) {
+			return;
+		}
+		Object value = values[index];
+		if (value instanceof Widget) {
+			if (value == widget) {
+				delete(index);
+			}
+			return;
+		}
+		Widget[] widgets = (Widget[]) value;
+		int indexOfWidget = -1;
+		for (int i = 0; i < widgets.length; i++) {
+			if (widgets[i] == widget) {
+				indexOfWidget = i;
+				break;
+			}
+		}
+		if (indexOfWidget == -1) {
+			return;
+		}
+		int length = widgets.length;
+		if (length == 1) {
+			delete(index);
+		} else if (length == 2) {
+			values[index] = widgets[1 - indexOfWidget];
+		} else {
+			Widget[] updatedWidgets = new Widget[length - 1];
+			System.arraycopy(widgets, 0, updatedWidgets, 0, indexOfWidget);
+			System.arraycopy(widgets, indexOfWidget + 1, updatedWidgets, indexOfWidget,
+					length - indexOfWidget - 1);
+			values[index] = updatedWidgets;
+		}
+	}
+
+	/**
+	 * Returns the slot of the given element, or <code>-(slot + 1)</code> of
+	 * the empty slot where it would be inserted.
+	 */
+	private int indexOf(Object element) {
+		if (element == null) {
+			return -1;
+		}
+		Object[] keys = this.keys;
+		int mask = keys.length - 1;
+		int index = hash(element) & mask;
+		Object key;
+		while ((key = keys[index]) != null) {
+			if (key == element || keyEquals(element, key)) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -index - 1;
+	}
+
+	private void insert(int index, Object element, Object value) {
+		keys[index] = element;
+		values[index] = value;
+		if (++size > threshold) {
+			rehash(keys.length << 1);
+		}
+	}
+
+	/**
+	 * Empties the given slot and moves back the following entries of the
+	 * probe sequence which would otherwise become unreachable.
+	 */
+	private void delete(int index) {
+		Object[] keys = this.keys;
+		Object[] values = this.values;
+		int mask = keys.length - 1;
+		int hole = index;
+		int next = (hole + 1) & mask;
+		Object key;
+		while ((key = keys[next]) != null) {
+			int home = hash(key) & mask;
+			// move the entry if its home slot is not within (hole, next]
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = key;
+				values[hole] = values[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = null;
+		values[hole] = null;
+		size--;
+	}
+
+	private void rehash(int capacity) {
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object key = oldKeys[i];
+			if (key != null) {
+				int index = hash(key) & mask;
+				while (keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = key;
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = new Object[capacity];
+		threshold = capacity - (capacity >> 2);
+	}
+
+	/**
+	 * Answers the spread hash code for the given element, so that elements
+	 * with similar hash codes do not end up in long probe sequences.
+	 */
+	private int hash(Object element) {
+		int h = comparer == null ? element.hashCode() : comparer.hashCode(element);
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Compares two elements for equality.
+	 */
+	private boolean keyEquals(Object a, Object b) {
+		if (comparer == null) {
+			return a.equals(b);
+		}
+		return comparer.equals(a, b);
+	}
+
+	private static Widget[] toArray(Object value) {
+		return value instanceof Widget ? new Widget[] { (Widget) value } : (Widget[]) value;
+	}
+}
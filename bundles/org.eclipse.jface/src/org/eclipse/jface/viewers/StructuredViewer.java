@@ -65,11 +65,10 @@ import org.eclipse.swt.widgets.Widget;
 public abstract class StructuredViewer extends ContentViewer implements IPostSelectionProvider {
 
 	/**
-	 * A map from the viewer's model elements to SWT widgets. (key type:
-	 * <code>Object</code>, value type: <code>Widget</code>, or <code>Widget[]</code>).
+	 * A map from the viewer's model elements to SWT widgets.
 	 * <code>null</code> means that the element map is disabled.
 	 */
-	private CustomHashtable elementMap;
+	private ElementWidgetMap elementMap;
 
 	/**
 	 * The comparer to use for comparing elements, or <code>null</code> to use
@@ -715,8 +714,15 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 * @return the corresponding widget, or <code>null</code> if none
 	 */
 	protected final Widget findItem(Object element) {
-		Widget[] result = findItems(element);
-		return result.length == 0 ? null : result[0];
+		Widget result = doFindInputItem(element);
+		if (result != null) {
+			return result;
+		}
+		// if we have an element map use it, otherwise search for the item.
+		if (usingElementMap()) {
+			return elementMap.getFirst(element);
+		}
+		return doFindItem(element);
 	}
 
 	/**
@@ -751,14 +757,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		}
 		// if we have an element map use it, otherwise search for the item.
 		if (usingElementMap()) {
-			Object widgetOrWidgets = elementMap.get(element);
-			if (widgetOrWidgets==null) {
-				return NO_WIDGETS;
-			} else if (widgetOrWidgets instanceof Widget) {
-				return new Widget[] {(Widget) widgetOrWidgets};
-			} else {
-				return (Widget[])widgetOrWidgets;
-			}
+			return elementMap.get(element);
 		}
 		result = doFindItem(element);
 		return result == null ? NO_WIDGETS : new Widget[] { result };
@@ -1272,25 +1271,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 */
 	protected void mapElement(Object element, Widget item) {
 		if (elementMap != null) {
-			Object widgetOrWidgets = elementMap.get(element);
-			if (widgetOrWidgets == null) {
-				elementMap.put(element, item);
-			} else if (widgetOrWidgets instanceof Widget) {
-				if (widgetOrWidgets != item) {
-					elementMap.put(element, new Widget[] {
-							(Widget) widgetOrWidgets, item });
-				}
-			} else {
-				Widget[] widgets = (Widget[]) widgetOrWidgets;
-				int indexOfItem = Arrays.asList(widgets).indexOf(item);
-				if (indexOfItem == -1) {
-					int length = widgets.length;
-					System.arraycopy(widgets, 0,
-							widgets = new Widget[length + 1], 0, length);
-					widgets[length] = item;
-					elementMap.put(element, widgets);
-				}
-			}
+			elementMap.add(element, item);
 		}
 	}
 
@@ -1766,7 +1747,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		Assert.isTrue(getInput() == null,
 				"Can only enable the hash look up before input has been set");//$NON-NLS-1$
 		if (enable) {
-			elementMap = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			elementMap = new ElementWidgetMap(0, getComparer());
 		} else {
 			elementMap = null;
 		}
@@ -1784,7 +1765,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	public void setComparer(IElementComparer comparer) {
 		this.comparer = comparer;
 		if (elementMap != null) {
-			elementMap = new CustomHashtable(elementMap, comparer);
+			elementMap = new ElementWidgetMap(elementMap, comparer);
 		}
 	}
 
@@ -1855,7 +1836,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 */
 	protected void unmapAllElements() {
 		if (elementMap != null) {
-			elementMap = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			elementMap = new ElementWidgetMap(0, getComparer());
 		}
 	}
 
@@ -1895,36 +1876,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		// double-check that the element actually maps to the given item before
 		// unmapping it
 		if (elementMap != null) {
-			Object widgetOrWidgets = elementMap.get(element);
-			if (widgetOrWidgets == null) {
-				// item was not mapped, return
-				return;
-			} else if (widgetOrWidgets instanceof Widget) {
-				if (item == widgetOrWidgets) {
-					elementMap.remove(element);
-				}
-			} else {
-				Widget[] widgets = (Widget[]) widgetOrWidgets;
-				int indexOfItem = Arrays.asList(widgets).indexOf(item);
-				if (indexOfItem == -1) {
-					return;
-				}
-				int length = widgets.length;
-				if (indexOfItem == 0) {
-					if(length == 1) {
-						elementMap.remove(element);
-					} else {
-						Widget[] updatedWidgets = new Widget[length - 1];
-						System.arraycopy(widgets, 1, updatedWidgets, 0, length -1 );
-						elementMap.put(element, updatedWidgets);
-					}
-				} else {
-					Widget[] updatedWidgets = new Widget[length - 1];
-					System.arraycopy(widgets, 0, updatedWidgets, 0, indexOfItem);
-					System.arraycopy(widgets, indexOfItem + 1, updatedWidgets, indexOfItem, length - indexOfItem - 1);
-					elementMap.put(element, updatedWidgets);
-				}
-			}
+			elementMap.remove(element, item);
 		}
 	}
 
@@ -2273,7 +2225,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		comparer = null;
 		if (filters != null)
 			filters.clear();
-		elementMap = newHashtable(1);
+		elementMap = new ElementWidgetMap(0, null);
 		openListeners.clear();
 		doubleClickListeners.clear();
 		colorAndFontCollector.clear();
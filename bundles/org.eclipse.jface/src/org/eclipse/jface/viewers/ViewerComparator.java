@@ -16,6 +16,8 @@
 
 package org.eclipse.jface.viewers;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -53,6 +55,24 @@ public class ViewerComparator {
 	 */
 	private Comparator<? super String> comparator;
 
+	/**
+	 * Minimum number of elements for which a sort on precomputed collation keys
+	 * is done with {@link Arrays#parallelSort(Object[], Comparator)}.
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	/**
+	 * Whether {@link #sort(Viewer, Object[])} should compute category and label
+	 * of each element once per sort instead of once per comparison.
+	 */
+	private boolean precomputeSortKeys;
+
+	/**
+	 * Cached result of {@link #isDefaultCompare()}, or <code>null</code> if not
+	 * yet computed.
+	 */
+	private Boolean defaultCompare;
+
 	/**
 	 * Creates a new {@link ViewerComparator}, which uses the default comparator
 	 * to sort strings.
@@ -87,6 +107,45 @@ public class ViewerComparator {
 		return comparator;
 	}
 
+	/**
+	 * Sets whether {@link #sort(Viewer, Object[])} should compute the category,
+	 * label and (if the string comparator is a {@link Collator}) the
+	 * {@link CollationKey} of each element only once per sort, and then sort
+	 * the elements by these precomputed keys. This avoids calling the label
+	 * provider and the string comparator on every comparison, which matters
+	 * for viewers with many elements. Large inputs sorted by collation keys
+	 * are additionally sorted in parallel.
+	 * <p>
+	 * The precomputed keys are only used if this comparator does not override
+	 * {@link #compare(Viewer, Object, Object)}, as otherwise the keys might not
+	 * reflect the order defined by the subclass. The label provider is always
+	 * called on the thread calling {@link #sort(Viewer, Object[])}.
+	 * </p>
+	 * <p>
+	 * The default is <code>false</code>.
+	 * </p>
+	 *
+	 * @param precompute <code>true</code> to sort by precomputed keys,
+	 *                   <code>false</code> to compare elements directly
+	 * @since 3.23
+	 */
+	public void setPrecomputeSortKeys(boolean precompute) {
+		this.precomputeSortKeys = precompute;
+	}
+
+	/**
+	 * Returns whether {@link #sort(Viewer, Object[])} sorts by precomputed
+	 * keys.
+	 *
+	 * @return <code>true</code> if sort keys are precomputed, <code>false</code>
+	 *         otherwise
+	 * @see #setPrecomputeSortKeys(boolean)
+	 * @since 3.23
+	 */
+	public boolean isPrecomputeSortKeys() {
+		return precomputeSortKeys;
+	}
+
 	/**
 	 * Returns the category of the given element. The category is a
 	 * number used to allocate elements to bins; the bins are arranged
@@ -195,6 +254,11 @@ public class ViewerComparator {
 	 * elements.
 	 * </p>
 	 * <p>
+	 * If {@link #isPrecomputeSortKeys()} is set and
+	 * {@link #compare(Viewer, Object, Object)} is not overridden, the
+	 * elements are sorted by keys computed once per element instead.
+	 * </p>
+	 * <p>
 	 * Subclasses may reimplement this method to provide a more optimized implementation.
 	 * </p>
 	 *
@@ -202,6 +266,10 @@ public class ViewerComparator {
 	 * @param elements the elements to sort
 	 */
 	public void sort(final Viewer viewer, Object[] elements) {
+		if (precomputeSortKeys && elements.length > 1 && isDefaultCompare()) {
+			sortByKeys(viewer, elements);
+			return;
+		}
 		try {
 			Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
 		} catch (IllegalArgumentException e) {
@@ -228,4 +296,81 @@ public class ViewerComparator {
 			throw e;
 		}
 	}
+
+	/**
+	 * Sorts the given elements by their category and label, computing both
+	 * only once per element. Labels are turned into {@link CollationKey}s if
+	 * the string comparator is a {@link Collator}.
+	 */
+	private void sortByKeys(Viewer viewer, Object[] elements) {
+		Comparator<? super String> stringComparator = getComparator();
+		Collator collator = stringComparator instanceof Collator ? (Collator) stringComparator : null;
+		SortKey[] keys = new SortKey[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			String label = getLabel(viewer, element);
+			keys[i] = new SortKey(element, category(element),
+					collator != null ? collator.getCollationKey(label) : null, label);
+		}
+		if (collator != null) {
+			Comparator<SortKey> keyComparator = (a, b) -> {
+				if (a.category != b.category) {
+					return a.category - b.category;
+				}
+				return a.collationKey.compareTo(b.collationKey);
+			};
+			if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+				Arrays.parallelSort(keys, keyComparator);
+			} else {
+				Arrays.sort(keys, keyComparator);
+			}
+		} else {
+			// arbitrary comparators are not known to be thread safe
+			Arrays.sort(keys, (a, b) -> {
+				if (a.category != b.category) {
+					return a.category - b.category;
+				}
+				return stringComparator.compare(a.label, b.label);
+			});
+		}
+		for (int i = 0; i < keys.length; i++) {
+			elements[i] = keys[i].element;
+		}
+	}
+
+	/**
+	 * Returns whether {@link #compare(Viewer, Object, Object)} is the one
+	 * implemented by this class, so sorting by precomputed keys yields the same
+	 * order.
+	 */
+	private boolean isDefaultCompare() {
+		if (defaultCompare == null) {
+			boolean result;
+			try {
+				result = getClass().getMethod("compare", Viewer.class, Object.class, Object.class) //$NON-NLS-1$
+						.getDeclaringClass() == ViewerComparator.class;
+			} catch (NoSuchMethodException | SecurityException e) {
+				result = false;
+			}
+			defaultCompare = Boolean.valueOf(result);
+		}
+		return defaultCompare.booleanValue();
+	}
+
+	/**
+	 * The precomputed sort criteria of a single element.
+	 */
+	private static final class SortKey {
+		final Object element;
+		final int category;
+		final CollationKey collationKey;
+		final String label;
+
+		SortKey(Object element, int category, CollationKey collationKey, String label) {
+			this.element = element;
+			this.category = category;
+			this.collationKey = collationKey;
+			this.label = label;
+		}
+	}
 }
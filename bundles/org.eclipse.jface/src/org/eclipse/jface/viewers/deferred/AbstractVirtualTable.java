@@ -18,8 +18,8 @@ import org.eclipse.swt.widgets.Control;
 /**
  * Wrapper for a virtual-table-like widget. Contains all methods needed for lazy updates.
  * The JFace algorithms for deferred or lazy content providers should talk to this class
- * instead of directly to a TableViewer. This will allow them to be used with other virtual
- * viewers and widgets in the future.
+ * instead of directly to a TableViewer. This allows them to be used with other virtual
+ * viewers and widgets, such as the root level of a virtual TreeViewer.
  *
  * <p>
  * For example, if SWT starts to support virtual Lists in the future, it should be possible
@@ -128,6 +128,33 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 
 	private volatile Range range = new Range(0,0);
 
+	/**
+	 * True iff only the visible range should be sorted and sent to the table
+	 */
+	private volatile boolean visibleRangeOnly = false;
+
+	/**
+	 * True iff the visible range changed since it was last sent to the table.
+	 * Only used if visibleRangeOnly is set.
+	 */
+	private volatile boolean rangeChanged = false;
+
+	/**
+	 * Collection built by the last sort, together with the sort order and
+	 * filter it was built with. Only kept if visibleRangeOnly was set, since the
+	 * table then does not know all elements. May only be accessed by the sort
+	 * thread.
+	 */
+	private LazySortedCollection lastCollection;
+	private Comparator lastOrder;
+	private IFilter lastFilter;
+
+	/**
+	 * Rows last sent to the table if visibleRangeOnly is set. May only be
+	 * accessed by the sort thread.
+	 */
+	private Range sentRange = new Range(0, 0);
+
 	/**
 	 * Creates a new background content provider
 	 *
@@ -182,20 +209,36 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 
 		mon.beginTask(SORTING, 100);
 
-		// Create a LazySortedCollection
-		Comparator order = sortOrder;
-		IFilter f = filter;
-		LazySortedCollection collection = new LazySortedCollection(order);
-
-		// Fill it in with all existing known objects
+		boolean rangeOnly = visibleRangeOnly;
+		Comparator order;
+		IFilter f;
+		LazySortedCollection collection;
 		Object[] knownObjects = updator.getKnownObjects();
-		for (Object object : knownObjects) {
-			if (object != null) {
-				collection.add(object);
+		if (lastCollection != null) {
+			// The table only knows the rows that were visible during the last
+			// sort, continue with the collection of that sort
+			order = lastOrder;
+			f = lastFilter;
+			collection = lastCollection;
+		} else {
+			// Create a LazySortedCollection
+			order = sortOrder;
+			f = filter;
+			collection = new LazySortedCollection(order);
+
+			// Fill it in with all existing known objects
+			for (Object object : knownObjects) {
+				if (object != null) {
+					collection.add(object);
+				}
 			}
 		}
 
 		boolean dirty = false;
+		if (rangeOnly && rangeChanged) {
+			rangeChanged = false;
+			dirty = true;
+		}
 		int prevSize = knownObjects.length;
 		updator.setTotalItems(prevSize);
 
@@ -325,12 +368,31 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 
 				collection.getRange(objectsOfInterest, sortStart, true, sortMon);
 
+				if (rangeOnly) {
+					// Forget rows that are no longer visible, they would be
+					// stale by the time they are shown again
+					int sentEnd = Math.min(sentRange.start + sentRange.length, totalElements);
+					for (int row = sentRange.start; row < sentEnd; row++) {
+						if (row < sortStart || row >= sortStart + sortLength) {
+							updator.replace(null, row);
+						}
+					}
+					sentRange = new Range(sortStart, sortLength);
+				}
+
 				// Send the new elements to the table
 				for (int i = 0; i < sortLength; i++) {
 					Object object = objectsOfInterest[i];
 					updator.replace(object, sortStart + i);
 				}
 
+				if (rangeOnly) {
+					// Only the visible range is sorted; the rest is sorted
+					// lazily once it becomes visible
+					dirty = false;
+					continue;
+				}
+
 				objectsOfInterest = new Object[collection.size()];
 
 				collection.getFirst(objectsOfInterest, true, sortMon);
@@ -348,6 +410,14 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 			dirty = false;
 		}
 
+		if (rangeOnly) {
+			lastCollection = collection;
+			lastOrder = order;
+			lastFilter = f;
+		} else {
+			lastCollection = null;
+		}
+
 		mon.done();
 	}
 
@@ -413,6 +483,32 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		return limit;
 	}
 
+	/**
+	 * Sets whether only the currently visible range of the table is sorted and
+	 * sent to the table. By default, the visible range is sorted first, and the
+	 * remaining elements are sorted and sent afterwards. Sorting only the
+	 * visible range keeps large models (millions of elements) responsive, at
+	 * the cost of a background sort of the new range whenever the table is
+	 * scrolled.
+	 *
+	 * @param rangeOnly true to only sort and send the visible range
+	 */
+	public void setVisibleRangeOnly(boolean rangeOnly) {
+		this.visibleRangeOnly = rangeOnly;
+		rangeChanged = rangeOnly;
+		makeDirty();
+	}
+
+	/**
+	 * Returns whether only the currently visible range of the table is sorted
+	 * and sent to the table.
+	 *
+	 * @return true iff only the visible range is sorted
+	 */
+	public boolean isVisibleRangeOnly() {
+		return visibleRangeOnly;
+	}
+
 	/**
 	 * Checks if currently visible range has changed, and triggers and update
 	 * and resort if necessary. Must be called in the UI thread, typically
@@ -427,6 +523,11 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		// If we're in the middle of processing an invalid range, cancel the sort
 		if (newRange.start != oldRange.start || newRange.length != oldRange.length) {
 			sortMon.cancel();
+			if (visibleRangeOnly) {
+				// The elements of the new range have not been sorted yet
+				rangeChanged = true;
+				makeDirty();
+			}
 		}
 	}
 
@@ -45,6 +45,7 @@ import org.eclipse.swt.widgets.Table;
 public class DeferredContentProvider implements ILazyContentProvider {
 
 	private int limit = -1;
+	private boolean visibleRangeOnly;
 	private BackgroundContentProvider provider;
 	private Comparator sortOrder;
 	private IFilter filter = AcceptAllFilter.getInstance();
@@ -136,6 +137,9 @@ public class DeferredContentProvider implements ILazyContentProvider {
 
 		newProvider.setLimit(limit);
 		newProvider.setFilter(filter);
+		if (visibleRangeOnly) {
+			newProvider.setVisibleRangeOnly(true);
+		}
 	}
 
 	/**
@@ -190,6 +194,33 @@ public class DeferredContentProvider implements ILazyContentProvider {
 		return limit;
 	}
 
+	/**
+	 * Sets whether only the currently visible rows are sorted and sent to the
+	 * table. By default, the visible rows are sorted first, and the remaining
+	 * rows are sorted afterwards. Sorting only the visible rows keeps models
+	 * with millions of elements responsive, since the full sorted list is never
+	 * built; scrolling triggers a background sort of the newly visible rows.
+	 *
+	 * @param rangeOnly true to only sort the visible rows
+	 * @since 3.23
+	 */
+	public void setVisibleRangeOnly(boolean rangeOnly) {
+		this.visibleRangeOnly = rangeOnly;
+		if (provider != null) {
+			provider.setVisibleRangeOnly(rangeOnly);
+		}
+	}
+
+	/**
+	 * Returns whether only the currently visible rows are sorted.
+	 *
+	 * @return true iff only the visible rows are sorted
+	 * @since 3.23
+	 */
+	public boolean isVisibleRangeOnly() {
+		return visibleRangeOnly;
+	}
+
 	@Override
 	public void updateElement(int element) {
 		if (provider != null) {
@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers.deferred;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.jface.viewers.AcceptAllFilter;
+import org.eclipse.jface.viewers.IFilter;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Content provider that performs sorting and filtering of the top-level
+ * elements of a tree in a background thread. Requires a
+ * <code>TreeViewer</code> created with the <code>SWT.VIRTUAL</code> flag and
+ * an <code>IConcurrentModel</code> as input.
+ * <p>
+ * The elements of the model are shown as the root elements of the tree. The
+ * sorter and filter must be set directly on the content provider. Any sorter
+ * or filter on the TreeViewer will be ignored. Children of the root elements
+ * are provided by an optional <code>ITreeContentProvider</code>, which is
+ * called in the UI thread when an element is expanded. The children of an
+ * element are remembered until the element or the tree is refreshed.
+ * </p>
+ * <p>
+ * The real implementation is in <code>BackgroundContentProvider</code>. This
+ * object is a lightweight wrapper that adapts the algorithm to work with
+ * <code>TreeViewer</code>.
+ * </p>
+ *
+ * @see DeferredContentProvider
+ * @since 3.23
+ */
+public class DeferredTreeContentProvider implements ILazyTreeContentProvider {
+
+	private int limit = -1;
+	private boolean visibleRangeOnly;
+	private BackgroundContentProvider provider;
+	private Comparator sortOrder;
+	private IFilter filter = AcceptAllFilter.getInstance();
+	private ITreeContentProvider childProvider;
+	private TreeViewer viewer;
+	private Object input;
+
+	/**
+	 * The children of the expanded elements, so that the child provider is not
+	 * asked once per child.
+	 */
+	private final Map<Object, Object[]> childrenCache = new HashMap<>();
+
+	private static final class TreeViewerAdapter extends AbstractVirtualTable {
+
+		private TreeViewer viewer;
+
+		/**
+		 * @param viewer
+		 */
+		public TreeViewerAdapter(TreeViewer viewer) {
+			this.viewer = viewer;
+		}
+
+		@Override
+		public void clear(int index) {
+			viewer.getTree().clear(index, true);
+		}
+
+		@Override
+		public void replace(Object element, int itemIndex) {
+			viewer.replace(viewer.getInput(), itemIndex, element);
+		}
+
+		@Override
+		public void setItemCount(int total) {
+			viewer.setChildCount(viewer.getInput(), total);
+		}
+
+		@Override
+		public int getItemCount() {
+			return viewer.getTree().getItemCount();
+		}
+
+		@Override
+		public int getTopIndex() {
+			Tree tree = viewer.getTree();
+			TreeItem item = tree.getTopItem();
+			if (item == null) {
+				return 0;
+			}
+			// the top item may be a child of an expanded root item
+			while (item.getParentItem() != null) {
+				item = item.getParentItem();
+			}
+			return Math.max(tree.indexOf(item) - 1, 0);
+		}
+
+		@Override
+		public int getVisibleItemCount() {
+			Tree tree = viewer.getTree();
+			Rectangle rect = tree.getClientArea();
+			int itemHeight = tree.getItemHeight();
+			int headerHeight = tree.getHeaderHeight();
+			return (rect.height - headerHeight + itemHeight - 1) / (itemHeight + tree.getGridLineWidth());
+		}
+
+		@Override
+		public Control getControl() {
+			return viewer.getControl();
+		}
+
+	}
+
+	/**
+	 * Create a DeferredTreeContentProvider with the given sort order.
+	 *
+	 * @param sortOrder a comparator that sorts the root elements.
+	 */
+	public DeferredTreeContentProvider(Comparator sortOrder) {
+		this.sortOrder = sortOrder;
+	}
+
+	@Override
+	public void dispose() {
+		setProvider(null);
+		childrenCache.clear();
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		childrenCache.clear();
+		if (childProvider != null) {
+			childProvider.inputChanged(viewer, oldInput, newInput);
+		}
+		if (newInput == null) {
+			setProvider(null);
+			this.viewer = null;
+			this.input = null;
+			return;
+		}
+
+		Assert.isTrue(newInput instanceof IConcurrentModel);
+		Assert.isTrue(viewer instanceof TreeViewer);
+		IConcurrentModel model = (IConcurrentModel) newInput;
+
+		this.viewer = (TreeViewer) viewer;
+		this.input = newInput;
+
+		BackgroundContentProvider newProvider = new BackgroundContentProvider(
+				new TreeViewerAdapter(this.viewer), model, sortOrder);
+
+		setProvider(newProvider);
+
+		newProvider.setLimit(limit);
+		newProvider.setFilter(filter);
+		if (visibleRangeOnly) {
+			newProvider.setVisibleRangeOnly(true);
+		}
+	}
+
+	/**
+	 * Sets the sort order for the root elements. This sort order takes priority
+	 * over anything that was supplied to the <code>TreeViewer</code>.
+	 *
+	 * @param sortOrder new sort order. The comparator must be able to support
+	 *                  being used in a background thread.
+	 */
+	public void setSortOrder(Comparator sortOrder) {
+		Assert.isNotNull(sortOrder);
+		this.sortOrder = sortOrder;
+		if (provider != null) {
+			provider.setSortOrder(sortOrder);
+		}
+	}
+
+	/**
+	 * Sets the filter for the root elements. This filter takes priority over
+	 * anything that was supplied to the <code>TreeViewer</code>. The filter must
+	 * be capable of being used in a background thread.
+	 *
+	 * @param toSet filter to set
+	 */
+	public void setFilter(IFilter toSet) {
+		this.filter = toSet;
+		if (provider != null) {
+			provider.setFilter(toSet);
+		}
+	}
+
+	/**
+	 * Sets the maximum number of root elements. If the model contains more than
+	 * this number of elements, only the top elements will be shown based on the
+	 * current sort order.
+	 *
+	 * @param limit maximum number of root elements to show or -1 if unbounded
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit;
+		if (provider != null) {
+			provider.setLimit(limit);
+		}
+	}
+
+	/**
+	 * Returns the current maximum number of root elements or -1 if unbounded
+	 *
+	 * @return the current maximum number of root elements or -1 if unbounded
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Sets whether only the currently visible root elements are sorted and
+	 * sent to the tree. This keeps models with millions of elements responsive,
+	 * since the full sorted list is never built.
+	 *
+	 * @param rangeOnly true to only sort the visible range
+	 */
+	public void setVisibleRangeOnly(boolean rangeOnly) {
+		this.visibleRangeOnly = rangeOnly;
+		if (provider != null) {
+			provider.setVisibleRangeOnly(rangeOnly);
+		}
+	}
+
+	/**
+	 * Returns whether only the currently visible root elements are sorted.
+	 *
+	 * @return true iff only the visible range is sorted
+	 */
+	public boolean isVisibleRangeOnly() {
+		return visibleRangeOnly;
+	}
+
+	/**
+	 * Sets the content provider for the children of the root elements, or
+	 * <code>null</code> if the root elements have no children. The content
+	 * provider is called in the UI thread.
+	 *
+	 * @param childProvider the content provider for children, or
+	 *                      <code>null</code>
+	 */
+	public void setChildProvider(ITreeContentProvider childProvider) {
+		this.childProvider = childProvider;
+		childrenCache.clear();
+	}
+
+	@Override
+	public void updateElement(Object parent, int index) {
+		if (parent == input) {
+			if (provider != null) {
+				provider.checkVisibleRange(index);
+			}
+			return;
+		}
+		if (childProvider != null && viewer != null) {
+			Object[] children = childrenCache.get(parent);
+			if (children == null) {
+				children = getChildren(parent);
+			}
+			if (index < children.length) {
+				viewer.replace(parent, index, children[index]);
+			}
+		}
+	}
+
+	@Override
+	public void updateChildCount(Object element, int currentChildCount) {
+		if (element == input || viewer == null) {
+			// the root element count is set by the background provider, and
+			// the children are asked again after a refresh of the tree
+			childrenCache.clear();
+			return;
+		}
+		int count = 0;
+		if (childProvider != null && childProvider.hasChildren(element)) {
+			// the element is refreshed, forget its previous children
+			count = getChildren(element).length;
+		} else {
+			childrenCache.remove(element);
+		}
+		if (count != currentChildCount) {
+			viewer.setChildCount(element, count);
+		}
+	}
+
+	/**
+	 * Returns the children of the element from the child provider and
+	 * remembers them.
+	 */
+	private Object[] getChildren(Object element) {
+		Object[] children = childProvider.getChildren(element);
+		if (children == null) {
+			children = new Object[0];
+		}
+		childrenCache.put(element, children);
+		return children;
+	}
+
+	@Override
+	public Object getParent(Object element) {
+		Object parent = childProvider != null ? childProvider.getParent(element) : null;
+		return parent != null ? parent : input;
+	}
+
+	private void setProvider(BackgroundContentProvider newProvider) {
+		if (provider != null) {
+			provider.dispose();
+		}
+
+		provider = newProvider;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,10 @@ package org.eclipse.ui.internal.views.markers;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -73,7 +75,6 @@ public class CachedMarkerBuilder {
 
 	private IMemento memento;
 
-
 	/**
 	 * Create a new instance of the receiver. Update using the updateJob.
 	 * @param view
@@ -131,8 +132,10 @@ public class CachedMarkerBuilder {
 		}
 
 		if (isIncremental()) {
-			if (incrementJob != null) {
-				incrementJob.clearEntries();
+			synchronized (getUpdateScheduler().getSchedulingLock()) {
+				if (updateJob instanceof IncrementUpdateJob) {
+					((IncrementUpdateJob) updateJob).clearEntries();
+				}
 			}
 		}
 	}
@@ -451,11 +454,7 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
-				updateJob = new MarkerUpdateJob(this);
+				updateJob = isIncremental() ? new IncrementUpdateJob(this) : new MarkerUpdateJob(this);
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
 			}
@@ -597,20 +596,16 @@ public class CachedMarkerBuilder {
 	}
 
 ///////	<Incremental update code>///////
-		private IncrementUpdateJob incrementJob;
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should perform incrementally. The markers are
+	 * gathered again only when a clean update is requested, e.g. because the
+	 * filters changed; the marker deltas received otherwise are applied to the
+	 * markers gathered before.
 	 *
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return true;
 	}
 
 	/**
@@ -639,18 +634,18 @@ public class CachedMarkerBuilder {
 	}
 
 	/**
-	 * Handles an incremental update
-	 * @param update
+	 * Handles an incremental update. Until the update job exists the markers
+	 * have not been gathered, so there is nothing to update.
+	 *
+	 * @param changedMarkers
+	 *            the markers added, removed or changed
 	 */
-	void incrementalUpdate(MarkerUpdate update) {
+	void incrementalUpdate(Collection<IMarker> changedMarkers) {
 		synchronized (getUpdateScheduler().getSchedulingLock()) {
-			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
+			if (updateJob instanceof IncrementUpdateJob) {
+				((IncrementUpdateJob) updateJob).addUpdates(changedMarkers);
 			}
 		}
-		if (incrementJob != null) {
-			incrementJob.addUpdate(update);
-		}
 	}
 ///////	</Incremental update code>///////
 
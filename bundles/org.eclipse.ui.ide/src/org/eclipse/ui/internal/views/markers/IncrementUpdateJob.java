@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,275 +14,116 @@
 
 package org.eclipse.ui.internal.views.markers;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 /**
- * The job that performs incremental update. Once the processing is complete it
- * schedules an UI update. If it'll be possible and beneficial switch to
- * incremental updatation, this has been left out for further investigation(*).
- * only, and not used currently.
+ * The job that performs incremental update. Unless a clean is requested, it
+ * applies the marker deltas received since the last update to the markers
+ * gathered before, instead of gathering all markers again. Once the processing
+ * is complete it schedules an UI update.
  *
  * @since 3.6
  *
  */
 class IncrementUpdateJob extends MarkerUpdateJob {
 
-	private LinkedList<MarkerEntry> incrementEntryList;
-	private LinkedList<MarkerUpdate> updateQueue;
+	// the markers added, removed or changed since the last update
+	private Set<IMarker> changedMarkers = new LinkedHashSet<>();
 
 	/**
 	 * @param builder
 	 */
 	public IncrementUpdateJob(CachedMarkerBuilder builder) {
 		super(builder);
-		incrementEntryList = new LinkedList<>();
 	}
 
 	@Override
 	protected IStatus run(IProgressMonitor monitor) {
-		monitor.beginTask(MarkerMessages.MarkerView_processUpdates, IProgressMonitor.UNKNOWN);
-		boolean clean= isClean();
+		boolean clean = resetClean();
+		boolean updated;
 		if (clean) {
+			monitor.beginTask(MarkerMessages.MarkerView_searching_for_markers, IProgressMonitor.UNKNOWN);
+			// the gathered markers include all changes up to now
 			clearEntries();
-		}
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		if (clean) {
-			/*
-			 * Unfortunately we cannot lock marker operations between gathering
-			 * and updation. We have this code in place only for further
-			 * investigation
-			 */
-			clean = !clean(markerEntries, monitor);
-			LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-			synchronized (queue) {
-				queue.clear();
-			}
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		if (!clean) {
-			builder.registerTypesToListener();
-			if (!processUpdates(monitor)) {
-				return Status.CANCEL_STATUS;
+			updated = buildMarkers(monitor);
+			if (!updated) {
+				setClean();
 			}
+		} else {
+			monitor.beginTask(MarkerMessages.MarkerView_processUpdates, IProgressMonitor.UNKNOWN);
+			updated = processUpdates(monitor);
 		}
-		if (!processMarkerEntries(markerEntries, monitor)) {
-			return Status.CANCEL_STATUS;
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		// update with sorted entries
-		updateIncrementalList(markerEntries);
-
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		builder.setBuilding(false);
-		updateDone();
-		return Status.OK_STATUS;
+		return updated ? Status.OK_STATUS : Status.CANCEL_STATUS;
 	}
 
 	/**
-	 * Update the list
-	 *
-	 * @param markerEntries
-	 */
-	private boolean updateIncrementalList(Collection<MarkerEntry> markerEntries) {
-		markerEntries.clear();
-		Markers clone = builder.getMarkers();
-		synchronized (clone) {
-			clone = clone.getClone();
-		}
-		markerEntries.addAll(Arrays.asList(clone.getMarkerEntryArray()));
-		return true;
-	}
-
-	/**
-	 * Process the incremental updates
+	 * Apply the pending marker changes to the markers.
 	 *
 	 * @param monitor
+	 * @return <code>true</code> if the markers have been updated
 	 */
 	private boolean processUpdates(IProgressMonitor monitor) {
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		int addCount = 0, removedCount = 0, changedCount = 0, size = 0, newSize = 0;
-		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-		MarkerUpdate next = null;
-		do {
-			synchronized (queue) {
-				if (!queue.isEmpty()) {
-					next = queue.removeFirst();
-				} else {
-					next = null;
-				}
-			}
-			if (monitor.isCanceled() || next == null) {
-				break;
-			}
-			/**
-			 * The following performs incremental updation of the markers that
-			 * were gathered intially, and keeps them synched at any point with
-			 * the markers of interest in Workspace
-			 */
-			// unfortunately marker operations cannot be locked
-			// so locking between gathering of markers and
-			// marker deltas is not possible
-			size = markerEntries.size();
-			handleRemovedEntries(markerEntries, next.removed, monitor);
-			newSize = markerEntries.size();
-			removedCount += size - newSize;
-
-			handleChangedEntries(markerEntries, next.changed, monitor);
-			changedCount += next.changed.size();
-
-			size = newSize;
-			handleAddedEntries(markerEntries, next.added, monitor);
-			newSize = markerEntries.size();
-			removedCount += newSize - size;
-		} while (next != null);
-		boolean[] changeFlags = new boolean[] { addCount > 0, removedCount > 0,
-				changedCount > 0 };
-		for (boolean changeFlag : changeFlags) {
-			if (changeFlag) {
-				builder.updateChangeFlags(changeFlags);
-				return true;
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * @param added
-	 * @param monitor
-	 */
-	private void handleAddedEntries(Collection<MarkerEntry> markerEntries, Collection<MarkerEntry> added,
-			IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = added.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (generator.select(entry)) {
-				markerEntries.add(entry);
-			}
-		}
-	}
-
-	/**
-	 * @param changed
-	 * @param monitor
-	 */
-	private void handleChangedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> changed, IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = changed.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			Iterator<MarkerEntry> iterator2 = markerEntries.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry oldEntry = iterator2.next();
-				if (oldEntry.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-				}
-			}
-			if (!generator.select(entry)) {
-				iterator.remove();
-			}
-		}
-		markerEntries.addAll(changed);
-	}
-
-	/**
-	 * @param removed
-	 * @param monitor
-	 */
-	private void handleRemovedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> removed, IProgressMonitor monitor) {
-		boolean found = false;
-		Iterator<MarkerEntry> iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			found = entry.getStaleState();
-			if (found) {
-				iterator.remove();
-			}
-			if (removed.isEmpty()) {
-				continue;
-			}
-			Iterator<MarkerEntry> iterator2 = removed.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry stale = iterator2.next();
-				if (stale.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-					if (!found) {
-						iterator.remove();
-					}
-					break;
-				}
-			}
-		}
-		if (removed.isEmpty()) {
-			// TODO: do we check for residuals?
-			return;
+		Collection<IMarker> markers = takeUpdates();
+		if (monitor.isCanceled()) {
+			restoreUpdates(markers);
+			return false;
 		}
-		// TODO: do we check for residuals?
-		iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (entry.getMarker() != null && !entry.getMarker().exists()) {
-				iterator.remove();
+		if (!markers.isEmpty()) {
+			if (!builder.getMarkers().updateWithMarkerChanges(markers, monitor)) {
+				restoreUpdates(markers);
+				return false;
 			}
+			builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
 		}
+		builder.setBuilding(false);
+		updateDone();
+		return true;
 	}
 
 	/**
 	 * Clean
 	 */
-	void clearEntries() {
-		incrementEntryList = new LinkedList<>();
+	synchronized void clearEntries() {
+		changedMarkers = new LinkedHashSet<>();
 	}
 
 	/**
-	 * @return Returns the incrementEntryies.
+	 * Add the markers of marker deltas to the pending updates.
+	 *
+	 * @param markers
 	 */
-	Collection<MarkerEntry> incrementalEntries() {
-		return incrementEntryList;
+	synchronized void addUpdates(Collection<IMarker> markers) {
+		changedMarkers.addAll(markers);
 	}
 
 	/**
-	 * @return the updateQueue that holds the updates and maintains ordering
+	 * @return the pending updates, which are removed
 	 */
-	LinkedList<MarkerUpdate> getUpdatesQueue() {
-		synchronized (builder.MARKER_INCREMENTAL_UPDATE_FAMILY) {
-			if (updateQueue == null) {
-				updateQueue = new LinkedList<>();
-			}
-			return updateQueue;
-		}
+	private synchronized Collection<IMarker> takeUpdates() {
+		List<IMarker> markers = new ArrayList<>(changedMarkers);
+		changedMarkers = new LinkedHashSet<>();
+		return markers;
 	}
 
 	/**
-	 * Add update to the list
+	 * Add back the updates which could not be applied.
 	 *
-	 * @param update
+	 * @param markers
 	 */
-	void addUpdate(MarkerUpdate update) {
-		LinkedList<MarkerUpdate> updateList = getUpdatesQueue();
-		synchronized (updateList) {
-			updateList.addLast(update);
-		}
+	private synchronized void restoreUpdates(Collection<IMarker> markers) {
+		Set<IMarker> updates = new LinkedHashSet<>(markers);
+		updates.addAll(changedMarkers);
+		changedMarkers = updates;
 	}
 
 	@Override
@@ -292,4 +133,4 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 		}
 		return super.belongsTo(family);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.internal.views.markers;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.views.markers.MarkerViewUtil;
+
+/**
+ * The MarkerAttributeTable holds the attributes of a set of MarkerEntry(s)
+ * which are used for sorting and displaying them, one column per attribute and
+ * one row per entry. The attributes of all entries are read once when the table
+ * is created, so sorting does not have to read them from the markers again and
+ * again; equal strings are shared and the collation keys of the descriptions
+ * are computed once per distinct description.
+ * <p>
+ * A table does not change after it has been created. The entries of markers
+ * which change later get new rows in a new table.
+ * </p>
+ *
+ * @since 3.18
+ */
+final class MarkerAttributeTable {
+
+	/**
+	 * The value of an int column if the attribute is not set.
+	 */
+	private static final int UNSET = Integer.MIN_VALUE;
+
+	/**
+	 * The value of an int column if the attribute is not an Integer, which is
+	 * then read from the marker.
+	 */
+	private static final int NOT_AN_INTEGER = Integer.MIN_VALUE + 1;
+
+	/**
+	 * The value of a string column if the attribute is not a String, which is
+	 * then read from the marker.
+	 */
+	private static final String NOT_A_STRING = new String();
+
+	private static final String[] ATTRIBUTES = { IMarker.SEVERITY, IMarker.PRIORITY, IMarker.LINE_NUMBER,
+			IMarker.MESSAGE, IMarker.LOCATION, MarkerViewUtil.PATH_ATTRIBUTE };
+
+	private final int[] severities;
+	private final int[] priorities;
+	private final int[] lineNumbers;
+	private final String[] messages;
+	private final String[] locations;
+	private final String[] paths;
+
+	private final CollationKey[] messageKeys;
+	private final Map<String, CollationKey> collationKeys = new ConcurrentHashMap<>();
+	private final Collator collator = Collator.getInstance();
+
+	private MarkerAttributeTable(int size) {
+		severities = new int[size];
+		priorities = new int[size];
+		lineNumbers = new int[size];
+		messages = new String[size];
+		locations = new String[size];
+		paths = new String[size];
+		messageKeys = new CollationKey[size];
+	}
+
+	/**
+	 * Create a table for the entries in [from,to] and assign them their rows.
+	 * Entries whose markers do not exist any more get no row.
+	 *
+	 * @param entries
+	 * @param from
+	 * @param to
+	 */
+	static void create(MarkerEntry[] entries, int from, int to) {
+		if (to < from) {
+			return;
+		}
+		MarkerAttributeTable table = new MarkerAttributeTable(to - from + 1);
+		Map<String, String> strings = new HashMap<>();
+		int row = 0;
+		for (int i = from; i <= to; i++) {
+			MarkerEntry entry = entries[i];
+			if (table.read(row, entry.getMarker(), strings)) {
+				entry.setAttributeRow(table, row++);
+			}
+		}
+	}
+
+	private boolean read(int row, IMarker marker, Map<String, String> strings) {
+		if (marker == null) {
+			return false;
+		}
+		Object[] values;
+		try {
+			values = marker.getAttributes(ATTRIBUTES);
+		} catch (CoreException e) {
+			return false;
+		}
+		severities[row] = toInt(values[0]);
+		priorities[row] = toInt(values[1]);
+		lineNumbers[row] = toInt(values[2]);
+		messages[row] = toString(values[3], strings);
+		locations[row] = toString(values[4], strings);
+
+		String path = toString(values[5], strings);
+		if (path == null) {
+			IPath fullPath = marker.getResource().getFullPath();
+			if (fullPath.segmentCount() <= 1) {
+				path = MarkerItemDefaults.PATH_DEFAULT;
+			} else {
+				path = fullPath.removeLastSegments(1).removeTrailingSeparator().toString();
+			}
+			path = strings.computeIfAbsent(path, s -> s);
+		}
+		paths[row] = path;
+		return true;
+	}
+
+	private static int toInt(Object value) {
+		if (value == null) {
+			return UNSET;
+		}
+		if (value instanceof Integer) {
+			int intValue = ((Integer) value).intValue();
+			if (intValue != UNSET && intValue != NOT_AN_INTEGER) {
+				return intValue;
+			}
+		}
+		return NOT_AN_INTEGER;
+	}
+
+	private static String toString(Object value, Map<String, String> strings) {
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof String) {
+			return strings.computeIfAbsent((String) value, s -> s);
+		}
+		return NOT_A_STRING;
+	}
+
+	/**
+	 * @param attribute
+	 * @return Returns whether the attribute is held in an int column.
+	 */
+	static boolean isIntAttribute(String attribute) {
+		return IMarker.SEVERITY.equals(attribute) || IMarker.PRIORITY.equals(attribute)
+				|| IMarker.LINE_NUMBER.equals(attribute);
+	}
+
+	/**
+	 * @param attribute
+	 * @return Returns whether the attribute is held in a string column.
+	 */
+	static boolean isStringAttribute(String attribute) {
+		return IMarker.MESSAGE.equals(attribute) || IMarker.LOCATION.equals(attribute);
+	}
+
+	/**
+	 * Return whether the int attribute of the row can be answered by the
+	 * receiver.
+	 *
+	 * @param row
+	 * @param attribute
+	 *            an attribute for which {@link #isIntAttribute(String)} is
+	 *            <code>true</code>
+	 * @return boolean
+	 */
+	boolean hasInt(int row, String attribute) {
+		return getIntColumn(attribute)[row] != NOT_AN_INTEGER;
+	}
+
+	/**
+	 * Return the int attribute of the row, which must be answered by the
+	 * receiver.
+	 *
+	 * @param row
+	 * @param attribute
+	 * @param defaultValue
+	 *            the value if the attribute is not set
+	 * @return int
+	 * @see #hasInt(int, String)
+	 */
+	int getInt(int row, String attribute, int defaultValue) {
+		int value = getIntColumn(attribute)[row];
+		return value == UNSET ? defaultValue : value;
+	}
+
+	private int[] getIntColumn(String attribute) {
+		if (IMarker.SEVERITY.equals(attribute)) {
+			return severities;
+		}
+		if (IMarker.PRIORITY.equals(attribute)) {
+			return priorities;
+		}
+		return lineNumbers;
+	}
+
+	/**
+	 * Return whether the string attribute of the row can be answered by the
+	 * receiver.
+	 *
+	 * @param row
+	 * @param attribute
+	 *            an attribute for which {@link #isStringAttribute(String)} is
+	 *            <code>true</code>
+	 * @return boolean
+	 */
+	boolean hasString(int row, String attribute) {
+		return getStringColumn(attribute)[row] != NOT_A_STRING;
+	}
+
+	/**
+	 * Return the string attribute of the row, which must be answered by the
+	 * receiver.
+	 *
+	 * @param row
+	 * @param attribute
+	 * @return String or <code>null</code> if the attribute is not set
+	 * @see #hasString(int, String)
+	 */
+	String getString(int row, String attribute) {
+		return getStringColumn(attribute)[row];
+	}
+
+	private String[] getStringColumn(String attribute) {
+		if (IMarker.MESSAGE.equals(attribute)) {
+			return messages;
+		}
+		return locations;
+	}
+
+	/**
+	 * @param row
+	 * @return Returns whether the path of the row can be answered by the
+	 *         receiver.
+	 */
+	boolean hasPath(int row) {
+		return paths[row] != NOT_A_STRING;
+	}
+
+	/**
+	 * @param row
+	 * @return Returns the path shown for the marker of the row.
+	 * @see #hasPath(int)
+	 */
+	String getPath(int row) {
+		return paths[row];
+	}
+
+	/**
+	 * Return the collation key of the message of the row, which must be
+	 * answered by the receiver.
+	 *
+	 * @param row
+	 * @param defaultValue
+	 *            the message if it is not set
+	 * @return CollationKey
+	 */
+	CollationKey getMessageKey(int row, String defaultValue) {
+		CollationKey key = messageKeys[row];
+		if (key != null) {
+			return key;
+		}
+		String message = messages[row];
+		if (message == null) {
+			message = defaultValue;
+		}
+		if (message.isEmpty()) {
+			key = MarkerSupportInternalUtilities.EMPTY_COLLATION_KEY;
+		} else {
+			key = collationKeys.computeIfAbsent(message, collator::getCollationKey);
+		}
+		if (messages[row] != null) {
+			messageKeys[row] = key;
+		}
+		return key;
+	}
+}
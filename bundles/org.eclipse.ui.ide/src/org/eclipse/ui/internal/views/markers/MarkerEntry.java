@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -69,6 +69,10 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	private MarkerCategory category;
 	private Map<String, Object> cache;
 
+	// the attributes of the marker, read when the entry was gathered
+	private MarkerAttributeTable attributeTable;
+	private int attributeRow;
+
 	/**
 	 * Set the MarkerEntry to be stale, if discovered at any point of time
 	 * of its use.This will greatly speed up a lot of parts of the view.
@@ -131,6 +135,10 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public int getAttributeValue(String attribute, int defaultValue) {
+		MarkerAttributeTable table = attributeTable;
+		if (table != null && MarkerAttributeTable.isIntAttribute(attribute) && table.hasInt(attributeRow, attribute)) {
+			return table.getInt(attributeRow, attribute, defaultValue);
+		}
 		Object value = getAttributeValue(attribute);
 		if (value == null) {
 			return defaultValue;
@@ -169,6 +177,12 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public String getAttributeValue(String attribute, String defaultValue) {
+		MarkerAttributeTable table = attributeTable;
+		if (table != null && MarkerAttributeTable.isStringAttribute(attribute)
+				&& table.hasString(attributeRow, attribute)) {
+			String value = table.getString(attributeRow, attribute);
+			return value == null ? defaultValue : value;
+		}
 		Object value = getAttributeValue(attribute);
 		if (value == null) {
 			return defaultValue;
@@ -203,6 +217,10 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	 * @return CollationKey
 	 */
 	CollationKey getCollationKey(String attribute, String defaultValue) {
+		MarkerAttributeTable table = attributeTable;
+		if (table != null && IMarker.MESSAGE.equals(attribute) && table.hasString(attributeRow, attribute)) {
+			return table.getMessageKey(attributeRow, defaultValue);
+		}
 		String attributeValue;
 		Object value = getCache().get(attribute);
 		if (value != null) {
@@ -322,6 +340,10 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public String getPath() {
+		MarkerAttributeTable table = attributeTable;
+		if (table != null && table.hasPath(attributeRow)) {
+			return table.getPath(attributeRow);
+		}
 		String folder = getAttributeValue(MarkerViewUtil.PATH_ATTRIBUTE, null);
 		if (folder != null) {
 			return folder;
@@ -364,9 +386,21 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		this.marker = marker;
 		// reset stale
 		stale = false;
+		attributeTable = null;
 		clearCache();
 	}
 
+	/**
+	 * Set the row of the table holding the attributes of the marker.
+	 *
+	 * @param table
+	 * @param row
+	 */
+	void setAttributeRow(MarkerAttributeTable table, int row) {
+		attributeTable = table;
+		attributeRow = row;
+	}
+
 	/**
 	 * Get the cache for the receiver. Create if neccessary.
 	 *
@@ -380,7 +414,8 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	}
 
 	/**
-	 * Clear the cached values for performance reasons.
+	 * Clear the cached values for performance reasons. The attributes read when
+	 * the entry was gathered are kept.
 	 */
 	@Override
 	void clearCache() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -59,11 +59,12 @@ class MarkerUpdateJob extends Job {
 	 * gather all markers needed by the view.
 	 *
 	 * @param monitor
+	 * @return <code>true</code> if the markers have been updated
 	 */
-	void buildMarkers(IProgressMonitor monitor) {
+	boolean buildMarkers(IProgressMonitor monitor) {
 		//check for cancellation before we start
 		if (monitor.isCanceled()) {
-			return;
+			return false;
 		}
 		// builder.getUpdateScheduler().cancelQueuedUIUpdates();
 		// builder.getUpdateScheduler().indicateStatus(
@@ -71,26 +72,27 @@ class MarkerUpdateJob extends Job {
 
 		Collection<MarkerEntry> markerEntries = new LinkedList<>();
 		//this is not incremental clean every time
-		clean = !clean(markerEntries, monitor);
+		clean(markerEntries, monitor);
 		if (monitor.isCanceled()) {
-			return;
+			return false;
 		}
 		// builder.getUpdateScheduler().indicateStatus(
 		// MarkerMessages.MarkerView_processUpdates, false);
 
 		monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
 		if (!processMarkerEntries(markerEntries, monitor)) {
-			return;
+			return false;
 		}
 		if (monitor.isCanceled()) {
-			return;
+			return false;
 		}
 		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
 		if (monitor.isCanceled()) {
-			return;
+			return false;
 		}
 		builder.setBuilding(false);
 		updateDone();
+		return true;
 	}
 
 	/**
@@ -151,17 +153,28 @@ class MarkerUpdateJob extends Job {
 	/**
 	 * @return Returns if the a clean is requested.
 	 */
-	boolean isClean() {
+	synchronized boolean isClean() {
 		return clean;
 	}
 
 	/**
 	 * Request a clean
 	 */
-	void setClean() {
+	synchronized void setClean() {
 		this.clean = true;
 	}
 
+	/**
+	 * Reset the request of a clean.
+	 *
+	 * @return Returns if a clean was requested.
+	 */
+	synchronized boolean resetClean() {
+		boolean wasClean = clean;
+		clean = false;
+		return wasClean;
+	}
+
 	/**
 	 * @return last update time
 	 */
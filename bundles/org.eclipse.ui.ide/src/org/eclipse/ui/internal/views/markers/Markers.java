@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,11 +21,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -47,11 +50,14 @@ class Markers {
 
 	static final MarkerCategory[] EMPTY_CATEGORY_ARRAY = new MarkerCategory[0];
 	static final MarkerEntry[] EMPTY_ENTRY_ARRAY = new MarkerEntry[0];
+	static final MarkerGroupingEntry[] EMPTY_GROUPING_ENTRY_ARRAY = new MarkerGroupingEntry[0];
 
 	// the marker entries
 	private volatile MarkerEntry[] markerEntryArray = EMPTY_ENTRY_ARRAY;
 	// the categories
 	private volatile MarkerCategory[] categories = EMPTY_CATEGORY_ARRAY;
+	// the group values of the categories
+	private MarkerGroupingEntry[] categoryGroupingEntries = EMPTY_GROUPING_ENTRY_ARRAY;
 
 	private CachedMarkerBuilder builder;
 
@@ -87,6 +93,7 @@ class Markers {
 			markerCounts = null;
 			if (markerEntries.isEmpty()) {
 				categories = EMPTY_CATEGORY_ARRAY;
+				categoryGroupingEntries = EMPTY_GROUPING_ENTRY_ARRAY;
 				markerEntryArray = EMPTY_ENTRY_ARRAY;
 				return true;
 			}
@@ -95,6 +102,7 @@ class Markers {
 			}
 			MarkerEntry[] markerArray = new MarkerEntry[markerEntries.size()];
 			markerEntries.toArray(markerArray);
+			MarkerAttributeTable.create(markerArray, 0, markerArray.length - 1);
 			markerEntryArray = markerArray;
 			if (sortAndGroup) {
 				if (monitor.isCanceled()) {
@@ -107,6 +115,7 @@ class Markers {
 				}
 			} else {
 				categories = EMPTY_CATEGORY_ARRAY;
+				categoryGroupingEntries = EMPTY_GROUPING_ENTRY_ARRAY;
 			}
 			return true;
 		} finally {
@@ -114,6 +123,161 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Update with the changes of the given markers, which have been added,
+	 * removed or changed since the markers were collected. Only the categories
+	 * containing the changed markers are sorted again.
+	 *
+	 * @param changedMarkers
+	 *            the markers of the marker deltas
+	 * @param monitor
+	 * @return <code>true</code> if the markers have been updated,
+	 *         <code>false</code> if the update has been cancelled
+	 */
+	synchronized boolean updateWithMarkerChanges(Collection<IMarker> changedMarkers, IProgressMonitor monitor) {
+		MarkerContentGenerator generator = builder.getGenerator();
+		// Remove the entries of all changed markers and add those which still
+		// exist, so the order of the changes does not matter
+		List<MarkerEntry> addedEntries = new ArrayList<>();
+		for (IMarker marker : changedMarkers) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			if (marker.exists()) {
+				MarkerEntry entry = new MarkerEntry(marker);
+				if (generator.select(entry)) {
+					addedEntries.add(entry);
+				}
+			}
+		}
+		MarkerAttributeTable.create(addedEntries.toArray(EMPTY_ENTRY_ARRAY), 0, addedEntries.size() - 1);
+		Set<IMarker> removedMarkers = new HashSet<>(changedMarkers);
+
+		MarkerEntry[] oldEntries = markerEntryArray;
+		List<MarkerEntry> newEntries = new ArrayList<>(oldEntries.length + addedEntries.size());
+		if (!builder.isShowingHierarchy()) {
+			boolean touched = copyRemaining(oldEntries, 0, oldEntries.length - 1, removedMarkers, newEntries);
+			newEntries.addAll(addedEntries);
+			MarkerEntry[] newArray = newEntries.toArray(EMPTY_ENTRY_ARRAY);
+			if (touched || !addedEntries.isEmpty()) {
+				int effLimit = getShowingLimit(newArray.length - 1);
+				MarkerSortUtil.sortStartingKElement(newArray, builder.getComparator(), effLimit, monitor);
+				if (monitor.isCanceled()) {
+					return false;
+				}
+			}
+			publish(newArray, EMPTY_CATEGORY_ARRAY, EMPTY_GROUPING_ENTRY_ARRAY);
+			return true;
+		}
+
+		MarkerGroup group = builder.getCategoryGroup();
+		MarkerCategory[] oldCategories = categories;
+		MarkerGroupingEntry[] oldGroupingEntries = categoryGroupingEntries;
+		TreeMap<MarkerGroupingEntry, MarkerCategory> oldCategoryMap = new TreeMap<>(group.getEntriesComparator());
+		for (int i = 0; i < oldCategories.length; i++) {
+			oldCategoryMap.put(oldGroupingEntries[i], oldCategories[i]);
+		}
+		TreeMap<MarkerGroupingEntry, List<MarkerEntry>> addedEntryMap = new TreeMap<>(group.getEntriesComparator());
+		for (MarkerEntry entry : addedEntries) {
+			IMarker marker = entry.getMarker();
+			try {
+				addedEntryMap.computeIfAbsent(group.findGroupValue(marker.getType(), marker),
+						k -> new ArrayList<>()).add(entry);
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+			}
+		}
+		Set<MarkerGroupingEntry> groupingEntries = new TreeSet<>(group.getEntriesComparator());
+		groupingEntries.addAll(oldCategoryMap.keySet());
+		groupingEntries.addAll(addedEntryMap.keySet());
+
+		// The [start,end] ranges of the new categories, and those to sort
+		List<int[]> ranges = new ArrayList<>(groupingEntries.size());
+		List<int[]> touchedRanges = new ArrayList<>();
+		List<MarkerGroupingEntry> groupingEntryList = new ArrayList<>(groupingEntries.size());
+		for (MarkerGroupingEntry groupingEntry : groupingEntries) {
+			int start = newEntries.size();
+			boolean touched = false;
+			MarkerCategory oldCategory = oldCategoryMap.get(groupingEntry);
+			if (oldCategory != null) {
+				touched = copyRemaining(oldEntries, oldCategory.start, oldCategory.end, removedMarkers, newEntries);
+			}
+			List<MarkerEntry> added = addedEntryMap.get(groupingEntry);
+			if (added != null) {
+				newEntries.addAll(added);
+				touched = true;
+			}
+			int end = newEntries.size() - 1;
+			if (end < start) {
+				// all markers of the category have been removed
+				continue;
+			}
+			int[] range = new int[] { start, end };
+			ranges.add(range);
+			groupingEntryList.add(groupingEntry);
+			if (touched) {
+				touchedRanges.add(range);
+			}
+		}
+
+		MarkerEntry[] newArray = newEntries.toArray(EMPTY_ENTRY_ARRAY);
+		Comparator<MarkerItem> comparator = builder.getComparator().getFieldsComparator();
+		for (int[] range : touchedRanges) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			int effLimit = getShowingLimit(range[1] - range[0] + 1);
+			MarkerSortUtil.sortStartingKElement(newArray, comparator, range[0], range[1], effLimit, monitor);
+		}
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		MarkerCategory[] newCategories = new MarkerCategory[ranges.size()];
+		for (int i = 0; i < newCategories.length; i++) {
+			int[] range = ranges.get(i);
+			newCategories[i] = new MarkerCategory(this, range[0], range[1],
+					group.getMarkerField().getValue(newArray[range[0]]));
+		}
+		publish(newArray, newCategories, groupingEntryList.toArray(EMPTY_GROUPING_ENTRY_ARRAY));
+		return true;
+	}
+
+	/**
+	 * Copy the entries of [from,to] whose markers have not been removed.
+	 *
+	 * @return <code>true</code> if an entry has been left out
+	 */
+	private static boolean copyRemaining(MarkerEntry[] entries, int from, int to, Set<IMarker> removedMarkers,
+			List<MarkerEntry> result) {
+		boolean removed = false;
+		for (int i = from; i <= to; i++) {
+			if (removedMarkers.contains(entries[i].getMarker())) {
+				removed = true;
+			} else {
+				result.add(entries[i]);
+			}
+		}
+		return removed;
+	}
+
+	private void publish(MarkerEntry[] newEntries, MarkerCategory[] newCategories,
+			MarkerGroupingEntry[] newGroupingEntries) {
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			markerEntryArray = newEntries;
+			categories = newCategories;
+			categoryGroupingEntries = newGroupingEntries;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
 	/**
 	 * Sort the contained marker entries and build categories if required.
 	 *
@@ -129,6 +293,7 @@ class Markers {
 				categories = markerCategories;
 			} else {
 				categories = EMPTY_CATEGORY_ARRAY;
+				categoryGroupingEntries = EMPTY_GROUPING_ENTRY_ARRAY;
 			}
 
 			if (monitor.isCanceled()) {
@@ -230,15 +395,18 @@ class Markers {
 				builder.getCategoryGroup(), newMarkers.length - 1, monitor);
 		int start = 0;
 		MarkerCategory[] markerCategories = new MarkerCategory[boundaryInfoMap.size()];
+		MarkerGroupingEntry[] groupingEntries = new MarkerGroupingEntry[boundaryInfoMap.size()];
 		int i = 0;
 		int end = 0;
 		for (Entry<MarkerGroupingEntry, Integer> entry : boundaryInfoMap.entrySet()) {
 			end = entry.getValue();
+			groupingEntries[i] = entry.getKey();
 			markerCategories[i++] = new MarkerCategory(this, start, end,
 					builder.getCategoryGroup().getMarkerField()
 							.getValue(newMarkers[start]));
 			start = end + 1;
 		}
+		categoryGroupingEntries = groupingEntries;
 		return markerCategories;
 	}
 
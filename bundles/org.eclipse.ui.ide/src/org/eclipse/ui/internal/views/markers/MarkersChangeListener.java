@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,14 +14,13 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
-import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.jobs.Job;
 
@@ -176,15 +175,11 @@ class MarkersChangeListener implements IResourceChangeListener {
 	}
 
 	/**
-	 * Handle changes incrementally.
-	 * The following performs incremental updation
-	 * of the markers that were gathered initially, and keeps them synched at
-	 * any point with the markers of interest in Workspace. Unfortunately marker
-	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
-	 *
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * Handle changes incrementally. The markers of the marker deltas are
+	 * remembered, so that the update job applies them to the markers gathered
+	 * before instead of gathering all markers again. Marker operations cannot be
+	 * locked, so the changes are applied based on the state of the markers when
+	 * the update runs.
 	 *
 	 * @param event
 	 */
@@ -193,46 +188,24 @@ class MarkersChangeListener implements IResourceChangeListener {
 		if (markerDeltas.length == 0) {
 			return;
 		}
-		Collection<MarkerEntry> removed = new LinkedList<>(), added = new LinkedList<>(), changed = new LinkedList<>();
+		Collection<IMarker> changedMarkers = new ArrayList<>();
 		String[] types = listeningTypes;
 		for (IMarkerDelta markerDelta : markerDeltas) {
-			try {
-				String typeId = markerDelta.getType();
-				if (!isApplicableType(types, typeId)) {
-					continue;
-				}
-				IMarker marker = markerDelta.getMarker();
-				MarkerEntry markerEntry = new MarkerEntry(marker);
-				switch (markerDelta.getKind()) {
-				case IResourceDelta.REMOVED: {
-					removed.add(markerEntry);
-					break;
-				}
-				case IResourceDelta.ADDED: {
-					added.add(markerEntry);
-					break;
-				}
-				case IResourceDelta.CHANGED: {
-					changed.add(markerEntry);
-					break;
-				}
-				default:{
-					break;
-				}
-				}
-			} catch (Exception e) {
-				// log exception
-				MarkerSupportInternalUtilities.logViewError(e);
+			if (isApplicableType(types, markerDelta.getType())) {
+				changedMarkers.add(markerDelta.getMarker());
 			}
 		}
-		if (removed.size() > 0 || added.size() > 0 || changed.size() > 0) {
-			MarkerUpdate update = new MarkerUpdate(added, removed, changed);
-			builder.incrementalUpdate(update);
+		if (changedMarkers.isEmpty()) {
+			handleNoMarkerChange();
+			return;
+		}
+		builder.incrementalUpdate(changedMarkers);
+		if (workspaceBuilding()) {
+			// batch the changes of the build, they are applied after it
 			builder.getUpdateScheduler().scheduleUpdate();
 		} else {
-			handleNoMarkerChange();
+			builder.getUpdateScheduler().scheduleIncrementalUpdate(MarkerUpdateScheduler.SHORT_DELAY, true);
 		}
-		return;
 	}
 
 	/**
@@ -449,22 +422,6 @@ class MarkersChangeListener implements IResourceChangeListener {
 
 ///////////helpers/////////////
 
-/**
- * For Incremental updating
- * @since 3.6
- */
-class MarkerUpdate {
-	Collection<MarkerEntry> added;
-	Collection<MarkerEntry> removed;
-	Collection<MarkerEntry> changed;
-
-	MarkerUpdate(Collection<MarkerEntry> added, Collection<MarkerEntry> removed, Collection<MarkerEntry> changed) {
-		this.added = added;
-		this.removed = removed;
-		this.changed = changed;
-	}
-}
-
 /**
  * Manages scheduling of marker updates and the view ,also various other methods
  * related to scheduling updates.This class should be used for update
@@ -541,6 +498,25 @@ class MarkerUpdateScheduler {
 		// updateTimer.reset();
 	}
 
+	/**
+	 * Schedule an update applying the pending marker changes. A running update
+	 * is never cancelled, the changes received meanwhile are applied by the
+	 * next run.
+	 *
+	 * @param delay
+	 * @param cancelPrevious
+	 *            <code>true</code> to reschedule an update which has not started
+	 *            yet with the given delay
+	 */
+	void scheduleIncrementalUpdate(long delay, boolean cancelPrevious) {
+		builder.setBuilding(true);
+		MarkerUpdateJob job = updateJob;
+		if (cancelPrevious && job != null && job.getState() == Job.SLEEPING) {
+			job.cancel();
+		}
+		updateJob = builder.scheduleUpdateJob(delay, false);
+	}
+
 	/**
 	 * Schedule marker update.
 	 */
@@ -804,7 +780,11 @@ class MarkerUpdateScheduler {
 
 		private void go(long delay, boolean cancelPrevious) {
 			timeB4Update = System.currentTimeMillis() + delay;
-			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			if (builder.isIncremental()) {
+				scheduleIncrementalUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			} else {
+				scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			}
 		}
 	}
 }
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates stack traces into a tree of calls. Each node counts the samples in which its frame
+ * was at the top of the stack, so the tree can be written out in the collapsed stack format
+ * understood by flame graph tools.
+ * <p>
+ * Frames are identified by their class and method name, line numbers are ignored so that
+ * samples taken at different lines of the same method are merged. To bound the memory used by
+ * long profiling sessions, the number of nodes is limited. Once the limit is reached, samples
+ * which would need new nodes are attributed to their deepest existing frame.
+ * <p>
+ * This class is thread safe.
+ */
+class CallTree {
+	static final int DEFAULT_MAX_NODES = 100000;
+
+	private static class Node {
+		final String frame;
+		/** Number of samples in which this frame was at the top of the stack. */
+		long selfCount;
+		Map<String, Node> children;
+
+		Node(String frame) {
+			this.frame = frame;
+		}
+
+		Node getChild(String childFrame) {
+			return children == null ? null : children.get(childFrame);
+		}
+
+		Node addChild(String childFrame) {
+			if (children == null) {
+				children = new HashMap<>(4);
+			}
+			Node child = new Node(childFrame);
+			children.put(childFrame, child);
+			return child;
+		}
+	}
+
+	private final Node root = new Node(null);
+	private final int maxNodes;
+	private int nodeCount;
+	private long sampleCount;
+	private long truncatedCount;
+
+	CallTree() {
+		this(DEFAULT_MAX_NODES);
+	}
+
+	/**
+	 * @param maxNodes the maximum number of nodes of the tree
+	 */
+	CallTree(int maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Adds a sample to the tree.
+	 *
+	 * @param stackTrace the stack trace with the most recent call first, as returned by
+	 *     {@link Thread#getStackTrace()}
+	 */
+	synchronized void addSample(StackTraceElement[] stackTrace) {
+		if (stackTrace.length == 0) {
+			return;
+		}
+		Node node = root;
+		for (int i = stackTrace.length; --i >= 0;) {
+			String frame = getFrameName(stackTrace[i]);
+			Node child = node.getChild(frame);
+			if (child == null) {
+				if (nodeCount >= maxNodes) {
+					truncatedCount++;
+					break;
+				}
+				child = node.addChild(frame);
+				nodeCount++;
+			}
+			node = child;
+		}
+		node.selfCount++;
+		sampleCount++;
+	}
+
+	/**
+	 * Returns the number of samples added to the tree.
+	 */
+	synchronized long getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * Returns the number of samples which were attributed to a caller of their top frame because
+	 * the tree was full.
+	 */
+	synchronized long getTruncatedCount() {
+		return truncatedCount;
+	}
+
+	/**
+	 * Removes all samples from the tree.
+	 */
+	synchronized void clear() {
+		root.children = null;
+		nodeCount = 0;
+		sampleCount = 0;
+		truncatedCount = 0;
+	}
+
+	/**
+	 * Writes the tree in the collapsed stack format, i.e. one line per distinct stack containing
+	 * the frames from the outermost to the innermost one separated by semicolons, followed by
+	 * a space and the number of samples of the stack.
+	 *
+	 * @param out the destination of the collapsed stacks
+	 * @throws IOException if writing fails
+	 */
+	synchronized void writeCollapsedStacks(Appendable out) throws IOException {
+		if (root.children == null) {
+			return;
+		}
+		List<String> path = new ArrayList<>();
+		for (Node child : root.children.values()) {
+			writeCollapsedStacks(child, path, out);
+		}
+	}
+
+	private static void writeCollapsedStacks(Node node, List<String> path, Appendable out)
+			throws IOException {
+		path.add(node.frame);
+		if (node.selfCount > 0) {
+			for (int i = 0; i < path.size(); i++) {
+				if (i > 0) {
+					out.append(';');
+				}
+				out.append(path.get(i));
+			}
+			out.append(' ').append(Long.toString(node.selfCount)).append('\n');
+		}
+		if (node.children != null) {
+			for (Node child : node.children.values()) {
+				writeCollapsedStacks(child, path, out);
+			}
+		}
+		path.remove(path.size() - 1);
+	}
+
+	private static String getFrameName(StackTraceElement element) {
+		// Semicolons and spaces are separators in the collapsed stack format.
+		return (element.getClassName() + '.' + element.getMethodName()).replace(';', '_').replace(' ', '_');
+	}
+}
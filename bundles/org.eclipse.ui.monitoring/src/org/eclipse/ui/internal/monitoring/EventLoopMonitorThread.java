@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.monitoring;
 
+import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
@@ -42,6 +43,7 @@ import org.eclipse.ui.monitoring.IUiFreezeEventLogger;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 import org.eclipse.ui.monitoring.StackSample;
 import org.eclipse.ui.monitoring.UiFreezeEvent;
+import org.osgi.framework.FrameworkUtil;
 
 /**
  * Event loop monitoring thread. Detects events that take long time to process, collects stack
@@ -81,6 +83,10 @@ public class EventLoopMonitorThread extends Thread {
 		public String uiThreadFilter;
 		/** @see org.eclipse.ui.monitoring.PreferenceConstants#NONINTERESTING_THREAD_FILTER */
 		public String noninterestingThreadFilter;
+		/** @see org.eclipse.ui.monitoring.PreferenceConstants#SAMPLING_PROFILER_ENABLED */
+		public boolean samplingProfilerEnabled;
+		/** @see org.eclipse.ui.monitoring.PreferenceConstants#SAMPLING_INTERVAL_MILLIS */
+		public int samplingInterval;
 
 		/**
 		 * Checks if the values of parameters for UI responsiveness monitoring are valid.
@@ -108,6 +114,11 @@ public class EventLoopMonitorThread extends Thread {
 						NLS.bind(Messages.EventLoopMonitorThread_deadlock_threshold_too_low_error_2,
 								deadlockThreshold, longEventErrorThreshold));
 			}
+			if (samplingProfilerEnabled && samplingInterval <= 0) {
+				problems.append(NEW_LINE_AND_BULLET +
+						NLS.bind(Messages.EventLoopMonitorThread_sampling_interval_error_1,
+								samplingInterval));
+			}
 
 			if (problems.length() != 0) {
 				throw new IllegalArgumentException(
@@ -164,6 +175,9 @@ public class EventLoopMonitorThread extends Thread {
 			 */
 			switch (event.type) {
 			case SWT.PreEvent:
+				if (profiler != null) {
+					profiler.eventStarted();
+				}
 				if (!doesEventIndicateResponsiveUI(event.detail)) {
 					break;  // Ignore events that may be produced during a UI freeze.
 				}
@@ -175,6 +189,9 @@ public class EventLoopMonitorThread extends Thread {
 				handleEventTransition(true, true);
 				break;
 			case SWT.PostEvent:
+				if (profiler != null) {
+					profiler.eventFinished(event.detail);
+				}
 				if (!doesEventIndicateResponsiveUI(event.detail)) {
 					break;  // Ignore events that may be produced during a UI freeze.
 				}
@@ -359,6 +376,7 @@ public class EventLoopMonitorThread extends Thread {
 	private final long uiThreadId;
 	private final Object sleepMonitor;
 	private final boolean logToErrorLog;
+	private final SamplingProfiler profiler;
 	private EventHistory eventHistory;
 	private ThreadMXBean threadMXBean;
 	private boolean dumpLockedMonitors;
@@ -397,6 +415,14 @@ public class EventLoopMonitorThread extends Thread {
 		uiThreadFilter = new FilterHandler(args.uiThreadFilter);
 		noninterestingThreadFilter = new FilterHandler(args.noninterestingThreadFilter);
 		sleepMonitor = new Object();
+		if (args.samplingProfilerEnabled) {
+			File outputDirectory = Platform.getStateLocation(
+					FrameworkUtil.getBundle(EventLoopMonitorThread.class)).toFile();
+			profiler = new SamplingProfiler(uiThreadId, args.samplingInterval,
+					() -> eventStartOrResumeTime != 0, outputDirectory);
+		} else {
+			profiler = null;
+		}
 	}
 
 	/**
@@ -404,6 +430,9 @@ public class EventLoopMonitorThread extends Thread {
 	 */
 	public void shutdown() throws SWTException {
 		cancelled.set(true);
+		if (profiler != null) {
+			profiler.shutdown();
+		}
 		if (!display.isDisposed()) {
 			display.removeListener(SWT.PreEvent, eventLoopState);
 			display.removeListener(SWT.PostEvent, eventLoopState);
@@ -492,6 +521,10 @@ public class EventLoopMonitorThread extends Thread {
 		// Register for events
 		display.asyncExec(this::registerDisplayListeners);
 
+		if (profiler != null) {
+			profiler.start();
+		}
+
 		long currTime = getTimestamp();
 
 		while (!cancelled.get()) {
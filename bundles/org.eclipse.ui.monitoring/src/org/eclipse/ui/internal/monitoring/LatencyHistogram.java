@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Histogram of durations with logarithmic buckets. The first bucket counts the durations below
+ * one millisecond, bucket {@code i} counts the durations from 2<sup>i-1</sup> up to
+ * 2<sup>i</sup> milliseconds, and the last bucket counts all longer durations.
+ * <p>
+ * This class is thread safe.
+ */
+class LatencyHistogram {
+	static final int BUCKET_COUNT = 18;
+	private static final long NANOS_PER_MILLI = 1000000;
+
+	private final long[] buckets = new long[BUCKET_COUNT];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	synchronized void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets[getBucket(nanos)]++;
+		count++;
+		totalNanos += nanos;
+		if (nanos > maxNanos) {
+			maxNanos = nanos;
+		}
+	}
+
+	/**
+	 * Returns the index of the bucket of the given duration.
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	static int getBucket(long nanos) {
+		long millis = nanos / NANOS_PER_MILLI;
+		int bucket = 64 - Long.numberOfLeadingZeros(millis);
+		return Math.min(bucket, BUCKET_COUNT - 1);
+	}
+
+	synchronized long getCount() {
+		return count;
+	}
+
+	synchronized long getBucketCount(int bucket) {
+		return buckets[bucket];
+	}
+
+	/**
+	 * Appends a single line description of the histogram, e.g.
+	 * {@code "count=12 mean=1.25ms max=9.00ms [<1ms: 10, 1-2ms: 1, 8-16ms: 1]"}.
+	 *
+	 * @param buf the buffer to append to
+	 */
+	synchronized void appendTo(StringBuilder buf) {
+		buf.append("count=").append(count); //$NON-NLS-1$
+		buf.append(String.format(Locale.ROOT, " mean=%.2fms max=%.2fms [", //$NON-NLS-1$
+				count == 0 ? 0.0 : (double) totalNanos / count / NANOS_PER_MILLI,
+				(double) maxNanos / NANOS_PER_MILLI));
+		boolean first = true;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			if (buckets[i] == 0) {
+				continue;
+			}
+			if (!first) {
+				buf.append(", "); //$NON-NLS-1$
+			}
+			first = false;
+			if (i == 0) {
+				buf.append("<1ms"); //$NON-NLS-1$
+			} else if (i == BUCKET_COUNT - 1) {
+				buf.append(">=").append(1L << (i - 1)).append("ms"); //$NON-NLS-1$ //$NON-NLS-2$
+			} else {
+				buf.append(1L << (i - 1)).append('-').append(1L << i).append("ms"); //$NON-NLS-1$
+			}
+			buf.append(": ").append(buckets[i]); //$NON-NLS-1$
+		}
+		buf.append(']');
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		appendTo(buf);
+		return buf.toString();
+	}
+}
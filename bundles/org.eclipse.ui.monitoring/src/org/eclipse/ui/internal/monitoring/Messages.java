@@ -37,11 +37,13 @@ final class Messages extends NLS {
 	public static String EventLoopMonitorThread_invalid_argument_error_1;
 	public static String EventLoopMonitorThread_invalid_logger_type_error_4;
 	public static String EventLoopMonitorThread_logging_disabled_error;
+	public static String EventLoopMonitorThread_sampling_interval_error_1;
 	public static String EventLoopMonitorThread_warning_threshold_error_1;
 	public static String EventLoopMonitorThread_max_event_loop_depth_exceeded_1;
 	public static String EventLoopMonitorThread_workbench_was_null;
 	public static String FilterHandler_missing_thread_error;
 	public static String MonitoringStartup_initialization_error;
+	public static String SamplingProfiler_export_error_1;
 
 	private Messages() {
 		// Do not instantiate.
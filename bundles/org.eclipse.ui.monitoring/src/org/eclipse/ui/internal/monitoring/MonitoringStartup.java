@@ -85,6 +85,9 @@ public class MonitoringStartup implements IStartup {
 		args.noninterestingThreadFilter =
 				preferences.getString(PreferenceConstants.NONINTERESTING_THREAD_FILTER);
 		args.logToErrorLog = preferences.getBoolean(PreferenceConstants.LOG_TO_ERROR_LOG);
+		args.samplingProfilerEnabled =
+				preferences.getBoolean(PreferenceConstants.SAMPLING_PROFILER_ENABLED);
+		args.samplingInterval = preferences.getInt(PreferenceConstants.SAMPLING_INTERVAL_MILLIS);
 
 		return args;
 	}
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.SWT;
+import org.eclipse.ui.progress.UIJob;
+
+/**
+ * Continuously samples the stack of the UI thread while it is dispatching events and aggregates
+ * the samples into a {@link CallTree}. Also collects histograms of the time taken to dispatch
+ * each type of SWT event and of the time taken by each kind of {@link UIJob}.
+ * <p>
+ * The call tree and the histograms are periodically written to the given directory, the call
+ * tree in the collapsed stack format so that it can be turned into a flame graph. Unlike the
+ * stack samples of UI freezes, the samples are taken regardless of the duration of the events,
+ * which makes the profiler suitable for finding many short events that add up to a noticeable
+ * slowness.
+ */
+class SamplingProfiler extends Thread {
+	static final String COLLAPSED_STACKS_FILE = "ui_thread.collapsed"; //$NON-NLS-1$
+	static final String LATENCY_FILE = "dispatch_latency.txt"; //$NON-NLS-1$
+	private static final long EXPORT_INTERVAL = 60000;
+
+	/* NOTE: The sampling and export intervals are in milliseconds, latencies in nanoseconds. */
+
+	// Accessed by the UI, profiling and job threads.
+	private final AtomicBoolean cancelled = new AtomicBoolean(false);
+	private final CallTree callTree = new CallTree();
+	private final Map<Integer, LatencyHistogram> eventLatencies = new ConcurrentHashMap<>();
+	private final Map<String, LatencyHistogram> jobLatencies = new ConcurrentHashMap<>();
+	private final Map<Job, Long> jobStartTimes = new ConcurrentHashMap<>();
+	private final JobLatencyListener jobListener = new JobLatencyListener();
+
+	// Accessed only by the UI thread.
+	private long[] eventStartTimes = new long[64];
+	private int eventDepth;
+
+	private final long uiThreadId;
+	private final long samplingInterval;
+	private final BooleanSupplier isDispatching;
+	private final File outputDirectory;
+	// Guarded by this.
+	private boolean exportErrorLogged;
+
+	/**
+	 * Listens to the {@link UIJob}s and records the time from their start until they are done.
+	 * This includes the time spent waiting for the UI thread.
+	 */
+	private class JobLatencyListener extends JobChangeAdapter {
+		@Override
+		public void running(IJobChangeEvent event) {
+			Job job = event.getJob();
+			if (job instanceof UIJob) {
+				jobStartTimes.put(job, System.nanoTime());
+			}
+		}
+
+		@Override
+		public void done(IJobChangeEvent event) {
+			Job job = event.getJob();
+			Long start = jobStartTimes.remove(job);
+			if (start != null) {
+				jobLatencies.computeIfAbsent(job.getClass().getName(), k -> new LatencyHistogram())
+						.record(System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Creates the profiling thread.
+	 *
+	 * @param uiThreadId the id of the UI thread
+	 * @param samplingInterval the time between two samples, in milliseconds
+	 * @param isDispatching tells whether the UI thread is dispatching an event, the UI thread is
+	 *     not sampled otherwise
+	 * @param outputDirectory the directory of the exported files, or {@code null} to not export
+	 */
+	SamplingProfiler(long uiThreadId, long samplingInterval, BooleanSupplier isDispatching,
+			File outputDirectory) {
+		super("UI Sampling Profiler"); //$NON-NLS-1$
+		setDaemon(true);
+		this.uiThreadId = uiThreadId;
+		this.samplingInterval = Math.max(samplingInterval, 1);
+		this.isDispatching = isDispatching;
+		this.outputDirectory = outputDirectory;
+	}
+
+	@Override
+	public void run() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		Job.getJobManager().addJobChangeListener(jobListener);
+		try {
+			long nextExportAt = System.currentTimeMillis() + EXPORT_INTERVAL;
+			while (!cancelled.get()) {
+				try {
+					Thread.sleep(samplingInterval);
+				} catch (InterruptedException e) {
+					continue; // Woken up by shutdown.
+				}
+				if (isDispatching.getAsBoolean()) {
+					ThreadInfo threadInfo = threadMXBean.getThreadInfo(uiThreadId, Integer.MAX_VALUE);
+					// Discard the sample if the event finished while it was taken.
+					if (threadInfo != null && isDispatching.getAsBoolean()) {
+						callTree.addSample(threadInfo.getStackTrace());
+					}
+				}
+				long currTime = System.currentTimeMillis();
+				if (currTime >= nextExportAt) {
+					export();
+					nextExportAt = currTime + EXPORT_INTERVAL;
+				}
+			}
+		} finally {
+			Job.getJobManager().removeJobChangeListener(jobListener);
+		}
+	}
+
+	/**
+	 * Stops sampling and writes out the collected data.
+	 */
+	void shutdown() {
+		cancelled.set(true);
+		interrupt();
+		export();
+	}
+
+	/**
+	 * Records the start of an event. Must be called on the UI thread.
+	 */
+	void eventStarted() {
+		if (eventDepth == eventStartTimes.length) {
+			eventStartTimes = Arrays.copyOf(eventStartTimes, eventDepth * 2);
+		}
+		eventStartTimes[eventDepth++] = System.nanoTime();
+	}
+
+	/**
+	 * Records the end of an event. Must be called on the UI thread.
+	 *
+	 * @param eventType the type of the event
+	 */
+	void eventFinished(int eventType) {
+		if (eventDepth == 0) {
+			// The event had started before the profiler.
+			return;
+		}
+		long duration = System.nanoTime() - eventStartTimes[--eventDepth];
+		eventLatencies.computeIfAbsent(eventType, k -> new LatencyHistogram()).record(duration);
+	}
+
+	CallTree getCallTree() {
+		return callTree;
+	}
+
+	/**
+	 * Returns the event dispatch and job latency histograms as text, one histogram per line.
+	 */
+	String getLatencyReport() {
+		StringBuilder buf = new StringBuilder();
+		buf.append("Event dispatch latency by SWT event type\n"); //$NON-NLS-1$
+		Map<String, LatencyHistogram> sortedEvents = new TreeMap<>();
+		eventLatencies.forEach((type, histogram) -> sortedEvents.put(getEventName(type), histogram));
+		appendHistograms(buf, sortedEvents);
+		buf.append("\nUI job latency from start until done, including the wait for the UI thread\n"); //$NON-NLS-1$
+		appendHistograms(buf, new TreeMap<>(jobLatencies));
+		buf.append("\nSamples of the UI thread: ").append(callTree.getSampleCount()); //$NON-NLS-1$
+		buf.append(", truncated: ").append(callTree.getTruncatedCount()).append('\n'); //$NON-NLS-1$
+		return buf.toString();
+	}
+
+	private static void appendHistograms(StringBuilder buf, Map<String, LatencyHistogram> histograms) {
+		for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+			buf.append(entry.getKey()).append(": "); //$NON-NLS-1$
+			entry.getValue().appendTo(buf);
+			buf.append('\n');
+		}
+	}
+
+	/**
+	 * Writes the call tree and the latency histograms to the output directory.
+	 */
+	private synchronized void export() {
+		if (outputDirectory == null) {
+			return;
+		}
+		File file = new File(outputDirectory, COLLAPSED_STACKS_FILE);
+		try {
+			outputDirectory.mkdirs();
+			try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				callTree.writeCollapsedStacks(writer);
+			}
+			file = new File(outputDirectory, LATENCY_FILE);
+			try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(getLatencyReport());
+			}
+		} catch (IOException e) {
+			// Don't flood the log if the directory is not writable.
+			if (!exportErrorLogged) {
+				exportErrorLogged = true;
+				MonitoringPlugin.logError(NLS.bind(Messages.SamplingProfiler_export_error_1, file), e);
+			}
+		}
+	}
+
+	/**
+	 * Returns a readable name of the given SWT event type.
+	 */
+	static String getEventName(int eventType) {
+		switch (eventType) {
+		case SWT.None:
+			return "None"; //$NON-NLS-1$
+		case SWT.KeyDown:
+			return "KeyDown"; //$NON-NLS-1$
+		case SWT.KeyUp:
+			return "KeyUp"; //$NON-NLS-1$
+		case SWT.MouseDown:
+			return "MouseDown"; //$NON-NLS-1$
+		case SWT.MouseUp:
+			return "MouseUp"; //$NON-NLS-1$
+		case SWT.MouseMove:
+			return "MouseMove"; //$NON-NLS-1$
+		case SWT.MouseEnter:
+			return "MouseEnter"; //$NON-NLS-1$
+		case SWT.MouseExit:
+			return "MouseExit"; //$NON-NLS-1$
+		case SWT.MouseDoubleClick:
+			return "MouseDoubleClick"; //$NON-NLS-1$
+		case SWT.Paint:
+			return "Paint"; //$NON-NLS-1$
+		case SWT.Move:
+			return "Move"; //$NON-NLS-1$
+		case SWT.Resize:
+			return "Resize"; //$NON-NLS-1$
+		case SWT.Dispose:
+			return "Dispose"; //$NON-NLS-1$
+		case SWT.Selection:
+			return "Selection"; //$NON-NLS-1$
+		case SWT.DefaultSelection:
+			return "DefaultSelection"; //$NON-NLS-1$
+		case SWT.FocusIn:
+			return "FocusIn"; //$NON-NLS-1$
+		case SWT.FocusOut:
+			return "FocusOut"; //$NON-NLS-1$
+		case SWT.Expand:
+			return "Expand"; //$NON-NLS-1$
+		case SWT.Collapse:
+			return "Collapse"; //$NON-NLS-1$
+		case SWT.Modify:
+			return "Modify"; //$NON-NLS-1$
+		case SWT.Verify:
+			return "Verify"; //$NON-NLS-1$
+		case SWT.Activate:
+			return "Activate"; //$NON-NLS-1$
+		case SWT.Deactivate:
+			return "Deactivate"; //$NON-NLS-1$
+		case SWT.Show:
+			return "Show"; //$NON-NLS-1$
+		case SWT.Hide:
+			return "Hide"; //$NON-NLS-1$
+		case SWT.MouseWheel:
+			return "MouseWheel"; //$NON-NLS-1$
+		case SWT.MouseHover:
+			return "MouseHover"; //$NON-NLS-1$
+		case SWT.MeasureItem:
+			return "MeasureItem"; //$NON-NLS-1$
+		case SWT.EraseItem:
+			return "EraseItem"; //$NON-NLS-1$
+		case SWT.PaintItem:
+			return "PaintItem"; //$NON-NLS-1$
+		case SWT.SetData:
+			return "SetData"; //$NON-NLS-1$
+		case SWT.Traverse:
+			return "Traverse"; //$NON-NLS-1$
+		case SWT.Skin:
+			return "Skin"; //$NON-NLS-1$
+		default:
+			return "Event " + eventType; //$NON-NLS-1$
+		}
+	}
+}
@@ -38,6 +38,8 @@ public final class Messages extends NLS {
 	public static String MonitoringPreferencePage_noninteresting_thread_filter_label;
 	public static String MonitoringPreferencePage_remove_ui_thread_filter_button_label;
 	public static String MonitoringPreferencePage_remove_noninteresting_thread_filter_button_label;
+	public static String MonitoringPreferencePage_sampling_interval_label;
+	public static String MonitoringPreferencePage_sampling_profiler_label;
 	public static String MonitoringPreferencePage_ui_thread_filter_label;
 	public static String MonitoringPreferencePage_warning_threshold_label;
 
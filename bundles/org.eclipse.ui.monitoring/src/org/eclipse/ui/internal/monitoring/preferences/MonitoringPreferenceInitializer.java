@@ -36,6 +36,8 @@ public class MonitoringPreferenceInitializer extends AbstractPreferenceInitializ
 				5 * 60 * 1000); // 5 min
 		store.setDefault(PreferenceConstants.LOG_TO_ERROR_LOG, true);
 		store.setDefault(PreferenceConstants.UI_THREAD_FILTER, ""); //$NON-NLS-1$
+		store.setDefault(PreferenceConstants.SAMPLING_PROFILER_ENABLED, false);
+		store.setDefault(PreferenceConstants.SAMPLING_INTERVAL_MILLIS, 20);
 		store.setDefault(PreferenceConstants.NONINTERESTING_THREAD_FILTER,
 				"java.*" //$NON-NLS-1$
 				+ ",sun.*" //$NON-NLS-1$
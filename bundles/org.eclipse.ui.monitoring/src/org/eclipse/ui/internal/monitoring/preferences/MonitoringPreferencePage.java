@@ -146,6 +146,11 @@ public class MonitoringPreferencePage extends FieldEditorPreferencePage
 		createIntegerEditor(
 				PreferenceConstants.MAX_STACK_SAMPLES,
 				Messages.MonitoringPreferencePage_max_stack_samples_label, block, 0, 100);
+		createBooleanEditor(PreferenceConstants.SAMPLING_PROFILER_ENABLED,
+				Messages.MonitoringPreferencePage_sampling_profiler_label, block);
+		createIntegerEditor(
+				PreferenceConstants.SAMPLING_INTERVAL_MILLIS,
+				Messages.MonitoringPreferencePage_sampling_interval_label, block, 1, 1000);
 		GridLayoutFactory.fillDefaults()
 				.numColumns(2)
 				.spacing(LayoutConstants.getSpacing())
@@ -58,6 +58,21 @@ public class PreferenceConstants {
 	 * message if all stack frames of the thread match the filter.
 	 */
 	public static final String NONINTERESTING_THREAD_FILTER = "noninteresting_thread_filter"; //$NON-NLS-1$
+	/**
+	 * If true, the stack of the UI thread is continuously sampled while it dispatches events, and
+	 * the samples are aggregated into a call tree which is written to the plug-in state location
+	 * in the collapsed stack format, together with histograms of the event dispatch latency.
+	 *
+	 * @since 1.3
+	 */
+	public static final String SAMPLING_PROFILER_ENABLED = "sampling_profiler_enabled"; //$NON-NLS-1$
+	/**
+	 * The time in milliseconds between two samples of the UI thread taken by the sampling
+	 * profiler.
+	 *
+	 * @since 1.3
+	 */
+	public static final String SAMPLING_INTERVAL_MILLIS = "sampling_interval"; //$NON-NLS-1$
 
 	private PreferenceConstants() {}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 IBM Corporation and others.
+ * Copyright (c) 2005, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -153,6 +153,9 @@ public class CommonNavigatorMessages extends NLS {
 	/** */
 	public static String LoggingJob;
 
+	/** */
+	public static String DeferredNavigatorContentManager_Computing_Children;
+
 
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, CommonNavigatorMessages.class);
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.navigator;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
+import org.eclipse.ui.internal.navigator.extensions.NavigatorContentExtension;
+import org.eclipse.ui.progress.DeferredTreeContentManager;
+import org.eclipse.ui.progress.IDeferredWorkbenchAdapter;
+import org.eclipse.ui.progress.IElementCollector;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.progress.WorkbenchJob;
+
+/**
+ * Computes the children of the elements of a navigator viewer in the
+ * background. The viewer shows a pending placeholder until the children of all
+ * first class content extensions have been computed; then they are merged and
+ * pipelined in the UI thread and added to the viewer at once.
+ *
+ * @see NavigatorContentServiceContentProvider
+ * @see org.eclipse.ui.internal.navigator.extensions.NavigatorViewerDescriptor#PROP_COMPUTE_CHILDREN_IN_BACKGROUND
+ */
+class DeferredNavigatorContentManager extends DeferredTreeContentManager {
+
+	private final NavigatorContentServiceContentProvider contentProvider;
+
+	private final AbstractTreeViewer viewer;
+
+	/**
+	 * @param aContentProvider
+	 *            the content provider computing the children
+	 * @param aViewer
+	 *            the viewer showing the children
+	 */
+	DeferredNavigatorContentManager(NavigatorContentServiceContentProvider aContentProvider,
+			AbstractTreeViewer aViewer) {
+		super(aViewer);
+		contentProvider = aContentProvider;
+		viewer = aViewer;
+	}
+
+	/**
+	 * Starts computing the children of the given parent in the background.
+	 *
+	 * @param aParentElement
+	 *            the parent element
+	 * @param aParentElementOrPath
+	 *            the parent element or its tree path
+	 * @param theExtensions
+	 *            the loaded content extensions enabled for the parent element
+	 * @return the placeholder to show until the children are known
+	 */
+	Object[] getChildren(Object aParentElement, Object aParentElementOrPath,
+			List<NavigatorContentExtension> theExtensions) {
+		PendingUpdateAdapter placeholder = createPendingUpdateAdapter();
+		startFetchingDeferredChildren(aParentElementOrPath,
+				new ChildrenFetcher(aParentElement, theExtensions), placeholder);
+		return new Object[] { placeholder };
+	}
+
+	@Override
+	protected IDeferredWorkbenchAdapter getAdapter(Object element) {
+		// Only the requests of the content provider are deferred.
+		return null;
+	}
+
+	@Override
+	protected String getFetchJobName(Object parent, IDeferredWorkbenchAdapter adapter) {
+		return CommonNavigatorMessages.DeferredNavigatorContentManager_Computing_Children;
+	}
+
+	/**
+	 * Creates a UI job merging and pipelining the children computed in the
+	 * background, and adding them to the parent in the viewer.
+	 */
+	private void addContributedChildren(final Object aParentElement, final Object aParentElementOrPath,
+			final List<NavigatorContentExtension> theExtensions,
+			final Map<NavigatorContentExtension, Object[]> theContributedChildren, final IProgressMonitor monitor) {
+		WorkbenchJob updateJob = new WorkbenchJob(
+				CommonNavigatorMessages.DeferredNavigatorContentManager_Computing_Children) {
+			@Override
+			public IStatus runInUIThread(IProgressMonitor updateMonitor) {
+				if (viewer.getControl().isDisposed() || monitor.isCanceled() || updateMonitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				Object[] children = contentProvider.mergeContributedChildren(aParentElement, aParentElementOrPath,
+						theExtensions, theContributedChildren);
+				viewer.add(aParentElementOrPath, children);
+				return Status.OK_STATUS;
+			}
+		};
+		updateJob.setSystem(true);
+		updateJob.schedule();
+	}
+
+	private class ChildrenFetcher implements IDeferredWorkbenchAdapter {
+
+		private final Object parentElement;
+
+		private final List<NavigatorContentExtension> extensions;
+
+		ChildrenFetcher(Object aParentElement, List<NavigatorContentExtension> theExtensions) {
+			parentElement = aParentElement;
+			extensions = theExtensions;
+		}
+
+		@Override
+		public void fetchDeferredChildren(Object aParentElementOrPath, IElementCollector collector,
+				IProgressMonitor monitor) {
+			Map<NavigatorContentExtension, Object[]> contributedChildren = contentProvider
+					.computeContributedChildren(parentElement, aParentElementOrPath, extensions, monitor);
+			if (contributedChildren != null && !monitor.isCanceled()) {
+				addContributedChildren(parentElement, aParentElementOrPath, extensions, contributedChildren,
+						monitor);
+			}
+			collector.done();
+		}
+
+		@Override
+		public boolean isContainer() {
+			return true;
+		}
+
+		@Override
+		public ISchedulingRule getRule(Object object) {
+			return null;
+		}
+
+		@Override
+		public Object[] getChildren(Object o) {
+			return new Object[0];
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor(Object object) {
+			return null;
+		}
+
+		@Override
+		public String getLabel(Object o) {
+			return String.valueOf(parentElement);
+		}
+
+		@Override
+		public Object getParent(Object o) {
+			return null;
+		}
+	}
+}
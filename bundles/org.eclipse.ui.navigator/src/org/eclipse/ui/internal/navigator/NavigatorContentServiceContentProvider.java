@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,13 +19,20 @@ package org.eclipse.ui.internal.navigator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.ITreePathContentProvider;
 import org.eclipse.jface.viewers.TreePath;
@@ -73,8 +80,16 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private final boolean enforceHasChildren;
 
+	private final boolean computeChildrenInBackground;
+
 	private Viewer viewer;
 
+	/**
+	 * Computes the children in the background, or null if they are computed
+	 * when requested.
+	 */
+	private DeferredNavigatorContentManager deferredContentManager;
+
 	/**
 	 * <p>
 	 * Creates a cached {@link NavigatorContentService}&nbsp;from the given
@@ -105,10 +120,17 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		contentService = aContentService;
 		INavigatorViewerDescriptor vDesc = contentService.getViewerDescriptor();
 		enforceHasChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ENFORCE_HAS_CHILDREN);
+		computeChildrenInBackground = vDesc
+				.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_COMPUTE_CHILDREN_IN_BACKGROUND);
 	}
 
 	@Override
 	public void inputChanged(Viewer aViewer, Object anOldInput, Object aNewInput) {
+		if (viewer != aViewer) {
+			deferredContentManager = computeChildrenInBackground && aViewer instanceof AbstractTreeViewer
+					? new DeferredNavigatorContentManager(this, (AbstractTreeViewer) aViewer)
+					: null;
+		}
 		viewer = aViewer;
 		contentService.updateService(aViewer, anOldInput, aNewInput);
 	}
@@ -122,6 +144,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	@Override
 	public Object[] getChildren(Object aParentElement) {
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
+		if (deferredContentManager != null && !enabledExtensions.isEmpty()) {
+			return deferChildren(aParentElement, aParentElement, enabledExtensions);
+		}
 		return internalGetChildren(aParentElement, aParentElement, enabledExtensions, !ELEMENTS);
 	}
 
@@ -129,6 +154,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	public Object[] getChildren(TreePath parentPath) {
 		Object aParentElement = internalAsElement(parentPath);
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
+		if (deferredContentManager != null && !enabledExtensions.isEmpty()) {
+			return deferChildren(aParentElement, parentPath, enabledExtensions);
+		}
 		return internalGetChildren(aParentElement, parentPath, enabledExtensions, !ELEMENTS);
 	}
 
@@ -139,6 +167,143 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		if (enabledExtensions.isEmpty()) {
 			return NO_CHILDREN;
 		}
+		return mergeChildren(aParentElement, aParentElementOrPath, enabledExtensions, elements, null);
+	}
+
+	/**
+	 * Starts computing the children in the background. The content providers
+	 * are created and initialized here, since that must happen in the UI
+	 * thread.
+	 */
+	private Object[] deferChildren(Object aParentElement, Object aParentElementOrPath, Set enabledExtensions) {
+		List<NavigatorContentExtension> extensions = new ArrayList<>(enabledExtensions);
+		loadContentProviders(aParentElement, extensions.toArray(new NavigatorContentExtension[extensions.size()]));
+		return deferredContentManager.getChildren(aParentElement, aParentElementOrPath, extensions);
+	}
+
+	private void loadContentProviders(Object aParentElement, NavigatorContentExtension[] theExtensions) {
+		for (NavigatorContentExtension extension : theExtensions) {
+			extension.internalGetContentProvider();
+			loadContentProviders(aParentElement, extension.getOverridingExtensionsForTriggerPoint(aParentElement));
+		}
+	}
+
+	/**
+	 * Computes the children the enabled first class extensions contribute to
+	 * the given parent, without merging or pipelining them. The extensions are
+	 * queried concurrently; this is called in the background.
+	 *
+	 * @param aParentElement
+	 *            the parent element
+	 * @param aParentElementOrPath
+	 *            the parent element or its tree path
+	 * @param theExtensions
+	 *            the loaded extensions enabled for the parent element
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the children contributed by each first class extension, or
+	 *         <code>null</code> if canceled
+	 * @see #mergeContributedChildren(Object, Object, List, Map)
+	 */
+	Map<NavigatorContentExtension, Object[]> computeContributedChildren(final Object aParentElement,
+			final Object aParentElementOrPath, List<NavigatorContentExtension> theExtensions,
+			IProgressMonitor monitor) {
+		final Set enabledExtensions = new LinkedHashSet(theExtensions);
+		final Map<NavigatorContentExtension, Object[]> contributedChildren = Collections
+				.synchronizedMap(new IdentityHashMap<>());
+		List<NavigatorContentExtension> firstClassExtensions = new ArrayList<>();
+		for (NavigatorContentExtension extension : theExtensions) {
+			if (!isOverridingExtensionInSet(extension.getDescriptor(), enabledExtensions)) {
+				firstClassExtensions.add(extension);
+			}
+		}
+
+		if (firstClassExtensions.size() > 1) {
+			JobGroup group = new JobGroup(CommonNavigatorMessages.DeferredNavigatorContentManager_Computing_Children,
+					Runtime.getRuntime().availableProcessors(), firstClassExtensions.size());
+			for (final NavigatorContentExtension extension : firstClassExtensions) {
+				Job job = Job.create(CommonNavigatorMessages.DeferredNavigatorContentManager_Computing_Children,
+						jobMonitor -> {
+							if (!monitor.isCanceled()) {
+								contributedChildren.put(extension,
+										getContributedChildren(extension, aParentElement, aParentElementOrPath));
+							}
+						});
+				job.setSystem(true);
+				job.setJobGroup(group);
+				job.schedule();
+			}
+			try {
+				group.join(0, monitor);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (OperationCanceledException e) {
+				group.cancel();
+				return null;
+			}
+		} else {
+			for (NavigatorContentExtension extension : firstClassExtensions) {
+				contributedChildren.put(extension,
+						getContributedChildren(extension, aParentElement, aParentElementOrPath));
+			}
+		}
+		if (monitor.isCanceled()) {
+			return null;
+		}
+		return contributedChildren;
+	}
+
+	/**
+	 * Merges the children computed in the background by the first class
+	 * extensions and pipes them through their overriding extensions, in the
+	 * order of the extensions. This must be called in the UI thread, like
+	 * {@link #getChildren(Object)}.
+	 *
+	 * @param aParentElement
+	 *            the parent element
+	 * @param aParentElementOrPath
+	 *            the parent element or its tree path
+	 * @param theExtensions
+	 *            the loaded extensions enabled for the parent element
+	 * @param theContributedChildren
+	 *            the children contributed by each first class extension
+	 * @return the children
+	 * @see #computeContributedChildren(Object, Object, List, IProgressMonitor)
+	 */
+	Object[] mergeContributedChildren(Object aParentElement, Object aParentElementOrPath,
+			List<NavigatorContentExtension> theExtensions,
+			Map<NavigatorContentExtension, Object[]> theContributedChildren) {
+		return mergeChildren(aParentElement, aParentElementOrPath, new LinkedHashSet(theExtensions), !ELEMENTS,
+				theContributedChildren);
+	}
+
+	private Object[] getContributedChildren(final NavigatorContentExtension anExtension, final Object aParentElement,
+			final Object aParentElementOrPath) {
+		final Object[][] children = new Object[1][];
+		SafeRunner.run(new NavigatorSafeRunnable() {
+			@Override
+			public void run() throws Exception {
+				children[0] = anExtension.internalGetContentProvider().getChildren(aParentElementOrPath);
+			}
+
+			@Override
+			public void handleException(Throwable e) {
+				NavigatorPlugin.logError(0, NLS.bind(CommonNavigatorMessages.Exception_Invoking_Extension,
+						new Object[] { anExtension.getDescriptor().getId(), aParentElement }), e);
+			}
+		});
+		return children[0] != null ? children[0] : NO_CHILDREN;
+	}
+
+	/**
+	 * @param theContributedChildren
+	 *            the children already computed by the first class extensions,
+	 *            or <code>null</code> to compute them now
+	 */
+	private Object[] mergeChildren(final Object aParentElement, final Object aParentElementOrPath,
+			final Set enabledExtensions, final boolean elements,
+			final Map<NavigatorContentExtension, Object[]> theContributedChildren) {
 		final Set finalSet = new LinkedHashSet();
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
 
@@ -152,7 +317,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 				public void run() throws Exception {
 					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
 							enabledExtensions)) {
-						if (elements)
+						if (theContributedChildren != null)
+							contributedChildren = theContributedChildren.get(foundExtension);
+						else if (elements)
 							contributedChildren = foundExtension.internalGetContentProvider()
 									.getElements(aParentElementOrPath);
 						else
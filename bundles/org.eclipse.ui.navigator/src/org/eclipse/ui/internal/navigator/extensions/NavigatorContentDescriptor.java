@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -74,6 +74,12 @@ public final class NavigatorContentDescriptor implements
 
 	private Expression possibleChildren;
 
+	/** The enablement if it only tests the type of the element, or null. */
+	private TypeOnlyExpression enablementByType;
+
+	/** The possible children if they only test the type of the element, or null. */
+	private TypeOnlyExpression possibleChildrenByType;
+
 	private Expression initialActivation;
 
 	private String icon;
@@ -255,6 +261,7 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_TRIGGER_POINTS);
 			if (children.length == 1) {
 				enablement = new CustomAndExpression(children[0]);
+				enablementByType = TypeOnlyExpression.create(enablement, children[0]);
 			} else {
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -268,6 +275,7 @@ public final class NavigatorContentDescriptor implements
 			children = configElement.getChildren(TAG_POSSIBLE_CHILDREN);
 			if (children.length == 1) {
 				possibleChildren = new CustomAndExpression(children[0]);
+				possibleChildrenByType = TypeOnlyExpression.create(possibleChildren, children[0]);
 			} else if(children.length > 1){
 				throw new WorkbenchException(NLS.bind(
 						CommonNavigatorMessages.Attribute_Missing_Warning,
@@ -281,6 +289,7 @@ public final class NavigatorContentDescriptor implements
 			try {
 				enablement = ElementHandler.getDefault().create(
 						ExpressionConverter.getDefault(), children[0]);
+				enablementByType = TypeOnlyExpression.create(enablement, children[0]);
 			} catch (CoreException e) {
 				NavigatorPlugin.log(IStatus.ERROR, 0, e.getMessage(), e);
 			}
@@ -411,6 +420,9 @@ public final class NavigatorContentDescriptor implements
 		if (enablement == null || anElement == null) {
 			return false;
 		}
+		if (enablementByType != null) {
+			return enablementByType.evaluate(anElement);
+		}
 
 		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
 		return NavigatorPlugin.safeEvaluate(enablement, context) == EvaluationResult.TRUE;
@@ -440,6 +452,11 @@ public final class NavigatorContentDescriptor implements
 			return arePossibleChildren((IStructuredSelection) anElement);
 		}
 
+		TypeOnlyExpression expressionByType = possibleChildren != null ? possibleChildrenByType : enablementByType;
+		if (expressionByType != null) {
+			return expressionByType.evaluate(anElement);
+		}
+
 		IEvaluationContext context = NavigatorPlugin.getEvalContext(anElement);
 		if (possibleChildren != null) {
 			return NavigatorPlugin.safeEvaluate(possibleChildren, context) == EvaluationResult.TRUE;
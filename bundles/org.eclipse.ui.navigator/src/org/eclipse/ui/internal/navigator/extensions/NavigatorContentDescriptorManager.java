@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2016 IBM Corporation and others.
+ * Copyright (c) 2003, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -190,11 +190,13 @@ public class NavigatorContentDescriptorManager {
 
 	private EvaluationCache getEvaluationCache(Map<VisibilityAssistant, EvaluationCache> anEvaluationMap,
 			VisibilityAssistant aVisibilityAssistant) {
-		EvaluationCache c = anEvaluationMap.get(aVisibilityAssistant);
-		if (c == null) {
-			anEvaluationMap.put(aVisibilityAssistant, c = new EvaluationCache(aVisibilityAssistant));
+		synchronized (anEvaluationMap) {
+			EvaluationCache c = anEvaluationMap.get(aVisibilityAssistant);
+			if (c == null) {
+				anEvaluationMap.put(aVisibilityAssistant, c = new EvaluationCache(aVisibilityAssistant));
+			}
+			return c;
 		}
-		return c;
 	}
 
 	private boolean addDescriptorsConsideringOverrides(Object anElement,
@@ -302,11 +304,15 @@ public class NavigatorContentDescriptorManager {
 	 * Clears all cached information.
 	 */
 	public void clearCache() {
-		for (EvaluationCache cache : cachedPossibleChildrenEvaluations.values()) {
-			cache.clear();
+		synchronized (cachedPossibleChildrenEvaluations) {
+			for (EvaluationCache cache : cachedPossibleChildrenEvaluations.values()) {
+				cache.clear();
+			}
 		}
-		for (EvaluationCache cache : cachedTriggerPointEvaluations.values()) {
-			cache.clear();
+		synchronized (cachedTriggerPointEvaluations) {
+			for (EvaluationCache cache : cachedTriggerPointEvaluations.values()) {
+				cache.clear();
+			}
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -43,6 +43,15 @@ public final class NavigatorViewerDescriptor implements
 	 */
 	public static final String PROP_ENFORCE_HAS_CHILDREN = "org.eclipse.ui.navigator.enforceHasChildren"; //$NON-NLS-1$
 
+	/**
+	 * {@value} (boolean): True indicates the children are computed in the
+	 * background, the enabled content extensions being queried concurrently
+	 * while a pending placeholder is shown (<b>false</b>).
+	 *
+	 * @since 3.11
+	 */
+	public static final String PROP_COMPUTE_CHILDREN_IN_BACKGROUND = "org.eclipse.ui.navigator.computeChildrenInBackground"; //$NON-NLS-1$
+
 	static final String TAG_INCLUDES = "includes"; //$NON-NLS-1$
 
 	static final String TAG_EXCLUDES = "excludes"; //$NON-NLS-1$
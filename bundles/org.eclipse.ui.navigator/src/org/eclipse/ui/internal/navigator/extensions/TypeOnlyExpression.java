@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.navigator.extensions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.expressions.EvaluationResult;
+import org.eclipse.core.expressions.Expression;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.ui.internal.navigator.NavigatorPlugin;
+
+/**
+ * An expression which only tests the type of the element it is evaluated for,
+ * such as most <code>triggerPoints</code> of navigator content extensions. Its
+ * result is remembered per element type, so that it is evaluated once per type
+ * rather than once per element.
+ */
+final class TypeOnlyExpression {
+
+	/**
+	 * The expression elements whose result only depends on the types tested by
+	 * their children.
+	 */
+	private static final Set<String> TYPE_ONLY_ELEMENTS = new HashSet<>(
+			Arrays.asList("instanceof", "and", "or", "not")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private final Expression expression;
+
+	/** Doesn't keep the classes of the evaluated elements alive. */
+	private final Map<Class<?>, Boolean> results = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private TypeOnlyExpression(Expression expression) {
+		this.expression = expression;
+	}
+
+	/**
+	 * @param expression
+	 *            the expression created from the given configuration element
+	 * @param configElement
+	 *            the configuration element whose children are combined by the
+	 *            expression
+	 * @return the type only expression, or <code>null</code> if the expression
+	 *         may depend on more than the type of the element
+	 */
+	static TypeOnlyExpression create(Expression expression, IConfigurationElement configElement) {
+		if (expression == null || !hasTypeOnlyChildren(configElement)) {
+			return null;
+		}
+		return new TypeOnlyExpression(expression);
+	}
+
+	private static boolean hasTypeOnlyChildren(IConfigurationElement configElement) {
+		for (IConfigurationElement child : configElement.getChildren()) {
+			if (!TYPE_ONLY_ELEMENTS.contains(child.getName()) || !hasTypeOnlyChildren(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param anElement
+	 *            a non-null element
+	 * @return whether the expression evaluates to true for the given element
+	 */
+	boolean evaluate(Object anElement) {
+		Class<?> type = anElement.getClass();
+		Boolean result = results.get(type);
+		if (result == null) {
+			EvaluationResult evaluation = NavigatorPlugin.safeEvaluate(expression,
+					NavigatorPlugin.getEvalContext(anElement));
+			if (evaluation == null) {
+				// The evaluation failed and has been logged, don't remember it.
+				return false;
+			}
+			result = Boolean.valueOf(evaluation == EvaluationResult.TRUE);
+			results.put(type, result);
+		}
+		return result.booleanValue();
+	}
+}
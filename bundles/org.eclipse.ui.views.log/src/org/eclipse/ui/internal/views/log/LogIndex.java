@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.views.log;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Index of the sessions and top level entries of a log file. The index only
+ * stores the file offset and the severity of each <code>!SESSION</code> and
+ * <code>!ENTRY</code> line, so the entries to show can be selected without
+ * parsing the whole file, and only their bytes have to be read and parsed by
+ * {@link LogReader}.
+ * <p>
+ * The index is updated incrementally: {@link #update()} only scans the bytes
+ * appended to the file since the last update. If the file was truncated or
+ * replaced, the index is rebuilt from scratch.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class LogIndex {
+
+	/** Kind of a <code>!SESSION</code> header */
+	static final int SESSION = -2;
+
+	/** Severity of an <code>!ENTRY</code> header which could not be parsed */
+	static final int UNKNOWN_SEVERITY = -1;
+
+	private static final int BUFFER_SIZE = 1024 * 1024;
+
+	private static final byte[] ENTRY_PREFIX = "!ENTRY".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+	private static final byte[] SESSION_PREFIX = LogSession.SESSION.getBytes(StandardCharsets.US_ASCII);
+
+	private final File file;
+
+	/** Offsets of the header lines, in ascending order */
+	private long[] offsets = new long[64];
+
+	/** {@link #SESSION} or the severity of the entry of each header */
+	private byte[] kinds = new byte[64];
+
+	/** Index of the session header preceding each header, or -1 */
+	private int[] sessions = new int[64];
+
+	private int count;
+
+	private int lastSession = -1;
+
+	/**
+	 * Number of bytes of the file which were scanned. This is always the start
+	 * of a line, so a line being written while the file is scanned is scanned
+	 * again by the next update.
+	 */
+	private long scannedLength;
+
+	/**
+	 * Creates a new, empty index of the given file. Call {@link #update()} to
+	 * scan the file.
+	 *
+	 * @param file the log file
+	 */
+	public LogIndex(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Scans the bytes appended to the file since the last update.
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized void update() throws IOException {
+		if (!file.exists()) {
+			clear();
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length < scannedLength || !isValid(channel)) {
+				clear();
+			}
+			scan(channel, length);
+		}
+	}
+
+	/**
+	 * Answers whether the last indexed header is still at its offset, i.e. the
+	 * file was not replaced by a different file of at least the same length.
+	 */
+	private boolean isValid(FileChannel channel) throws IOException {
+		if (count == 0) {
+			return true;
+		}
+		byte[] prefix = kinds[count - 1] == SESSION ? SESSION_PREFIX : ENTRY_PREFIX;
+		ByteBuffer buffer = ByteBuffer.allocate(prefix.length + 256);
+		channel.read(buffer, offsets[count - 1]);
+		int i = 0;
+		while (i < buffer.position() && isBlank(buffer.get(i))) {
+			i++;
+		}
+		return startsWith(buffer.array(), i, buffer.position(), prefix);
+	}
+
+	private void clear() {
+		count = 0;
+		lastSession = -1;
+		scannedLength = 0;
+	}
+
+	private void scan(FileChannel channel, long length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] bytes = buffer.array();
+		long position = scannedLength;
+		boolean skipping = false;
+		while (position < length) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			int lineStart = 0;
+			for (int i = 0; i < read; i++) {
+				byte b = bytes[i];
+				if (b == '\n' || b == '\r') {
+					if (skipping) {
+						skipping = false;
+					} else {
+						indexLine(bytes, lineStart, i, position + lineStart);
+					}
+					lineStart = i + 1;
+				}
+			}
+			if (lineStart == 0 && read == bytes.length) {
+				// a line longer than the buffer, e.g. a huge message, which is
+				// not a header line
+				skipping = true;
+				position += read;
+			} else if (lineStart == 0) {
+				// the last line is incomplete, scan it again with the next update
+				break;
+			} else {
+				position += lineStart;
+			}
+			if (!skipping) {
+				scannedLength = position;
+			}
+		}
+	}
+
+	private void indexLine(byte[] bytes, int start, int end, long offset) {
+		int i = start;
+		while (i < end && isBlank(bytes[i])) {
+			i++;
+		}
+		if (i == end || bytes[i] != '!') {
+			return;
+		}
+		if (startsWith(bytes, i, end, SESSION_PREFIX)) {
+			lastSession = add(offset, SESSION);
+		} else if (startsWith(bytes, i, end, ENTRY_PREFIX)
+				&& (i + ENTRY_PREFIX.length == end || isBlank(bytes[i + ENTRY_PREFIX.length]))) {
+			add(offset, parseSeverity(bytes, i + ENTRY_PREFIX.length, end));
+		}
+	}
+
+	private int add(long offset, int kind) {
+		if (count == offsets.length) {
+			int capacity = count * 2;
+			offsets = Arrays.copyOf(offsets, capacity);
+			kinds = Arrays.copyOf(kinds, capacity);
+			sessions = Arrays.copyOf(sessions, capacity);
+		}
+		offsets[count] = offset;
+		kinds[count] = (byte) kind;
+		sessions[count] = lastSession;
+		return count++;
+	}
+
+	/**
+	 * Parses the severity from the rest of an entry line, i.e.
+	 * <code> pluginId severity code date</code>.
+	 */
+	private static int parseSeverity(byte[] bytes, int start, int end) {
+		int i = start;
+		// skip the plug-in id
+		while (i < end && isBlank(bytes[i])) {
+			i++;
+		}
+		while (i < end && !isBlank(bytes[i])) {
+			i++;
+		}
+		while (i < end && isBlank(bytes[i])) {
+			i++;
+		}
+		int severity = 0;
+		int digits = 0;
+		while (i < end && bytes[i] >= '0' && bytes[i] <= '9' && digits < 3) {
+			severity = severity * 10 + bytes[i] - '0';
+			digits++;
+			i++;
+		}
+		if (digits == 0 || severity > Byte.MAX_VALUE || (i < end && !isBlank(bytes[i]))) {
+			return UNKNOWN_SEVERITY;
+		}
+		return severity;
+	}
+
+	private static boolean startsWith(byte[] bytes, int start, int end, byte[] prefix) {
+		if (end - start < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[start + i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	/**
+	 * Selects the newest entries which pass the filter, and returns a stream of
+	 * the bytes of these entries and their sessions, which can be parsed by
+	 * {@link LogReader}.
+	 *
+	 * @param filter
+	 *            the filter for the severity of the entries
+	 * @param limit
+	 *            the maximum number of entries to select
+	 * @param currentSessionOnly
+	 *            whether only the entries of the last session are selected
+	 * @param minOffset
+	 *            the offset below which entries are not selected
+	 * @return a stream of the selected entries and their sessions, in file order
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public synchronized InputStream select(SeverityFilter filter, int limit, boolean currentSessionOnly, long minOffset)
+			throws IOException {
+		int lower = currentSessionOnly && lastSession >= 0 ? lastSession : 0;
+		boolean[] selected = new boolean[count];
+		int found = 0;
+		for (int i = count - 1; i >= lower && found < limit && offsets[i] >= minOffset; i--) {
+			int kind = kinds[i];
+			if (kind != SESSION && (kind == UNKNOWN_SEVERITY || filter.isLogged(kind))) {
+				selected[i] = true;
+				found++;
+				if (sessions[i] >= 0) {
+					selected[sessions[i]] = true;
+				}
+			}
+		}
+
+		// merge adjacent headers into ranges
+		long[] ranges = new long[16];
+		int rangeCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (!selected[i]) {
+				continue;
+			}
+			long start = offsets[i];
+			long end = i + 1 < count ? offsets[i + 1] : scannedLength;
+			if (rangeCount > 0 && ranges[rangeCount - 1] == start) {
+				ranges[rangeCount - 1] = end;
+			} else {
+				if (rangeCount == ranges.length) {
+					ranges = Arrays.copyOf(ranges, rangeCount * 2);
+				}
+				ranges[rangeCount++] = start;
+				ranges[rangeCount++] = end;
+			}
+		}
+		return new RangeInputStream(file, Arrays.copyOf(ranges, rangeCount));
+	}
+
+	/**
+	 * Returns the number of indexed sessions and entries.
+	 *
+	 * @return the number of indexed headers
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Filter for the severity of indexed entries.
+	 */
+	@FunctionalInterface
+	public interface SeverityFilter {
+		boolean isLogged(int severity);
+	}
+
+	/**
+	 * Stream of a sequence of byte ranges of a file.
+	 */
+	private static class RangeInputStream extends InputStream {
+
+		private final FileChannel channel;
+		private final long[] ranges;
+		private int range;
+		private long position;
+		private final ByteBuffer single = ByteBuffer.allocate(1);
+
+		RangeInputStream(File file, long[] ranges) throws IOException {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			this.ranges = ranges;
+			this.position = ranges.length > 0 ? ranges[0] : 0;
+		}
+
+		@Override
+		public int read() throws IOException {
+			single.clear();
+			int read = read(single);
+			return read <= 0 ? -1 : single.get(0) & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			return read(ByteBuffer.wrap(b, off, len));
+		}
+
+		private int read(ByteBuffer buffer) throws IOException {
+			while (range < ranges.length && position >= ranges[range + 1]) {
+				range += 2;
+				if (range < ranges.length) {
+					position = ranges[range];
+				}
+			}
+			if (range >= ranges.length) {
+				return -1;
+			}
+			int remaining = (int) Math.min(buffer.remaining(), ranges[range + 1] - position);
+			buffer.limit(buffer.position() + remaining);
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				// the file was truncated
+				range = ranges.length;
+				return -1;
+			}
+			position += read;
+			return read;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
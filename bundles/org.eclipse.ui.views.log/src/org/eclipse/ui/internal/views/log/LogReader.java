@@ -45,6 +45,71 @@ class LogReader {
 				&& memento.getInteger(LogView.P_LOG_LIMIT).intValue() == 0)
 			return null;
 
+		LogSession currentSession = null;
+		long maxTailSizeInBytes = maxLogTailSizeInMegaByte > 0 ? maxLogTailSizeInMegaByte * ONE_MEGA_BYTE_IN_BYTES
+				: ONE_MEGA_BYTE_IN_BYTES;
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new TailInputStream(file, maxTailSizeInBytes), StandardCharsets.UTF_8))) {
+			currentSession = parse(reader, entries, memento);
+		} catch (IOException e) { // do nothing
+		}
+		if (file.length() > maxLogTailSizeInMegaByte && entries.isEmpty()) {
+			addNoEntryWarning(maxLogTailSizeInMegaByte, entries, currentSession);
+		}
+		return currentSession;
+	}
+
+	/**
+	 * Parses the entries of the log file of the given index. Instead of the
+	 * tail of the file, only the newest entries which pass the severity filter
+	 * and the entry count limit are read from the file. The tail size is only
+	 * used if the number of entries is not limited.
+	 */
+	public static LogSession parseLogFile(LogIndex index, long maxLogTailSizeInMegaByte, List<LogEntry> entries,
+			IMemento memento) {
+		File file = index.getFile();
+		if (!file.exists())
+			return null;
+
+		boolean useLimit = memento.getString(LogView.P_USE_LIMIT).equals("true"); //$NON-NLS-1$
+		int limit = useLimit ? memento.getInteger(LogView.P_LOG_LIMIT).intValue() : Integer.MAX_VALUE;
+		if (limit == 0)
+			return null;
+
+		long minOffset = 0;
+		if (!useLimit) {
+			long maxTailSizeInBytes = maxLogTailSizeInMegaByte > 0
+					? maxLogTailSizeInMegaByte * ONE_MEGA_BYTE_IN_BYTES
+					: ONE_MEGA_BYTE_IN_BYTES;
+			minOffset = Math.max(0, file.length() - maxTailSizeInBytes);
+		}
+		boolean currentSessionOnly = !memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true"); //$NON-NLS-1$
+
+		LogSession currentSession = null;
+		try {
+			index.update();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+					index.select(severity -> isLogged(severity, memento), limit, currentSessionOnly, minOffset),
+					StandardCharsets.UTF_8))) {
+				currentSession = parse(reader, entries, memento);
+			}
+		} catch (IOException e) { // do nothing
+		}
+		if (minOffset > 0 && entries.isEmpty()) {
+			addNoEntryWarning(maxLogTailSizeInMegaByte, entries, currentSession);
+		}
+		return currentSession;
+	}
+
+	private static void addNoEntryWarning(long maxLogTailSizeInMegaByte, List<LogEntry> entries,
+			LogSession currentSession) {
+		LogEntry entry = new LogEntry(new Status(IStatus.WARNING, Activator.PLUGIN_ID,
+				NLS.bind(Messages.LogReader_warn_noEntryWithinMaxLogTailSize, Long.valueOf(maxLogTailSizeInMegaByte))));
+		entry.setSession(currentSession == null ? new LogSession() : currentSession);
+		entries.add(entry);
+	}
+
+	private static LogSession parse(BufferedReader reader, List<LogEntry> entries, IMemento memento) {
 		ArrayList<LogEntry> parents = new ArrayList<>();
 		LogEntry current = null;
 		LogSession session = null;
@@ -53,10 +118,7 @@ class LogReader {
 		PrintWriter writer = null;
 		int state = UNKNOWN_STATE;
 		LogSession currentSession = null;
-		long maxTailSizeInBytes = maxLogTailSizeInMegaByte > 0 ? maxLogTailSizeInMegaByte * ONE_MEGA_BYTE_IN_BYTES
-				: ONE_MEGA_BYTE_IN_BYTES;
-		try (BufferedReader reader = new BufferedReader(
-				new InputStreamReader(new TailInputStream(file, maxTailSizeInBytes), StandardCharsets.UTF_8))) {
+		try {
 			for (;;) {
 				String line0 = reader.readLine();
 				if (line0 == null)
@@ -161,12 +223,6 @@ class LogReader {
 			}
 		} catch (IOException e) { // do nothing
 		} finally {
-			if (file.length() > maxLogTailSizeInMegaByte && entries.isEmpty()) {
-				LogEntry entry = new LogEntry(new Status(IStatus.WARNING, Activator.PLUGIN_ID, NLS.bind(
-						Messages.LogReader_warn_noEntryWithinMaxLogTailSize, Long.valueOf(maxLogTailSizeInMegaByte))));
-				entry.setSession(currentSession == null ? new LogSession() : currentSession);
-				entries.add(entry);
-			}
 			if (writer != null) {
 				setData(current, session, writerState, swriter);
 				writer.close();
@@ -239,7 +295,16 @@ class LogReader {
 	 * @return is entry logged or filtered
 	 */
 	public static boolean isLogged(LogEntry entry, IMemento memento) {
-		int severity = entry.getSeverity();
+		return isLogged(entry.getSeverity(), memento);
+	}
+
+	/**
+	 * Returns whether entries with the given severity are logged (true) or
+	 * filtered (false).
+	 *
+	 * @return is severity logged or filtered
+	 */
+	static boolean isLogged(int severity, IMemento memento) {
 		switch (severity) {
 			case IStatus.INFO :
 				return memento.getString(LogView.P_LOG_INFO).equals("true"); //$NON-NLS-1$
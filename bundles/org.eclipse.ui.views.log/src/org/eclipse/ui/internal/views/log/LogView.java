@@ -121,6 +121,7 @@ public class LogView extends ViewPart implements LogListener {
 
 	private IMemento fMemento;
 	private File fInputFile;
+	private LogIndex fLogIndex;
 	private String fDirectory;
 
 	private Comparator fComparator;
@@ -870,7 +871,7 @@ public class LogView extends ViewPart implements LogListener {
 	private CompletableFuture<List<LogEntry>> fetchLogEntries() {
 		return CompletableFuture.supplyAsync(() -> {
 			List<LogEntry> result = new ArrayList<>();
-			LogSession lastLogSession = LogReader.parseLogFile(this.fInputFile, getLogMaxTailSize(), result,
+			LogSession lastLogSession = LogReader.parseLogFile(getLogIndex(), getLogMaxTailSize(), result,
 					this.fMemento);
 			if (lastLogSession != null
 					&& (lastLogSession.getDate() == null || isEclipseStartTime(lastLogSession.getDate()))) {
@@ -882,6 +883,13 @@ public class LogView extends ViewPart implements LogListener {
 		});
 	}
 
+	private synchronized LogIndex getLogIndex() {
+		if (fLogIndex == null || !fLogIndex.getFile().equals(fInputFile)) {
+			fLogIndex = new LogIndex(fInputFile);
+		}
+		return fLogIndex;
+	}
+
 	private void updateLogViewer(List<LogEntry> entries) {
 		elements.clear();
 		groups.clear();
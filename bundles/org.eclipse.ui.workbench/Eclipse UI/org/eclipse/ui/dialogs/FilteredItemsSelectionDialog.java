@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -37,7 +37,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
@@ -144,6 +147,23 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private static final String DIALOG_WIDTH = "DIALOG_WIDTH"; //$NON-NLS-1$
 
+	/**
+	 * The number of items which are matched together, in parallel.
+	 */
+	private static final int MATCH_BATCH_SIZE = 4096;
+
+	/**
+	 * The number of items shown while the search is running.
+	 */
+	private static final int SEARCHING_ITEM_COUNT = 500;
+
+	/**
+	 * The delays in milliseconds before the items found by a running search are
+	 * shown the first time and after that.
+	 */
+	private static final long FIRST_SEARCHING_REFRESH_DELAY = 200;
+	private static final long SEARCHING_REFRESH_DELAY = 500;
+
 	/**
 	 * Represents an empty selection in the pattern input field (used only for
 	 * initial pattern).
@@ -1137,6 +1157,26 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 	protected abstract void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
 			IProgressMonitor progressMonitor) throws CoreException;
 
+	/**
+	 * Returns whether {@link ItemsFilter#matchItem(Object)} of the filters created
+	 * by this dialog may be called by several threads at the same time. If so,
+	 * the items added to the content provider are matched in batches, in
+	 * parallel, and the first items found are shown while the search is still
+	 * running. Otherwise each item is matched when it is added, and the items are
+	 * shown when the search has ended.
+	 * <p>
+	 * The default implementation returns <code>false</code>. Subclasses whose
+	 * filters can be used concurrently may override.
+	 * </p>
+	 *
+	 * @return <code>true</code> if items may be matched in parallel,
+	 *         <code>false</code> otherwise
+	 * @since 3.123
+	 */
+	protected boolean isMatchItemThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * Removes selected items from history.
 	 *
@@ -1933,19 +1973,16 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 			if (lastCompletedFilter != null && lastCompletedFilter.isSubFilter(this.itemsFilter)) {
 
-				int length = lastCompletedResult.size() / 500;
-				monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName, length);
-
-				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
+				int size = lastCompletedResult.size();
+				monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
+						size / MATCH_BATCH_SIZE + 1);
 
-					Object item = lastCompletedResult.get(pos);
+				for (int pos = 0; pos < size; pos += MATCH_BATCH_SIZE) {
 					if (monitor.isCanceled())
 						break;
-					contentProvider.add(item, itemsFilter);
-
-					if ((pos % 500) == 0) {
-						monitor.worked(1);
-					}
+					int end = Math.min(pos + MATCH_BATCH_SIZE, size);
+					contentProvider.addMatching(lastCompletedResult.subList(pos, end), itemsFilter);
+					monitor.worked(1);
 				}
 
 			} else {
@@ -1956,7 +1993,13 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 				SubMonitor subMonitor = SubMonitor.convert(monitor,
 						WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName, 100);
 
-				fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+				contentProvider.setSearching(true);
+				try {
+					fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+					contentProvider.matchPendingItems(itemsFilter);
+				} finally {
+					contentProvider.setSearching(false);
+				}
 
 				if (monitor != null && !monitor.isCanceled()) {
 					subMonitor.worked(2);
@@ -2277,6 +2320,11 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 		/**
 		 * Matches an item against filter conditions.
+		 * <p>
+		 * If {@link FilteredItemsSelectionDialog#isMatchItemThreadSafe()} returns
+		 * <code>true</code>, items are matched in parallel and this method may be
+		 * called by several threads at the same time.
+		 * </p>
 		 *
 		 * @param item the item to match
 		 * @return <code>true</code> if item matches against filter conditions,
@@ -2303,7 +2351,9 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 	protected abstract class AbstractContentProvider {
 		/**
 		 * Adds the item to the content provider iff the filter matches the item.
-		 * Otherwise does nothing.
+		 * Otherwise does nothing. If the dialog
+		 * {@link FilteredItemsSelectionDialog#isMatchItemThreadSafe() matches items
+		 * in parallel}, the item may be matched later, together with other items.
 		 *
 		 * @param item        the item to add
 		 * @param itemsFilter the filter
@@ -2377,6 +2427,28 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		private boolean reset;
 
+		/**
+		 * Items added by the running search which have not been matched yet, if
+		 * items are matched in parallel. They are matched in batches.
+		 */
+		private List<Object> pendingItems = new ArrayList<>();
+
+		/**
+		 * The filter of the pending items.
+		 */
+		private ItemsFilter pendingItemsFilter;
+
+		/**
+		 * Whether a search is running and the items are matched in parallel. While
+		 * it runs, only the first items are sorted and shown.
+		 */
+		private volatile boolean searching;
+
+		/**
+		 * The time at which the items found by the running search are shown next.
+		 */
+		private volatile long nextSearchingRefresh;
+
 		/**
 		 * Creates new instance of <code>ContentProvider</code>.
 		 */
@@ -2408,6 +2480,10 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		public void reset() {
 			reset = true;
+			synchronized (this) {
+				pendingItems = new ArrayList<>();
+				pendingItemsFilter = null;
+			}
 			this.items.clear();
 			this.duplicates.clear();
 			this.lastSortedItems.clear();
@@ -2429,16 +2505,94 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		@Override
 		public void add(Object item, ItemsFilter itemsFilter) {
 			if (itemsFilter == filter) {
-				if (itemsFilter != null) {
+				if (itemsFilter != null && !isMatchItemThreadSafe()) {
 					if (itemsFilter.matchItem(item)) {
 						this.items.add(item);
 					}
+				} else if (itemsFilter != null) {
+					List<Object> batch = null;
+					synchronized (this) {
+						if (pendingItemsFilter != itemsFilter) {
+							pendingItems = new ArrayList<>();
+							pendingItemsFilter = itemsFilter;
+						}
+						pendingItems.add(item);
+						if (pendingItems.size() >= MATCH_BATCH_SIZE) {
+							batch = pendingItems;
+							pendingItems = new ArrayList<>();
+						}
+					}
+					if (batch != null) {
+						addMatching(batch, itemsFilter);
+					}
 				} else {
 					this.items.add(item);
 				}
 			}
 		}
 
+		/**
+		 * Adds the items which have been added with the filter but not matched yet.
+		 *
+		 * @param itemsFilter the filter to match
+		 */
+		public void matchPendingItems(ItemsFilter itemsFilter) {
+			List<Object> batch;
+			synchronized (this) {
+				if (pendingItemsFilter != itemsFilter) {
+					return;
+				}
+				batch = pendingItems;
+				pendingItems = new ArrayList<>();
+			}
+			addMatching(batch, itemsFilter);
+		}
+
+		/**
+		 * Adds the items which match the filter. The items are matched in parallel
+		 * if the dialog {@link FilteredItemsSelectionDialog#isMatchItemThreadSafe()
+		 * allows it}.
+		 *
+		 * @param batch       the items to match
+		 * @param itemsFilter the filter to match
+		 */
+		public void addMatching(List<Object> batch, ItemsFilter itemsFilter) {
+			if (itemsFilter != filter || batch.isEmpty()) {
+				return;
+			}
+			Stream<Object> stream = isMatchItemThreadSafe() ? batch.parallelStream() : batch.stream();
+			List<Object> matchingItems = stream.filter(itemsFilter::matchItem).collect(Collectors.toList());
+			if (itemsFilter == filter && !matchingItems.isEmpty()) {
+				this.items.addAll(matchingItems);
+				refreshWhileSearching();
+			}
+		}
+
+		/**
+		 * Shows the items found so far if a search is running and they have not
+		 * been shown for a while.
+		 */
+		private void refreshWhileSearching() {
+			if (searching && System.currentTimeMillis() >= nextSearchingRefresh) {
+				nextSearchingRefresh = System.currentTimeMillis() + SEARCHING_REFRESH_DELAY;
+				refresh();
+			}
+		}
+
+		/**
+		 * Sets whether a search is running. While it runs, the first items found
+		 * so far are shown from time to time, if the dialog
+		 * {@link FilteredItemsSelectionDialog#isMatchItemThreadSafe() matches
+		 * items in parallel}.
+		 *
+		 * @param searching <code>true</code> if the search starts,
+		 *                  <code>false</code> if it has ended
+		 */
+		public void setSearching(boolean searching) {
+			nextSearchingRefresh = System.currentTimeMillis() + FIRST_SEARCHING_REFRESH_DELAY;
+			this.searching = searching && isMatchItemThreadSafe();
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 *
@@ -2576,6 +2730,9 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 * @return sorted items
 		 */
 		private Object[] getSortedItems() {
+			if (searching) {
+				return getFirstItems(SEARCHING_ITEM_COUNT);
+			}
 			if (lastSortedItems.size() != items.size()) {
 				synchronized (lastSortedItems) {
 					lastSortedItems.clear();
@@ -2586,6 +2743,34 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			return lastSortedItems.toArray();
 		}
 
+		/**
+		 * Returns the first items in sorted order, without sorting all items.
+		 *
+		 * @param count the number of items to return
+		 * @return the first items
+		 */
+		private Object[] getFirstItems(int count) {
+			Object[] allItems = items.toArray();
+			Comparator<Object> comparator = getHistoryComparator();
+			if (allItems.length <= count) {
+				Arrays.sort(allItems, comparator);
+				return allItems;
+			}
+			// keep the first items in a heap whose head is the last of them
+			PriorityQueue<Object> firstItems = new PriorityQueue<>(count + 1, comparator.reversed());
+			for (Object item : allItems) {
+				if (firstItems.size() < count) {
+					firstItems.add(item);
+				} else if (comparator.compare(item, firstItems.peek()) < 0) {
+					firstItems.poll();
+					firstItems.add(item);
+				}
+			}
+			Object[] result = firstItems.toArray();
+			Arrays.sort(result, comparator);
+			return result;
+		}
+
 		/**
 		 * Remember result of filtering.
 		 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -110,6 +110,34 @@ public class FilteredTree extends Composite {
 	 */
 	private Job refreshJob;
 
+	/**
+	 * The job used to filter the tree in the background, see
+	 * {@link #setBackgroundFiltering(boolean)}.
+	 */
+	private Job filterJob;
+
+	/**
+	 * Whether the tree is filtered in the background.
+	 */
+	private boolean backgroundFiltering = false;
+
+	/**
+	 * The filter text for the filter job.
+	 */
+	private volatile String backgroundFilterText;
+
+	/**
+	 * The caches of the pattern filter computed by the filter job, which the
+	 * refresh job uses if they are still valid.
+	 */
+	private volatile PatternFilter.PatternCache backgroundPatternCache;
+
+	/**
+	 * Whether the caches of the pattern filter are kept when the tree is
+	 * refreshed, because they have been computed by the filter job.
+	 */
+	private boolean keepFilterCaches = false;
+
 	/**
 	 * The parent composite of the filtered tree.
 	 *
@@ -400,7 +428,10 @@ public class FilteredTree extends Composite {
 		treeViewer = doCreateTreeViewer(parent, style);
 		GridData data = new GridData(SWT.FILL, SWT.FILL, true, true);
 		treeViewer.getControl().setLayoutData(data);
-		treeViewer.getControl().addDisposeListener(e -> refreshJob.cancel());
+		treeViewer.getControl().addDisposeListener(e -> {
+			refreshJob.cancel();
+			filterJob.cancel();
+		});
 		if (treeViewer instanceof NotifyingTreeViewer) {
 			patternFilter.setUseCache(true);
 		}
@@ -448,6 +479,26 @@ public class FilteredTree extends Composite {
 	private void createRefreshJob() {
 		refreshJob = doCreateRefreshJob();
 		refreshJob.setSystem(true);
+		filterJob = new Job("Filter Tree") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				String text = backgroundFilterText;
+				if (text == null) {
+					return Status.OK_STATUS;
+				}
+				boolean initial = initialText != null && initialText.equals(text);
+				// the pattern is only set in the refresh job, the filter may be
+				// used by the tree in the meantime
+				backgroundPatternCache = initial ? null
+						: patternFilter.computePatternCache(text, treeViewer, monitor);
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				refreshJob.schedule();
+				return Status.OK_STATUS;
+			}
+		};
+		filterJob.setSystem(true);
 	}
 
 	/**
@@ -477,6 +528,10 @@ public class FilteredTree extends Composite {
 				} else if (text != null) {
 					patternFilter.setPattern(text);
 				}
+				PatternFilter.PatternCache patternCache = backgroundPatternCache;
+				backgroundPatternCache = null;
+				boolean keepCaches = !initial && patternCache != null && isBackgroundFiltering()
+						&& patternFilter.setPatternCache(patternCache);
 
 				Control redrawFalseControl = treeComposite != null ? treeComposite : treeViewer.getControl();
 				try {
@@ -494,7 +549,12 @@ public class FilteredTree extends Composite {
 							}
 						}
 					}
-					treeViewer.refresh(true);
+					keepFilterCaches = keepCaches;
+					try {
+						treeViewer.refresh(true);
+					} finally {
+						keepFilterCaches = false;
+					}
 
 					if (text.length() > 0 && !initial) {
 						/*
@@ -753,7 +813,14 @@ public class FilteredTree extends Composite {
 		previousFilterText = getFilterString();
 		// cancel currently running job first, to prevent unnecessary redraw
 		refreshJob.cancel();
-		refreshJob.schedule(getRefreshJobDelay());
+		if (isBackgroundFiltering()) {
+			backgroundFilterText = getFilterString();
+			backgroundPatternCache = null;
+			filterJob.cancel();
+			filterJob.schedule(getRefreshJobDelay());
+		} else {
+			refreshJob.schedule(getRefreshJobDelay());
+		}
 	}
 
 	/**
@@ -880,6 +947,38 @@ public class FilteredTree extends Composite {
 		this.quickSelectionMode = enabled;
 	}
 
+	/**
+	 * Sets whether the elements matching the filter text are computed by a job in
+	 * the background. The tree is refreshed once the matching elements of the
+	 * whole tree are known. They are remembered for the recently used filter
+	 * texts, and only the elements matching a filter text are matched again when
+	 * it is extended.
+	 * <p>
+	 * The content and label providers of the viewer must be thread safe, and the
+	 * pattern filter must not match more elements when its pattern is extended.
+	 * This has no effect if the tree viewer is created by a subclass.
+	 * </p>
+	 * <p>
+	 * By default, this is set to <code>false</code>.
+	 * </p>
+	 *
+	 * @param enabled <code>true</code> if the tree should be filtered in the
+	 *                background, <code>false</code> otherwise
+	 * @since 3.123
+	 */
+	public void setBackgroundFiltering(boolean enabled) {
+		this.backgroundFiltering = enabled;
+	}
+
+	/**
+	 * Returns whether the tree is filtered in the background.
+	 *
+	 * @return <code>true</code> if the tree is filtered in the background
+	 */
+	private boolean isBackgroundFiltering() {
+		return backgroundFiltering && treeViewer instanceof NotifyingTreeViewer;
+	}
+
 	/**
 	 * Select all text in the filter text field.
 	 *
@@ -937,7 +1036,8 @@ public class FilteredTree extends Composite {
 
 	/**
 	 * Custom tree viewer subclass that clears the caches in patternFilter on any
-	 * change to the tree. See bug 187200.
+	 * change to the tree. See bug 187200. The caches are kept when the tree is
+	 * refreshed with the results of the filter job.
 	 *
 	 * @since 3.3
 	 *
@@ -974,25 +1074,25 @@ public class FilteredTree extends Composite {
 
 		@Override
 		public void refresh() {
-			getPatternFilter().clearCaches();
+			clearCachesOnRefresh();
 			super.refresh();
 		}
 
 		@Override
 		public void refresh(boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			clearCachesOnRefresh();
 			super.refresh(updateLabels);
 		}
 
 		@Override
 		public void refresh(Object element) {
-			getPatternFilter().clearCaches();
+			clearCachesOnRefresh();
 			super.refresh(element);
 		}
 
 		@Override
 		public void refresh(Object element, boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			clearCachesOnRefresh();
 			super.refresh(element, updateLabels);
 		}
 
@@ -1038,6 +1138,12 @@ public class FilteredTree extends Composite {
 			super.setHasChildren(elementOrTreePath, hasChildren);
 		}
 
+		private void clearCachesOnRefresh() {
+			if (!keepFilterCaches) {
+				getPatternFilter().clearCaches();
+			}
+		}
+
 	}
 
 }
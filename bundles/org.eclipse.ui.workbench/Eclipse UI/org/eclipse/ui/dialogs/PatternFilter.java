@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015, 2017 IBM Corporation and others.
+ * Copyright (c) 2004, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,13 @@
  *******************************************************************************/
 package org.eclipse.ui.dialogs;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ContentViewer;
 import org.eclipse.jface.viewers.ILabelProvider;
@@ -37,14 +42,73 @@ import org.eclipse.ui.internal.misc.TextMatcher;
  */
 public class PatternFilter extends ViewerFilter {
 	/*
-	 * Cache of filtered elements in the tree
+	 * The maximum number of recently used patterns whose caches are kept
 	 */
-	private Map cache = new HashMap();
+	private static final int MAX_CACHED_PATTERNS = 4;
 
 	/*
-	 * Maps parent elements to TRUE or FALSE
+	 * The matcher of a pattern and the caches of the elements filtered with it
 	 */
-	private Map foundAnyCache = new HashMap();
+	static final class PatternCache {
+		final String pattern;
+
+		final TextMatcher matcher;
+
+		/*
+		 * The number of times the caches had been cleared when this was created
+		 */
+		final int generation;
+
+		/*
+		 * Cache of filtered elements in the tree
+		 */
+		final Map<Object, Object[]> filtered = Collections.synchronizedMap(new HashMap<>());
+
+		/*
+		 * Maps parent elements to TRUE or FALSE
+		 */
+		final Map<Object, Boolean> foundAny = Collections.synchronizedMap(new HashMap<>());
+
+		/*
+		 * Whether the filtered children of all visible elements are cached
+		 */
+		volatile boolean complete;
+
+		PatternCache(String pattern, TextMatcher matcher, int generation) {
+			this.pattern = pattern;
+			this.matcher = matcher;
+			this.generation = generation;
+		}
+	}
+
+	/*
+	 * The number of times the caches have been cleared
+	 */
+	private int generation;
+
+	/*
+	 * The caches of the current pattern
+	 */
+	private volatile PatternCache cache = new PatternCache(null, null, 0);
+
+	/*
+	 * The caches being computed by the current thread, used instead of the
+	 * caches of the current pattern
+	 */
+	private final ThreadLocal<PatternCache> computedCache = new ThreadLocal<>();
+
+	/*
+	 * The caches of the recently used patterns, least recently used first
+	 */
+	private final Map<String, PatternCache> patternCaches = new LinkedHashMap<String, PatternCache>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PatternCache> eldest) {
+			return size() > MAX_CACHED_PATTERNS;
+		}
+	};
 
 	private boolean useCache = false;
 
@@ -54,21 +118,17 @@ public class PatternFilter extends ViewerFilter {
 	 */
 	private boolean includeLeadingWildcard = false;
 
-	/**
-	 * The string pattern matcher used for this pattern filter.
-	 */
-	private TextMatcher matcher;
-
 	private boolean useEarlyReturnIfMatcherIsNull = true;
 
 	private static Object[] EMPTY = new Object[0];
 
 	@Override
 	public Object[] filter(Viewer viewer, Object parent, Object[] elements) {
+		PatternCache patternCache = getCache();
 		// we don't want to optimize if we've extended the filter ... this
 		// needs to be addressed in 3.4
 		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=186404
-		if (matcher == null && useEarlyReturnIfMatcherIsNull) {
+		if (patternCache.matcher == null && useEarlyReturnIfMatcherIsNull) {
 			return elements;
 		}
 
@@ -76,15 +136,20 @@ public class PatternFilter extends ViewerFilter {
 			return super.filter(viewer, parent, elements);
 		}
 
-		Object[] filtered = (Object[]) cache.get(parent);
+		Object[] filtered = patternCache.filtered.get(parent);
 		if (filtered == null) {
-			Boolean foundAny = (Boolean) foundAnyCache.get(parent);
+			Boolean foundAny = patternCache.foundAny.get(parent);
 			if (foundAny != null && !foundAny.booleanValue()) {
 				filtered = EMPTY;
 			} else {
 				filtered = super.filter(viewer, parent, elements);
 			}
-			cache.put(parent, filtered);
+			synchronized (this) {
+				// don't cache what may have been matched with another pattern
+				if (patternCache == getCache()) {
+					patternCache.filtered.put(parent, filtered);
+				}
+			}
 		}
 		return filtered;
 	}
@@ -99,7 +164,8 @@ public class PatternFilter extends ViewerFilter {
 	 * @return true if any of the elements makes it through the filter.
 	 */
 	private boolean isAnyVisible(Viewer viewer, Object parent, Object[] elements) {
-		if (matcher == null) {
+		PatternCache patternCache = getCache();
+		if (patternCache.matcher == null) {
 			return true;
 		}
 
@@ -107,14 +173,18 @@ public class PatternFilter extends ViewerFilter {
 			return computeAnyVisible(viewer, elements);
 		}
 
-		Object[] filtered = (Object[]) cache.get(parent);
+		Object[] filtered = patternCache.filtered.get(parent);
 		if (filtered != null) {
 			return filtered.length > 0;
 		}
-		Boolean foundAny = (Boolean) foundAnyCache.get(parent);
+		Boolean foundAny = patternCache.foundAny.get(parent);
 		if (foundAny == null) {
 			foundAny = computeAnyVisible(viewer, elements) ? Boolean.TRUE : Boolean.FALSE;
-			foundAnyCache.put(parent, foundAny);
+			synchronized (this) {
+				if (patternCache == getCache()) {
+					patternCache.foundAny.put(parent, foundAny);
+				}
+			}
 		}
 		return foundAny.booleanValue();
 	}
@@ -165,27 +235,185 @@ public class PatternFilter extends ViewerFilter {
 			useEarlyReturnIfMatcherIsNull = false;
 			return;
 		}
-		clearCaches();
-		if (patternString == null || patternString.isEmpty()) {
-			matcher = null;
-		} else {
-			String pattern = patternString;
-			if (!patternString.endsWith(" ")) //$NON-NLS-1$
-				pattern += "*"; //$NON-NLS-1$
-			if (includeLeadingWildcard) {
-				pattern = "*" + pattern; //$NON-NLS-1$
+		String pattern = toPattern(patternString);
+		synchronized (this) {
+			// keep the caches of the previous pattern, they are still valid
+			// when it is set again or extended
+			if (cache.pattern != null) {
+				patternCaches.put(cache.pattern, cache);
+			}
+			PatternCache patternCache = pattern == null ? null : patternCaches.remove(pattern);
+			if (patternCache == null) {
+				patternCache = new PatternCache(pattern,
+						pattern == null ? null : new TextMatcher(pattern, true, false), generation);
 			}
-			matcher = new TextMatcher(pattern, true, false);
+			cache = patternCache;
 		}
 	}
 
+	/**
+	 * Returns the pattern of the matcher for the given pattern string.
+	 *
+	 * @param patternString the pattern string
+	 * @return the pattern or <code>null</code> if all elements match
+	 */
+	private String toPattern(String patternString) {
+		if (patternString == null || patternString.isEmpty()) {
+			return null;
+		}
+		String pattern = patternString;
+		if (!patternString.endsWith(" ")) //$NON-NLS-1$
+			pattern += "*"; //$NON-NLS-1$
+		if (includeLeadingWildcard) {
+			pattern = "*" + pattern; //$NON-NLS-1$
+		}
+		return pattern;
+	}
+
+	/**
+	 * Returns the caches being computed by the current thread, or the caches of
+	 * the current pattern.
+	 *
+	 * @return the caches
+	 */
+	private PatternCache getCache() {
+		PatternCache patternCache = computedCache.get();
+		return patternCache != null ? patternCache : cache;
+	}
+
 	/**
 	 * Clears the caches used for optimizing this filter. Needs to be called
 	 * whenever the tree content changes.
 	 */
-	/* package */ void clearCaches() {
-		cache.clear();
-		foundAnyCache.clear();
+	/* package */ synchronized void clearCaches() {
+		generation++;
+		patternCaches.clear();
+		cache = new PatternCache(cache.pattern, cache.matcher, generation);
+	}
+
+	/**
+	 * Computes the filtered children of all elements of the viewer's tree which
+	 * are visible with the given pattern string, so that refreshing the viewer
+	 * with that pattern string does not need to match any element. The current
+	 * pattern and its caches are not changed; the computed caches are used once
+	 * they are {@link #setPatternCache(PatternCache) set} after the pattern
+	 * string. If the complete caches of a pattern which the given pattern extends
+	 * are kept, only the elements which were visible with that pattern are
+	 * matched again.
+	 * <p>
+	 * This method may be called in a background thread, in which case the content
+	 * and label providers of the viewer must be thread safe.
+	 * </p>
+	 *
+	 * @param patternString the pattern string
+	 * @param viewer        the viewer using this filter
+	 * @param monitor       the progress monitor
+	 * @return the complete caches of the pattern, or <code>null</code> if there
+	 *         is nothing to compute or the computation has been canceled
+	 */
+	/* package */ PatternCache computePatternCache(String patternString, AbstractTreeViewer viewer,
+			IProgressMonitor monitor) {
+		String pattern = toPattern(patternString);
+		if (!useCache || pattern == null || !(viewer.getContentProvider() instanceof ITreeContentProvider)) {
+			return null;
+		}
+		PatternCache patternCache;
+		PatternCache previousCache;
+		synchronized (this) {
+			if (pattern.equals(cache.pattern) && cache.complete) {
+				return cache;
+			}
+			patternCache = patternCaches.get(pattern);
+			if (patternCache != null && patternCache.complete) {
+				return patternCache;
+			}
+			patternCache = new PatternCache(pattern, new TextMatcher(pattern, true, false), generation);
+			previousCache = getExtendedPatternCache(pattern);
+		}
+		ITreeContentProvider provider = (ITreeContentProvider) viewer.getContentProvider();
+		Object input = viewer.getInput();
+		Object[] elements = previousCache != null ? previousCache.filtered.get(input) : null;
+		if (elements == null) {
+			previousCache = null;
+			elements = provider.getElements(input);
+		}
+		computedCache.set(patternCache);
+		try {
+			if (!computeFilteredChildren(viewer, provider, previousCache, input, elements, monitor)) {
+				return null;
+			}
+		} finally {
+			computedCache.remove();
+		}
+		patternCache.complete = true;
+		return patternCache;
+	}
+
+	/**
+	 * Uses the caches computed by
+	 * {@link #computePatternCache(String, AbstractTreeViewer, IProgressMonitor)}
+	 * for the current pattern. They are only used if the current pattern has
+	 * been set with the same pattern string and the tree content has not
+	 * changed since they have been computed.
+	 *
+	 * @param patternCache the computed caches
+	 * @return <code>true</code> if the caches are used
+	 */
+	/* package */ synchronized boolean setPatternCache(PatternCache patternCache) {
+		if (patternCache.generation != generation || !patternCache.pattern.equals(cache.pattern)) {
+			return false;
+		}
+		cache = patternCache;
+		return true;
+	}
+
+	/**
+	 * Computes the filtered children of the parent and of all its descendants
+	 * with children, children first.
+	 *
+	 * @param previousCache the complete cache of a pattern which the current
+	 *                      pattern extends, or <code>null</code>
+	 * @return <code>false</code> if the computation has been canceled
+	 */
+	private boolean computeFilteredChildren(AbstractTreeViewer viewer, ITreeContentProvider provider,
+			PatternCache previousCache, Object parent, Object[] elements, IProgressMonitor monitor) {
+		for (Object element : elements) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			// an element which had no visible children before has none now
+			Object[] children = previousCache != null ? previousCache.filtered.get(element)
+					: provider.getChildren(element);
+			if (children != null && (children.length > 0 || previousCache != null)
+					&& !computeFilteredChildren(viewer, provider, previousCache, element, children, monitor)) {
+				return false;
+			}
+		}
+		filter(viewer, parent, elements);
+		return true;
+	}
+
+	/**
+	 * Returns the complete cache of the longest pattern which the given pattern
+	 * extends. All elements matching the given pattern also match that pattern.
+	 *
+	 * @param pattern the pattern
+	 * @return the cache or <code>null</code>
+	 */
+	private synchronized PatternCache getExtendedPatternCache(String pattern) {
+		PatternCache extendedCache = null;
+		List<PatternCache> keptCaches = new ArrayList<>(patternCaches.values());
+		keptCaches.add(cache);
+		for (PatternCache patternCache : keptCaches) {
+			String prefix = patternCache.pattern;
+			// a pattern without the trailing wildcard only matches whole words
+			if (patternCache.complete && prefix.endsWith("*") //$NON-NLS-1$
+					&& pattern.startsWith(prefix.substring(0, prefix.length() - 1))
+					&& (extendedCache == null || prefix.length() > extendedCache.pattern.length())) {
+				extendedCache = patternCache;
+			}
+		}
+		return extendedCache;
 	}
 
 	/**
@@ -196,6 +424,7 @@ public class PatternFilter extends ViewerFilter {
 	 * @return whether the string matches the pattern
 	 */
 	private boolean match(String string) {
+		TextMatcher matcher = getCache().matcher;
 		if (matcher == null) {
 			return true;
 		}
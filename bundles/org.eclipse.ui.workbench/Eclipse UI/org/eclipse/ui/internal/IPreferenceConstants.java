@@ -312,4 +312,19 @@ public interface IPreferenceConstants {
 	 */
 	String SHOW_KEYS_TIME_TO_CLOSE = "showCommandKeys_timeToClose"; //$NON-NLS-1$
 
+	/**
+	 * Preference for the number of background jobs computing lightweight
+	 * decorations concurrently. Values greater than <code>1</code> require all
+	 * enabled lightweight decorators to be thread safe.
+	 * <p>
+	 * The integer default value for this preference is: <code>1</code>, i.e.
+	 * decorations are computed by a single job as before. Products whose
+	 * decorators are all thread safe can raise it in their
+	 * <code>plugin_customization.ini</code>.
+	 * </p>
+	 *
+	 * @since 3.122
+	 */
+	String DECORATOR_WORKER_COUNT = "DECORATOR_WORKER_COUNT"; //$NON-NLS-1$
+
 }
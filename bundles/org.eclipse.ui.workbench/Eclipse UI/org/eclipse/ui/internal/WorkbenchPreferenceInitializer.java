@@ -79,6 +79,7 @@ public class WorkbenchPreferenceInitializer extends AbstractPreferenceInitialize
 		node.putInt(IPreferenceConstants.EDITOR_TAB_WIDTH, 3); // high
 		node.putInt(IPreferenceConstants.OPEN_PERSP_MODE, IPreferenceConstants.OPM_ACTIVE_PAGE);
 		node.put(IPreferenceConstants.ENABLED_DECORATORS, ""); //$NON-NLS-1$
+		node.putInt(IPreferenceConstants.DECORATOR_WORKER_COUNT, 1);
 		node.putInt(IPreferenceConstants.EDITORLIST_SELECTION_SCOPE, IPreferenceConstants.EDITORLIST_SET_PAGE_SCOPE); // Current
 																														// Window
 		node.putInt(IPreferenceConstants.EDITORLIST_SORT_CRITERIA, IPreferenceConstants.EDITORLIST_NAME_SORT); // Name
@@ -16,15 +16,20 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.decorators;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -40,7 +45,10 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.IPreferenceConstants;
 import org.eclipse.ui.internal.WorkbenchMessages;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.progress.UIJob;
 import org.eclipse.ui.progress.WorkbenchJob;
 
@@ -62,23 +70,29 @@ import org.eclipse.ui.progress.WorkbenchJob;
  * <code>awaitingDecorationValues</code> and schedules the
  * <code>decorationJob</code> to be executed asynchonously.</li>
  *
- * <li>The <code>decorationJob</code> processes the list of elements in
- * <code>awaitingDecoration</code> one by one. For each element, it calls
+ * <li>The <code>decorationJob</code> processes the queue of elements in
+ * <code>awaitingDecoration</code> one by one. If the
+ * {@link IPreferenceConstants#DECORATOR_WORKER_COUNT} preference is greater
+ * than one, additional <code>decorationJobs</code> take elements from the same
+ * queue concurrently. With the default of one, only the
+ * <code>decorationJob</code> runs, as lightweight decorators are not required
+ * to be thread safe. For each element, a job calls
  * <code>ensureResultCached</code>, which in turn calls the actual lightweight
  * decorator(s) for the element and stores the decoration result in the
  * <code>resultCache</code> and adds the element to the
  * <code>pendingUpdate</code> collection to remember that it needs to be updated
  * in the UI.</li>
  *
- * <li>When the <code>decorationJob</code> has finished processing all elements
- * in <code>awaitingDecoration</code>, it finally schedules the
+ * <li>When the decoration jobs have finished processing all elements in
+ * <code>awaitingDecoration</code>, the last one finally schedules the
  * <code>updateJob</code>.</li>
  *
  * <li>
  * <p>
  * The <code>updateJob</code> runs in the UI thread and fires
  * {@link LabelProviderChangedEvent}s for all elements in
- * <code>pendingUpdate</code>. The {@link LabelProviderChangedEvent} causes the
+ * <code>pendingUpdate</code>, in chunks of at most
+ * <code>UPDATE_CHUNK_SIZE</code> elements. The {@link LabelProviderChangedEvent} causes the
  * respective viewers to trigger an <code>update</code> for the given elements.
  * </p>
  * <p>
@@ -115,7 +129,7 @@ public class DecorationScheduler {
 	private Map<IDecorationContext, Map<Object, DecorationResult>> resultCache = new ConcurrentHashMap<>();
 
 	// Objects that need an icon and text computed for display to the user
-	private List<Object> awaitingDecoration = new ArrayList<>();
+	private Deque<Object> awaitingDecoration = new ArrayDeque<>();
 
 	// Objects that are awaiting a label update.
 	private Set<Object> pendingUpdate = new HashSet<>();
@@ -131,6 +145,9 @@ public class DecorationScheduler {
 
 	private Job decorationJob;
 
+	// Additional jobs decorating concurrently with decorationJob
+	private List<Job> decorationJobs = new ArrayList<>();
+
 	private UIJob updateJob;
 
 	private Collection<ILabelProviderListener> removedListeners = Collections.synchronizedSet(new HashSet<>());
@@ -143,6 +160,21 @@ public class DecorationScheduler {
 	/** Amount of time to delay the update notification when max reached. */
 	private static final int UPDATE_DELAY = 100;
 
+	/** Maximum number of elements sent to a listener in one event. */
+	private static final int UPDATE_CHUNK_SIZE = 500;
+
+	// Number of elements decorated since startup
+	private final AtomicLong decoratedCount = new AtomicLong();
+
+	// Start time and decorated count at the start of the current batch, i.e.
+	// when the queue became non-empty
+	private long batchStartTime;
+
+	private long batchStartCount;
+
+	// Maximum queue depth of the current batch
+	private int maxQueueDepth;
+
 	/**
 	 * Flag which is used to indicate that the update job is running in the UI
 	 * thread
@@ -157,7 +189,12 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		decorationJob = createDecorationJob();
+		int workerCount = WorkbenchPlugin.getDefault().getPreferenceStore()
+				.getInt(IPreferenceConstants.DECORATOR_WORKER_COUNT);
+		for (int i = 1; i < workerCount; i++) {
+			decorationJobs.add(createDecorationJob());
+		}
 	}
 
 	/**
@@ -209,11 +246,20 @@ public class DecorationScheduler {
 			reference.setForceUpdate(forceUpdate);
 			reference.setUndecoratedText(undecoratedText);
 			awaitingDecorationValues.put(element, reference);
+			if (awaitingDecoration.isEmpty()) {
+				batchStartTime = System.currentTimeMillis();
+				batchStartCount = decoratedCount.get();
+				maxQueueDepth = 0;
+			}
 			awaitingDecoration.add(element);
+			maxQueueDepth = Math.max(maxQueueDepth, awaitingDecoration.size());
 			if (shutdown) {
 				return;
 			}
 			decorationJob.schedule();
+			for (Job job : decorationJobs) {
+				job.schedule();
+			}
 		}
 
 	}
@@ -316,16 +362,34 @@ public class DecorationScheduler {
 		if (shutdown || awaitingDecoration.isEmpty()) {
 			return null;
 		}
-		Object element = awaitingDecoration.remove(0);
+		Object element = awaitingDecoration.poll();
 
 		return awaitingDecorationValues.remove(element);
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * Record the throughput of the batch that just drained the queue. Must be
+	 * called while synchronized on the receiver.
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
+	private void batchCompleted() {
+		long elapsed = Math.max(System.currentTimeMillis() - batchStartTime, 1);
+		long count = decoratedCount.get() - batchStartCount;
+		if (Policy.DEBUG_DECORATORS) {
+			double throughput = count * 1000d / elapsed;
+			Tracing.printTrace("DECORATORS", count + " elements decorated in " + elapsed //$NON-NLS-1$ //$NON-NLS-2$
+					+ "ms (" + Math.round(throughput) + " elements/s, max queue depth " + maxQueueDepth //$NON-NLS-1$ //$NON-NLS-2$
+					+ ", " + (decorationJobs.size() + 1) + " workers)"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		batchStartTime = System.currentTimeMillis();
+		batchStartCount = decoratedCount.get();
+		maxQueueDepth = 0;
+	}
+
+	/**
+	 * Create a Job used for running decoration.
+	 */
+	private Job createDecorationJob() {
+		Job job = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
 			@Override
 			public IStatus run(IProgressMonitor monitor) {
 
@@ -362,10 +426,12 @@ public class DecorationScheduler {
 						ensureResultCached(element, force, context);
 						loopMonitor.split(1);
 					}
+					decoratedCount.incrementAndGet();
 					// Only notify listeners when we have exhausted the
 					// queue of decoration requests.
 					synchronized (DecorationScheduler.this) {
 						if (awaitingDecoration.isEmpty()) {
+							batchCompleted();
 							decorated();
 						}
 					}
@@ -421,9 +487,10 @@ public class DecorationScheduler {
 			}
 		};
 
-		decorationJob.setSystem(true);
-		decorationJob.setPriority(Job.DECORATE);
-		decorationJob.schedule();
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+		return job;
 	}
 
 	/**
@@ -482,6 +549,11 @@ public class DecorationScheduler {
 
 			int currentIndex = NEEDS_INIT;
 
+			// Elements to update and start of the chunk currently being fired
+			Object[] elements;
+
+			int chunkStart;
+
 			LabelProviderChangedEvent labelProviderChangedEvent;
 
 			ILabelProviderListener[] listeners;
@@ -516,30 +588,42 @@ public class DecorationScheduler {
 					monitor.beginTask(WorkbenchMessages.DecorationScheduler_UpdatingTask, IProgressMonitor.UNKNOWN);
 
 					long startTime = System.currentTimeMillis();
-					while (currentIndex < listeners.length) {
-						ILabelProviderListener listener = listeners[currentIndex];
-						currentIndex++;
-
-						// If it was removed in the meantime then skip it.
-						if (!removedListeners.contains(listener)) {
-							decoratorManager.fireListener(labelProviderChangedEvent, listener);
+					timeout: while (chunkStart < elements.length) {
+						if (labelProviderChangedEvent == null) {
+							labelProviderChangedEvent = new LabelProviderChangedEvent(decoratorManager,
+									Arrays.copyOfRange(elements, chunkStart,
+											Math.min(chunkStart + UPDATE_CHUNK_SIZE, elements.length)));
 						}
-
-						// If it is taking long enough for the user to notice then
-						// cancel the updates.
-						if ((System.currentTimeMillis() - startTime) >= UPDATE_DELAY / 2) {
-							break;
+						while (currentIndex < listeners.length) {
+							ILabelProviderListener listener = listeners[currentIndex];
+							currentIndex++;
+
+							// If it was removed in the meantime then skip it.
+							if (!removedListeners.contains(listener)) {
+								decoratorManager.fireListener(labelProviderChangedEvent, listener);
+							}
+
+							// If it is taking long enough for the user to notice then
+							// cancel the updates.
+							if ((System.currentTimeMillis() - startTime) >= UPDATE_DELAY / 2) {
+								if (currentIndex >= listeners.length) {
+									nextChunk();
+								}
+								break timeout;
+							}
 						}
+						nextChunk();
 					}
 
 					monitor.done();
 
-					if (currentIndex >= listeners.length) {
+					if (chunkStart >= elements.length) {
 						resetState();
 						if (!hasPendingUpdates()) {
 							decorated();
 						}
 						labelProviderChangedEvent = null;
+						elements = null;
 						listeners = EMPTY_LISTENER_LIST;
 					} else {
 						schedule(UPDATE_DELAY);// Reschedule if we are not done
@@ -552,6 +636,16 @@ public class DecorationScheduler {
 				}
 			}
 
+			/**
+			 * Move on to the next chunk of elements, starting again with the
+			 * first listener.
+			 */
+			private void nextChunk() {
+				chunkStart += UPDATE_CHUNK_SIZE;
+				currentIndex = 0;
+				labelProviderChangedEvent = null;
+			}
+
 			/**
 			 * Clear any cached information.
 			 */
@@ -571,10 +665,11 @@ public class DecorationScheduler {
 				// clear the list
 				removedListeners.clear();
 				currentIndex = 0;
+				chunkStart = 0;
+				labelProviderChangedEvent = null;
 				synchronized (pendingKey) {
-					Object[] elements = pendingUpdate.toArray(new Object[pendingUpdate.size()]);
+					elements = pendingUpdate.toArray(new Object[pendingUpdate.size()]);
 					pendingUpdate.clear();
-					labelProviderChangedEvent = new LabelProviderChangedEvent(decoratorManager, elements);
 				}
 				listeners = decoratorManager.getListeners();
 			}
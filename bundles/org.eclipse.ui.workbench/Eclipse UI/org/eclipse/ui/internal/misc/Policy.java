@@ -159,6 +159,11 @@ public class Policy {
 	 */
 	public static boolean DEBUG_WORKING_SETS = DEFAULT;
 
+	/**
+	 * Whether to report the throughput of the lightweight decoration workers.
+	 */
+	public static boolean DEBUG_DECORATORS = DEFAULT;
+
 	static {
 		if (getDebugOption("/debug")) { //$NON-NLS-1$
 			DEBUG_SWT_GRAPHICS = getDebugOption("/trace/graphics"); //$NON-NLS-1$
@@ -191,6 +196,7 @@ public class Policy {
 			EXPERIMENTAL_MENU = getDebugOption("/experimental/menus"); //$NON-NLS-1$
 			DEBUG_MPE = getDebugOption("/trace/multipageeditor"); //$NON-NLS-1$
 			DEBUG_WORKING_SETS = getDebugOption("/debug/workingSets"); //$NON-NLS-1$
+			DEBUG_DECORATORS = getDebugOption("/trace/decorators"); //$NON-NLS-1$
 
 			if (DEBUG_SWT_DEBUG_GLOBAL)
 				Device.DEBUG = true;
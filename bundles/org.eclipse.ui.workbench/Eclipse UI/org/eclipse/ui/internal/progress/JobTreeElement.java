@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.progress;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.swt.graphics.Image;
 
@@ -20,6 +21,12 @@ import org.eclipse.swt.graphics.Image;
  * The JobTreeElement is the abstract superclass of items displayed in the tree.
  */
 public abstract class JobTreeElement implements Comparable<JobTreeElement> {
+	/**
+	 * The changes of this element which the {@link ProgressManager} has not sent
+	 * to its listeners yet.
+	 */
+	final AtomicInteger pendingChanges = new AtomicInteger();
+
 	/**
 	 * Returns the parent of this object.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2020 IBM Corporation and others.
+ * Copyright (c) 2003, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -31,13 +32,17 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -139,36 +144,33 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	private Hashtable<Object, String> imageKeyTable = new Hashtable<>();
 
 	/**
-	 * Lock object for synchronizing updates of {@code pendingJobUpdates},
-	 * {@code pendingGroupUpdates}, {@code pendingJobRemoval},
-	 * {@code pendingGroupRemoval} and {@code pendingJobAddition}.
+	 * Pending change of a {@link JobInfo} which was added.
 	 */
-	private final Object pendingUpdatesMutex = new Object();
+	private static final int ADDED = 1;
 
 	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
+	 * Pending change of a {@link JobInfo} or {@link GroupInfo} which was updated.
 	 */
-	private Map<JobInfo, Set<IJobProgressManagerListener>> pendingJobUpdates = new LinkedHashMap<>();
+	private static final int UPDATED = 2;
 
 	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
+	 * Pending change of a {@link JobInfo} or {@link GroupInfo} which was removed.
 	 */
-	private Set<GroupInfo> pendingGroupUpdates = new LinkedHashSet<>();
+	private static final int REMOVED = 4;
 
 	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
+	 * The elements whose changes have not been sent to the listeners yet, in the
+	 * order of their first change. An element is queued once until its
+	 * {@link JobTreeElement#pendingChanges} are sent, so the threads reporting
+	 * progress do not contend for a lock.
 	 */
-	private Map<JobInfo, Set<IJobProgressManagerListener>> pendingJobRemoval = new LinkedHashMap<>();
+	private final Queue<JobTreeElement> pendingElements = new ConcurrentLinkedQueue<>();
 
 	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
+	 * The number of elements in {@link #pendingElements}, which is incremented
+	 * after an element has been queued.
 	 */
-	private Set<GroupInfo> pendingGroupRemoval = new LinkedHashSet<>();
-
-	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
-	 */
-	private Map<JobInfo, Set<IJobProgressManagerListener>> pendingJobAddition = new LinkedHashMap<>();
+	private final AtomicInteger pendingElementCount = new AtomicInteger();
 
 	private static final String IMAGE_KEY = "org.eclipse.ui.progress.images"; //$NON-NLS-1$
 
@@ -358,43 +360,84 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	 * Send pending notifications to listeners.
 	 */
 	/* Visible for testing */ public void notifyListeners() {
-		Set<GroupInfo> localPendingGroupUpdates, localPendingGroupRemoval;
-		Map<JobInfo, Set<IJobProgressManagerListener>> localPendingJobUpdates, localPendingJobAddition,
-				localPendingJobRemoval;
-		synchronized (pendingUpdatesMutex) {
-			localPendingJobUpdates = pendingJobUpdates;
-			pendingJobUpdates = new LinkedHashMap<>();
-			localPendingGroupUpdates = pendingGroupUpdates;
-			pendingGroupUpdates = new LinkedHashSet<>();
-			localPendingJobRemoval = pendingJobRemoval;
-			pendingJobRemoval = new LinkedHashMap<>();
-			localPendingGroupRemoval = pendingGroupRemoval;
-			pendingGroupRemoval = new LinkedHashSet<>();
-			localPendingJobAddition = pendingJobAddition;
-			pendingJobAddition = new LinkedHashMap<>();
+		List<JobInfo> addedJobs = new ArrayList<>();
+		List<JobInfo> updatedJobs = new ArrayList<>();
+		List<JobInfo> removedJobs = new ArrayList<>();
+		Set<GroupInfo> updatedGroups = new LinkedHashSet<>();
+		Set<GroupInfo> removedGroups = new LinkedHashSet<>();
+
+		// Elements queued from now on are sent by the next run
+		for (int i = pendingElementCount.get(); i > 0; i--) {
+			JobTreeElement element = pendingElements.poll();
+			pendingElementCount.decrementAndGet();
+			int changes = element.pendingChanges.getAndSet(0);
+			if (element instanceof JobInfo) {
+				JobInfo info = (JobInfo) element;
+				if ((changes & ADDED) != 0) {
+					addedJobs.add(info);
+				}
+				if ((changes & UPDATED) != 0) {
+					updatedJobs.add(info);
+				}
+				if ((changes & REMOVED) != 0) {
+					removedJobs.add(info);
+				}
+			} else if (element instanceof GroupInfo) {
+				GroupInfo group = (GroupInfo) element;
+				if ((changes & UPDATED) != 0) {
+					updatedGroups.add(group);
+				}
+				if ((changes & REMOVED) != 0) {
+					removedGroups.add(group);
+				}
+			}
 		}
 
-		localPendingJobAddition.entrySet().forEach(e -> e.getValue().forEach(listener -> listener.addJob(e.getKey())));
+		addedJobs.forEach(info -> forEachDisplayingListener(info, listener -> listener.addJob(info)));
 
 		// Adds all non null JobInfo#getGroupInfo to the list of groups to
 		// be refreshed
-		localPendingJobUpdates.entrySet().stream().map(e -> e.getKey().getGroupInfo()).filter(Objects::nonNull)
-				.forEach(localPendingGroupUpdates::add);
+		updatedJobs.stream().map(JobInfo::getGroupInfo).filter(Objects::nonNull).forEach(updatedGroups::add);
 
-		localPendingJobUpdates.entrySet()
-				.forEach(e -> e.getValue().forEach(listener -> listener.refreshJobInfo(e.getKey())));
+		updatedJobs.forEach(info -> forEachDisplayingListener(info, listener -> listener.refreshJobInfo(info)));
 
 		// refresh groups
-		localPendingGroupUpdates.forEach(groupInfo -> listeners.forEach(listener -> listener.refreshGroup(groupInfo)));
+		updatedGroups.forEach(groupInfo -> listeners.forEach(listener -> listener.refreshGroup(groupInfo)));
 
-		localPendingJobRemoval.entrySet()
-				.forEach(e -> e.getValue().forEach(listener -> listener.removeJob(e.getKey())));
+		removedJobs.forEach(info -> forEachDisplayingListener(info, listener -> listener.removeJob(info)));
 
-		localPendingGroupRemoval.forEach(group -> {
+		removedGroups.forEach(group -> {
 			listeners.forEach(listener -> listener.removeGroup(group));
 		});
 	}
 
+	private void forEachDisplayingListener(JobInfo info, Consumer<IJobProgressManagerListener> action) {
+		for (IJobProgressManagerListener listener : listeners) {
+			if (!isNeverDisplaying(info.getJob(), listener.showsDebug())) {
+				action.accept(listener);
+			}
+		}
+	}
+
+	/**
+	 * Remembers the given change of the given element and schedules sending it
+	 * to the listeners.
+	 *
+	 * @param element the changed element
+	 * @param change  the change
+	 */
+	private void addPendingChange(JobTreeElement element, int change) {
+		// The element is queued and the listeners are notified soon anyway
+		if ((element.pendingChanges.get() & change) != 0) {
+			return;
+		}
+		if (element.pendingChanges.getAndUpdate(changes -> changes | change) == 0) {
+			pendingElements.add(element);
+			pendingElementCount.incrementAndGet();
+		}
+		uiRefreshThrottler.throttledExec();
+	}
+
 	private void setUpImages() {
 		URL iconsRoot = ProgressManagerUtil.getIconsRoot();
 		try {
@@ -624,11 +667,7 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	 * @param info the updated job info
 	 */
 	public void refreshJobInfo(JobInfo info) {
-		synchronized (pendingUpdatesMutex) {
-			Predicate<IJobProgressManagerListener> predicate = listener -> !isNeverDisplaying(info.getJob(), listener.showsDebug());
-			rememberListenersForJob(info, pendingJobUpdates, predicate);
-		}
-		uiRefreshThrottler.throttledExec();
+		addPendingChange(info, UPDATED);
 	}
 
 	/**
@@ -637,10 +676,7 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	 * @param info the updated job group
 	 */
 	public void refreshGroup(GroupInfo info) {
-		synchronized (pendingUpdatesMutex) {
-			pendingGroupUpdates.add(info);
-		}
-		uiRefreshThrottler.throttledExec();
+		addPendingChange(info, UPDATED);
 	}
 
 	/**
@@ -654,13 +690,9 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 		synchronized (runnableMonitors) {
 			info = progressFor(job).getJobInfo();
 			managedJobs.remove(job);
-			synchronized (pendingUpdatesMutex) {
-				Predicate<IJobProgressManagerListener> predicate = listener -> !isNeverDisplaying(info.getJob(), listener.showsDebug());
-				rememberListenersForJob(info, pendingJobRemoval, predicate);
-			}
+			addPendingChange(info, REMOVED);
 			runnableMonitors.remove(job);
 		}
-		uiRefreshThrottler.throttledExec();
 		return info;
 	}
 
@@ -682,10 +714,7 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	 * @param group GroupInfo
 	 */
 	public void removeGroup(GroupInfo group) {
-		synchronized (pendingUpdatesMutex) {
-			pendingGroupRemoval.add(group);
-		}
-		uiRefreshThrottler.throttledExec();
+		addPendingChange(group, REMOVED);
 	}
 
 	/**
@@ -700,17 +729,10 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 		}
 
 		managedJobs.add(info.getJob());
-		synchronized (pendingUpdatesMutex) {
-			Predicate<IJobProgressManagerListener> predicate = listener -> !isCurrentDisplaying(info.getJob(), listener.showsDebug());
-			rememberListenersForJob(info, pendingJobAddition, predicate);
+		// No listener is interested in the addition of a sleeping job
+		if (info.getJob().getState() != Job.SLEEPING) {
+			addPendingChange(info, ADDED);
 		}
-		uiRefreshThrottler.throttledExec();
-	}
-
-	private void rememberListenersForJob(JobInfo info, Map<JobInfo, Set<IJobProgressManagerListener>> listenersMap, Predicate<IJobProgressManagerListener> predicate) {
-		Set<IJobProgressManagerListener> localListeners = listenersMap.computeIfAbsent(info,
-				k -> new LinkedHashSet<>());
-		listeners.stream().filter(predicate).forEach(localListeners::add);
 	}
 
 	/**
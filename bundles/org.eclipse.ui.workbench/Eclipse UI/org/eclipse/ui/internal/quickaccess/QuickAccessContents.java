@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2020 IBM Corporation and others.
+ * Copyright (c) 2005, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,15 +21,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -104,6 +102,7 @@ public abstract class QuickAccessContents {
 	private QuickAccessProvider[] providers;
 	private Map<String, QuickAccessProvider> providerMap = new HashMap<>();
 	private Map<QuickAccessElement, QuickAccessProvider> elementsToProviders = new HashMap<>();
+	private final QuickAccessIndex index = new QuickAccessIndex();
 
 	protected Table table;
 	protected Label infoLabel;
@@ -374,8 +373,8 @@ public abstract class QuickAccessContents {
 		}
 		final String finalFilter = filter;
 
-		// collect matching elements
-		LinkedHashMap<QuickAccessProvider, List<QuickAccessElement>> elementsForProviders = new LinkedHashMap<>(
+		// collect elements
+		LinkedHashMap<QuickAccessProvider, QuickAccessElement[]> elementsForProviders = new LinkedHashMap<>(
 				providers.length);
 		for (QuickAccessProvider provider : providers) {
 			if (aMonitor.isCanceled()) {
@@ -387,14 +386,14 @@ public abstract class QuickAccessContents {
 				continue;
 			}
 			if (!filter.isEmpty() || isPreviousPickProvider || showAllMatches) {
-				AtomicReference<List<QuickAccessElement>> sortedElementRef = new AtomicReference<>();
+				AtomicReference<QuickAccessElement[]> sortedElementRef = new AtomicReference<>();
 				if (provider.requiresUiAccess()) {
 					UIJob job = new UIJob(
 							NLS.bind(QuickAccessMessages.QuickAccessContents_processingProviderInUI,
 									provider.getName())) {
 						@Override
 						public IStatus runInUIThread(IProgressMonitor monitor) {
-							sortedElementRef.set(Arrays.asList(provider.getElementsSorted(finalFilter, monitor)));
+							sortedElementRef.set(provider.getElementsSorted(finalFilter, monitor));
 							return Status.OK_STATUS;
 						}
 					};
@@ -406,121 +405,79 @@ public abstract class QuickAccessContents {
 						WorkbenchPlugin.log(e);
 					}
 				} else {
-					sortedElementRef.set(Arrays.asList(provider.getElementsSorted(filter, aMonitor)));
+					sortedElementRef.set(provider.getElementsSorted(filter, aMonitor));
 				}
-				List<QuickAccessElement> sortedElements = sortedElementRef.get();
+				QuickAccessElement[] sortedElements = sortedElementRef.get();
 				if (sortedElements == null) {
-					sortedElements = Collections.emptyList();
+					sortedElements = new QuickAccessElement[0];
 				}
 				if (!(provider instanceof PreviousPicksProvider)) {
 					for (QuickAccessElement element : sortedElements) {
 						elementsToProviders.put(element, provider);
 					}
 				}
-				if (!filter.isEmpty() && !sortedElements.isEmpty()) {
-					sortedElements = putPrefixMatchFirst(sortedElements, filter);
-				}
-				elementsForProviders.put(provider, new ArrayList<>(sortedElements));
+				elementsForProviders.put(provider, sortedElements);
 			}
 		}
 
+		// match the elements of the providers in parallel
+		IProgressMonitor monitor = aMonitor;
+		Map<QuickAccessProvider, List<QuickAccessEntry>> matches = new ConcurrentHashMap<>();
+		elementsForProviders.entrySet().parallelStream().forEach(elementsForProvider -> {
+			QuickAccessProvider provider = elementsForProvider.getKey();
+			List<QuickAccessEntry> entries = index.match(provider, elementsForProvider.getValue(), finalFilter,
+					monitor);
+			if (!finalFilter.isEmpty() && !entries.isEmpty()) {
+				entries = putPrefixMatchFirst(entries, finalFilter);
+			}
+			matches.put(provider, entries);
+		});
+		LinkedHashMap<QuickAccessProvider, List<QuickAccessEntry>> entriesForProviders = new LinkedHashMap<>(
+				elementsForProviders.size());
+		for (QuickAccessProvider provider : elementsForProviders.keySet()) {
+			entriesForProviders.put(provider, matches.get(provider));
+		}
+
 		// Sort out the Previous Pick
 		List<String> prevPickIds = new ArrayList<>();
-		for (Entry<QuickAccessProvider, List<QuickAccessElement>> entry : elementsForProviders.entrySet()) {
+		for (Entry<QuickAccessProvider, QuickAccessElement[]> entry : elementsForProviders.entrySet()) {
 			if (entry.getKey() instanceof PreviousPicksProvider) {
-				prevPickIds
-						.addAll(entry.getValue().stream().map(QuickAccessElement::getId).collect(Collectors.toList()));
+				prevPickIds.addAll(
+						Arrays.stream(entry.getValue()).map(QuickAccessElement::getId).collect(Collectors.toList()));
 			}
 		}
-		for (Entry<QuickAccessProvider, List<QuickAccessElement>> entry : elementsForProviders.entrySet()) {
+		for (Entry<QuickAccessProvider, List<QuickAccessEntry>> entry : entriesForProviders.entrySet()) {
 			if (!(entry.getKey() instanceof PreviousPicksProvider)) {
-				List<QuickAccessElement> filteredElements = new ArrayList<>(entry.getValue());
-				filteredElements.removeIf(element -> prevPickIds.contains(element.getId()));
-				entry.setValue(filteredElements);
+				List<QuickAccessEntry> filteredEntries = new ArrayList<>(entry.getValue());
+				filteredEntries.removeIf(quickAccessEntry -> prevPickIds.contains(quickAccessEntry.element.getId()));
+				entry.setValue(filteredEntries);
 			}
 		}
 		// remove perfect match (will be added on top later)
 		QuickAccessProvider perfectMatchProvider = null;
 		if (perfectMatch != null) {
-			for (Entry<QuickAccessProvider, List<QuickAccessElement>> entry : elementsForProviders.entrySet()) {
+			for (Entry<QuickAccessProvider, List<QuickAccessEntry>> entry : entriesForProviders.entrySet()) {
 				if (perfectMatchProvider != null) {
-					List<QuickAccessElement> filteredElements = new ArrayList<>(entry.getValue());
-					if (filteredElements.removeIf(element -> prevPickIds.contains(element.getId()))) {
-						entry.setValue(filteredElements);
+					List<QuickAccessEntry> filteredEntries = new ArrayList<>(entry.getValue());
+					if (filteredEntries
+							.removeIf(quickAccessEntry -> prevPickIds.contains(quickAccessEntry.element.getId()))) {
+						entry.setValue(filteredEntries);
 						perfectMatchProvider = entry.getKey();
 					}
 				}
 			}
 		}
 		LinkedHashMap<QuickAccessProvider, List<QuickAccessEntry>> entriesPerProvider = new LinkedHashMap<>(
-				elementsForProviders.size());
+				entriesForProviders.size());
 		if (showAllMatches) {
-			// Map elements to entries
-			for (Entry<QuickAccessProvider, List<QuickAccessElement>> elementsPerProvider : elementsForProviders
-					.entrySet()) {
-				QuickAccessProvider provider = elementsPerProvider.getKey();
-				List<QuickAccessEntry> entries = elementsPerProvider.getValue().stream() //
-						.map(QuickAccessMatcher::new) //
-						.map(matcher -> matcher.match(finalFilter, provider)) //
-						.filter(Objects::nonNull) //
-						.collect(Collectors.toList());
+			entriesForProviders.forEach((provider, entries) -> {
 				if (!entries.isEmpty()) {
 					entriesPerProvider.put(provider, entries);
 				}
-			}
+			});
 		} else {
-			int numberOfSlotsLeft = perfectMatch != null ? maxNumberOfItemsInTable -1 : maxNumberOfItemsInTable;
-			while (!elementsForProviders.isEmpty() && numberOfSlotsLeft > 0) {
-				int nbEntriesPerProvider = numberOfSlotsLeft / elementsForProviders.size();
-				if (nbEntriesPerProvider > 0) {
-					for (Entry<QuickAccessProvider, List<QuickAccessElement>> elementsPerProvider : elementsForProviders
-							.entrySet()) {
-						QuickAccessProvider provider = elementsPerProvider.getKey();
-						List<QuickAccessElement> elements = elementsPerProvider.getValue();
-						int toPickEntries = nbEntriesPerProvider;
-						while (toPickEntries > 0 && !elements.isEmpty()) {
-							QuickAccessElement element = elements.remove(0);
-							QuickAccessEntry entry = new QuickAccessMatcher(element).match(filter, provider);
-							if (entry != null) {
-								numberOfSlotsLeft--;
-								toPickEntries--;
-								if (!entriesPerProvider.containsKey(provider)) {
-									entriesPerProvider.put(provider, new LinkedList<>());
-								}
-								entriesPerProvider.get(provider).add(entry);
-							}
-						}
-					}
-				} else {
-					for (Entry<QuickAccessProvider, List<QuickAccessElement>> elementsForProvider : elementsForProviders
-							.entrySet()) {
-						if (numberOfSlotsLeft > 0) {
-							QuickAccessProvider provider = elementsForProvider.getKey();
-							List<QuickAccessElement> elements = elementsForProvider.getValue();
-							boolean entryPicked = false;
-							while (!entryPicked && !elements.isEmpty()) {
-								QuickAccessElement element = elements.remove(0);
-								QuickAccessEntry entry = new QuickAccessMatcher(element).match(filter, provider);
-								if (entry != null) {
-									numberOfSlotsLeft--;
-									entryPicked = true;
-									if (!entriesPerProvider.containsKey(provider)) {
-										entriesPerProvider.put(provider, new LinkedList<>());
-									}
-									entriesPerProvider.get(provider).add(entry);
-								}
-							}
-						}
-					}
-				}
-				Set<QuickAccessProvider> exhaustedProviders = new HashSet<>();
-				elementsForProviders.forEach((provider, elements) -> {
-					if (elements.isEmpty()) {
-						exhaustedProviders.add(provider);
-					}
-				});
-				exhaustedProviders.forEach(elementsForProviders::remove);
-			}
+			entriesPerProvider.putAll(distributeSlots(entriesForProviders,
+					perfectMatch != null ? maxNumberOfItemsInTable - 1 : maxNumberOfItemsInTable));
 		}
 		//
 		List<List<QuickAccessEntry>> res = new ArrayList<>();
@@ -533,31 +490,64 @@ public abstract class QuickAccessContents {
 		return (List<QuickAccessEntry>[]) res.toArray(new List<?>[res.size()]);
 	}
 
+	/**
+	 * Distributes the slots of the table between the providers. The slots are
+	 * shared equally between the providers which still have entries, in the
+	 * order of the providers, until all slots are used or all entries are picked.
+	 *
+	 * @param entriesForProviders the matching entries of each provider, in the
+	 *                            order in which they are picked
+	 * @param numberOfSlots       the number of slots to distribute
+	 * @return the picked entries of each provider which got at least one slot, in
+	 *         the order of the providers
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public static LinkedHashMap<QuickAccessProvider, List<QuickAccessEntry>> distributeSlots(
+			Map<QuickAccessProvider, List<QuickAccessEntry>> entriesForProviders, int numberOfSlots) {
+		LinkedHashMap<QuickAccessProvider, List<QuickAccessEntry>> entriesPerProvider = new LinkedHashMap<>(
+				entriesForProviders.size());
+		LinkedHashMap<QuickAccessProvider, LinkedList<QuickAccessEntry>> remainingEntries = new LinkedHashMap<>(
+				entriesForProviders.size());
+		entriesForProviders.forEach((provider, entries) -> {
+			if (!entries.isEmpty()) {
+				remainingEntries.put(provider, new LinkedList<>(entries));
+			}
+		});
+		int numberOfSlotsLeft = numberOfSlots;
+		while (!remainingEntries.isEmpty() && numberOfSlotsLeft > 0) {
+			int nbEntriesPerProvider = Math.max(1, numberOfSlotsLeft / remainingEntries.size());
+			for (Entry<QuickAccessProvider, LinkedList<QuickAccessEntry>> entriesForProvider : remainingEntries
+					.entrySet()) {
+				LinkedList<QuickAccessEntry> entries = entriesForProvider.getValue();
+				int toPickEntries = nbEntriesPerProvider;
+				while (toPickEntries > 0 && numberOfSlotsLeft > 0 && !entries.isEmpty()) {
+					numberOfSlotsLeft--;
+					toPickEntries--;
+					entriesPerProvider.computeIfAbsent(entriesForProvider.getKey(), key -> new LinkedList<>())
+							.add(entries.removeFirst());
+				}
+			}
+			remainingEntries.values().removeIf(List::isEmpty);
+		}
+		return entriesPerProvider;
+	}
+
 	/*
 	 * Consider whether we could directly check the "matchQuality" here, but it
 	 * seems to be a more expensive operation
 	 */
-	private static List<QuickAccessElement> putPrefixMatchFirst(List<QuickAccessElement> elements, String prefix) {
-		List<QuickAccessElement> res = new ArrayList<>(elements);
-		List<Integer> matchingIndexes = new ArrayList<>();
-		for (int i = 0; i < elements.size(); i++) {
-			if (elements.get(i).getLabel().toLowerCase().startsWith(prefix.toLowerCase())) {
-				matchingIndexes.add(Integer.valueOf(i));
-			}
-		}
-		int currentMatchIndex = 0;
-		int currentNonMatchIndex = matchingIndexes.size();
-		for (int i = 0; i < res.size(); i++) {
-			boolean isMatch = !matchingIndexes.isEmpty() && matchingIndexes.iterator().next().intValue() == i;
-			if (isMatch) {
-				matchingIndexes.remove(0);
-				res.set(currentMatchIndex, elements.get(i));
-				currentMatchIndex++;
+	private static List<QuickAccessEntry> putPrefixMatchFirst(List<QuickAccessEntry> entries, String prefix) {
+		String lowerCasePrefix = prefix.toLowerCase();
+		List<QuickAccessEntry> res = new ArrayList<>(entries.size());
+		List<QuickAccessEntry> nonMatching = new ArrayList<>();
+		for (QuickAccessEntry entry : entries) {
+			if (entry.element.getLabel().toLowerCase().startsWith(lowerCasePrefix)) {
+				res.add(entry);
 			} else {
-				res.set(currentNonMatchIndex, elements.get(i));
-				currentNonMatchIndex++;
+				nonMatching.add(entry);
 			}
 		}
+		res.addAll(nonMatching);
 		return res;
 	}
 
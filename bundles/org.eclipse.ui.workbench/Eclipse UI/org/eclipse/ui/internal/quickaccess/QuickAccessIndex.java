@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ui.quickaccess.QuickAccessElement;
+
+/**
+ * Keeps the matchers of the elements of the quick access providers for a quick
+ * access session, and the elements which matched the last filter. When the
+ * filter is extended, only the elements which matched before are matched again.
+ * The pattern of a filter is compiled once for all elements of a provider.
+ * <p>
+ * The index of a provider is rebuilt when the provider returns other elements,
+ * for example after it has been {@link QuickAccessProvider#reset() reset}.
+ * </p>
+ *
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public class QuickAccessIndex {
+
+	/**
+	 * Characters with which the pattern of a filter may match elements which the
+	 * pattern of a shorter filter does not match.
+	 */
+	private static final String NOT_NARROWING_CHARACTERS = "\\[]{}^$|+"; //$NON-NLS-1$
+
+	private static final class ProviderIndex {
+		final QuickAccessElement[] elements;
+		final QuickAccessMatcher[] matchers;
+		final String filter;
+		// the indices of the elements which match the filter
+		final int[] matches;
+
+		ProviderIndex(QuickAccessElement[] elements, QuickAccessMatcher[] matchers, String filter, int[] matches) {
+			this.elements = elements;
+			this.matchers = matchers;
+			this.filter = filter;
+			this.matches = matches;
+		}
+	}
+
+	private final Map<QuickAccessProvider, ProviderIndex> providerIndices = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the entries for the elements of the provider which match the
+	 * filter, in the order of the elements.
+	 *
+	 * @param provider the provider of the elements
+	 * @param elements the sorted elements of the provider
+	 * @param filter   the filter, in lower case
+	 * @param monitor
+	 * @return the matching entries, empty if the monitor has been canceled
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public List<QuickAccessEntry> match(QuickAccessProvider provider, QuickAccessElement[] elements, String filter,
+			IProgressMonitor monitor) {
+		ProviderIndex index = providerIndices.get(provider);
+		QuickAccessMatcher[] matchers;
+		int[] candidates = null;
+		if (index != null && index.elements == elements) {
+			matchers = index.matchers;
+			if (isNarrowing(index.filter, filter)) {
+				candidates = index.matches;
+			}
+		} else {
+			matchers = new QuickAccessMatcher[elements.length];
+		}
+		int count = candidates == null ? elements.length : candidates.length;
+		// the pattern is the same for all elements
+		Pattern pattern = QuickAccessMatcher.createPattern(filter);
+		List<QuickAccessEntry> entries = new ArrayList<>();
+		int[] matches = new int[count];
+		int matchCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (monitor.isCanceled()) {
+				return Collections.emptyList();
+			}
+			int elementIndex = candidates == null ? i : candidates[i];
+			QuickAccessMatcher matcher = matchers[elementIndex];
+			if (matcher == null) {
+				matcher = new QuickAccessMatcher(elements[elementIndex]);
+				matchers[elementIndex] = matcher;
+			}
+			QuickAccessEntry entry = matcher.match(filter, pattern, provider);
+			if (entry != null) {
+				entries.add(entry);
+				matches[matchCount++] = elementIndex;
+			}
+		}
+		providerIndices.put(provider,
+				new ProviderIndex(elements, matchers, filter, Arrays.copyOf(matches, matchCount)));
+		return entries;
+	}
+
+	/**
+	 * Returns whether all elements matching the filter also match the previous
+	 * filter.
+	 *
+	 * @param previousFilter the previous filter, in lower case
+	 * @param filter         the filter, in lower case
+	 * @return <code>true</code> if only the elements matching the previous filter
+	 *         need to be matched against the filter
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public static boolean isNarrowing(String previousFilter, String filter) {
+		if (!filter.startsWith(previousFilter)) {
+			return false;
+		}
+		for (int i = 0; i < filter.length(); i++) {
+			if (NOT_NARROWING_CHARACTERS.indexOf(filter.charAt(i)) != -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
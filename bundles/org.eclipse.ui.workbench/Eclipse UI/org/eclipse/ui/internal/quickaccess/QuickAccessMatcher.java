@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Red Hat Inc. and others.
+ * Copyright (c) 2019, 2021 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,10 +29,72 @@ public final class QuickAccessMatcher {
 
 	private final QuickAccessElement element;
 
+	// the labels used for matching, computed on first use
+	private volatile Labels labels;
+	private volatile ProviderLabels providerLabels;
+
 	public QuickAccessMatcher(QuickAccessElement element) {
 		this.element = element;
 	}
 
+	/**
+	 * The labels of the element.
+	 */
+	private static final class Labels {
+		final String matchLabel;
+		final String label;
+		final String lowerCaseMatchLabel;
+		final String lowerCaseLabel;
+		final String camelCase;
+
+		Labels(QuickAccessElement element) {
+			matchLabel = element.getMatchLabel();
+			label = element.getLabel();
+			lowerCaseMatchLabel = matchLabel.toLowerCase();
+			lowerCaseLabel = label.toLowerCase();
+			camelCase = CamelUtil.getCamelCase(label);
+		}
+	}
+
+	/**
+	 * The labels of the element combined with the name of a provider.
+	 */
+	private static final class ProviderLabels {
+		final QuickAccessProvider provider;
+		final String providerName;
+		final String combinedLabel;
+		final String lowerCaseCombinedMatchLabel;
+		final String lowerCaseCombinedLabel;
+		final String combinedCamelCase;
+
+		ProviderLabels(QuickAccessProvider provider, Labels labels) {
+			this.provider = provider;
+			providerName = provider.getName();
+			combinedLabel = providerName + " " + labels.label; //$NON-NLS-1$
+			lowerCaseCombinedMatchLabel = (providerName + " " + labels.matchLabel).toLowerCase(); //$NON-NLS-1$
+			lowerCaseCombinedLabel = combinedLabel.toLowerCase();
+			combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
+		}
+	}
+
+	private Labels getLabels() {
+		Labels result = labels;
+		if (result == null) {
+			result = new Labels(element);
+			labels = result;
+		}
+		return result;
+	}
+
+	private ProviderLabels getProviderLabels(QuickAccessProvider provider, Labels elementLabels) {
+		ProviderLabels result = providerLabels;
+		if (result == null || result.provider != provider) {
+			result = new ProviderLabels(provider, elementLabels);
+			providerLabels = result;
+		}
+		return result;
+	}
+
 	private static final int[][] EMPTY_INDICES = new int[0][0];
 	private static final String WS_WILD_START = "^\\s*(\\*|\\?)*"; //$NON-NLS-1$
 	private static final String WS_WILD_END = "(\\*|\\?)*\\s*$"; //$NON-NLS-1$
@@ -42,72 +104,74 @@ public final class QuickAccessMatcher {
 	private static final String PAR_END = "\\)"; //$NON-NLS-1$
 	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
 
-	// whitespaces filter and patterns
-	private String wsFilter;
-	private Pattern wsPattern;
+	/**
+	 * Creates the {@link Pattern} with which the elements are matched against the
+	 * given filter when the filter is not contained in their labels. The pattern
+	 * is the same for all elements, so it should be created once per filter.
+	 *
+	 * @param filter filter for matching, in lower case
+	 * @return the pattern for the filter
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public static Pattern createPattern(String filter) {
+		if (filter.contains("*") || filter.contains("?")) { //$NON-NLS-1$ //$NON-NLS-2$
+			// check for wildcards
+			return createWildcardsPattern(filter);
+		}
+		// check for whitespaces
+		return createWhitespacesPattern(filter);
+	}
 
 	/**
-	 * Get the existing {@link Pattern} for the given filter, or create a new one.
-	 * The generated pattern will replace whitespace with * to match all.
+	 * Create a new {@link Pattern} for the given filter. The generated pattern
+	 * will replace whitespace with * to match all.
 	 *
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWhitespacesPattern(String filter) {
-		if (wsPattern == null || !filter.equals(wsFilter)) {
-			wsFilter = filter;
-			String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
-					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
-			sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
-			wsPattern = safeCompile(sFilter);
-		}
-		return wsPattern;
+	private static Pattern createWhitespacesPattern(String filter) {
+		String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
+				.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
+		sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
+		return safeCompile(sFilter);
 	}
 
-	// wildcard filter and patterns
-	private String wcFilter;
-	private Pattern wcPattern;
-
 	/**
-	 * Get the existing {@link Pattern} for the given filter, or create a new one.
-	 * The generated pattern will handle '*' and '?' wildcards.
+	 * Create a new {@link Pattern} for the given filter. The generated pattern
+	 * will handle '*' and '?' wildcards.
 	 *
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWildcardsPattern(String filter) {
+	private static Pattern createWildcardsPattern(String filter) {
 		// squash consecutive **** into a single *
 		filter = filter.replaceAll("\\*+", "*"); //$NON-NLS-1$ //$NON-NLS-2$
-		if (wcPattern == null || !filter.equals(wcFilter)) {
-			wcFilter = filter;
-			String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
-					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
-			// replace '*' and '?' with their matchers ").*(" and ").?("
-			StringBuilder sb = new StringBuilder();
-			for (int i = 0; i < sFilter.length(); i++) {
-				char c = sFilter.charAt(i);
-				if (c == '*') {
-					sb.append(").").append(c).append("("); //$NON-NLS-1$ //$NON-NLS-2$
-				} else if (c == '?') {
-					int n = 1;
-					for (; (i + 1) < sFilter.length(); i++) {
-						if (sFilter.charAt(i + 1) != '?') {
-							break;
-						}
-						n++;
+		String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
+				.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
+		// replace '*' and '?' with their matchers ").*(" and ").?("
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < sFilter.length(); i++) {
+			char c = sFilter.charAt(i);
+			if (c == '*') {
+				sb.append(").").append(c).append("("); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if (c == '?') {
+				int n = 1;
+				for (; (i + 1) < sFilter.length(); i++) {
+					if (sFilter.charAt(i + 1) != '?') {
+						break;
 					}
-					sb.append(").").append(n == 1 ? '?' : String.format("{0,%d}", n)).append("("); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				} else {
-					sb.append(c);
+					n++;
 				}
+				sb.append(").").append(n == 1 ? '?' : String.format("{0,%d}", n)).append("("); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			} else {
+				sb.append(c);
 			}
-			sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
-			// remove empty capturing groups
-			sFilter = sFilter.replace("()", EMPTY_STR); //$NON-NLS-1$
-			//
-			wcPattern = safeCompile(sFilter);
 		}
-		return wcPattern;
+		sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
+		// remove empty capturing groups
+		sFilter = sFilter.replace("()", EMPTY_STR); //$NON-NLS-1$
+		//
+		return safeCompile(sFilter);
 	}
 
 	/**
@@ -139,14 +203,31 @@ public final class QuickAccessMatcher {
 	 * @noreference This method is not intended to be referenced by clients.
 	 */
 	public QuickAccessEntry match(String filter, QuickAccessProvider providerForMatching) {
-		String matchLabel = element.getMatchLabel();
+		return match(filter, createPattern(filter), providerForMatching);
+	}
+
+	/**
+	 * If this element is a match (partial, complete, camel case, etc) to the given
+	 * filter, returns a {@link QuickAccessEntry}. Otherwise returns
+	 * <code>null</code>;
+	 *
+	 * @param filter              filter for matching
+	 * @param p                   the pattern {@link #createPattern(String)
+	 *                            created} for the filter
+	 * @param providerForMatching the provider that will own the entry
+	 * @return a quick access entry or <code>null</code>
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public QuickAccessEntry match(String filter, Pattern p, QuickAccessProvider providerForMatching) {
+		Labels elementLabels = getLabels();
+		String matchLabel = elementLabels.matchLabel;
 		// first occurrence of filter
-		int index = matchLabel.toLowerCase().indexOf(filter);
+		int index = elementLabels.lowerCaseMatchLabel.indexOf(filter);
 		if (index != -1) {
-			index = element.getLabel().toLowerCase().indexOf(filter);
+			index = elementLabels.lowerCaseLabel.indexOf(filter);
 			if (index != -1) { // match actual label
-				int quality = matchLabel.toLowerCase().equals(filter) ? QuickAccessEntry.MATCH_PERFECT
-						: (matchLabel.toLowerCase().startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
+				int quality = elementLabels.lowerCaseMatchLabel.equals(filter) ? QuickAccessEntry.MATCH_PERFECT
+						: (elementLabels.lowerCaseMatchLabel.startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
 								: QuickAccessEntry.MATCH_GOOD);
 				return new QuickAccessEntry(element, providerForMatching,
 						new int[][] { { index, index + filter.length() - 1 } }, EMPTY_INDICES, quality);
@@ -155,21 +236,13 @@ public final class QuickAccessMatcher {
 					QuickAccessEntry.MATCH_PARTIAL);
 		}
 		//
-		Pattern p;
-		if (filter.contains("*") || filter.contains("?")) { //$NON-NLS-1$ //$NON-NLS-2$
-			// check for wildcards
-			p = getWildcardsPattern(filter);
-		} else {
-			// check for whitespaces
-			p = getWhitespacesPattern(filter);
-		}
 		Matcher m = p.matcher(matchLabel);
 		// if matches, return an entry
 		if (m.matches()) {
 			// and highlight match on the label only
-			String label = element.getLabel();
+			String label = elementLabels.label;
 			if (!matchLabel.equals(label)) {
-				m = p.matcher(element.getLabel());
+				m = p.matcher(label);
 				if (!m.matches()) {
 					return new QuickAccessEntry(element, providerForMatching, EMPTY_INDICES, EMPTY_INDICES,
 							QuickAccessEntry.MATCH_GOOD);
@@ -187,13 +260,13 @@ public final class QuickAccessMatcher {
 			return new QuickAccessEntry(element, providerForMatching, indices, EMPTY_INDICES, quality);
 		}
 		//
-		String combinedMatchLabel = (providerForMatching.getName() + " " + element.getMatchLabel()); //$NON-NLS-1$
-		String combinedLabel = (providerForMatching.getName() + " " + element.getLabel()); //$NON-NLS-1$
-		index = combinedMatchLabel.toLowerCase().indexOf(filter);
+		ProviderLabels combinedLabels = getProviderLabels(providerForMatching, elementLabels);
+		String providerName = combinedLabels.providerName;
+		index = combinedLabels.lowerCaseCombinedMatchLabel.indexOf(filter);
 		if (index != -1) { // match
-			index = combinedLabel.toLowerCase().indexOf(filter);
+			index = combinedLabels.lowerCaseCombinedLabel.indexOf(filter);
 			if (index != -1) { // compute highlight on label
-				int lengthOfElementMatch = index + filter.length() - providerForMatching.getName().length() - 1;
+				int lengthOfElementMatch = index + filter.length() - providerName.length() - 1;
 				if (lengthOfElementMatch > 0) {
 					return new QuickAccessEntry(element, providerForMatching,
 							new int[][] { { 0, lengthOfElementMatch - 1 } },
@@ -206,27 +279,25 @@ public final class QuickAccessMatcher {
 					QuickAccessEntry.MATCH_PARTIAL);
 		}
 		//
-		String camelCase = CamelUtil.getCamelCase(element.getLabel()); // use actual label for camelcase
-		index = camelCase.indexOf(filter);
+		index = elementLabels.camelCase.indexOf(filter); // use actual label for camelcase
 		if (index != -1) {
 			int[][] indices = CamelUtil.getCamelCaseIndices(matchLabel, index, filter.length());
 			return new QuickAccessEntry(element, providerForMatching, indices, EMPTY_INDICES,
 					QuickAccessEntry.MATCH_GOOD);
 		}
-		String combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
-		index = combinedCamelCase.indexOf(filter);
+		index = combinedLabels.combinedCamelCase.indexOf(filter);
 		if (index != -1) {
-			String providerCamelCase = CamelUtil.getCamelCase(providerForMatching.getName());
+			String providerCamelCase = CamelUtil.getCamelCase(providerName);
 			int lengthOfElementMatch = index + filter.length() - providerCamelCase.length();
 			if (lengthOfElementMatch > 0) {
 				return new QuickAccessEntry(element, providerForMatching,
 						CamelUtil.getCamelCaseIndices(matchLabel, 0, lengthOfElementMatch),
-						CamelUtil.getCamelCaseIndices(providerForMatching.getName(), index,
+						CamelUtil.getCamelCaseIndices(providerName, index,
 								filter.length() - lengthOfElementMatch),
 						QuickAccessEntry.MATCH_GOOD);
 			}
 			return new QuickAccessEntry(element, providerForMatching, EMPTY_INDICES,
-					CamelUtil.getCamelCaseIndices(providerForMatching.getName(), index, filter.length()),
+					CamelUtil.getCamelCaseIndices(providerName, index, filter.length()),
 					QuickAccessEntry.MATCH_GOOD);
 		}
 		return null;
@@ -166,6 +166,52 @@ public class ViewCSSTest {
 		assertTrue(cssRules2.size() > cssRules.size());
 	}
 
+	@Test
+	public void testSharedStyles() throws Exception {
+		String css = "Button { color: blue; }\n" + "Composite > .primary { font-weight: bold; }\n"
+				+ "Button[flat='true'] { color: red; }\n";
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(styleSheet);
+		ViewCSSImpl viewCSS = new ViewCSSImpl(docCss);
+
+		final TestElement shell = new TestElement("Shell", engine);
+		final TestElement composite = new TestElement("Composite", shell, engine);
+		final TestElement label1 = new TestElement("Label", composite, engine);
+		label1.setClass("primary");
+		final TestElement label2 = new TestElement("Label", composite, engine);
+		label2.setClass("primary");
+		final TestElement label3 = new TestElement("Label", shell, engine);
+		label3.setClass("primary");
+
+		// siblings with the same classes share the computed style
+		CSSStyleDeclaration style1 = viewCSS.getComputedStyle(label1, null);
+		assertEquals("font-weight: bold;", style1.getCssText());
+		assertSame(style1, viewCSS.getComputedStyle(label2, null));
+		assertEquals(1, viewCSS.getSharedStyleMisses());
+		assertEquals(1, viewCSS.getSharedStyleHits());
+
+		// a different parent may change the style
+		assertNull(viewCSS.getComputedStyle(label3, null));
+		assertEquals(2, viewCSS.getSharedStyleMisses());
+
+		// attribute selectors depend on the element and are never shared
+		final TestElement button1 = new TestElement("Button", composite, engine);
+		final TestElement button2 = new TestElement("Button", composite, engine);
+		button2.setAttribute("flat", "true");
+		assertEquals("color: blue;", viewCSS.getComputedStyle(button1, null).getCssText());
+		assertEquals("color: red;", viewCSS.getComputedStyle(button2, null).getCssText());
+		assertEquals(2, viewCSS.getSharedStyleMisses());
+		assertEquals(1, viewCSS.getSharedStyleHits());
+
+		// adding a style sheet flushes the shared styles
+		docCss.addStyleSheet(ParserTestUtil.parseCss(".primary { color: green; }"));
+		CSSStyleDeclaration style2 = viewCSS.getComputedStyle(label2, null);
+		assertNotSame(style1, style2);
+		assertEquals(2, style2.getLength());
+		assertEquals(3, viewCSS.getSharedStyleMisses());
+	}
+
 	private static ViewCSS createViewCss(String css) throws IOException {
 		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
 		DocumentCSSImpl docCss = new DocumentCSSImpl();
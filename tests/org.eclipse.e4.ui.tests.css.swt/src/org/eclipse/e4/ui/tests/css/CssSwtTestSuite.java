@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 IBM Corporation and others.
+ * Copyright (c) 2008, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -49,6 +49,7 @@ import org.eclipse.e4.ui.tests.css.swt.LinkTest;
 import org.eclipse.e4.ui.tests.css.swt.MarginTest;
 import org.eclipse.e4.ui.tests.css.swt.ShellActiveTest;
 import org.eclipse.e4.ui.tests.css.swt.ShellTest;
+import org.eclipse.e4.ui.tests.css.swt.StyleRuleIndexTest;
 import org.eclipse.e4.ui.tests.css.swt.TableTest;
 import org.eclipse.e4.ui.tests.css.swt.TextTextTransformTest;
 import org.eclipse.e4.ui.tests.css.swt.ThemeTest;
@@ -94,6 +95,7 @@ import org.junit.runners.Suite;
 	InheritTest.class,
 	TableTest.class,
 	TreeTest.class,
+	StyleRuleIndexTest.class,
 	TabbedPropertiesListTest.class,
 	TabbedPropertiesTitleTest.class,
 	ExpandableCompositeTest.class,
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.swt;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.Test;
+
+/**
+ * Styles a widget tree with a style sheet whose rules are indexed by their
+ * rightmost id, class and element name, and checks that the cascade is
+ * applied as without the index.
+ */
+public class StyleRuleIndexTest extends CSSSWTTestCase {
+
+	private static final int COMPOSITE_COUNT = 5;
+	private static final int LABEL_COUNT = 5;
+	private static final int CLASS_COUNT = 10;
+
+	@Test
+	public void testApplyStylesToTree() {
+		StringBuilder styleSheet = new StringBuilder();
+		styleSheet.append("Label { background-color: #FF0000 }\n");
+		for (int i = 0; i < CLASS_COUNT; i++) {
+			styleSheet.append(".label" + i + " { background-color: #00FF00 }\n");
+			styleSheet.append("#label-" + i + "-0 { background-color: #0000FF }\n");
+			styleSheet.append("Composite.panel" + i + " > Label { color: #00FF00 }\n");
+			styleSheet.append("Button.button" + i + ":hover { color: #0000FF }\n");
+		}
+		engine = createEngine(styleSheet.toString(), display);
+
+		Shell shell = new Shell(display, SWT.SHELL_TRIM);
+		shell.setLayout(new FillLayout());
+		Label[][] labels = new Label[COMPOSITE_COUNT][LABEL_COUNT];
+		for (int i = 0; i < COMPOSITE_COUNT; i++) {
+			Composite panel = new Composite(shell, SWT.NONE);
+			WidgetElement.setCSSClass(panel, "panel" + i);
+			for (int j = 0; j < LABEL_COUNT; j++) {
+				Label label = new Label(panel, SWT.NONE);
+				WidgetElement.setCSSClass(label, "label" + j);
+				WidgetElement.setID(label, "label-" + i + "-" + j);
+				labels[i][j] = label;
+			}
+		}
+
+		engine.applyStyles(shell, true);
+
+		// the id rule wins over the class rule, which wins over the type rule
+		assertEquals(BLUE, labels[0][0].getBackground().getRGB());
+		assertEquals(GREEN, labels[0][1].getBackground().getRGB());
+		assertEquals(GREEN, labels[COMPOSITE_COUNT - 1][LABEL_COUNT - 1].getBackground().getRGB());
+		assertEquals(GREEN, labels[COMPOSITE_COUNT - 1][LABEL_COUNT - 1].getForeground().getRGB());
+	}
+
+	@Test
+	public void testReapplySharedStyle() {
+		engine = createEngine(".label0 { background-color: #FF0000 }", display);
+
+		Shell shell = new Shell(display, SWT.SHELL_TRIM);
+		Label label1 = new Label(shell, SWT.NONE);
+		WidgetElement.setCSSClass(label1, "label0");
+		Label label2 = new Label(shell, SWT.NONE);
+		WidgetElement.setCSSClass(label2, "label0");
+		engine.applyStyles(shell, true);
+		assertEquals(RED, label1.getBackground().getRGB());
+		assertEquals(RED, label2.getBackground().getRGB());
+
+		// the computed style is unchanged, but the widget was changed behind the
+		// back of the engine
+		label2.setBackground(display.getSystemColor(SWT.COLOR_BLUE));
+		engine.applyStyles(shell, true);
+		assertEquals(RED, label2.getBackground().getRGB());
+	}
+}
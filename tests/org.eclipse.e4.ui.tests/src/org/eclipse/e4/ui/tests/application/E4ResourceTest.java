@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 IBM Corporation and others.
+ * Copyright (c) 2017, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,16 +16,23 @@ package org.eclipse.e4.ui.tests.application;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
+import org.eclipse.e4.ui.internal.workbench.E4BinarySerializer;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationFactory;
 import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.workbench.IWorkbench;
 import org.eclipse.emf.ecore.EObject;
 import org.junit.Test;
 
@@ -61,6 +68,55 @@ public class E4ResourceTest {
 		assertThatMapsAreEquals(r.getIDToEObjectMap(), r.getEObjectToIDMap());
 	}
 
+	@Test
+	public void testBinaryRoundTrip() throws IOException {
+		E4XMIResource r = new E4XMIResource();
+		MApplication a = MApplicationFactory.INSTANCE.createApplication();
+		r.getContents().add((EObject) a);
+
+		MTrimmedWindow w = MBasicFactory.INSTANCE.createTrimmedWindow();
+		w.setLabel("window");
+		a.getChildren().add(w);
+		MPart p1 = MBasicFactory.INSTANCE.createPart();
+		p1.setElementId("part1");
+		p1.getPersistedState().put("key", "value");
+		MPart p2 = MBasicFactory.INSTANCE.createPart();
+		p2.setElementId("part2");
+		w.getChildren().add(p1);
+		w.getChildren().add(p2);
+		w.setSelectedElement(p2);
+		r.setID((EObject) w, "windowId");
+
+		// Not persisted, nor is the reference to it
+		MTrimmedWindow dynamicWindow = MBasicFactory.INSTANCE.createTrimmedWindow();
+		dynamicWindow.getPersistedState().put(IWorkbench.PERSIST_STATE, "false");
+		a.getChildren().add(dynamicWindow);
+		a.setSelectedElement(dynamicWindow);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		E4BinarySerializer.save(r, out);
+		E4XMIResource loaded = new E4XMIResource();
+		E4BinarySerializer.load(loaded, new ByteArrayInputStream(out.toByteArray()));
+
+		MApplication loadedApp = (MApplication) loaded.getContents().get(0);
+		assertEquals(1, loadedApp.getChildren().size());
+		assertNull(loadedApp.getSelectedElement());
+		MTrimmedWindow loadedWindow = (MTrimmedWindow) loadedApp.getChildren().get(0);
+		assertEquals("window", loadedWindow.getLabel());
+		assertEquals("windowId", loaded.getID((EObject) loadedWindow));
+		assertSame(loadedWindow, loaded.getEObject("windowId"));
+		assertEquals(2, loadedWindow.getChildren().size());
+		MPart loadedPart1 = (MPart) loadedWindow.getChildren().get(0);
+		assertEquals("part1", loadedPart1.getElementId());
+		assertEquals("value", loadedPart1.getPersistedState().get("key"));
+		assertSame(loadedWindow.getChildren().get(1), loadedWindow.getSelectedElement());
+		assertEquals(r.getID((EObject) p1), loaded.getID((EObject) loadedPart1));
+
+		// The saved model is unchanged
+		assertEquals(2, a.getChildren().size());
+		assertSame(dynamicWindow, a.getSelectedElement());
+	}
+
 	private void assertThatMapsAreEquals(Map<String, EObject> idToObject, Map<EObject, String> objectToId) {
 		assertEquals(idToObject.size(), objectToId.size());
 		Map<String, EObject> checkMap = objectToId.entrySet().stream()
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.model.application.MAddon;
 import org.eclipse.e4.ui.model.application.MApplication;
@@ -46,6 +47,8 @@ import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBarElement;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
+import org.eclipse.emf.common.notify.Notifier;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -431,4 +434,66 @@ public class EModelServiceFindTest {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	@Test
+	public void testFindElementsWithIndex() {
+		MApplication application = createApplication();
+		UIEventPublisher publisher = new UIEventPublisher(applicationContext);
+		((Notifier) application).eAdapters().add(publisher);
+		applicationContext.set(UIEventPublisher.class, publisher);
+		EModelService modelService = application.getContext().get(EModelService.class);
+		MWindow window = application.getChildren().get(0);
+
+		assertIndexedSearch(modelService, application);
+
+		// Change the indexed properties
+		MPartSashContainer psc = (MPartSashContainer) window.getChildren().get(0);
+		MPart part3 = (MPart) psc.getChildren().get(1);
+		part3.setElementId("twoValidIds");
+		part3.getTags().add("oneValidTag");
+		psc.setElementId(null);
+		psc.getTags().remove("oneValidTag");
+		assertIndexedSearch(modelService, application);
+
+		// Share a stack, which is then found through the placeholder
+		MPartStack stack = (MPartStack) psc.getChildren().get(0);
+		window.getSharedElements().add(stack);
+		MPlaceholder placeholder = modelService.createModelElement(MPlaceholder.class);
+		placeholder.setRef(stack);
+		psc.getChildren().add(placeholder);
+		assertIndexedSearch(modelService, application);
+		assertEquals(2, modelService.findElements(window, "twoValidIds", MPart.class,
+				null, EModelService.PRESENTATION).size());
+
+		// Remove elements
+		window.getSharedElements().remove(stack);
+		psc.getChildren().remove(part3);
+		assertIndexedSearch(modelService, application);
+		assertNull(modelService.find("twoValidIds", application));
+	}
+
+	/**
+	 * Compares the searches which may use the index with searches which visit
+	 * every element.
+	 */
+	private void assertIndexedSearch(EModelService modelService, MApplication application) {
+		String[] ids = { null, "singleValidId", "twoValidIds", "menuItem1Id", "toolControl2Id" };
+		String[] tags = { null, "oneValidTag", "twoValidTags", "secondTag" };
+		Class<?>[] classes = { null, MUIElement.class, MPart.class, MPartStack.class, MPlaceholder.class,
+				MMenu.class };
+		int[] flags = { EModelService.ANYWHERE, EModelService.PRESENTATION, EModelService.IN_PART };
+		for (String id : ids) {
+			for (String tag : tags) {
+				for (Class<?> clazz : classes) {
+					for (int flag : flags) {
+						List<String> tagsToMatch = tag == null ? null : List.of(tag);
+						assertEquals(
+								modelService.findElements(application, clazz, flag,
+										new ElementMatcher(id, clazz, tagsToMatch)),
+								modelService.findElements(application, id, clazz, tagsToMatch, flag));
+					}
+				}
+			}
+		}
+	}
 }
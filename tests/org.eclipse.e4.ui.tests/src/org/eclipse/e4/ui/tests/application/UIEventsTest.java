@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,25 +14,33 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.internal.workbench.EventStatistics;
 import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MAdvancedFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
 import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuFactory;
 import org.eclipse.e4.ui.tests.model.test.MTestFactory;
 import org.eclipse.e4.ui.tests.model.test.MTestHarness;
+import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.UIEvents.ApplicationElement;
 import org.eclipse.e4.ui.workbench.UIEvents.Command;
 import org.eclipse.e4.ui.workbench.UIEvents.Context;
@@ -46,6 +54,7 @@ import org.eclipse.e4.ui.workbench.UIEvents.UILabel;
 import org.eclipse.e4.ui.workbench.UIEvents.Window;
 import org.eclipse.emf.common.notify.Notifier;
 import org.junit.Test;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
 public class UIEventsTest extends HeadlessApplicationElementTest {
@@ -319,6 +328,163 @@ public class UIEventsTest extends HeadlessApplicationElementTest {
 		checkForFailures(allTesters, windowTester);
 	}
 
+	@Test
+	public void testEventDataKept() {
+		IEventBroker eventBroker = rule.getApplicationContext().get(IEventBroker.class);
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		final UIEventPublisher ep = new UIEventPublisher(rule.getApplicationContext());
+		((Notifier) allData).eAdapters().add(ep);
+		allData.setLabel("Initial Label");
+
+		List<Event> events = new ArrayList<>();
+		EventHandler handler = events::add;
+		eventBroker.subscribe(UILabel.TOPIC_ALL, handler);
+		try {
+			allData.setLabel("First Label");
+			allData.setLabel("Second Label");
+
+			// The arguments of an event stay available after it was delivered
+			assertEquals(2, events.size());
+			Map<?, ?> data = (Map<?, ?>) events.get(0).getProperty(IEventBroker.DATA);
+			assertSame(allData, data.get(EventTags.ELEMENT));
+			assertEquals("Initial Label", data.get(EventTags.OLD_VALUE));
+			assertEquals("First Label", data.get(EventTags.NEW_VALUE));
+			assertSame(allData, events.get(1).getProperty(EventTags.ELEMENT));
+			assertEquals("Second Label", events.get(1).getProperty(EventTags.NEW_VALUE));
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
+	@Test
+	public void testBatchedEvents() {
+		IEventBroker eventBroker = rule.getApplicationContext().get(IEventBroker.class);
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		final UIEventPublisher ep = new UIEventPublisher(rule.getApplicationContext());
+		((Notifier) allData).eAdapters().add(ep);
+		allData.setLabel("Initial Label");
+
+		List<Event> events = new ArrayList<>();
+		EventHandler handler = events::add;
+		eventBroker.subscribe(UILabel.TOPIC_ALL, handler);
+		eventBroker.subscribe(ElementContainer.TOPIC_CHILDREN, handler);
+		try {
+			MMenu menu = MMenuFactory.INSTANCE.createMenu();
+			ep.runBatched(() -> {
+				allData.setLabel("First Label");
+				allData.getChildren().add(menu);
+				allData.setLabel("Second Label");
+				allData.setTooltip("Tooltip");
+				allData.setTooltip(null);
+				assertTrue("event sent during a batch", events.isEmpty());
+			});
+
+			// The label changes are merged and sent last, the tooltip changes
+			// cancel each other out
+			assertEquals(2, events.size());
+			Event add = events.get(0);
+			assertTrue(UIEvents.isADD(add));
+			assertSame(menu, add.getProperty(EventTags.NEW_VALUE));
+			Event set = events.get(1);
+			assertEquals(UILabel.LABEL, set.getProperty(EventTags.ATTNAME));
+			assertEquals("Initial Label", set.getProperty(EventTags.OLD_VALUE));
+			assertEquals("Second Label", set.getProperty(EventTags.NEW_VALUE));
+
+			// Events are sent immediately again after the batch
+			events.clear();
+			allData.setLabel("Third Label");
+			assertEquals(1, events.size());
+			assertEquals("Second Label", events.get(0).getProperty(EventTags.OLD_VALUE));
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
+	@Test
+	public void testNestedBatches() {
+		IEventBroker eventBroker = rule.getApplicationContext().get(IEventBroker.class);
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		final UIEventPublisher ep = new UIEventPublisher(rule.getApplicationContext());
+		((Notifier) allData).eAdapters().add(ep);
+
+		List<Event> events = new ArrayList<>();
+		EventHandler handler = events::add;
+		eventBroker.subscribe(UILabel.TOPIC_ALL, handler);
+		try {
+			ep.runBatched(() -> {
+				allData.setLabel("First Label");
+				ep.runBatched(() -> allData.setTooltip("Tooltip"));
+				assertTrue("event sent by a nested batch", events.isEmpty());
+				allData.setLabel("Second Label");
+			});
+
+			assertEquals(2, events.size());
+			assertEquals(UILabel.LABEL, events.get(0).getProperty(EventTags.ATTNAME));
+			assertEquals("Second Label", events.get(0).getProperty(EventTags.NEW_VALUE));
+			assertEquals(UILabel.TOOLTIP, events.get(1).getProperty(EventTags.ATTNAME));
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
+	@Test
+	public void testCloneSnippetEvents() {
+		IEventBroker eventBroker = rule.getApplicationContext().get(IEventBroker.class);
+		MApplication application = (MApplication) applicationElement;
+		MWindow window = application.getChildren().get(0);
+		MPartSashContainer snippet = MBasicFactory.INSTANCE.createPartSashContainer();
+		snippet.setElementId("testCloneSnippetEvents.snippet");
+		MPlaceholder placeholder = MAdvancedFactory.INSTANCE.createPlaceholder();
+		placeholder.setElementId("org.eclipse.ui.editorss");
+		snippet.getChildren().add(placeholder);
+		application.getSnippets().add(snippet);
+
+		List<Event> events = new ArrayList<>();
+		EventHandler handler = events::add;
+		eventBroker.subscribe(Window.TOPIC_SHAREDELEMENTS, handler);
+		try {
+			MPartSashContainer clone = (MPartSashContainer) ems.cloneSnippet(application,
+					"testCloneSnippetEvents.snippet", window);
+
+			// The shared area created for the placeholder is announced once
+			MPlaceholder clonedPlaceholder = (MPlaceholder) clone.getChildren().get(0);
+			assertEquals(1, events.size());
+			assertTrue(UIEvents.isADD(events.get(0)));
+			assertSame(clonedPlaceholder.getRef(), events.get(0).getProperty(EventTags.NEW_VALUE));
+			assertEquals(List.of(clonedPlaceholder.getRef()), window.getSharedElements());
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
+	@Test
+	public void testEventStatistics() {
+		long[] now = { 0 };
+		List<String> reports = new ArrayList<>();
+		EventStatistics statistics = new EventStatistics(1000, () -> now[0], reports::add);
+
+		statistics.published("topic/a");
+		statistics.published("topic/b");
+		statistics.coalesced();
+		now[0] = 500;
+		statistics.published("topic/b");
+		assertTrue("reported before the interval passed", reports.isEmpty());
+
+		now[0] = 2000;
+		statistics.published("topic/b");
+		assertEquals(List.of("Sent 4 model events in 2000 ms (2 events/s), 1 coalesced\n\ttopic/b: 3\n\ttopic/a: 1"),
+				reports);
+
+		// The counts start again after a report, and a batch reports them at
+		// once
+		now[0] = 2100;
+		statistics.published("topic/a");
+		statistics.report(true);
+		assertEquals("Sent 1 model events in 100 ms (10 events/s), 0 coalesced\n\ttopic/a: 1", reports.get(1));
+		statistics.report(true);
+		assertEquals("nothing to report", 2, reports.size());
+	}
+
 	// Verify bug 374534
 	@Test
 	public void testBrokerCleanup() {
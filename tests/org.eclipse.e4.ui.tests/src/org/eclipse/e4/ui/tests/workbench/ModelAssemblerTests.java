@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 EclipseSource Muenchen GmbH and others.
+ * Copyright (c) 2016, 2021 EclipseSource Muenchen GmbH and others.
  *
  *
  * This program and the accompanying materials
@@ -17,14 +17,20 @@
 package org.eclipse.e4.ui.tests.workbench;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.eclipse.core.internal.registry.ExtensionRegistry;
 import org.eclipse.core.runtime.ContributorFactorySimple;
@@ -36,6 +42,7 @@ import org.eclipse.core.runtime.RegistryFactory;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.log.Logger;
+import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
 import org.eclipse.e4.ui.internal.workbench.ExtensionsSort;
@@ -310,6 +317,145 @@ public class ModelAssemblerTests {
 	 */
 	@Test
 	public void testModelProcessingOrder() throws Exception {
+		addModelProcessingOrderContribution();
+
+		assembler.processModel(true);
+
+		// the testing was done in the post-processor; if we didn't fail there,
+		// everything went fine.
+		verifyZeroInteractions(logger);
+	}
+
+	/**
+	 * Tests that fragments loaded concurrently are merged like fragments loaded
+	 * one after the other.
+	 *
+	 * @throws Exception if anything went wrong during the test
+	 */
+	@Test
+	public void testModelProcessingOrder_parallelFragments() throws Exception {
+		appContext.set(E4Workbench.PARALLEL_MODEL_FRAGMENTS, Boolean.TRUE);
+		addModelProcessingOrderContribution();
+
+		assembler.processModel(true);
+
+		MPlaceholder placeholder = (MPlaceholder) modelService.find("testModelProcessingOrder-placeholder",
+				application);
+		assertNotNull(placeholder);
+		assertEquals(modelService.find("testModelProcessingOrder-part", application), placeholder.getRef());
+		verifyZeroInteractions(logger);
+	}
+
+	/**
+	 * Tests that fragments which have already been merged into a persisted
+	 * model are not merged again.
+	 *
+	 * @throws Exception if anything went wrong during the test
+	 */
+	@Test
+	public void testCachedFragments() throws Exception {
+		appContext.set(E4Workbench.CACHE_MODEL_FRAGMENTS, Boolean.TRUE);
+		addModelProcessingOrderContribution();
+
+		assembler.processModel(false);
+		MUIElement placeholder = modelService.find("testModelProcessingOrder-placeholder", application);
+		assertNotNull(placeholder);
+		assertEquals(1, application.getPersistedState().size());
+
+		placeholder.getParent().getChildren().remove(placeholder);
+		assembler.processModel(false);
+		assertNull(modelService.find("testModelProcessingOrder-placeholder", application));
+	}
+
+	/**
+	 * Tests that fragments which have already been merged are not merged again
+	 * after the model has been saved and loaded again.
+	 *
+	 * @throws Exception if anything went wrong during the test
+	 */
+	@Test
+	public void testCachedFragments_restart() throws Exception {
+		appContext.set(E4Workbench.CACHE_MODEL_FRAGMENTS, Boolean.TRUE);
+		addModelProcessingOrderContribution();
+		assembler.processModel(false);
+
+		restart();
+		MPlaceholder placeholder = (MPlaceholder) modelService.find("testModelProcessingOrder-placeholder",
+				application);
+		assertNotNull(placeholder);
+		assertEquals(1, application.getPersistedState().size());
+
+		assembler.processModel(false);
+		// the loaded placeholder is kept as it is
+		assertSame(placeholder, modelService.find("testModelProcessingOrder-placeholder", application));
+		assertEquals(1,
+				modelService.findElements(application, "testModelProcessingOrder-placeholder", MPlaceholder.class).size());
+		assertEquals(modelService.find("testModelProcessingOrder-part", application), placeholder.getRef());
+	}
+
+	/**
+	 * Tests that fragments which contribute an element that is not persisted
+	 * are merged again after the model has been saved and loaded again.
+	 *
+	 * @throws Exception if anything went wrong during the test
+	 */
+	@Test
+	public void testCachedFragments_restartWithNotPersistedElement() throws Exception {
+		appContext.set(E4Workbench.CACHE_MODEL_FRAGMENTS, Boolean.TRUE);
+		addContribution("org.eclipse.e4.ui.tests/data/ModelAssembler/cachedFragments.xml");
+		assembler.processModel(false);
+		assertNotNull(modelService.find("testCachedFragments-notPersistedPart", application));
+		assertTrue(application.getPersistedState().isEmpty());
+
+		restart();
+		assertNotNull(modelService.find("testCachedFragments-part", application));
+		assertNull(modelService.find("testCachedFragments-notPersistedPart", application));
+
+		assembler.processModel(false);
+		assertNotNull(modelService.find("testCachedFragments-notPersistedPart", application));
+		assertEquals(1, modelService.findElements(application, "testCachedFragments-part", MPart.class).size());
+		verifyZeroInteractions(logger);
+	}
+
+	/**
+	 * Saves the application model like the workbench does at shutdown, and
+	 * loads it into a new resource which is processed by a new assembler.
+	 */
+	private void restart() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		appResource.save(out, Collections.singletonMap(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE));
+
+		appResource = (E4XMIResource) factory.createResource(URI.createURI("virtualuri"));
+		resourceSet = new ResourceSetImpl();
+		resourceSet.getResources().add(appResource);
+		appResource.load(new ByteArrayInputStream(out.toByteArray()), null);
+		application = (MApplication) appResource.getContents().get(0);
+		application.setContext(appContext);
+		appContext.set(MApplication.class, application);
+		assembler = new ModelAssembler();
+		ContextInjectionFactory.inject(assembler, appContext);
+	}
+
+	/**
+	 * Contributes a fragment with imports and a post-processor.
+	 */
+	private void addModelProcessingOrderContribution() throws Exception {
+		// The fragment contributes a Placeholder to the application's Area. The
+		// Placeholder references the Part created by addContribution.
+		// Besides the Placeholder, the xml also contributes a
+		// post-processor(org.eclipse.e4.ui.tests.workbench.ModelAssemblerProcessingOrderPostProcessor).
+		// It will iterate over the elements of the application model and will
+		// make sure that no imports are left unresolved. The post-processor
+		// will throw an error if such elements are found and this test will
+		// fail.
+		addContribution("org.eclipse.e4.ui.tests/data/ModelAssembler/modelProcessingOrder.xml");
+	}
+
+	/**
+	 * Creates a window containing a part and an area, and adds the given
+	 * contribution to a new extension registry.
+	 */
+	private void addContribution(String dataFilePath) throws Exception {
 		/* setup application model */
 		/* this creates a window, containing a part and an area */
 		MTrimmedWindow trimmedWindow = modelService.createModelElement(MTrimmedWindow.class);
@@ -322,26 +468,11 @@ public class ModelAssemblerTests {
 		area.setElementId("testModelProcessingOrder-area");
 		trimmedWindow.getChildren().add(area);
 
-		/* contribute fragment with imports and post-processor */
+		/* contribute fragment */
 		IContributor contributor = ContributorFactorySimple.createContributor(BUNDLE_SYMBOLIC_NAME);
 		IExtensionRegistry registry = createTestExtensionRegistry();
 		assertEquals(0, registry.getConfigurationElementsFor(EXTENSION_POINT_ID).length);
-		// The fragment contributes a Placeholder to the application's Area. The
-		// Placeholder references the Part that we created above.
-		// Besides the Placeholder, the xml also contributes a
-		// post-processor(org.eclipse.e4.ui.tests.workbench.ModelAssemblerProcessingOrderPostProcessor).
-		// It will iterate over the elements of the application model and will
-		// make sure that no imports are left unresolved. The post-processor
-		// will throw an error if such elements are found and this test will
-		// fail.
-		String dataFilePath = "org.eclipse.e4.ui.tests/data/ModelAssembler/modelProcessingOrder.xml";
 		registry.addContribution(getContentsAsInputStream(dataFilePath), contributor, false, null, null, null);
-
-		assembler.processModel(true);
-
-		// the testing was done in the post-processor; if we didn't fail there,
-		// everything went fine.
-		verifyZeroInteractions(logger);
 	}
 
 	/**
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.tests.databinding.observable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.list.ListDiffStrategy;
+import org.eclipse.core.databinding.observable.list.ListDiffVisitor;
+import org.junit.Test;
+
+/**
+ * Conformance tests for {@link ListDiffStrategy#MINIMAL_EDITS}: the computed
+ * diffs must transform the old list into the new list, and must not contain
+ * more entries than necessary.
+ */
+public class Diffs_MinimalEditsListDiffTests {
+
+	@Test
+	public void testEmptyLists() {
+		checkListDiff(Collections.emptyList(), Collections.emptyList(), 0);
+		checkListDiff(Collections.emptyList(), Arrays.asList("a", "b"), 2);
+		checkListDiff(Arrays.asList("a", "b"), Collections.emptyList(), 2);
+	}
+
+	@Test
+	public void testEqualLists() {
+		checkListDiff(Arrays.asList("a", "b", "c"), Arrays.asList("a", "b", "c"), 0);
+	}
+
+	@Test
+	public void testInsertRuns() {
+		ListDiff<String> diff = checkListDiff(Arrays.asList("a", "d"), Arrays.asList("x", "a", "b", "c", "d", "y"), 4);
+		assertEntry(diff.getDifferences()[0], true, 0, "x");
+		assertEntry(diff.getDifferences()[1], true, 2, "b");
+		assertEntry(diff.getDifferences()[2], true, 3, "c");
+		assertEntry(diff.getDifferences()[3], true, 5, "y");
+	}
+
+	@Test
+	public void testRemoveRuns() {
+		ListDiff<String> diff = checkListDiff(Arrays.asList("x", "a", "b", "c", "d", "y"), Arrays.asList("a", "d"), 4);
+		assertEntry(diff.getDifferences()[0], false, 0, "x");
+		assertEntry(diff.getDifferences()[1], false, 1, "b");
+		assertEntry(diff.getDifferences()[2], false, 1, "c");
+		assertEntry(diff.getDifferences()[3], false, 2, "y");
+	}
+
+	@Test
+	public void testReplace() {
+		ListDiff<String> diff = checkListDiff(Arrays.asList("a", "b", "c"), Arrays.asList("a", "x", "c"), 2);
+		assertEntry(diff.getDifferences()[0], false, 1, "b");
+		assertEntry(diff.getDifferences()[1], true, 1, "x");
+
+		final List<String> replaced = new ArrayList<>();
+		diff.accept(new ListDiffVisitor<String>() {
+			@Override
+			public void handleAdd(int index, String element) {
+				replaced.add("add");
+			}
+
+			@Override
+			public void handleRemove(int index, String element) {
+				replaced.add("remove");
+			}
+
+			@Override
+			public void handleReplace(int index, String oldElement, String newElement) {
+				replaced.add(oldElement + "->" + newElement);
+			}
+		});
+		assertEquals(Arrays.asList("b->x"), replaced);
+	}
+
+	@Test
+	public void testMove() {
+		checkListDiff(Arrays.asList("a", "b", "c"), Arrays.asList("c", "a", "b"), 2);
+		checkListDiff(Arrays.asList("a", "b", "c"), Arrays.asList("b", "c", "a"), 2);
+		checkListDiff(Arrays.asList("a", "b", "c"), Arrays.asList("c", "b", "a"), 4);
+	}
+
+	@Test
+	public void testDuplicates() {
+		checkListDiff(Arrays.asList("a", "b", "a", "b"), Arrays.asList("b", "a", "b", "a"), 2);
+		checkListDiff(Arrays.asList("a", "a", "a"), Arrays.asList("a"), 2);
+		checkListDiff(Arrays.asList("a", "b", "c", "a", "b", "b", "a"), Arrays.asList("c", "b", "a", "b", "a", "c"),
+				5);
+	}
+
+	@Test
+	public void testNullElements() {
+		checkListDiff(Arrays.asList("a", null, "b"), Arrays.asList(null, "b", null), 2);
+	}
+
+	@Test
+	public void testLazyListDiff() {
+		List<String> oldList = Arrays.asList("a", "b", "c");
+		List<String> newList = Arrays.asList("b", "c", "d");
+		ListDiff<String> diff = Diffs.computeLazyListDiff(oldList, newList, ListDiffStrategy.MINIMAL_EDITS);
+		assertEquals(2, diff.getDifferences().length);
+		assertEquals(newList, apply(oldList, diff));
+	}
+
+	@Test
+	public void testRandomDistinctElements() {
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			List<Integer> oldList = new ArrayList<>();
+			for (int j = random.nextInt(40); j > 0; j--) {
+				oldList.add(Integer.valueOf(j));
+			}
+			Collections.shuffle(oldList, random);
+			List<Integer> newList = new ArrayList<>(oldList);
+			for (int j = random.nextInt(10); j > 0; j--) {
+				if (!newList.isEmpty() && random.nextBoolean()) {
+					newList.remove(random.nextInt(newList.size()));
+				} else {
+					newList.add(random.nextInt(newList.size() + 1), Integer.valueOf(100 + i * 10 + j));
+				}
+			}
+			if (random.nextInt(4) == 0) {
+				Collections.shuffle(newList, random);
+			}
+			checkListDiff(oldList, newList, shortestEditLength(oldList, newList));
+		}
+	}
+
+	@Test
+	public void testRandomRepeatedElements() {
+		Random random = new Random(4711);
+		for (int i = 0; i < 500; i++) {
+			int alphabetSize = 1 + random.nextInt(6);
+			List<Integer> oldList = randomList(random, random.nextInt(30), alphabetSize);
+			List<Integer> newList = randomList(random, random.nextInt(30), alphabetSize);
+			checkListDiff(oldList, newList, shortestEditLength(oldList, newList));
+		}
+	}
+
+	@Test
+	public void testLargeLists() {
+		List<Integer> oldList = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			oldList.add(Integer.valueOf(i));
+		}
+		List<Integer> filtered = new ArrayList<>();
+		for (Integer element : oldList) {
+			if (element.intValue() % 3 != 0) {
+				filtered.add(element);
+			}
+		}
+		checkListDiff(oldList, filtered, oldList.size() - filtered.size());
+		checkListDiff(filtered, oldList, oldList.size() - filtered.size());
+
+		List<Integer> shuffled = new ArrayList<>(oldList);
+		Collections.shuffle(shuffled, new Random(0));
+		ListDiff<Integer> diff = checkListDiff(oldList, shuffled, shortestEditLength(oldList, shuffled));
+		// the other strategy computes a different, but equally valid diff
+		ListDiff<Integer> detectMoves = Diffs.computeListDiff(oldList, shuffled, ListDiffStrategy.DETECT_MOVES);
+		assertEquals(shuffled, apply(oldList, detectMoves));
+		assertEquals(shuffled, apply(oldList, diff));
+	}
+
+	private static List<Integer> randomList(Random random, int size, int alphabetSize) {
+		List<Integer> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(random.nextInt(8) == 0 ? null : Integer.valueOf(random.nextInt(alphabetSize)));
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the length of a shortest edit script, computed from the length
+	 * of a longest common subsequence by dynamic programming.
+	 */
+	private static int shortestEditLength(List<?> oldList, List<?> newList) {
+		int[][] lcs = new int[oldList.size() + 1][newList.size() + 1];
+		for (int i = oldList.size() - 1; i >= 0; i--) {
+			for (int j = newList.size() - 1; j >= 0; j--) {
+				lcs[i][j] = Objects.equals(oldList.get(i), newList.get(j)) ? lcs[i + 1][j + 1] + 1
+						: Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+			}
+		}
+		return oldList.size() + newList.size() - 2 * lcs[0][0];
+	}
+
+	private static <E> ListDiff<E> checkListDiff(List<E> oldList, List<E> newList, int expectedLength) {
+		ListDiff<E> diff = Diffs.computeListDiff(oldList, newList, ListDiffStrategy.MINIMAL_EDITS);
+		String message = oldList + " -> " + newList + ": " + diff;
+		assertEquals(message, expectedLength, diff.getDifferences().length);
+
+		// Apply the entries one by one, checking the removed elements.
+		List<E> list = new ArrayList<>(oldList);
+		for (ListDiffEntry<E> entry : diff.getDifferences()) {
+			if (entry.isAddition()) {
+				list.add(entry.getPosition(), entry.getElement());
+			} else {
+				assertEquals(message, entry.getElement(), list.remove(entry.getPosition()));
+			}
+		}
+		assertEquals(message, newList, list);
+
+		// The visitor must see the same changes.
+		assertEquals(message, newList, apply(oldList, diff));
+		return diff;
+	}
+
+	private static <E> List<E> apply(List<E> oldList, ListDiff<E> diff) {
+		final List<E> list = new ArrayList<>(oldList);
+		diff.accept(new ListDiffVisitor<E>() {
+			@Override
+			public void handleAdd(int index, E element) {
+				list.add(index, element);
+			}
+
+			@Override
+			public void handleRemove(int index, E element) {
+				assertEquals(element, list.remove(index));
+			}
+
+			@Override
+			public void handleReplace(int index, E oldElement, E newElement) {
+				assertEquals(oldElement, list.set(index, newElement));
+			}
+		});
+		return list;
+	}
+
+	private static void assertEntry(ListDiffEntry<?> entry, boolean addition, int position, String element) {
+		assertEquals("addition", addition, entry.isAddition());
+		assertEquals("position", position, entry.getPosition());
+		assertEquals("element", element, entry.getElement());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 Matthew Hall and others.
+ * Copyright (c) 2007, 2021 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -47,6 +47,27 @@ public class ObservableTrackerTest extends AbstractDefaultRealmTestCase {
 		assertSame(observable, result[0]);
 	}
 
+	@Test
+	public void testRunAndMonitor_Nested() throws Exception {
+		final IObservable outer = new ObservableStub();
+		final IObservable inner = new ObservableStub();
+		final IObservable[][] innerResult = new IObservable[1][];
+		IObservable[] outerResult = ObservableTracker.runAndMonitor(() -> {
+			ObservableTracker.getterCalled(outer);
+			innerResult[0] = ObservableTracker.runAndMonitor(() -> ObservableTracker.getterCalled(inner), null, null);
+			ObservableTracker.getterCalled(outer);
+		}, null, null);
+		assertEquals(1, outerResult.length);
+		assertSame(outer, outerResult[0]);
+		assertEquals(1, innerResult[0].length);
+		assertSame(inner, innerResult[0][0]);
+
+		// The observables of a previous run must not be reported again.
+		IObservable[] result = ObservableTracker.runAndMonitor(() -> {
+		}, null, null);
+		assertEquals(0, result.length);
+	}
+
 	@Test
 	public void testGetterCalled_ObservableDisposed() throws Exception {
 		try {
@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.tests.databinding.observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.ComputedList;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.map.WritableMap;
+import org.eclipse.core.databinding.observable.set.ComputedSet;
+import org.eclipse.core.databinding.observable.set.WritableSet;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.eclipse.jface.databinding.conformance.util.ChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.CurrentRealm;
+import org.eclipse.jface.databinding.conformance.util.ListChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.MapChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.RealmTester;
+import org.eclipse.jface.databinding.conformance.util.SetChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.ValueChangeEventTracker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Realm#runInTransaction(Runnable)}.
+ */
+public class RealmTransactionTest {
+	private Realm realm;
+
+	@Before
+	public void setUp() throws Exception {
+		realm = new CurrentRealm(true);
+		RealmTester.setDefault(realm);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		RealmTester.setDefault(null);
+	}
+
+	@Test
+	public void testValueChangesAreMerged() {
+		WritableValue<String> value = new WritableValue<>("a", String.class);
+		ValueChangeEventTracker<String> valueTracker = ValueChangeEventTracker.observe(value);
+		ChangeEventTracker changeTracker = ChangeEventTracker.observe(value);
+
+		realm.runInTransaction(() -> {
+			value.setValue("b");
+			value.setValue("c");
+			assertEquals(0, valueTracker.count);
+		});
+
+		assertEquals(1, valueTracker.count);
+		assertEquals(1, changeTracker.count);
+		assertEquals("a", valueTracker.event.diff.getOldValue());
+		assertEquals("c", valueTracker.event.diff.getNewValue());
+	}
+
+	@Test
+	public void testListChangesAreMerged() {
+		WritableList<String> list = new WritableList<>(new ArrayList<>(Arrays.asList("a", "b")), String.class);
+		ListChangeEventTracker<String> tracker = ListChangeEventTracker.observe(list);
+
+		realm.runInTransaction(() -> {
+			list.add("c");
+			list.remove("a");
+			list.add(0, "d");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(3, tracker.event.diff.getDifferences().length);
+		List<String> oldList = new ArrayList<>(Arrays.asList("a", "b"));
+		tracker.event.diff.applyTo(oldList);
+		assertEquals(list, oldList);
+	}
+
+	@Test
+	public void testSetChangesAreMerged() {
+		WritableSet<String> set = new WritableSet<>(Arrays.asList("a", "b"), String.class);
+		SetChangeEventTracker tracker = SetChangeEventTracker.observe(set);
+
+		realm.runInTransaction(() -> {
+			set.add("c");
+			set.remove("a");
+			set.remove("c");
+			set.add("a");
+			set.add("d");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(Collections.singleton("d"), tracker.event.diff.getAdditions());
+		assertEquals(Collections.emptySet(), tracker.event.diff.getRemovals());
+	}
+
+	@Test
+	public void testMapChangesAreMerged() {
+		WritableMap<String, String> map = new WritableMap<>();
+		map.put("a", "1");
+		map.put("b", "2");
+		MapChangeEventTracker<String, String> tracker = MapChangeEventTracker.observe(map);
+
+		realm.runInTransaction(() -> {
+			map.put("a", "3");
+			map.remove("b");
+			map.put("c", "4");
+			map.remove("c");
+			map.put("d", "5");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(Collections.singleton("d"), tracker.event.diff.getAddedKeys());
+		assertEquals(Collections.singleton("b"), tracker.event.diff.getRemovedKeys());
+		assertEquals(Collections.singleton("a"), tracker.event.diff.getChangedKeys());
+		assertEquals("1", tracker.event.diff.getOldValue("a"));
+		assertEquals("3", tracker.event.diff.getNewValue("a"));
+		assertEquals("2", tracker.event.diff.getOldValue("b"));
+	}
+
+	private static List<WritableValue<Integer>> createValues(int count) {
+		List<WritableValue<Integer>> values = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			values.add(new WritableValue<>(Integer.valueOf(0), Integer.class));
+		}
+		return values;
+	}
+
+	@Test
+	public void testComputedValueRecomputedOnce() {
+		List<WritableValue<Integer>> values = createValues(100);
+		int[] computations = new int[1];
+		IObservableValue<Integer> sum = ComputedValue.create(() -> {
+			computations[0]++;
+			int result = 0;
+			for (WritableValue<Integer> value : values) {
+				result += value.getValue().intValue();
+			}
+			return Integer.valueOf(result);
+		});
+		List<Integer> sums = new ArrayList<>();
+		sum.addValueChangeListener(event -> sums.add(event.diff.getNewValue()));
+		computations[0] = 0;
+
+		realm.runInTransaction(() -> {
+			for (WritableValue<Integer> value : values) {
+				value.setValue(Integer.valueOf(1));
+			}
+		});
+
+		assertEquals(Arrays.asList(Integer.valueOf(100)), sums);
+		assertEquals(1, computations[0]);
+	}
+
+	@Test
+	public void testComputedValueReadInTransaction() {
+		WritableValue<Integer> value = new WritableValue<>(Integer.valueOf(0), Integer.class);
+		IObservableValue<Integer> tens = ComputedValue.create(() -> Integer.valueOf(value.getValue().intValue() * 10));
+		IObservableValue<Integer> tensPlusOne = ComputedValue.create(() -> Integer.valueOf(tens.getValue().intValue() + 1));
+		ValueChangeEventTracker<Integer> tracker = ValueChangeEventTracker.observe(tensPlusOne);
+		ChangeEventTracker changeTracker = ChangeEventTracker.observe(tensPlusOne);
+		assertEquals(Integer.valueOf(1), tensPlusOne.getValue());
+
+		realm.runInTransaction(() -> {
+			value.setValue(Integer.valueOf(1));
+			// computed values are recomputed from the current values
+			assertEquals(Integer.valueOf(10), tens.getValue());
+			assertEquals(Integer.valueOf(11), tensPlusOne.getValue());
+			value.setValue(Integer.valueOf(2));
+			assertEquals(Integer.valueOf(21), tensPlusOne.getValue());
+			assertEquals(0, tracker.count);
+			assertEquals(0, changeTracker.count);
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(1, changeTracker.count);
+		assertEquals(Integer.valueOf(1), tracker.event.diff.getOldValue());
+		assertEquals(Integer.valueOf(21), tracker.event.diff.getNewValue());
+	}
+
+	@Test
+	public void testComputedListRecomputedOnce() {
+		List<WritableValue<Integer>> values = createValues(100);
+		int[] computations = new int[1];
+		ComputedList<Integer> list = new ComputedList<Integer>() {
+			@Override
+			protected List<Integer> calculate() {
+				computations[0]++;
+				List<Integer> result = new ArrayList<>();
+				for (WritableValue<Integer> value : values) {
+					result.add(value.getValue());
+				}
+				return result;
+			}
+		};
+		ListChangeEventTracker<Integer> tracker = ListChangeEventTracker.observe(list);
+		List<Integer> oldList = new ArrayList<>(list);
+		computations[0] = 0;
+
+		realm.runInTransaction(() -> {
+			for (int i = 0; i < values.size(); i++) {
+				values.get(i).setValue(Integer.valueOf(i));
+			}
+			assertEquals(0, computations[0]);
+		});
+
+		assertEquals(1, tracker.count);
+		tracker.event.diff.applyTo(oldList);
+		assertEquals(list, oldList);
+		assertEquals(Integer.valueOf(99), list.get(99));
+		assertEquals(1, computations[0]);
+	}
+
+	@Test
+	public void testComputedSetRecomputedOnce() {
+		List<WritableValue<Integer>> values = createValues(100);
+		int[] computations = new int[1];
+		ComputedSet<Integer> set = new ComputedSet<Integer>() {
+			@Override
+			protected Set<Integer> calculate() {
+				computations[0]++;
+				Set<Integer> result = new HashSet<>();
+				for (WritableValue<Integer> value : values) {
+					result.add(value.getValue());
+				}
+				return result;
+			}
+		};
+		SetChangeEventTracker tracker = SetChangeEventTracker.observe(set);
+		assertEquals(Collections.singleton(Integer.valueOf(0)), set);
+		computations[0] = 0;
+
+		realm.runInTransaction(() -> {
+			for (int i = 0; i < values.size(); i++) {
+				values.get(i).setValue(Integer.valueOf(i));
+			}
+			assertEquals(0, computations[0]);
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(99, tracker.event.diff.getAdditions().size());
+		assertEquals(Collections.emptySet(), tracker.event.diff.getRemovals());
+		assertEquals(100, set.size());
+		assertEquals(1, computations[0]);
+	}
+
+	@Test
+	public void testComputedListReadInTransaction() {
+		WritableList<String> source = new WritableList<>(new ArrayList<>(Arrays.asList("a", "b")), String.class);
+		ComputedList<String> list = new ComputedList<String>() {
+			@Override
+			protected List<String> calculate() {
+				List<String> result = new ArrayList<>();
+				for (String element : source) {
+					result.add(element.toUpperCase());
+				}
+				return result;
+			}
+		};
+		ListChangeEventTracker<String> tracker = ListChangeEventTracker.observe(list);
+		List<String> oldList = new ArrayList<>(list);
+
+		realm.runInTransaction(() -> {
+			source.add("c");
+			assertEquals(Arrays.asList("A", "B", "C"), list);
+			source.remove("a");
+			source.add("d");
+			assertEquals(Arrays.asList("B", "C", "D"), list);
+		});
+
+		// one event from the list before the transaction to the final list
+		assertEquals(1, tracker.count);
+		tracker.event.diff.applyTo(oldList);
+		assertEquals(Arrays.asList("B", "C", "D"), oldList);
+	}
+
+	@Test
+	public void testValueChangedBack() {
+		WritableValue<String> value = new WritableValue<>("a", String.class);
+		ValueChangeEventTracker<String> valueTracker = ValueChangeEventTracker.observe(value);
+		ChangeEventTracker changeTracker = ChangeEventTracker.observe(value);
+
+		realm.runInTransaction(() -> {
+			value.setValue("b");
+			value.setValue("a");
+		});
+
+		assertEquals(0, valueTracker.count);
+		assertEquals(0, changeTracker.count);
+	}
+
+	@Test
+	public void testNestedTransactionsJoin() {
+		WritableValue<String> value = new WritableValue<>("a", String.class);
+		ValueChangeEventTracker<String> tracker = ValueChangeEventTracker.observe(value);
+
+		realm.runInTransaction(() -> {
+			realm.runInTransaction(() -> value.setValue("b"));
+			assertEquals(0, tracker.count);
+			value.setValue("c");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals("c", tracker.event.diff.getNewValue());
+	}
+
+	@Test
+	public void testEventsFiredAfterException() {
+		WritableValue<String> value = new WritableValue<>("a", String.class);
+		ValueChangeEventTracker<String> tracker = ValueChangeEventTracker.observe(value);
+
+		try {
+			realm.runInTransaction(() -> {
+				value.setValue("b");
+				throw new IllegalStateException();
+			});
+			fail("Expected the exception of the runnable");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertEquals(1, tracker.count);
+		// The transaction is over, events are fired immediately again.
+		value.setValue("c");
+		assertEquals(2, tracker.count);
+	}
+
+	@Test
+	public void testOutsideOfRealm() {
+		((CurrentRealm) realm).setCurrent(false);
+		try {
+			realm.runInTransaction(() -> fail("Must not run outside of the realm"));
+			fail("Expected an assertion failure");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("realm"));
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 IBM Corporation and others.
+ * Copyright (c) 2006, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,14 +19,20 @@ package org.eclipse.core.tests.databinding.observable.value;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.list.ComputedList;
+import org.eclipse.core.databinding.observable.list.IObservableList;
 import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.WritableValue;
 import org.eclipse.jface.tests.databinding.AbstractDefaultRealmTestCase;
 import org.junit.Test;
@@ -153,4 +159,104 @@ public class ComputedValueTest extends AbstractDefaultRealmTestCase {
 		} catch (UnsupportedOperationException e) {
 		}
 	}
+
+	@Test
+	public void testDiamondRecomputedOnce() throws Exception {
+		WritableValue<Integer> source = new WritableValue<>(Integer.valueOf(1), Integer.class);
+		int[] computations = new int[3];
+		IObservableValue<Integer> doubled = ComputedValue.create(() -> {
+			computations[0]++;
+			return Integer.valueOf(source.getValue().intValue() * 2);
+		});
+		IObservableValue<Integer> negated = ComputedValue.create(() -> {
+			computations[1]++;
+			return Integer.valueOf(-source.getValue().intValue());
+		});
+		IObservableValue<String> result = ComputedValue.create(() -> {
+			computations[2]++;
+			return source.getValue() + ":" + doubled.getValue() + ":" + negated.getValue();
+		});
+		List<String> results = new ArrayList<>();
+		result.addValueChangeListener(event -> results.add(event.diff.getNewValue()));
+		assertEquals("1:2:-1", result.getValue());
+		Arrays.fill(computations, 0);
+
+		source.setValue(Integer.valueOf(2));
+
+		// The result is only notified once its inputs are all dirty, so it is
+		// never computed from a mix of old and new values.
+		assertEquals(Arrays.asList("2:4:-2"), results);
+		assertEquals(1, computations[0]);
+		assertEquals(1, computations[1]);
+		assertEquals(1, computations[2]);
+	}
+
+	@Test
+	public void testDeepDependencyChainNotifiedInOrder() throws Exception {
+		WritableValue<Integer> source = new WritableValue<>(Integer.valueOf(0), Integer.class);
+		List<IObservableValue<Integer>> chain = new ArrayList<>();
+		IObservableValue<Integer> previous = source;
+		for (int i = 0; i < 5; i++) {
+			IObservableValue<Integer> input = previous;
+			previous = ComputedValue.create(() -> Integer.valueOf(input.getValue().intValue() + 1));
+			chain.add(previous);
+		}
+		IObservableValue<Integer> last = previous;
+		// Depends on the first and on the last element of the chain.
+		int[] computations = new int[1];
+		IObservableList<Integer> list = new ComputedList<Integer>() {
+			@Override
+			protected List<Integer> calculate() {
+				computations[0]++;
+				return Arrays.asList(chain.get(0).getValue(), last.getValue());
+			}
+		};
+		List<List<Integer>> lists = new ArrayList<>();
+		list.addListChangeListener(event -> lists.add(new ArrayList<>(list)));
+		assertEquals(Arrays.asList(Integer.valueOf(1), Integer.valueOf(5)), list);
+		computations[0] = 0;
+
+		source.setValue(Integer.valueOf(10));
+
+		assertEquals(Arrays.asList(Arrays.asList(Integer.valueOf(11), Integer.valueOf(15))), lists);
+		assertEquals(1, computations[0]);
+	}
+
+	@Test
+	public void testListenerExceptionNotReplaced() throws Exception {
+		WritableValue<Integer> source = new WritableValue<>(Integer.valueOf(0), Integer.class);
+		IObservableValue<Integer> computed = ComputedValue
+				.create(() -> Integer.valueOf(source.getValue().intValue() + 1));
+		List<Integer> values = new ArrayList<>();
+		computed.addValueChangeListener(event -> {
+			values.add(event.diff.getNewValue());
+			throw new IllegalArgumentException("computed value listener");
+		});
+		RuntimeException failure = new IllegalStateException("source listener");
+		IChangeListener failingListener = event -> {
+			throw failure;
+		};
+		source.addChangeListener(failingListener);
+
+		try {
+			source.setValue(Integer.valueOf(1));
+			fail("Expected the exception of the source listener");
+		} catch (IllegalStateException e) {
+			// The exception of the scheduled notification must not replace it.
+			assertSame(failure, e);
+			assertEquals(1, e.getSuppressed().length);
+			assertTrue(e.getSuppressed()[0] instanceof IllegalArgumentException);
+		}
+		assertEquals(Arrays.asList(Integer.valueOf(2)), values);
+
+		// The computed value is still notified of later changes.
+		source.removeChangeListener(failingListener);
+		try {
+			source.setValue(Integer.valueOf(2));
+			fail("Expected the exception of the computed value listener");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(Arrays.asList(Integer.valueOf(2), Integer.valueOf(3)), values);
+	}
 }
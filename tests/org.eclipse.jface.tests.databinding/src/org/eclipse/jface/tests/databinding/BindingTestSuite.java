@@ -51,9 +51,11 @@ import org.eclipse.core.tests.databinding.observable.ChangeSupportTest;
 import org.eclipse.core.tests.databinding.observable.DecoratingObservableTest;
 import org.eclipse.core.tests.databinding.observable.DiffsTest;
 import org.eclipse.core.tests.databinding.observable.Diffs_ListDiffTests;
+import org.eclipse.core.tests.databinding.observable.Diffs_MinimalEditsListDiffTests;
 import org.eclipse.core.tests.databinding.observable.ObservableTrackerTest;
 import org.eclipse.core.tests.databinding.observable.ObservablesTest;
 import org.eclipse.core.tests.databinding.observable.RealmTest;
+import org.eclipse.core.tests.databinding.observable.RealmTransactionTest;
 import org.eclipse.core.tests.databinding.observable.list.AbstractObservableListTest;
 import org.eclipse.core.tests.databinding.observable.list.ComputedListTest;
 import org.eclipse.core.tests.databinding.observable.list.ListDiffTest;
@@ -243,7 +245,7 @@ import org.junit.runners.Suite.SuiteClasses;
 		LocalDateSelectionPropertyTest.class, DecoratingObservableTest.class, LocalDateTimeObservableValueTest.class,
 		DelayedObservableValueTest.class, DetailObservableListTest.class, DetailObservableMapTest.class,
 		DetailObservableSetTest.class, DetailObservableValueTest.class, DifferentRealmsBindingTest.class,
-		Diffs_ListDiffTests.class, DiffsTest.class, DuplexingObservableValueTest.class, EditMaskLexerAndTokenTest.class,
+		Diffs_ListDiffTests.class, Diffs_MinimalEditsListDiffTests.class, DiffsTest.class, DuplexingObservableValueTest.class, EditMaskLexerAndTokenTest.class,
 		EditMaskParserTest.class, GroupObservableValueTest.class, IdentityConverterTest.class, IdentityMapTest.class,
 		IdentitySetTest.class, IntegerToStringConverterTest.class, JavaBeanObservableArrayBasedListTest.class,
 		JavaBeanObservableArrayBasedSetTest.class, JavaBeanObservableListTest.class, JavaBeanObservableMapTest.class,
@@ -264,8 +266,8 @@ import org.junit.runners.Suite.SuiteClasses;
 		ObservableMapTest.class, ObservableSetContentProviderTest.class, ObservableSetTreeContentProviderTest.class,
 		ObservablesManagerTest.class, ObservablesTest.class, ObservableTrackerTest.class,
 		ObservableValueEditingSupportTest.class, PojoObservablesTest.class, PojoPropertiesTest.class, PolicyTest.class,
-		PreferencePageSupportTest.class, QueueTest.class, RealmTest.class, ScaleObservableValueMaxTest.class,
-		ScaleObservableValueMinTest.class, ScaleObservableValueSelectionTest.class,
+		PreferencePageSupportTest.class, QueueTest.class, RealmTest.class, RealmTransactionTest.class,
+		ScaleObservableValueMaxTest.class, ScaleObservableValueMinTest.class, ScaleObservableValueSelectionTest.class,
 		SelectionProviderMultiSelectionObservableListTest.class,
 		SelectionProviderSingleSelectionObservableValueTest.class, SetDetailValueObservableMapTest.class,
 		SetOnlyJavaBeanTest.class, SetSimpleValueObservableMapTest.class, ShellObservableValueTest.class,
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.Comparator;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.deferred.DeferredTreeContentProvider;
+import org.eclipse.jface.viewers.deferred.SetModel;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tests the {@link DeferredTreeContentProvider}, which sorts and filters the
+ * root elements of a virtual tree in the background.
+ */
+public class DeferredTreeContentProviderTest extends ViewerTestCase {
+
+	private static final int ROOT_COUNT = 100;
+
+	private static final int CHILD_COUNT = 50;
+
+	private DeferredTreeContentProvider contentProvider;
+
+	private SetModel model;
+
+	public DeferredTreeContentProviderTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Provides CHILD_COUNT children for the first root element, and counts how
+	 * often they are asked for.
+	 */
+	private static final class CountingChildProvider implements ITreeContentProvider {
+		int getChildrenCount;
+
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return new Object[0];
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			if (!"r000".equals(parentElement)) {
+				return new Object[0];
+			}
+			getChildrenCount++;
+			Object[] children = new Object[CHILD_COUNT];
+			for (int i = 0; i < CHILD_COUNT; i++) {
+				children[i] = "c" + i;
+			}
+			return children;
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return "r000".equals(element);
+		}
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TreeViewer viewer = new TreeViewer(parent, SWT.VIRTUAL);
+		contentProvider = new DeferredTreeContentProvider(Comparator.naturalOrder());
+		viewer.setContentProvider(contentProvider);
+		viewer.setLabelProvider(new LabelProvider());
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		model = new SetModel();
+		Object[] elements = new Object[ROOT_COUNT];
+		for (int i = 0; i < ROOT_COUNT; i++) {
+			// added in reverse order, so they have to be sorted
+			elements[i] = String.format("r%03d", Integer.valueOf(ROOT_COUNT - 1 - i));
+		}
+		model.addAll(elements);
+		fViewer.setInput(model);
+	}
+
+	private Tree getTree() {
+		return ((TreeViewer) fViewer).getTree();
+	}
+
+	private void waitFor(BooleanSupplier condition) {
+		long stopTime = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < stopTime) {
+			processEvents();
+			sleep(10);
+		}
+		assertTrue("timed out", condition.getAsBoolean());
+	}
+
+	private boolean hasRootElements(int count, Object first) {
+		Tree tree = getTree();
+		return tree.getItemCount() == count && count > 0 && first.equals(tree.getItem(0).getData());
+	}
+
+	public void testSortedRootElements() {
+		waitFor(() -> hasRootElements(ROOT_COUNT, "r000"));
+		waitFor(() -> "r001".equals(getTree().getItem(1).getData()));
+	}
+
+	public void testFilterAndLimit() {
+		waitFor(() -> hasRootElements(ROOT_COUNT, "r000"));
+
+		contentProvider.setFilter(element -> ((String) element).endsWith("5"));
+		waitFor(() -> hasRootElements(ROOT_COUNT / 10, "r005"));
+
+		contentProvider.setLimit(3);
+		waitFor(() -> hasRootElements(3, "r005"));
+		assertEquals(3, contentProvider.getLimit());
+	}
+
+	public void testChildrenAreAskedOnce() {
+		CountingChildProvider childProvider = new CountingChildProvider();
+		contentProvider.setChildProvider(childProvider);
+		waitFor(() -> hasRootElements(ROOT_COUNT, "r000"));
+
+		((TreeViewer) fViewer).expandToLevel("r000", 1);
+		TreeItem parentItem = getTree().getItem(0);
+		waitFor(() -> parentItem.getItemCount() == CHILD_COUNT);
+		int count = childProvider.getChildrenCount;
+		for (int i = 0; i < CHILD_COUNT; i++) {
+			// materializes the virtual item
+			assertEquals("c" + i, parentItem.getItem(i).getText());
+			assertEquals("c" + i, parentItem.getItem(i).getData());
+		}
+		assertEquals(count, childProvider.getChildrenCount);
+	}
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * Tests the mapping of elements to widgets of a viewer using hash lookup,
+ * which is backed by an open addressing map.
+ */
+public class ElementWidgetMapTest extends ViewerTestCase {
+
+	private static final String ROOT = "root";
+
+	/**
+	 * An element with a given hash code, equal to the elements with the same
+	 * id.
+	 */
+	private static final class Key {
+		final int id;
+
+		final int hash;
+
+		Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return "Key " + id;
+		}
+	}
+
+	private static final class MapContentProvider implements ITreeContentProvider {
+		final Map<Object, List<Object>> children = new HashMap<>();
+
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return getChildren(inputElement);
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			List<Object> list = children.get(parentElement);
+			return list == null ? new Object[0] : list.toArray();
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return children.containsKey(element);
+		}
+	}
+
+	private MapContentProvider contentProvider;
+
+	public ElementWidgetMapTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TreeViewer viewer = new TreeViewer(parent);
+		contentProvider = new MapContentProvider();
+		viewer.setContentProvider(contentProvider);
+		viewer.setLabelProvider(new LabelProvider());
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		// the tests set their own input
+	}
+
+	private TreeViewer getTreeViewer() {
+		return (TreeViewer) fViewer;
+	}
+
+	private List<Object> setRootChildren(int count, int hashModulo) {
+		List<Object> keys = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			keys.add(new Key(i, hashModulo == 0 ? 0 : i % hashModulo));
+		}
+		contentProvider.children.put(ROOT, keys);
+		fViewer.setInput(ROOT);
+		return new ArrayList<>(keys);
+	}
+
+	private void assertMapped(Object element) {
+		Widget item = fViewer.testFindItem(element);
+		assertNotNull("no item for " + element, item);
+		assertEquals(element, item.getData());
+		assertEquals(1, fViewer.testFindItems(element).length);
+	}
+
+	private void assertNotMapped(Object element) {
+		assertNull("unexpected item for " + element, fViewer.testFindItem(element));
+		assertEquals(0, fViewer.testFindItems(element).length);
+	}
+
+	public void testCollisions() {
+		List<Object> keys = setRootChildren(200, 0);
+		for (Object key : keys) {
+			assertMapped(key);
+			// an equal element with another identity
+			assertMapped(new Key(((Key) key).id, 0));
+		}
+		assertNotMapped(new Key(200, 0));
+	}
+
+	public void testRemoveAndReinsert() {
+		List<Object> keys = setRootChildren(300, 7);
+		List<Object> removed = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i += 3) {
+			removed.add(keys.get(i));
+		}
+		contentProvider.children.get(ROOT).removeAll(removed);
+		fViewer.remove(removed.toArray());
+		for (Object key : keys) {
+			if (removed.contains(key)) {
+				assertNotMapped(key);
+			} else {
+				assertMapped(key);
+			}
+		}
+
+		contentProvider.children.get(ROOT).addAll(removed);
+		getTreeViewer().add(ROOT, removed.toArray());
+		for (Object key : keys) {
+			assertMapped(key);
+		}
+	}
+
+	public void testResize() {
+		List<Object> keys = setRootChildren(5000, Integer.MAX_VALUE);
+		for (Object key : keys) {
+			assertMapped(key);
+		}
+		contentProvider.children.get(ROOT).clear();
+		fViewer.remove(keys.toArray());
+		for (Object key : keys) {
+			assertNotMapped(key);
+		}
+	}
+
+	public void testComparer() {
+		contentProvider.children.put(ROOT, new ArrayList<>(List.of("a", "b")));
+		fViewer.setInput(ROOT);
+		assertNotMapped("A");
+
+		// the map is rebuilt when the comparer changes
+		fViewer.setComparer(new IElementComparer() {
+			@Override
+			public boolean equals(Object a, Object b) {
+				return ((String) a).equalsIgnoreCase((String) b);
+			}
+
+			@Override
+			public int hashCode(Object element) {
+				return ((String) element).toLowerCase().hashCode();
+			}
+		});
+		assertEquals("a", fViewer.testFindItem("A").getData());
+		assertEquals("b", fViewer.testFindItem("B").getData());
+
+		fViewer.setComparer(null);
+		assertNotMapped("A");
+		assertMapped("a");
+	}
+
+	public void testMultipleWidgetsPerElement() {
+		Object shared = new Key(0, 0);
+		Object parent1 = new Key(1, 0);
+		Object parent2 = new Key(2, 0);
+		contentProvider.children.put(ROOT, new ArrayList<>(List.of(parent1, parent2)));
+		contentProvider.children.put(parent1, new ArrayList<>(List.of(shared)));
+		contentProvider.children.put(parent2, new ArrayList<>(List.of(shared)));
+		fViewer.setInput(ROOT);
+		getTreeViewer().expandAll();
+
+		Widget[] items = fViewer.testFindItems(shared);
+		assertEquals(2, items.length);
+		assertNotSame(items[0], items[1]);
+		assertEquals(parent1, fViewer.testFindItem(parent1).getData());
+
+		contentProvider.children.get(parent1).clear();
+		getTreeViewer().remove(parent1, new Object[] { shared });
+		items = fViewer.testFindItems(shared);
+		assertEquals(1, items.length);
+		assertSame(fViewer.testFindItem(shared), items[0]);
+
+		contentProvider.children.get(ROOT).remove(parent2);
+		fViewer.remove(parent2);
+		assertNotMapped(shared);
+		assertMapped(parent1);
+	}
+}
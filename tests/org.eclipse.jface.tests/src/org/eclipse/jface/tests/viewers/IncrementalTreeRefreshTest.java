@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * Tests the incremental refresh of the structure of a tree viewer, which keeps
+ * the items of children that are still there.
+ */
+public class IncrementalTreeRefreshTest extends ViewerTestCase {
+
+	/**
+	 * A node with a name. Nodes are only equal to themselves.
+	 */
+	private static final class Node {
+		final String name;
+
+		final List<Node> children = new ArrayList<>();
+
+		Node(String name, String... childNames) {
+			this.name = name;
+			for (String childName : childNames) {
+				children.add(new Node(childName));
+			}
+		}
+
+		Node child(String childName) {
+			for (Node child : children) {
+				if (child.name.equals(childName)) {
+					return child;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static final class NodeContentProvider implements ITreeContentProvider {
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return getChildren(inputElement);
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			return ((Node) parentElement).children.toArray();
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return !((Node) element).children.isEmpty();
+		}
+	}
+
+	private Node root;
+
+	public IncrementalTreeRefreshTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TreeViewer viewer = new TreeViewer(parent);
+		viewer.setContentProvider(new NodeContentProvider());
+		viewer.setLabelProvider(new LabelProvider());
+		viewer.setIncrementalRefresh(true);
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		root = new Node("root", "a", "b", "c", "d", "e");
+		root.child("b").children.add(new Node("b1"));
+		root.child("d").children.add(new Node("d1"));
+		fViewer.setInput(root);
+		getTreeViewer().setExpandedState(root.child("b"), true);
+	}
+
+	private TreeViewer getTreeViewer() {
+		return (TreeViewer) fViewer;
+	}
+
+	private void setChildren(Node parent, Node... children) {
+		parent.children.clear();
+		parent.children.addAll(Arrays.asList(children));
+	}
+
+	private Node[] rootChildren(String... names) {
+		Node[] children = new Node[names.length];
+		for (int i = 0; i < names.length; i++) {
+			Node child = root.child(names[i]);
+			children[i] = child != null ? child : new Node(names[i]);
+		}
+		return children;
+	}
+
+	private void assertItems(String... names) {
+		TreeItem[] items = getTreeViewer().getTree().getItems();
+		String[] texts = new String[items.length];
+		for (int i = 0; i < items.length; i++) {
+			texts[i] = items[i].getText();
+		}
+		assertEquals(Arrays.asList(names), Arrays.asList(texts));
+		for (TreeItem item : items) {
+			assertSame(item, fViewer.testFindItem(item.getData()));
+		}
+	}
+
+	private Widget findItem(String name) {
+		return fViewer.testFindItem(root.child(name));
+	}
+
+	public void testReorder() {
+		Widget c = findItem("c");
+		Widget d = findItem("d");
+		setChildren(root, rootChildren("e", "c", "d", "a", "b"));
+		fViewer.refresh();
+		assertItems("e", "c", "d", "a", "b");
+		// the longest run of children in the same order keeps its items
+		assertSame(c, findItem("c"));
+		assertSame(d, findItem("d"));
+	}
+
+	public void testInsert() {
+		Widget a = findItem("a");
+		Widget b = findItem("b");
+		Widget e = findItem("e");
+		setChildren(root, rootChildren("x", "a", "b", "y", "c", "d", "e", "z"));
+		fViewer.refresh();
+		assertItems("x", "a", "b", "y", "c", "d", "e", "z");
+		assertSame(a, findItem("a"));
+		assertSame(b, findItem("b"));
+		assertSame(e, findItem("e"));
+	}
+
+	public void testRemove() {
+		Node removed = root.child("c");
+		Widget b = findItem("b");
+		Widget d = findItem("d");
+		setChildren(root, rootChildren("a", "b", "d"));
+		fViewer.refresh();
+		assertItems("a", "b", "d");
+		assertSame(b, findItem("b"));
+		assertSame(d, findItem("d"));
+		assertNull(fViewer.testFindItem(removed));
+	}
+
+	public void testExpansionKept() {
+		Node b = root.child("b");
+		TreeItem item = (TreeItem) findItem("b");
+		assertTrue(item.getExpanded());
+		TreeItem childItem = item.getItem(0);
+
+		setChildren(root, rootChildren("x", "a", "b", "d"));
+		fViewer.refresh();
+		assertItems("x", "a", "b", "d");
+		assertSame(item, fViewer.testFindItem(b));
+		assertTrue(item.getExpanded());
+		assertSame(childItem, item.getItem(0));
+		assertEquals("b1", childItem.getText());
+	}
+
+	public void testExpansionOfMovedChild() {
+		Node b = root.child("b");
+		setChildren(root, rootChildren("c", "d", "e", "b", "a"));
+		fViewer.refresh();
+		assertItems("c", "d", "e", "b", "a");
+		// the moved child gets a new item, which is expanded again
+		assertTrue(getTreeViewer().getExpandedState(b));
+		assertEquals("b1", ((TreeItem) fViewer.testFindItem(b)).getItem(0).getText());
+	}
+
+	public void testSelectionKept() {
+		Node c = root.child("c");
+		fViewer.setSelection(new StructuredSelection(c));
+		Widget item = findItem("c");
+
+		setChildren(root, rootChildren("x", "a", "c", "d", "y"));
+		fViewer.refresh();
+		assertItems("x", "a", "c", "d", "y");
+		assertSame(item, fViewer.testFindItem(c));
+		IStructuredSelection selection = fViewer.getStructuredSelection();
+		assertEquals(1, selection.size());
+		assertSame(c, selection.getFirstElement());
+	}
+
+	public void testComparer() {
+		fViewer.setComparer(new IElementComparer() {
+			@Override
+			public boolean equals(Object a, Object b) {
+				return ((Node) a).name.equals(((Node) b).name);
+			}
+
+			@Override
+			public int hashCode(Object element) {
+				return ((Node) element).name.hashCode();
+			}
+		});
+		TreeItem item = (TreeItem) findItem("b");
+		assertTrue(item.getExpanded());
+
+		// new nodes with the same names
+		Node b = new Node("b", "b2");
+		setChildren(root, new Node("x"), new Node("a"), b, new Node("c"), new Node("d"), new Node("e"));
+		fViewer.refresh();
+		assertItems("x", "a", "b", "c", "d", "e");
+		// the item is kept and shows the new element and its children
+		assertSame(item, fViewer.testFindItem(b));
+		assertSame(b, item.getData());
+		assertTrue(item.getExpanded());
+		assertEquals(1, item.getItemCount());
+		assertEquals("b2", item.getItem(0).getText());
+	}
+
+	public void testDuplicates() {
+		Node a = root.child("a");
+		setChildren(root, a, root.child("c"), a, root.child("b"));
+		fViewer.refresh();
+		// the children cannot be matched to items, they are updated by position
+		assertEquals(4, getTreeViewer().getTree().getItemCount());
+		TreeItem[] items = getTreeViewer().getTree().getItems();
+		assertEquals("a", items[0].getText());
+		assertEquals("c", items[1].getText());
+		assertEquals("a", items[2].getText());
+		assertEquals("b", items[3].getText());
+		assertEquals(2, fViewer.testFindItems(a).length);
+
+		setChildren(root, rootChildren("b", "c", "d"));
+		fViewer.refresh();
+		assertItems("b", "c", "d");
+		assertNull(fViewer.testFindItem(a));
+	}
+}
@@ -26,6 +26,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	EventLoopMonitorThreadTests.class,
 	FilterHandlerTests.class,
-	DefaultLoggerTests.class})
+	DefaultLoggerTests.class,
+	SamplingProfilerTests.class})
 public class MonitoringTestSuite {
 }
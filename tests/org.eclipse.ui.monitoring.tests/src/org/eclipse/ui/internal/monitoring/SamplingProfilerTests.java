@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.swt.SWT;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link SamplingProfiler}, {@link CallTree} and {@link LatencyHistogram} classes.
+ */
+public class SamplingProfilerTests {
+
+	private static StackTraceElement frame(String className, String methodName, int line) {
+		return new StackTraceElement(className, methodName, className + ".java", line);
+	}
+
+	/**
+	 * Creates a stack trace from the given frames, with the outermost frame first.
+	 */
+	private static StackTraceElement[] stack(StackTraceElement... outermostFirst) {
+		StackTraceElement[] stackTrace = new StackTraceElement[outermostFirst.length];
+		for (int i = 0; i < outermostFirst.length; i++) {
+			stackTrace[outermostFirst.length - 1 - i] = outermostFirst[i];
+		}
+		return stackTrace;
+	}
+
+	private static Set<String> collapse(CallTree tree) throws Exception {
+		StringBuilder buf = new StringBuilder();
+		tree.writeCollapsedStacks(buf);
+		return new HashSet<>(Arrays.asList(buf.toString().split("\n")));
+	}
+
+	@Test
+	public void testCollapsedStacks() throws Exception {
+		CallTree tree = new CallTree();
+		StackTraceElement main = frame("a.Main", "main", 10);
+		StackTraceElement paint = frame("a.Canvas", "paint", 20);
+		StackTraceElement layout = frame("a.Layout", "layout", 30);
+		tree.addSample(stack(main, paint));
+		// Samples at different lines of the same method are merged.
+		tree.addSample(stack(main, frame("a.Canvas", "paint", 21)));
+		tree.addSample(stack(main, paint, layout));
+		tree.addSample(stack(main));
+
+		assertEquals(4, tree.getSampleCount());
+		Set<String> expected = new HashSet<>(Arrays.asList(
+				"a.Main.main 1",
+				"a.Main.main;a.Canvas.paint 2",
+				"a.Main.main;a.Canvas.paint;a.Layout.layout 1"));
+		assertEquals(expected, collapse(tree));
+
+		tree.clear();
+		assertEquals(0, tree.getSampleCount());
+		assertEquals(new HashSet<>(Arrays.asList("")), collapse(tree));
+	}
+
+	@Test
+	public void testCallTreeLimit() throws Exception {
+		CallTree tree = new CallTree(2);
+		StackTraceElement main = frame("a.Main", "main", 10);
+		StackTraceElement paint = frame("a.Canvas", "paint", 20);
+		tree.addSample(stack(main, paint));
+		// No room for a third node, the sample is attributed to the caller.
+		tree.addSample(stack(main, frame("a.Tree", "expand", 40)));
+
+		assertEquals(2, tree.getSampleCount());
+		assertEquals(1, tree.getTruncatedCount());
+		Set<String> expected = new HashSet<>(Arrays.asList(
+				"a.Main.main 1",
+				"a.Main.main;a.Canvas.paint 1"));
+		assertEquals(expected, collapse(tree));
+	}
+
+	@Test
+	public void testHistogramBuckets() {
+		assertEquals(0, LatencyHistogram.getBucket(0));
+		assertEquals(0, LatencyHistogram.getBucket(999999));
+		assertEquals(1, LatencyHistogram.getBucket(1000000));
+		assertEquals(2, LatencyHistogram.getBucket(2000000));
+		assertEquals(2, LatencyHistogram.getBucket(3999999));
+		assertEquals(3, LatencyHistogram.getBucket(4000000));
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(500000);
+		histogram.record(3000000);
+		histogram.record(3500000);
+		assertEquals(3, histogram.getCount());
+		assertEquals(1, histogram.getBucketCount(0));
+		assertEquals(2, histogram.getBucketCount(2));
+		assertEquals("count=3 mean=2.33ms max=3.50ms [<1ms: 1, 2-4ms: 2]", histogram.toString());
+	}
+
+	@Test
+	public void testEventLatencies() {
+		SamplingProfiler profiler = new SamplingProfiler(Thread.currentThread().getId(), 10,
+				() -> false, null);
+		profiler.eventStarted();
+		profiler.eventStarted();
+		profiler.eventFinished(SWT.Paint);
+		profiler.eventFinished(SWT.Selection);
+		// A PostEvent without a PreEvent is ignored.
+		profiler.eventFinished(SWT.Selection);
+
+		String report = profiler.getLatencyReport();
+		assertTrue(report, report.contains("Paint: count=1 "));
+		assertTrue(report, report.contains("Selection: count=1 "));
+	}
+}
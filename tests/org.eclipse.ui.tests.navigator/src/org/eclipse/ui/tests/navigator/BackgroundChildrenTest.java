@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.navigator.extension.TestPipelineProvider;
+import org.eclipse.ui.tests.navigator.extension.TestSimpleChildrenContentProvider;
+import org.junit.Test;
+
+/**
+ * Tests a viewer computing the children of its elements in the background, as
+ * configured by the <code>computeChildrenInBackground</code> property.
+ */
+public class BackgroundChildrenTest extends NavigatorTestBase {
+
+	public BackgroundChildrenTest() {
+		_navigatorInstanceId = TEST_VIEWER_BACKGROUND;
+	}
+
+	private void activate(String[] extensions) {
+		_contentService.bindExtensions(extensions, false);
+		_contentService.getActivationService().activateExtensions(extensions, true);
+	}
+
+	private static boolean isPending(TreeItem item) {
+		TreeItem[] children = item.getItems();
+		for (TreeItem child : children) {
+			if (child.getData() instanceof PendingUpdateAdapter) {
+				return true;
+			}
+		}
+		return children.length == 0;
+	}
+
+	private void expandAndWait(TreeItem item) {
+		_viewer.setExpandedState(item.getData(), true);
+		assertTrue("Children not computed in time",
+				DisplayHelper.waitForCondition(Display.getCurrent(), 10_000, () -> !isPending(item)));
+	}
+
+	@Test
+	public void testConcurrentFirstClassChildren() {
+		activate(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT, TEST_SIMPLE_CHILDREN1, TEST_SIMPLE_CHILDREN2,
+				TEST_SIMPLE_CHILDREN3 });
+
+		TreeItem[] rootItems = _viewer.getTree().getItems();
+		expandAndWait(rootItems[0]);
+
+		// The children of all extensions are added at once, in the order of
+		// the extensions.
+		TreeItem[] children = rootItems[0].getItems();
+		assertTrue(children.length > TestSimpleChildrenContentProvider.NUM_ITEMS * 3);
+		assertEquals("30", children[0].getText());
+		assertEquals("20", children[TestSimpleChildrenContentProvider.NUM_ITEMS].getText());
+		assertEquals("10", children[TestSimpleChildrenContentProvider.NUM_ITEMS * 2].getText());
+	}
+
+	@Test
+	public void testSameChildrenAsInUIThread() {
+		activate(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT, TEST_SIMPLE_CHILDREN1 });
+
+		TreeItem[] rootItems = _viewer.getTree().getItems();
+		expandAndWait(rootItems[_p1Ind]);
+
+		Object[] expected = _viewer.getNavigatorContentService().createCommonContentProvider()
+				.getChildren(rootItems[_p1Ind].getData());
+		TreeItem[] children = rootItems[_p1Ind].getItems();
+		assertEquals(expected.length, children.length);
+		for (Object element : expected) {
+			assertFalse("Missing child " + element, _viewer.testFindItem(element) == null);
+		}
+	}
+
+	@Test
+	public void testPipelinedChildrenInUIThread() {
+		activate(new String[] { COMMON_NAVIGATOR_RESOURCE_EXT, TEST_CONTENT_PIPELINE + ".A",
+				TEST_CONTENT_PIPELINE + ".B", TEST_CONTENT_PIPELINE + ".C", TEST_CONTENT_PIPELINE + ".D",
+				TEST_CONTENT_PIPELINE + ".E", TEST_CONTENT_PIPELINE + ".F", TEST_CONTENT_PIPELINE + ".G" });
+
+		TestPipelineProvider.reset();
+		TreeItem[] rootItems = _viewer.getTree().getItems();
+		expandAndWait(rootItems[_p1Ind]);
+
+		assertEquals("Wrong query sequence for getPipelineChildren", "A1CGFBDE",
+				TestPipelineProvider.CHILDREN.get(_p1));
+		assertNull("Children pipelined in the background", TestPipelineProvider.BACKGROUND_CHILDREN.get(_p1));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google Inc. and others.
+ * Copyright (c) 2015, 2021 Google Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -127,6 +127,52 @@ public class EvaluationCacheTest extends NavigatorTestBase {
 		Assert.assertNull(cache.getDescriptors(key, true));
 	}
 
-	// TODO Some way to reliably test the clearing of entries. Possibly using
-	// java.lang.ref.Reference#enqueue().
+	@Test
+	public void testBothHalvesShareEntry() {
+		Object key = new Object();
+		NavigatorContentDescriptor[] value1 = new NavigatorContentDescriptor[0];
+		NavigatorContentDescriptor[] value2 = new NavigatorContentDescriptor[0];
+		cache.setDescriptors(key, value1, false);
+		cache.setDescriptors(key, value2, true);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertSame(value1, cache.getDescriptors(key, false));
+		Assert.assertSame(value2, cache.getDescriptors(key, true));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() {
+		INavigatorViewerDescriptor mockViewerDescript = new TestNavigatorViewerDescriptor();
+		INavigatorActivationService mockActivationService = new TestNavigatorActivationService();
+		VisibilityAssistant mockAssistant = new VisibilityAssistant(mockViewerDescript, mockActivationService);
+		EvaluationCache smallCache = new EvaluationCache(mockAssistant, 2);
+
+		Object key1 = new Object();
+		Object key2 = new Object();
+		Object key3 = new Object();
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		smallCache.setDescriptors(key1, value, false);
+		smallCache.setDescriptors(key2, value, false);
+		// Use key1, so that key2 is the least recently used one.
+		Assert.assertSame(value, smallCache.getDescriptors(key1, false));
+		smallCache.setDescriptors(key3, value, false);
+
+		Assert.assertEquals(2, smallCache.size());
+		Assert.assertEquals(1, smallCache.getEvictionCount());
+		Assert.assertSame(value, smallCache.getDescriptors(key1, false));
+		Assert.assertNull(smallCache.getDescriptors(key2, false));
+		Assert.assertSame(value, smallCache.getDescriptors(key3, false));
+	}
+
+	@Test
+	public void testHitAndMissCounts() {
+		Object key = new Object();
+		Assert.assertNull(cache.getDescriptors(key, false));
+		cache.setDescriptors(key, new NavigatorContentDescriptor[0], false);
+		cache.getDescriptors(key, false);
+		cache.getDescriptors(key, false);
+		Assert.assertNull(cache.getDescriptors(key, true));
+		Assert.assertEquals(2, cache.getHitCount());
+		Assert.assertEquals(2, cache.getMissCount());
+		Assert.assertEquals(0, cache.getEvictionCount());
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Fair Isaac Corporation.
+ * Copyright (c) 2009, 2021 Fair Isaac Corporation.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.navigator.ICommonContentExtensionSite;
 import org.eclipse.ui.navigator.PipelinedShapeModification;
@@ -46,13 +47,17 @@ public class TestPipelineProvider extends ResourceWrapperContentProvider {
 	CHILDREN = new HashMap(),
 	ADDS = new HashMap(),
 	REMOVES = new HashMap(),
-	UPDATES = new HashMap();
+	UPDATES = new HashMap(),
+	BACKGROUND_CHILDREN = new HashMap();
 
 	private String _id;
 
 	@Override
 	public void getPipelinedChildren(Object aParent, Set theCurrentChildren) {
 		_track(CHILDREN, aParent, _id);
+		if (Display.getCurrent() == null) {
+			_track(BACKGROUND_CHILDREN, aParent, _id);
+		}
 	}
 
 	@Override
@@ -218,6 +223,8 @@ public class TestPipelineProvider extends ResourceWrapperContentProvider {
 			return "REMOVES";
 		if (map == UPDATES)
 			return "UPDATES";
+		if (map == BACKGROUND_CHILDREN)
+			return "BACKGROUND_CHILDREN";
 		return "??? unknown";
 	}
 
@@ -230,6 +237,7 @@ public class TestPipelineProvider extends ResourceWrapperContentProvider {
 		ADDS.clear();
 		REMOVES.clear();
 		UPDATES.clear();
+		BACKGROUND_CHILDREN.clear();
 
 	}
 
@@ -15,10 +15,12 @@
 
 package org.eclipse.jface.tests.performance;
 
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
 import org.eclipse.jface.util.Policy;
+import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.ui.tests.performance.BasicPerformanceTest;
 
 /**
@@ -53,6 +55,41 @@ public class CollatorPerformanceTest extends BasicPerformanceTest {
 		assertPerformance();
 	}
 
+	/**
+	 * test ViewerComparator by sorting the array, comparing labels on every
+	 * comparison
+	 */
+	public void testViewerComparator() {
+		ViewerComparator viewerComparator = new ViewerComparator(Collator.getInstance());
+		for (int i = 0; i < 15; i++) {
+			String[] array = fArray.clone();
+			startMeasuring();
+			viewerComparator.sort(null, array);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * test ViewerComparator by sorting the array by precomputed collation keys
+	 */
+	public void testViewerComparatorPrecomputedKeys() {
+		ViewerComparator viewerComparator = new ViewerComparator(Collator.getInstance());
+		viewerComparator.setPrecomputeSortKeys(true);
+		String[] expected = fArray.clone();
+		Arrays.sort(expected, Collator.getInstance());
+		for (int i = 0; i < 15; i++) {
+			String[] array = fArray.clone();
+			startMeasuring();
+			viewerComparator.sort(null, array);
+			stopMeasuring();
+			assertTrue(Arrays.equals(expected, array));
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
 	/**
 	 * Generate a large sized array for sorting
 	 */
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * IncrementalTreeRefreshTest is a test to see how long it takes to refresh a
+ * wide tree in which only a few children were added and removed, with and
+ * without incremental refresh.
+ */
+public class IncrementalTreeRefreshTest extends TreeTest {
+
+	private static final int CHILD_COUNT = 10000;
+
+	public IncrementalTreeRefreshTest(String testName) {
+		super(testName);
+	}
+
+	public IncrementalTreeRefreshTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public void testTreeViewerRefresh() throws CoreException {
+		tagIfNecessary("JFace - Refresh 10000 items with few changes", Dimension.ELAPSED_PROCESS);
+
+		openBrowser();
+		testRefresh(false);
+	}
+
+	public void testTreeViewerIncrementalRefresh() throws CoreException {
+		openBrowser();
+		testRefresh(true);
+	}
+
+	/**
+	 * Run the test, replacing every 100th child by a new one before each
+	 * measured refresh.
+	 *
+	 * @param incremental
+	 *            <code>true</code> to refresh the tree structure incrementally,
+	 *            <code>false</code> to refresh it the default way
+	 * @throws CoreException
+	 */
+	private void testRefresh(final boolean incremental) throws CoreException {
+		viewer.setIncrementalRefresh(incremental);
+
+		exercise(() -> {
+
+			TestTreeElement input = new TestTreeElement(0, null);
+			viewer.setInput(input);
+			input.createChildren(CHILD_COUNT);
+			for (int i = 0; i < CHILD_COUNT; i += 50) {
+				input.children[i].createChildren(10);
+			}
+
+			processEvents();
+			viewer.refresh();
+			viewer.expandToLevel(2);
+			processEvents();
+
+			TestTreeElement[] children = input.children.clone();
+			for (int i = 0; i < children.length; i += 100) {
+				children[i] = new TestTreeElement(CHILD_COUNT + i, input);
+			}
+			input.children = children;
+
+			startMeasuring();
+			viewer.refresh();
+			processEvents();
+			stopMeasuring();
+
+			assertEquals(CHILD_COUNT, viewer.getTree().getItemCount());
+
+		}, MIN_ITERATIONS, ITERATIONS, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.core.commands.CommandManager;
+import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.core.commands.contexts.ContextManager;
+import org.eclipse.e4.ui.bindings.internal.BindingTable;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.keys.IKeyLookup;
+import org.eclipse.jface.bindings.keys.KeyBinding;
+import org.eclipse.jface.bindings.keys.KeyLookupFactory;
+import org.eclipse.jface.bindings.keys.KeySequence;
+import org.eclipse.jface.bindings.keys.KeyStroke;
+
+/**
+ * <p>
+ * Responsible for testing the e4 binding tables, which are filled and emptied
+ * whenever a context is activated or deactivated. Like
+ * {@link CommandsPerformanceTest}, this test does not rely on the existence of
+ * the workbench.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public final class BindingTablePerformanceTest extends BasicPerformanceTest {
+
+	private static final String CONTEXT_ID = "org.eclipse.ui.tests.performance.bindingTableContext";
+
+	/**
+	 * The number of bindings in the table. Most of them are two stroke
+	 * sequences, which share their first stroke with many other bindings.
+	 */
+	private static final int BINDING_COUNT = 5000;
+
+	/**
+	 * The number of schemes of the bindings. Bindings of different schemes
+	 * share their sequences.
+	 */
+	private static final int SCHEME_COUNT = 4;
+
+	private Context context;
+
+	private Binding[] bindings;
+
+	private KeySequence[] prefixes;
+
+	public BindingTablePerformanceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+
+		final IKeyLookup lookup = KeyLookupFactory.getDefault();
+		final int[] modifierKeyTable = { lookup.getCtrl(), lookup.getAlt(),
+				lookup.getCtrl() | lookup.getShift(),
+				lookup.getAlt() | lookup.getShift() };
+
+		final ContextManager contextManager = new ContextManager();
+		context = contextManager.getContext(CONTEXT_ID);
+		context.define(CONTEXT_ID, CONTEXT_ID, null);
+		final CommandManager commandManager = new CommandManager();
+
+		prefixes = new KeySequence[26 * modifierKeyTable.length];
+		for (int i = 0; i < prefixes.length; i++) {
+			prefixes[i] = KeySequence.getInstance(KeyStroke.getInstance(
+					modifierKeyTable[i / 26], 'A' + i % 26));
+		}
+
+		bindings = new Binding[BINDING_COUNT];
+		for (int i = 0; i < BINDING_COUNT; i++) {
+			final int sequenceIndex = i / SCHEME_COUNT;
+			final KeySequence prefix = prefixes[sequenceIndex % prefixes.length];
+			final KeySequence keySequence = KeySequence.getInstance(prefix,
+					KeyStroke.getInstance('A' + sequenceIndex / prefixes.length % 26));
+			final ParameterizedCommand command = new ParameterizedCommand(
+					commandManager.getCommand("command" + i), null);
+			bindings[i] = new KeyBinding(keySequence, command, "scheme" + i % SCHEME_COUNT,
+					CONTEXT_ID, null, null, null, Binding.SYSTEM);
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		context = null;
+		bindings = null;
+		prefixes = null;
+		super.doTearDown();
+	}
+
+	/**
+	 * Tests how long it takes to fill a binding table and to empty it again,
+	 * as happens when the context of the table is activated and deactivated.
+	 */
+	public void testAddAndRemoveBindings() {
+		final int iterations = 20;
+
+		startMeasuring();
+		for (int i = 0; i < iterations; i++) {
+			final BindingTable table = new BindingTable(context);
+			for (Binding binding : bindings) {
+				table.addBinding(binding);
+			}
+			for (Binding binding : bindings) {
+				table.removeBinding(binding);
+			}
+			assertTrue(table.getBindings().isEmpty());
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Tests how long it takes to look up partial and perfect matches, as done
+	 * by the key binding dispatcher on every key stroke.
+	 */
+	public void testPartialMatchLookup() {
+		final int lookups = 1000000;
+		final BindingTable table = new BindingTable(context);
+		for (Binding binding : bindings) {
+			table.addBinding(binding);
+		}
+
+		startMeasuring();
+		for (int i = 0; i < lookups; i++) {
+			final KeySequence prefix = prefixes[i % prefixes.length];
+			assertTrue(table.isPartialMatch(prefix));
+			table.getPartialMatches(prefix);
+			table.getPerfectMatch(prefix);
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+}
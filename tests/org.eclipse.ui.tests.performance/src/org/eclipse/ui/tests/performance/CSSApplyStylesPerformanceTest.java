@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * <p>
+ * Responsible for testing how long the CSS engine takes to style a large
+ * widget tree with a style sheet of several hundred rules, as happens when a
+ * theme is applied to the workbench window.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public final class CSSApplyStylesPerformanceTest extends BasicPerformanceTest {
+
+	private static final int COMPOSITE_COUNT = 100;
+
+	private static final int LABEL_COUNT = 100;
+
+	/**
+	 * The number of classes used in the style sheet. Each class has an id, a
+	 * class, a child and a pseudo class rule.
+	 */
+	private static final int CLASS_COUNT = 200;
+
+	private CSSEngine engine;
+
+	private Shell shell;
+
+	public CSSApplyStylesPerformanceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+
+		final StringBuilder styleSheet = new StringBuilder();
+		styleSheet.append("Label { background-color: #FF0000 }\n");
+		for (int i = 0; i < CLASS_COUNT; i++) {
+			styleSheet.append(".label" + i + " { background-color: #00FF00 }\n");
+			styleSheet.append("#label-" + i + "-0 { background-color: #0000FF }\n");
+			styleSheet.append("Composite.panel" + i + " > Label { color: #00FF00 }\n");
+			styleSheet.append("Button.button" + i + ":hover { color: #0000FF }\n");
+		}
+
+		final Display display = Display.getDefault();
+		engine = new CSSSWTEngineImpl(display);
+		engine.setErrorHandler(e -> fail(e.getMessage()));
+		try {
+			engine.parseStyleSheet(new StringReader(styleSheet.toString()));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		shell = new Shell(display, SWT.SHELL_TRIM);
+		shell.setLayout(new FillLayout());
+		for (int i = 0; i < COMPOSITE_COUNT; i++) {
+			final Composite panel = new Composite(shell, SWT.NONE);
+			WidgetElement.setCSSClass(panel, "panel" + i);
+			for (int j = 0; j < LABEL_COUNT; j++) {
+				final Label label = new Label(panel, SWT.NONE);
+				WidgetElement.setCSSClass(label, "label" + j);
+				WidgetElement.setID(label, "label-" + i + "-" + j);
+			}
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		if (shell != null) {
+			shell.dispose();
+			shell = null;
+		}
+		if (engine != null) {
+			engine.dispose();
+			engine = null;
+		}
+		super.doTearDown();
+	}
+
+	/**
+	 * Tests how long it takes to style the whole widget tree.
+	 */
+	public void testApplyStyles() {
+		final int iterations = 5;
+
+		startMeasuring();
+		for (int i = 0; i < iterations; i++) {
+			engine.applyStyles(shell, true);
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+}
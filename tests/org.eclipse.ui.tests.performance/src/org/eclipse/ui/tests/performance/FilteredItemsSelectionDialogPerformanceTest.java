@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.util.Comparator;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
+
+/**
+ * Measures how long it takes to filter a large number of items in a
+ * {@link FilteredItemsSelectionDialog}, like Open Resource does in a large
+ * workspace. The dialog is created but not opened, and its content provider
+ * is filled with 2000000 synthetic items.
+ */
+public class FilteredItemsSelectionDialogPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ITEM_COUNT = 2000000;
+
+	private static final String ITEM_PREFIX = "item";
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param testName
+	 */
+	public FilteredItemsSelectionDialogPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	/**
+	 * Test a search through all items.
+	 */
+	public void testSearch() {
+		tagIfNecessary("UI - Filtered items dialog search of 2000000 items", Dimension.ELAPSED_PROCESS);
+
+		for (int i = 0; i < 5; i++) {
+			SyntheticItemsDialog dialog = createDialog();
+			try {
+				startMeasuring();
+				filter(dialog, ITEM_PREFIX + "1");
+				stopMeasuring();
+			} finally {
+				dialog.close();
+			}
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Test the narrowing of the result of a search when the pattern is
+	 * extended.
+	 */
+	public void testNarrowing() {
+		tagIfNecessary("UI - Filtered items dialog narrowing of 2000000 items", Dimension.ELAPSED_PROCESS);
+
+		SyntheticItemsDialog dialog = createDialog();
+		try {
+			for (int i = 0; i < 5; i++) {
+				filter(dialog, ITEM_PREFIX);
+				startMeasuring();
+				filter(dialog, ITEM_PREFIX + "1");
+				filter(dialog, ITEM_PREFIX + "12");
+				filter(dialog, ITEM_PREFIX + "123");
+				stopMeasuring();
+			}
+		} finally {
+			dialog.close();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private SyntheticItemsDialog createDialog() {
+		SyntheticItemsDialog dialog = new SyntheticItemsDialog(fWorkbench.getActiveWorkbenchWindow().getShell());
+		dialog.setBlockOnOpen(false);
+		dialog.create();
+		return dialog;
+	}
+
+	/**
+	 * Sets the pattern and waits until all matching items are shown.
+	 */
+	private void filter(SyntheticItemsDialog dialog, String pattern) {
+		int expectedCount = countMatches(pattern);
+		((Text) dialog.getPatternControl()).setText(pattern);
+		Table table = dialog.getTable();
+		while (table.getItemCount() != expectedCount) {
+			processEvents();
+		}
+	}
+
+	private static int countMatches(String pattern) {
+		int count = 0;
+		for (int i = 0; i < ITEM_COUNT; i++) {
+			if ((ITEM_PREFIX + i).startsWith(pattern)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static class SyntheticItemsDialog extends FilteredItemsSelectionDialog {
+
+		private Table table;
+
+		SyntheticItemsDialog(Shell shell) {
+			super(shell);
+		}
+
+		Table getTable() {
+			return table;
+		}
+
+		@Override
+		protected Control createDialogArea(Composite parent) {
+			Control area = super.createDialogArea(parent);
+			table = findTable((Composite) area);
+			return area;
+		}
+
+		private static Table findTable(Composite composite) {
+			for (Control child : composite.getChildren()) {
+				if (child instanceof Table) {
+					return (Table) child;
+				}
+				if (child instanceof Composite) {
+					Table table = findTable((Composite) child);
+					if (table != null) {
+						return table;
+					}
+				}
+			}
+			return null;
+		}
+
+		@Override
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		@Override
+		protected IDialogSettings getDialogSettings() {
+			return new DialogSettings(getClass().getSimpleName());
+		}
+
+		@Override
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			return new ItemsFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					return matches(item.toString());
+				}
+
+				@Override
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		protected boolean isMatchItemThreadSafe() {
+			// the filter only reads its search pattern
+			return true;
+		}
+
+		@Override
+		protected Comparator<String> getItemsComparator() {
+			return Comparator.naturalOrder();
+		}
+
+		@Override
+		protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+				IProgressMonitor progressMonitor) {
+			progressMonitor.beginTask("", ITEM_COUNT / 10000);
+			for (int i = 0; i < ITEM_COUNT; i++) {
+				contentProvider.add(ITEM_PREFIX + i, itemsFilter);
+				if (i % 10000 == 0) {
+					if (progressMonitor.isCanceled()) {
+						break;
+					}
+					progressMonitor.worked(1);
+				}
+			}
+			progressMonitor.done();
+		}
+
+		@Override
+		public String getElementName(Object item) {
+			return item.toString();
+		}
+	}
+}
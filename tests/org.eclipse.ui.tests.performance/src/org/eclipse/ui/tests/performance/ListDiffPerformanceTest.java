@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffStrategy;
+
+/**
+ * <p>
+ * Responsible for testing how long the {@link ListDiffStrategy}s take to
+ * compute the difference between two states of a large list, as happens when
+ * the contents of an observable list bound to a table are filtered or
+ * refreshed. Like {@link CommandsPerformanceTest}, this test does not rely on
+ * the existence of the workbench.
+ * </p>
+ */
+public final class ListDiffPerformanceTest extends BasicPerformanceTest {
+
+	private static final int SIZE = 5000;
+
+	private static final int ITERATIONS = 5;
+
+	public ListDiffPerformanceTest(final String name) {
+		super(name);
+	}
+
+	private static List<Integer> createList(final int size) {
+		final List<Integer> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(Integer.valueOf(i));
+		}
+		return list;
+	}
+
+	private static List<Integer> createFilteredList(final List<Integer> list) {
+		final List<Integer> filtered = new ArrayList<>();
+		for (Integer element : list) {
+			if (element.intValue() % 3 != 0) {
+				filtered.add(element);
+			}
+		}
+		return filtered;
+	}
+
+	private static List<Integer> createScatteredChanges(final List<Integer> list) {
+		final Random random = new Random(0);
+		final List<Integer> changed = new ArrayList<>(list);
+		for (int i = 0; i < list.size() / 10; i++) {
+			changed.remove(random.nextInt(changed.size()));
+			changed.add(random.nextInt(changed.size()), Integer.valueOf(list.size() + i));
+		}
+		return changed;
+	}
+
+	private static List<Integer> createShuffledList(final List<Integer> list) {
+		final List<Integer> shuffled = new ArrayList<>(list);
+		Collections.shuffle(shuffled, new Random(0));
+		return shuffled;
+	}
+
+	private void measure(final List<Integer> oldList, final List<Integer> newList, final ListDiffStrategy strategy) {
+		ListDiff<Integer> diff = null;
+		startMeasuring();
+		for (int i = 0; i < ITERATIONS; i++) {
+			diff = Diffs.computeListDiff(oldList, newList, strategy);
+		}
+		stopMeasuring();
+		commitMeasurements();
+
+		final List<Integer> list = new ArrayList<>(oldList);
+		diff.applyTo(list);
+		assertEquals(newList, list);
+		assertPerformance();
+	}
+
+	public void testFilterDetectMoves() {
+		final List<Integer> list = createList(SIZE);
+		measure(list, createFilteredList(list), ListDiffStrategy.DETECT_MOVES);
+	}
+
+	public void testFilterMinimalEdits() {
+		final List<Integer> list = createList(SIZE);
+		measure(list, createFilteredList(list), ListDiffStrategy.MINIMAL_EDITS);
+	}
+
+	public void testScatteredChangesDetectMoves() {
+		final List<Integer> list = createList(SIZE);
+		measure(list, createScatteredChanges(list), ListDiffStrategy.DETECT_MOVES);
+	}
+
+	public void testScatteredChangesMinimalEdits() {
+		final List<Integer> list = createList(SIZE);
+		measure(list, createScatteredChanges(list), ListDiffStrategy.MINIMAL_EDITS);
+	}
+
+	public void testShuffleDetectMoves() {
+		final List<Integer> list = createList(SIZE);
+		measure(list, createShuffledList(list), ListDiffStrategy.DETECT_MOVES);
+	}
+
+	public void testShuffleMinimalEdits() {
+		final List<Integer> list = createList(SIZE);
+		measure(list, createShuffledList(list), ListDiffStrategy.MINIMAL_EDITS);
+	}
+}
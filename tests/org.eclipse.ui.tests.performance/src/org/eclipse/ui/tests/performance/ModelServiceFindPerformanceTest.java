@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.ModelServiceImpl;
+import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MAdvancedFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * <p>
+ * Measures how long it takes to find parts in a large application model, as
+ * done by the part service and the compatibility layer whenever a part is
+ * activated or a view is looked up. The model has 5000 parts across 50
+ * perspectives.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public final class ModelServiceFindPerformanceTest extends BasicPerformanceTest {
+
+	private static final int PERSPECTIVE_COUNT = 50;
+
+	private static final int STACK_COUNT = 5;
+
+	private static final int PART_COUNT = 20;
+
+	private static final int LOOKUPS = 2000;
+
+	private IEclipseContext context;
+
+	private EModelService modelService;
+
+	private MApplication application;
+
+	private MTrimmedWindow window;
+
+	public ModelServiceFindPerformanceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+
+		application = MApplicationFactory.INSTANCE.createApplication();
+		window = MBasicFactory.INSTANCE.createTrimmedWindow();
+		application.getChildren().add(window);
+		final MPerspectiveStack perspectiveStack = MAdvancedFactory.INSTANCE.createPerspectiveStack();
+		window.getChildren().add(perspectiveStack);
+		for (int i = 0; i < PERSPECTIVE_COUNT; i++) {
+			final MPerspective perspective = MAdvancedFactory.INSTANCE.createPerspective();
+			perspective.setElementId("perspective" + i);
+			perspectiveStack.getChildren().add(perspective);
+			for (int j = 0; j < STACK_COUNT; j++) {
+				final MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+				perspective.getChildren().add(stack);
+				for (int k = 0; k < PART_COUNT; k++) {
+					final MPart part = MBasicFactory.INSTANCE.createPart();
+					part.setElementId("part" + i + '.' + j + '.' + k);
+					part.getTags().add("View");
+					stack.getChildren().add(part);
+				}
+			}
+		}
+
+		context = PlatformUI.getWorkbench().getService(IEclipseContext.class).createChild();
+		final UIEventPublisher publisher = new UIEventPublisher(context);
+		((Notifier) application).eAdapters().add(publisher);
+		context.set(UIEventPublisher.class, publisher);
+		modelService = ContextInjectionFactory.make(ModelServiceImpl.class, context);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		context.dispose();
+		context = null;
+		modelService = null;
+		application = null;
+		window = null;
+		super.doTearDown();
+	}
+
+	private static String getPartId(int i) {
+		return "part" + i % PERSPECTIVE_COUNT + '.' + i % STACK_COUNT + '.' + i % PART_COUNT;
+	}
+
+	/**
+	 * Tests how long it takes to find parts by id, which uses the index of the
+	 * application.
+	 */
+	public void testFindPartById() {
+		startMeasuring();
+		for (int i = 0; i < LOOKUPS; i++) {
+			assertEquals(1, modelService
+					.findElements(window, getPartId(i), MPart.class, null, EModelService.ANYWHERE).size());
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Tests how long it takes to find parts by id when the whole model is
+	 * searched, for comparison.
+	 */
+	public void testFindPartByIdWithoutIndex() {
+		startMeasuring();
+		for (int i = 0; i < LOOKUPS; i++) {
+			assertEquals(1, modelService.findElements(window, MPart.class, EModelService.ANYWHERE,
+					new ElementMatcher(getPartId(i), MPart.class, (String) null)).size());
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+}
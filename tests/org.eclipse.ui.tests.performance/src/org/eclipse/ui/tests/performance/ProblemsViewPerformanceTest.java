@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,12 +20,17 @@ import java.util.Map;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.test.performance.Dimension;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.tests.performance.parts.PerformanceProblemsView;
 import org.eclipse.ui.texteditor.MarkerUtilities;
 
@@ -41,6 +46,23 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	private String PROBLEMS_VIEW_ID = "org.eclipse.ui.tests.performance.problemsView";
 
+	private static final String EXISTING_MARKER_MESSAGE = "this is an existing problem ";
+
+	private static final String CHANGED_MARKER_MESSAGE = "this is a changed problem ";
+
+	private static final String SORTED_MARKER_MESSAGE = "this is a sorted problem ";
+
+	/**
+	 * The number of markers in the large population and sort tests.
+	 */
+	private static final int LARGE_MARKER_COUNT = 500000;
+
+	/**
+	 * The number of markers added and removed by each change in the incremental
+	 * update tests.
+	 */
+	private static final int CHANGED_MARKER_COUNT = 10;
+
 	/**
 	 * Create a new instance of the receiver.
 	 *
@@ -86,6 +108,209 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Test how long it takes to show a few new and removed markers when there
+	 * are 10000 other markers.
+	 */
+	public void testIncrementalUpdate10000() {
+		measureIncrementalUpdate(10000);
+	}
+
+	/**
+	 * Test how long it takes to show a few new and removed markers when there
+	 * are 100000 other markers, which should not take much longer than with
+	 * 10000 markers.
+	 */
+	public void testIncrementalUpdate100000() {
+		measureIncrementalUpdate(100000);
+	}
+
+	/**
+	 * Test the memory used to show 500000 markers with a few distinct
+	 * descriptions.
+	 */
+	public void testPopulation500000() {
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		PerformanceProblemsView view;
+
+		try {
+			view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		}
+
+		tagIfNecessary("UI - Problems View population of 500000 markers", Dimension.USED_JAVA_HEAP);
+
+		Tree tree = view.getTreeWidget();
+		try {
+			for (int i = 0; i < 3; i++) {
+				startMeasuring();
+				createVariedMarkers(SORTED_MARKER_MESSAGE, LARGE_MARKER_COUNT);
+				while (tree.getItemCount() == 0)
+					processEvents();
+				stopMeasuring();
+				removeMarkers(SORTED_MARKER_MESSAGE);
+				while (tree.getItemCount() > 0)
+					processEvents();
+			}
+		} finally {
+			removeMarkers(SORTED_MARKER_MESSAGE);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Test how long it takes to sort 500000 markers by description when the
+	 * column header is clicked.
+	 */
+	public void testSort500000() {
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		PerformanceProblemsView view;
+
+		try {
+			view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		}
+
+		tagIfNecessary("UI - Problems View sort of 500000 markers", Dimension.ELAPSED_PROCESS);
+
+		try {
+			createVariedMarkers(SORTED_MARKER_MESSAGE, LARGE_MARKER_COUNT);
+			Tree tree = view.getTreeWidget();
+			while (tree.getItemCount() == 0)
+				processEvents();
+
+			// The description column, each click reverses the order
+			TreeColumn column = tree.getColumn(0);
+			for (int i = 0; i < 10; i++) {
+				processEvents();
+				startMeasuring();
+				column.notifyListeners(SWT.Selection, new Event());
+				processEvents();
+				stopMeasuring();
+			}
+		} finally {
+			removeMarkers(SORTED_MARKER_MESSAGE);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void measureIncrementalUpdate(int existingMarkerCount) {
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		PerformanceProblemsView view;
+
+		try {
+			view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		}
+
+		tagIfNecessary("UI - Problems View incremental update", Dimension.ELAPSED_PROCESS);
+
+		try {
+			createMarkers(EXISTING_MARKER_MESSAGE, existingMarkerCount);
+			Tree tree = view.getTreeWidget();
+			while (tree.getItemCount() == 0)
+				processEvents();
+			// The category label shows the number of markers
+			String label = tree.getItem(0).getText();
+
+			for (int i = 0; i < 20; i++) {
+				startMeasuring();
+				createMarkers(CHANGED_MARKER_MESSAGE, CHANGED_MARKER_COUNT);
+				while (label.equals(tree.getItem(0).getText()))
+					processEvents();
+				removeMarkers(CHANGED_MARKER_MESSAGE);
+				while (!label.equals(tree.getItem(0).getText()))
+					processEvents();
+				stopMeasuring();
+			}
+		} finally {
+			removeMarkers(CHANGED_MARKER_MESSAGE);
+			removeMarkers(EXISTING_MARKER_MESSAGE);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Create the given number of error markers at once.
+	 */
+	private void createMarkers(String messagePrefix, int count) {
+		try {
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			IWorkspaceRunnable runnable = monitor -> {
+				Map<String, Object> attribs = new HashMap<>();
+				for (int i = 0; i < count; i++) {
+					attribs.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_ERROR));
+					attribs.put(IMarker.MESSAGE, messagePrefix + i);
+					MarkerUtilities.createMarker(root, attribs, IMarker.PROBLEM);
+				}
+			};
+			ResourcesPlugin.getWorkspace().run(runnable, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Create the given number of markers of all severities and priorities at
+	 * once, with one of a thousand descriptions.
+	 */
+	private void createVariedMarkers(String messagePrefix, int count) {
+		try {
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			IWorkspaceRunnable runnable = monitor -> {
+				Map<String, Object> attribs = new HashMap<>();
+				for (int i = 0; i < count; i++) {
+					attribs.put(IMarker.SEVERITY, Integer.valueOf(i % 3));
+					attribs.put(IMarker.PRIORITY, Integer.valueOf(i % 3));
+					attribs.put(IMarker.LINE_NUMBER, Integer.valueOf(i % 5000));
+					attribs.put(IMarker.MESSAGE, messagePrefix + (i * 7 % 1000));
+					MarkerUtilities.createMarker(root, attribs, IMarker.PROBLEM);
+				}
+			};
+			ResourcesPlugin.getWorkspace().run(runnable, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Remove the markers with the given message prefix at once.
+	 */
+	private void removeMarkers(String messagePrefix) {
+		try {
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			IWorkspaceRunnable runnable = monitor -> {
+				for (IMarker marker : root.findMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO)) {
+					String message = (String) marker.getAttribute(IMarker.MESSAGE);
+					if (message != null && message.startsWith(messagePrefix)) {
+						marker.delete();
+					}
+				}
+			};
+			ResourcesPlugin.getWorkspace().run(runnable, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Remove the created markers
 	 */
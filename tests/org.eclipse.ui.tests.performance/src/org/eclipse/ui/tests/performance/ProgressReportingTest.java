@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Stefan Xenos and others.
+ * Copyright (c) 2016, 2021 Stefan Xenos and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.ui.tests.performance;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
@@ -62,6 +63,12 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 	 * results during profiling.
 	 */
 	public static final int MAX_ITERATIONS = 100;
+
+	/**
+	 * Number of jobs reporting progress at the same time in the concurrent
+	 * tests. Each of them runs its share of {@link #ITERATIONS}.
+	 */
+	public static final int CONCURRENT_JOBS = 200;
 	private volatile boolean isDone;
 	private Display display;
 
@@ -229,6 +236,37 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 		});
 	}
 
+	/**
+	 * Test the cost of monitor.worked and monitor.subTask in many jobs running
+	 * at the same time, which all report their progress to the progress
+	 * manager.
+	 */
+	public void testConcurrentJobsWorked() throws Exception {
+		openTestWindow();
+		setRunInBackground(true);
+		runAsyncTest(() -> {
+			AtomicInteger runningJobs = new AtomicInteger(CONCURRENT_JOBS);
+			for (int job = 0; job < CONCURRENT_JOBS; job++) {
+				Job.create("Test Job " + job, monitor -> {
+					int iterations = ITERATIONS / CONCURRENT_JOBS;
+					monitor.beginTask("Test Job", iterations);
+					int i = 0;
+					while (i < iterations) {
+						monitor.worked(1);
+						if (i % 1000 == 0) {
+							monitor.subTask(Integer.toString(i));
+						}
+						i++;
+					}
+
+					if (runningJobs.decrementAndGet() == 0) {
+						endAsyncTest();
+					}
+				}).schedule();
+			}
+		});
+	}
+
 	/**
 	 * Test the cost of subMonitor.split(). Note that if
 	 * {@link SubMonitor#split} is performing cancellation checks at the correct
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -43,8 +43,14 @@ public class UIPerformanceTestSuite extends FilteredTestSuite {
 		addTest(new JUnit4TestAdapter(OpenMultipleEditorTest.class));
 		addTest(new JUnit4TestAdapter(EditorSwitchTest.class));
 		addTestSuite(CommandsPerformanceTest.class);
+		addTestSuite(BindingTablePerformanceTest.class);
+		addTestSuite(WorkbenchModelPersistenceTest.class);
+		addTestSuite(ModelServiceFindPerformanceTest.class);
+		addTestSuite(FilteredItemsSelectionDialogPerformanceTest.class);
 		addTest(new JUnit4TestAdapter(LabelProviderTest.class));
 		addTestSuite(ProgressReportingTest.class);
 		addTestSuite(OpenProjectExplorerFolderTest.class);
+		addTestSuite(CSSApplyStylesPerformanceTest.class);
+		addTestSuite(ListDiffPerformanceTest.class);
 	}
 }
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.e4.ui.internal.workbench.E4BinarySerializer;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MAdvancedFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+
+/**
+ * <p>
+ * Compares how long it takes to load the persisted workbench model from XMI
+ * and from the binary format, as done at startup. Like
+ * {@link BindingTablePerformanceTest}, this test does not rely on the
+ * existence of the workbench.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public final class WorkbenchModelPersistenceTest extends BasicPerformanceTest {
+
+	private static final int PERSPECTIVE_COUNT = 20;
+
+	private static final int STACK_COUNT = 5;
+
+	private static final int PART_COUNT = 20;
+
+	private static final int ITERATIONS = 10;
+
+	private File xmiFile;
+
+	private File binaryFile;
+
+	public WorkbenchModelPersistenceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+
+		final MApplication application = MApplicationFactory.INSTANCE.createApplication();
+		final MTrimmedWindow window = MBasicFactory.INSTANCE.createTrimmedWindow();
+		application.getChildren().add(window);
+		final MPerspectiveStack perspectiveStack = MAdvancedFactory.INSTANCE.createPerspectiveStack();
+		window.getChildren().add(perspectiveStack);
+		for (int i = 0; i < PERSPECTIVE_COUNT; i++) {
+			final MPerspective perspective = MAdvancedFactory.INSTANCE.createPerspective();
+			perspective.setElementId("perspective" + i);
+			perspectiveStack.getChildren().add(perspective);
+			for (int j = 0; j < STACK_COUNT; j++) {
+				final MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+				stack.setElementId("stack" + i + '.' + j);
+				perspective.getChildren().add(stack);
+				for (int k = 0; k < PART_COUNT; k++) {
+					final MPart part = MBasicFactory.INSTANCE.createPart();
+					part.setElementId("part" + k);
+					part.setLabel("Part " + k);
+					part.setContributionURI("bundleclass://org.eclipse.ui.tests.performance/Part" + k);
+					part.getTags().add("View");
+					part.getPersistedState().put("memento", "<memento id=\"part" + k + "\"/>");
+					stack.getChildren().add(part);
+				}
+				stack.setSelectedElement(stack.getChildren().get(0));
+			}
+		}
+
+		xmiFile = File.createTempFile("workbench", ".xmi");
+		binaryFile = File.createTempFile("workbench", ".e4bin");
+		final E4XMIResource resource = createResource(xmiFile);
+		resource.getContents().add((EObject) application);
+		final Map<String, Object> options = new HashMap<>();
+		options.put(E4XMIResource.OPTION_FILTER_PERSIST_STATE, Boolean.TRUE);
+		resource.save(options);
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(binaryFile))) {
+			E4BinarySerializer.save(resource, out);
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		xmiFile.delete();
+		binaryFile.delete();
+		super.doTearDown();
+	}
+
+	private static E4XMIResource createResource(File file) {
+		return (E4XMIResource) new E4XMIResourceFactory().createResource(URI.createFileURI(file.getAbsolutePath()));
+	}
+
+	/**
+	 * Tests how long it takes to load the workbench model from XMI.
+	 */
+	public void testLoadXMI() throws IOException {
+		startMeasuring();
+		for (int i = 0; i < ITERATIONS; i++) {
+			final Resource resource = createResource(xmiFile);
+			resource.load(null);
+			assertFalse(resource.getContents().isEmpty());
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Tests how long it takes to load the workbench model from the binary
+	 * format.
+	 */
+	public void testLoadBinary() throws IOException {
+		startMeasuring();
+		for (int i = 0; i < ITERATIONS; i++) {
+			final E4XMIResource resource = createResource(xmiFile);
+			try (InputStream in = new BufferedInputStream(new FileInputStream(binaryFile))) {
+				E4BinarySerializer.load(resource, in);
+			}
+			assertFalse(resource.getContents().isEmpty());
+		}
+		stopMeasuring();
+		commitMeasurements();
+		assertPerformance();
+	}
+}
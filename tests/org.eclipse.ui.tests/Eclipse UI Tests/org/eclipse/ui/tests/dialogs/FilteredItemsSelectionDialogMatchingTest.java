@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.dialogs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests that a {@link FilteredItemsSelectionDialog} which matches items in
+ * parallel shows the same items as a dialog which matches them one after the
+ * other, and that only such a dialog shows the first items found while the
+ * search is running.
+ */
+@RunWith(JUnit4.class)
+public class FilteredItemsSelectionDialogMatchingTest extends UITestCase {
+
+	private static final int ITEM_COUNT = 12000;
+
+	/**
+	 * The number of items after which a slow search adds the items one by one.
+	 */
+	private static final int SLOW_INDEX = 6000;
+
+	/**
+	 * The number of items shown while the search is running.
+	 */
+	private static final int SEARCHING_ITEM_COUNT = 500;
+
+	private static final long TIMEOUT = 30000;
+
+	private List<String> items;
+
+	private TestItemsDialog dialog;
+
+	public FilteredItemsSelectionDialogMatchingTest() {
+		super(FilteredItemsSelectionDialogMatchingTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		items = new ArrayList<>();
+		for (int i = 0; i < ITEM_COUNT; i++) {
+			items.add(String.format("item%05d", i));
+		}
+		// the items are not added in sorted order
+		Collections.shuffle(items, new Random(1));
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		if (dialog != null) {
+			dialog.close();
+		}
+		super.doTearDown();
+	}
+
+	@Test
+	public void testParallelSearch() {
+		openDialog(true);
+		assertSearch("item1");
+		assertSearch("item");
+		assertSearch("item00");
+	}
+
+	@Test
+	public void testSequentialSearch() {
+		openDialog(false);
+		assertSearch("item1");
+		assertSearch("item");
+		assertSearch("item00");
+	}
+
+	@Test
+	public void testParallelNarrowing() {
+		openDialog(true);
+		assertSearch("item");
+		// the items found before are matched again
+		assertSearch("item1");
+		assertSearch("item12");
+		assertSearch("item123");
+	}
+
+	@Test
+	public void testSequentialNarrowing() {
+		openDialog(false);
+		assertSearch("item");
+		assertSearch("item1");
+		assertSearch("item12");
+		assertSearch("item123");
+	}
+
+	@Test
+	public void testFirstItemsShownWhileSearching() {
+		openDialog(true);
+		dialog.slowSearch = true;
+		setPattern("item");
+		assertTrue("Items not shown while searching",
+				DisplayHelper.waitForCondition(getDisplay(), TIMEOUT, () -> getTable().getItemCount() > 0));
+		List<String> shown = getShownItems();
+		dialog.slowSearch = false;
+
+		// the shown items are the first ones of the items added before
+		assertEquals(SEARCHING_ITEM_COUNT, shown.size());
+		int addedCount = 0;
+		for (String item : shown) {
+			addedCount = Math.max(addedCount, items.indexOf(item) + 1);
+		}
+		assertTrue("Not all items should have been found yet", addedCount < ITEM_COUNT);
+		List<String> added = new ArrayList<>(items.subList(0, addedCount));
+		Collections.sort(added);
+		assertEquals(added.subList(0, SEARCHING_ITEM_COUNT), shown);
+
+		waitForItems(getMatches("item"));
+	}
+
+	@Test
+	public void testNoItemsShownWhileSearchingSequentially() {
+		openDialog(false);
+		dialog.slowSearch = true;
+		List<String> expected = getMatches("item");
+		Set<Integer> shownCounts = new HashSet<>();
+		setPattern("item");
+		assertTrue("Items not shown", DisplayHelper.waitForCondition(getDisplay(), TIMEOUT, () -> {
+			int count = getTable().getItemCount();
+			shownCounts.add(Integer.valueOf(count));
+			return count == expected.size();
+		}));
+		shownCounts.remove(Integer.valueOf(0));
+		assertEquals(Collections.singleton(Integer.valueOf(expected.size())), shownCounts);
+		waitForItems(expected);
+	}
+
+	private void openDialog(boolean matchItemThreadSafe) {
+		dialog = new TestItemsDialog(fWorkbench.getActiveWorkbenchWindow().getShell(), items, matchItemThreadSafe);
+		dialog.setBlockOnOpen(false);
+		dialog.open();
+	}
+
+	private Display getDisplay() {
+		return dialog.getShell().getDisplay();
+	}
+
+	private Table getTable() {
+		return dialog.table;
+	}
+
+	private void setPattern(String pattern) {
+		((Text) dialog.getPatternControl()).setText(pattern);
+	}
+
+	/**
+	 * Searches the pattern and checks that all matching items are shown in
+	 * sorted order.
+	 */
+	private void assertSearch(String pattern) {
+		setPattern(pattern);
+		waitForItems(getMatches(pattern));
+	}
+
+	private void waitForItems(List<String> expected) {
+		DisplayHelper.waitForCondition(getDisplay(), TIMEOUT,
+				() -> getTable().getItemCount() == expected.size() && getShownItems().equals(expected));
+		assertEquals(expected, getShownItems());
+	}
+
+	private List<String> getMatches(String pattern) {
+		return items.stream().filter(item -> item.startsWith(pattern)).sorted().collect(Collectors.toList());
+	}
+
+	private List<String> getShownItems() {
+		Table table = getTable();
+		List<String> shown = new ArrayList<>();
+		for (int i = 0; i < table.getItemCount(); i++) {
+			shown.add(table.getItem(i).getText());
+		}
+		return shown;
+	}
+
+	private static class TestItemsDialog extends FilteredItemsSelectionDialog {
+
+		private final List<String> items;
+
+		private final boolean matchItemThreadSafe;
+
+		private Table table;
+
+		/**
+		 * Whether the search is slowed down until the test has seen the items
+		 * shown while searching.
+		 */
+		volatile boolean slowSearch;
+
+		TestItemsDialog(Shell shell, List<String> items, boolean matchItemThreadSafe) {
+			super(shell);
+			this.items = items;
+			this.matchItemThreadSafe = matchItemThreadSafe;
+		}
+
+		@Override
+		protected Control createDialogArea(Composite parent) {
+			Control area = super.createDialogArea(parent);
+			table = findTable((Composite) area);
+			return area;
+		}
+
+		private static Table findTable(Composite composite) {
+			for (Control child : composite.getChildren()) {
+				if (child instanceof Table) {
+					return (Table) child;
+				}
+				if (child instanceof Composite) {
+					Table childTable = findTable((Composite) child);
+					if (childTable != null) {
+						return childTable;
+					}
+				}
+			}
+			return null;
+		}
+
+		@Override
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		@Override
+		protected IDialogSettings getDialogSettings() {
+			return new DialogSettings(getClass().getSimpleName());
+		}
+
+		@Override
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			return new ItemsFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					return matches(item.toString());
+				}
+
+				@Override
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		protected boolean isMatchItemThreadSafe() {
+			return matchItemThreadSafe;
+		}
+
+		@Override
+		protected Comparator<String> getItemsComparator() {
+			return Comparator.naturalOrder();
+		}
+
+		/**
+		 * Adds the items. In a slow search, the items after the first ones are
+		 * added one by one with a short pause, so that the items found so far
+		 * can be shown before the search ends.
+		 */
+		@Override
+		protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+				IProgressMonitor progressMonitor) {
+			for (int i = 0; i < items.size(); i++) {
+				if (progressMonitor.isCanceled()) {
+					return;
+				}
+				if (slowSearch && i >= SLOW_INDEX) {
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				contentProvider.add(items.get(i), itemsFilter);
+			}
+		}
+
+		@Override
+		public String getElementName(Object item) {
+			return item.toString();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,14 @@
 
 package org.eclipse.ui.tests.filteredtree;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.tests.viewers.TestElement;
+import org.eclipse.jface.tests.viewers.TestModelChange;
 import org.eclipse.jface.tests.viewers.TestModelContentProvider;
 import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.swt.SWT;
@@ -133,6 +138,69 @@ public class FilteredTreeTests extends UITestCase {
 		dialog.close();
 	}
 
+	@Test
+	public void testBackgroundFiltering() {
+		Dialog dialog = createFilteredTreeDialog();
+		fTreeViewer.setBackgroundFiltering(true);
+
+		Assert.isNotNull(fTreeViewer, "Filtered tree is null");
+		assertNumberOfTopLevelItems(NUM_ITEMS);
+
+		applyFilterText("0-0-0-0 name", -1);
+		applyFilterText("0-0-0-0 name-", 1);
+		applyFilterText("0-0-0-0 name unknownWord", 0);
+		applyFilterText("0-0-0-0 name-", 1);
+		applyFilterText("", NUM_ITEMS);
+
+		dialog.close();
+	}
+
+	@Test
+	public void testBackgroundFilteringExtendsPattern() {
+		Dialog dialog = createFilteredTreeDialog();
+		fTreeViewer.setBackgroundFiltering(true);
+		List<String> labels = Collections.synchronizedList(new ArrayList<>());
+		fTreeViewer.getViewer().setLabelProvider(new LabelProvider() {
+			@Override
+			public String getText(Object element) {
+				String label = super.getText(element);
+				labels.add(label);
+				return label;
+			}
+		});
+
+		applyFilterText("0-1", 11);
+		labels.clear();
+		applyFilterText("0-12", 1);
+		// only the elements visible with the extended pattern are matched again
+		List<String> matched;
+		synchronized (labels) {
+			matched = new ArrayList<>(labels);
+		}
+		assertFalse(matched.isEmpty());
+		for (String label : matched) {
+			assertTrue("Element not visible with the extended pattern matched: " + label, label.startsWith("0-1"));
+		}
+
+		dialog.close();
+	}
+
+	@Test
+	public void testBackgroundFilteringAfterTreeChange() {
+		Dialog dialog = createFilteredTreeDialog();
+		fTreeViewer.setBackgroundFiltering(true);
+
+		applyFilterText("0-2", 1);
+		applyFilterText("0-1", 11);
+		// the caches of the previous patterns are cleared when the tree changes
+		fRootElement.addChild(TestModelChange.INSERT);
+		applyFilterText("0-2", 2);
+		applyFilterText("0-20", 1);
+		applyFilterText("0-1", 11);
+
+		dialog.close();
+	}
+
 	private void runFilteredTreeTest(final int treeStyle){
 		Dialog dialog = createFilteredTreeDialog(treeStyle);
 
@@ -199,6 +267,19 @@ public class FilteredTreeTests extends UITestCase {
 		fTreeViewer.getViewer().refresh();
 	}
 
+	/**
+	 * Sets the filter text and waits until the tree has been refreshed.
+	 *
+	 * @param expectedCount the expected number of top level items, or -1
+	 */
+	private void applyFilterText(String text, int expectedCount) {
+		fTreeViewer.getFilterControl().setText(text);
+		waitForJobs(500, 5000);
+		if (expectedCount >= 0) {
+			assertNumberOfTopLevelItems(expectedCount);
+		}
+	}
+
 	private void setInput() {
 		fTreeViewer.getViewer().setInput(fRootElement);
 	}
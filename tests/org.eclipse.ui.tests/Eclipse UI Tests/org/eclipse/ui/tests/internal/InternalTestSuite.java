@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import org.eclipse.ui.tests.markers.MarkerSupportRegistryTests;
 import org.eclipse.ui.tests.markers.MarkerTesterTest;
 import org.eclipse.ui.tests.markers.MarkerViewTests;
 import org.eclipse.ui.tests.markers.MarkerViewUtilTest;
+import org.eclipse.ui.tests.markers.MarkersViewIncrementalUpdateTest;
 import org.eclipse.ui.tests.markers.ResourceMappingMarkersTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -44,6 +45,7 @@ import org.junit.runners.Suite;
 	MarkerSortUtilTest.class,
 	MarkerViewTests.class,
 	MarkerViewUtilTest.class,
+	MarkersViewIncrementalUpdateTest.class,
 	MarkerHelpRegistryTest.class,
 	MarkerHelpRegistryReaderTest.class,
 	MarkerQueryTest.class,
@@ -61,5 +63,6 @@ import org.junit.runners.Suite;
 	SaveablesListTest.class,
 	Bug540297WorkbenchPageFindViewTest.class,
 	Bug549139Test.class,
+	LogIndexTest.class,
 })
 public class InternalTestSuite {}
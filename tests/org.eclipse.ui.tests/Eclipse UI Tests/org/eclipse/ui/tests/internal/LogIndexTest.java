@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.ui.internal.views.log.LogIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the incremental index of the sessions and entries of a log file used
+ * by the Error Log view.
+ */
+public class LogIndexTest {
+
+	private static final String SESSION_1 = "!SESSION 2021-01-01 10:00:00.000 -----\n";
+
+	private static final String SESSION_2 = "!SESSION 2021-01-02 10:00:00.000 -----\n";
+
+	private Path logFile;
+
+	private LogIndex index;
+
+	@Before
+	public void setUp() throws IOException {
+		logFile = Files.createTempFile("logIndexTest", ".log");
+		index = new LogIndex(logFile.toFile());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(logFile);
+	}
+
+	private static String entry(int severity, String message) {
+		return "!ENTRY org.eclipse.ui.tests " + severity + " 0 2021-01-01 10:00:00.000\n!MESSAGE " + message + "\n";
+	}
+
+	private void write(String content) throws IOException {
+		Files.write(logFile, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void append(String content) throws IOException {
+		Files.write(logFile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+
+	private String selectAll() throws IOException {
+		return select(severity -> true, Integer.MAX_VALUE, false);
+	}
+
+	private String select(LogIndex.SeverityFilter filter, int limit, boolean currentSessionOnly) throws IOException {
+		try (InputStream in = index.select(filter, limit, currentSessionOnly, 0)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testAppendedEntry() throws IOException {
+		String content = SESSION_1 + entry(IStatus.ERROR, "first");
+		write(content);
+		index.update();
+		assertEquals(2, index.size());
+		assertEquals(content, selectAll());
+
+		append(entry(IStatus.WARNING, "second"));
+		index.update();
+		assertEquals(3, index.size());
+		assertEquals(content + entry(IStatus.WARNING, "second"), selectAll());
+	}
+
+	@Test
+	public void testIncompleteLine() throws IOException {
+		write(SESSION_1 + entry(IStatus.ERROR, "first") + "!ENTRY org.eclipse.ui.tests 4");
+		index.update();
+		// the line being written is not indexed yet
+		assertEquals(2, index.size());
+		assertEquals(SESSION_1 + entry(IStatus.ERROR, "first"), selectAll());
+
+		append(" 0 2021-01-01 10:00:00.000\n!MESSAGE second\n");
+		index.update();
+		assertEquals(3, index.size());
+		assertEquals(SESSION_1 + entry(IStatus.ERROR, "first") + entry(IStatus.ERROR, "second"), selectAll());
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		write(SESSION_1 + entry(IStatus.ERROR, "first") + entry(IStatus.ERROR, "second"));
+		index.update();
+		assertEquals(3, index.size());
+
+		String content = SESSION_2 + entry(IStatus.INFO, "third");
+		write(content);
+		index.update();
+		assertEquals(2, index.size());
+		assertEquals(content, selectAll());
+	}
+
+	@Test
+	public void testReplacedFile() throws IOException {
+		write(SESSION_1 + entry(IStatus.ERROR, "first"));
+		index.update();
+		assertEquals(2, index.size());
+
+		// a longer file, whose headers are at other offsets
+		String content = "!SESSION 2021-01-02 10:00:00.000 ------------------------------\n"
+				+ entry(IStatus.WARNING, "replaced") + entry(IStatus.ERROR, "second");
+		Path replacement = Files.createTempFile("logIndexTest", ".log");
+		Files.write(replacement, content.getBytes(StandardCharsets.UTF_8));
+		Files.move(replacement, logFile, StandardCopyOption.REPLACE_EXISTING);
+		index.update();
+		assertEquals(3, index.size());
+		assertEquals(content, selectAll());
+	}
+
+	@Test
+	public void testDeletedFile() throws IOException {
+		write(SESSION_1 + entry(IStatus.ERROR, "first"));
+		index.update();
+		assertEquals(2, index.size());
+
+		Files.delete(logFile);
+		index.update();
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	public void testLimitAndSeverityFilter() throws IOException {
+		write(SESSION_1 + entry(IStatus.ERROR, "error1") + entry(IStatus.WARNING, "warning1")
+				+ entry(IStatus.ERROR, "error2") + entry(IStatus.WARNING, "warning2") + entry(IStatus.ERROR, "error3")
+				+ entry(IStatus.INFO, "info1"));
+		index.update();
+		assertEquals(7, index.size());
+
+		// the newest errors, together with their session
+		String selected = select(severity -> severity == IStatus.ERROR, 2, false);
+		assertEquals(SESSION_1 + entry(IStatus.ERROR, "error2") + entry(IStatus.ERROR, "error3"), selected);
+
+		selected = select(severity -> severity != IStatus.ERROR, 1, false);
+		assertEquals(SESSION_1 + entry(IStatus.INFO, "info1"), selected);
+
+		selected = select(severity -> severity == IStatus.CANCEL, Integer.MAX_VALUE, false);
+		assertEquals("", selected);
+	}
+
+	@Test
+	public void testCurrentSessionOnly() throws IOException {
+		String session1 = SESSION_1 + entry(IStatus.ERROR, "first") + entry(IStatus.WARNING, "second");
+		String session2 = SESSION_2 + entry(IStatus.ERROR, "third");
+		write(session1 + session2);
+		index.update();
+		assertEquals(5, index.size());
+
+		assertEquals(session2, select(severity -> true, Integer.MAX_VALUE, true));
+		assertEquals(session1 + session2, select(severity -> true, Integer.MAX_VALUE, false));
+
+		// the limit is reached in the last session
+		assertEquals(session2, select(severity -> true, 1, false));
+
+		// no entry of the last session passes the filter
+		String selected = select(severity -> severity == IStatus.WARNING, Integer.MAX_VALUE, true);
+		assertEquals("", selected);
+		selected = select(severity -> severity == IStatus.WARNING, Integer.MAX_VALUE, false);
+		assertEquals(SESSION_1 + entry(IStatus.WARNING, "second"), selected);
+	}
+}
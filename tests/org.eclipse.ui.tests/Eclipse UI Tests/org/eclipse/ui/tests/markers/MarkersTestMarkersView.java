@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2021 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,15 +17,22 @@ package org.eclipse.ui.tests.markers;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.internal.views.markers.ExtendedMarkersView;
+import org.eclipse.ui.internal.views.markers.MarkerContentGenerator;
 import org.eclipse.ui.views.markers.MarkerSupportView;
+import org.eclipse.ui.views.markers.internal.MarkerGroup;
 import org.eclipse.ui.views.markers.internal.MarkerSupportRegistry;
 
 /**
@@ -117,6 +124,134 @@ public class MarkersTestMarkersView extends MarkerSupportView {
 
 	}
 
+	/**
+	 * Return whether the markers are being gathered or shown.
+	 *
+	 * @return boolean
+	 */
+	public boolean isUpdating() {
+		return (Boolean) invoke(getBuilder(), "updatesPending");
+	}
+
+	/**
+	 * Gather all of the markers again, as when the filters change.
+	 */
+	public void scheduleFullUpdate() {
+		invoke(getBuilder(), "scheduleUpdate");
+	}
+
+	/**
+	 * Return the markers shown by the last update of the tree. Each update of
+	 * the tree shows a new copy of the markers.
+	 *
+	 * @return Object
+	 */
+	public Object getShownMarkers() {
+		return invoke(this, ExtendedMarkersView.class, "getActiveViewerInputClone", new Class<?>[0]);
+	}
+
+	/**
+	 * Return the label of every item of the tree with all categories expanded,
+	 * children indented below their category.
+	 *
+	 * @return List of String
+	 */
+	public List<String> getShownItems() {
+		TreeViewer viewer = (TreeViewer) invoke(this, ExtendedMarkersView.class, "getViewer", new Class<?>[0]);
+		viewer.expandAll();
+		List<String> items = new ArrayList<>();
+		addShownItems(tree.getItems(), "", items);
+		return items;
+	}
+
+	private void addShownItems(TreeItem[] treeItems, String indent, List<String> items) {
+		for (TreeItem item : treeItems) {
+			items.add(indent + item.getText());
+			addShownItems(item.getItems(), indent + '\t', items);
+		}
+	}
+
+	/**
+	 * Return the generator of the markers.
+	 *
+	 * @return MarkerContentGenerator
+	 */
+	public MarkerContentGenerator getGenerator() {
+		return (MarkerContentGenerator) invoke(this, ExtendedMarkersView.class, "getGenerator", new Class<?>[0]);
+	}
+
+	/**
+	 * Return the group of the categories, or <code>null</code> if the markers
+	 * are not grouped.
+	 *
+	 * @return MarkerGroup or <code>null</code>
+	 */
+	public MarkerGroup getCategoryGroup() {
+		return (MarkerGroup) invoke(getBuilder(), "getCategoryGroup");
+	}
+
+	/**
+	 * Return the group with the given id.
+	 *
+	 * @param id
+	 * @return MarkerGroup or <code>null</code>
+	 */
+	public MarkerGroup getMarkerGroup(String id) {
+		return (MarkerGroup) invoke(getGenerator(), MarkerContentGenerator.class, "getMarkerGroup",
+				new Class<?>[] { String.class }, id);
+	}
+
+	/**
+	 * Group the markers by the given group.
+	 *
+	 * @param group
+	 *            MarkerGroup or <code>null</code> to show the markers without
+	 *            categories
+	 */
+	public void setCategoryGroup(MarkerGroup group) {
+		invoke(this, ExtendedMarkersView.class, "setCategoryGroup", new Class<?>[] { MarkerGroup.class }, group);
+	}
+
+	/**
+	 * Enable or disable the filter with the given id.
+	 *
+	 * @param id
+	 */
+	public void toggleFilter(String id) {
+		MarkerContentGenerator generator = getGenerator();
+		for (Object filter : (Collection<?>) invoke(generator, "getAllFilters")) {
+			if (id.equals(invoke(filter, "getID"))) {
+				for (Method method : MarkerContentGenerator.class.getDeclaredMethods()) {
+					if (method.getName().equals("toggleFilter")) {
+						invoke(generator, MarkerContentGenerator.class, method.getName(), method.getParameterTypes(),
+								filter);
+						return;
+					}
+				}
+			}
+		}
+		throw new IllegalArgumentException("No filter " + id);
+	}
+
+	private Object getBuilder() {
+		return invoke(this, ExtendedMarkersView.class, "getBuilder", new Class<?>[0]);
+	}
+
+	private static Object invoke(Object target, String name) {
+		return invoke(target, target.getClass(), name, new Class<?>[0]);
+	}
+
+	private static Object invoke(Object target, Class<?> type, String name, Class<?>[] parameterTypes,
+			Object... arguments) {
+		try {
+			Method method = type.getDeclaredMethod(name, parameterTypes);
+			method.setAccessible(true);
+			return method.invoke(target, arguments);
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	@Override
 	public void createPartControl(Composite parent) {
 		super.createPartControl(parent);
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.markers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.views.markers.MarkerContentGenerator;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.eclipse.ui.views.markers.internal.MarkerGroup;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests that the markers view shows the same items after applying the marker
+ * deltas as after gathering all of the markers again.
+ */
+@RunWith(JUnit4.class)
+public class MarkersViewIncrementalUpdateTest extends UITestCase {
+
+	private static final String MESSAGE_PREFIX = "incremental update test ";
+
+	private static final long TIMEOUT = 30000;
+
+	private static final String TYPE_GROUP = "org.eclipse.ui.ide.type";
+
+	private static final String ERRORS_FILTER = "org.eclipse.ui.ide.errorsFilter";
+
+	private static final int MARKER_LIMIT = 2;
+
+	private IProject project;
+
+	private IFile file;
+
+	private MarkersTestMarkersView view;
+
+	public MarkersViewIncrementalUpdateTest() {
+		super(MarkersViewIncrementalUpdateTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = FileUtil.createProject("MarkersViewIncrementalUpdateTest");
+		file = FileUtil.createFile("test.txt", project);
+		view = (MarkersTestMarkersView) fWorkbench.getActiveWorkbenchWindow().getActivePage()
+				.showView("org.eclipse.ui.tests.markerTests");
+		waitForUpdates();
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		try {
+			if (view != null) {
+				view.getSite().getPage().hideView(view);
+			}
+			FileUtil.deleteProject(project);
+		} finally {
+			super.doTearDown();
+		}
+	}
+
+	@Test
+	public void testAddedMarkers() throws CoreException {
+		assertChangeShown(monitor -> createMarkers(0, 10), 10);
+		assertChangeShown(monitor -> createMarkers(10, 5), 15);
+	}
+
+	@Test
+	public void testRemovedMarkers() throws CoreException {
+		assertChangeShown(monitor -> createMarkers(0, 10), 10);
+		assertChangeShown(monitor -> {
+			for (IMarker marker : getMarkers()) {
+				if (getNumber(marker) % 2 == 0) {
+					marker.delete();
+				}
+			}
+		}, 5);
+		assertChangeShown(monitor -> {
+			for (IMarker marker : getMarkers()) {
+				marker.delete();
+			}
+		}, 0);
+	}
+
+	@Test
+	public void testChangedMarkers() throws CoreException {
+		assertChangeShown(monitor -> createMarkers(0, 9), 9);
+		// the new messages move the markers within their category
+		assertChangeShown(monitor -> {
+			for (IMarker marker : getMarkers()) {
+				marker.setAttribute(IMarker.MESSAGE, MESSAGE_PREFIX + (100 - getNumber(marker)));
+			}
+		}, 9);
+		// the new severities move the markers to other categories
+		assertChangeShown(monitor -> {
+			for (IMarker marker : getMarkers()) {
+				marker.setAttribute(IMarker.SEVERITY, (marker.getAttribute(IMarker.SEVERITY, 0) + 1) % 3);
+			}
+		}, 9);
+	}
+
+	@Test
+	public void testCategoryGroupChanged() throws CoreException {
+		MarkerGroup group = view.getCategoryGroup();
+		try {
+			assertChangeShown(monitor -> createMarkers(0, 6), 6);
+
+			view.setCategoryGroup(view.getMarkerGroup(TYPE_GROUP));
+			waitForUpdates();
+			assertChangeShown(monitor -> createMarkers(6, 3), 9);
+
+			// without categories
+			view.setCategoryGroup(null);
+			waitForUpdates();
+			assertChangeShown(monitor -> {
+				createMarkers(9, 3);
+				getMarkers().get(0).setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
+			}, 12);
+		} finally {
+			view.setCategoryGroup(group);
+		}
+	}
+
+	@Test
+	public void testFilterChanged() throws CoreException {
+		assertChangeShown(monitor -> createMarkers(0, 9), 9);
+
+		// only shows the errors
+		view.toggleFilter(ERRORS_FILTER);
+		try {
+			waitForUpdates();
+			assertChangeShown(monitor -> createMarkers(9, 6), 5);
+			// the errors which become warnings are hidden, and the other way
+			// round
+			assertChangeShown(monitor -> {
+				for (IMarker marker : getMarkers()) {
+					int severity = marker.getAttribute(IMarker.SEVERITY, 0);
+					if (getNumber(marker) < 6 && severity != IMarker.SEVERITY_INFO) {
+						marker.setAttribute(IMarker.SEVERITY,
+								severity == IMarker.SEVERITY_ERROR ? IMarker.SEVERITY_WARNING
+										: IMarker.SEVERITY_ERROR);
+					}
+				}
+			}, 5);
+		} finally {
+			view.toggleFilter(ERRORS_FILTER);
+		}
+	}
+
+	@Test
+	public void testMarkerLimit() throws CoreException {
+		MarkerContentGenerator generator = view.getGenerator();
+		int limit = generator.getMarkerLimits();
+		boolean limitEnabled = generator.isMarkerLimitsEnabled();
+		try {
+			generator.setMarkerLimits(MARKER_LIMIT);
+			generator.setMarkerLimitsEnabled(true);
+			view.scheduleFullUpdate();
+			waitForUpdates();
+
+			// each severity has more markers than the limit
+			assertChangeShown(monitor -> createMarkers(0, 9), -1);
+			// the markers beyond the limit move up
+			assertChangeShown(monitor -> {
+				for (IMarker marker : getMarkers()) {
+					if (getNumber(marker) < 3) {
+						marker.delete();
+					}
+				}
+			}, -1);
+			assertChangeShown(monitor -> createMarkers(9, 9), -1);
+		} finally {
+			generator.setMarkerLimits(limit);
+			generator.setMarkerLimitsEnabled(limitEnabled);
+			view.scheduleFullUpdate();
+		}
+	}
+
+	/**
+	 * Creates the given number of markers with increasing numbers in their
+	 * messages. The severities alternate between error, warning and info.
+	 */
+	private void createMarkers(int first, int count) throws CoreException {
+		for (int i = first; i < first + count; i++) {
+			Map<String, Object> attributes = new HashMap<>();
+			attributes.put(IMarker.MESSAGE, MESSAGE_PREFIX + i);
+			attributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_ERROR - i % 3));
+			file.createMarker(IMarker.PROBLEM).setAttributes(attributes);
+		}
+	}
+
+	private List<IMarker> getMarkers() throws CoreException {
+		List<IMarker> markers = new ArrayList<>();
+		for (IMarker marker : file.findMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO)) {
+			markers.add(marker);
+		}
+		return markers;
+	}
+
+	private static int getNumber(IMarker marker) {
+		return Integer.parseInt(marker.getAttribute(IMarker.MESSAGE, "").substring(MESSAGE_PREFIX.length()));
+	}
+
+	/**
+	 * Changes the markers in one workspace operation, waits until the view
+	 * shows the change by applying the marker deltas, and checks that
+	 * gathering all of the markers again shows the same items.
+	 *
+	 * @param change
+	 *            the change of the markers
+	 * @param shownCount
+	 *            the number of test markers the view shows, or -1 if the
+	 *            marker limit hides some of them
+	 */
+	private void assertChangeShown(IWorkspaceRunnable change, int shownCount) throws CoreException {
+		Object shownMarkers = view.getShownMarkers();
+		ResourcesPlugin.getWorkspace().run(change, null);
+		waitForUpdate(shownMarkers);
+		List<String> incremental = view.getShownItems();
+		int markerCount = getMarkers().size();
+		if (shownCount < 0) {
+			assertTrue("Limit not applied", countTestItems(incremental) < markerCount);
+			assertLimited(incremental);
+		} else {
+			assertEquals(shownCount, countTestItems(incremental));
+		}
+
+		shownMarkers = view.getShownMarkers();
+		view.scheduleFullUpdate();
+		waitForUpdate(shownMarkers);
+		assertEquals(view.getShownItems(), incremental);
+	}
+
+	/**
+	 * Waits until the view has shown new markers and no update is pending.
+	 */
+	private void waitForUpdate(Object shownMarkers) {
+		assertTrue("Update not shown", DisplayHelper.waitForCondition(Display.getCurrent(), TIMEOUT,
+				() -> view.getShownMarkers() != shownMarkers && !view.isUpdating()));
+		processEvents();
+	}
+
+	private void waitForUpdates() {
+		assertTrue("Update not finished",
+				DisplayHelper.waitForCondition(Display.getCurrent(), TIMEOUT, () -> !view.isUpdating()));
+		processEvents();
+	}
+
+	/**
+	 * Checks that no category shows more markers than the limit.
+	 */
+	private static void assertLimited(List<String> items) {
+		int children = 0;
+		for (String item : items) {
+			children = item.startsWith("\t") ? children + 1 : 0;
+			assertTrue("Too many markers shown", children <= MARKER_LIMIT);
+		}
+	}
+
+	private static int countTestItems(List<String> items) {
+		int count = 0;
+		for (String item : items) {
+			if (item.trim().startsWith(MESSAGE_PREFIX)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
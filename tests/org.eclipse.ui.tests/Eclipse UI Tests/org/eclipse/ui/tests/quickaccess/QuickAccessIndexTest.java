@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessEntry;
+import org.eclipse.ui.internal.quickaccess.QuickAccessIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the quick access index only matches the elements which matched
+ * the previous filter when the filter is extended, and that it finds the same
+ * entries as matching all elements.
+ */
+public class QuickAccessIndexTest {
+
+	private TestQuickAccessProvider provider;
+
+	private QuickAccessIndex index;
+
+	@Before
+	public void setUp() {
+		provider = new TestQuickAccessProvider("Test", "Open Type", "Open Resource", "Type Hierarchy", "Show View",
+				"Close All", "Show in System Explorer");
+		index = new QuickAccessIndex();
+	}
+
+	private List<QuickAccessEntry> match(QuickAccessIndex quickAccessIndex, String filter) {
+		return quickAccessIndex.match(provider, provider.getElements(), filter, new NullProgressMonitor());
+	}
+
+	/**
+	 * Matches the filters one after the other with the index, and checks each
+	 * time that the same entries are found as with new matchers.
+	 */
+	private void assertSameMatches(String... filters) {
+		for (String filter : filters) {
+			List<QuickAccessEntry> expected = match(new QuickAccessIndex(), filter);
+			List<QuickAccessEntry> actual = match(index, filter);
+			assertEquals("Wrong matches for '" + filter + "'", qualities(expected), qualities(actual));
+		}
+	}
+
+	private static List<Integer> qualities(List<QuickAccessEntry> entries) {
+		return entries.stream().map(entry -> Integer.valueOf(entry.getMatchQuality())).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testIsNarrowing() {
+		assertTrue(QuickAccessIndex.isNarrowing("", "o"));
+		assertTrue(QuickAccessIndex.isNarrowing("o", "op"));
+		assertTrue(QuickAccessIndex.isNarrowing("open", "open"));
+		assertTrue(QuickAccessIndex.isNarrowing("open", "open t"));
+		assertTrue(QuickAccessIndex.isNarrowing("ot", "ot*"));
+		assertTrue(QuickAccessIndex.isNarrowing("ot", "ot?"));
+		assertTrue(QuickAccessIndex.isNarrowing("open", "open (t)"));
+	}
+
+	@Test
+	public void testIsNotNarrowing() {
+		// backspace and other edits
+		assertFalse(QuickAccessIndex.isNarrowing("open", "ope"));
+		assertFalse(QuickAccessIndex.isNarrowing("open", "opem"));
+		assertFalse(QuickAccessIndex.isNarrowing("open", "xopen"));
+		// regular expression characters which can match more elements
+		assertFalse(QuickAccessIndex.isNarrowing("op", "op|ty"));
+		assertFalse(QuickAccessIndex.isNarrowing("op", "op+"));
+		assertFalse(QuickAccessIndex.isNarrowing("op", "op[en]"));
+		assertFalse(QuickAccessIndex.isNarrowing("op", "op{0}"));
+		assertFalse(QuickAccessIndex.isNarrowing("op", "op\\w"));
+		assertFalse(QuickAccessIndex.isNarrowing("op", "op$"));
+		assertFalse(QuickAccessIndex.isNarrowing("op|", "op|t"));
+	}
+
+	@Test
+	public void testNarrowing() {
+		assertSameMatches("o", "op", "ope", "open", "open ", "open t", "open ty");
+		assertEquals(1, match(index, "open type").size());
+	}
+
+	@Test
+	public void testBackspace() {
+		assertEquals(1, match(index, "open t").size());
+		assertEquals(2, match(index, "open").size());
+		assertSameMatches("open t", "open", "ope", "op", "o", "");
+	}
+
+	@Test
+	public void testCamelCase() {
+		assertSameMatches("s", "sv", "s", "o", "ot", "t", "th");
+		// "Open Type" matches by camel case only
+		assertEquals(1, match(index, "ot").size());
+	}
+
+	@Test
+	public void testRegularExpressionCharacters() {
+		assertEquals(2, match(index, "op").size());
+		// the alternative also matches "Type Hierarchy"
+		assertEquals(3, match(index, "op|ty").size());
+		assertSameMatches("op", "op|", "op|t", "op|ty", "op|ty+", "op[e]", "op[e]n", "ope{1}");
+	}
+
+	@Test
+	public void testWildcards() {
+		assertSameMatches("s", "s*", "s*v", "s*e", "s?", "s??w", "show (v)");
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ui.internal.quickaccess.QuickAccessContents;
+import org.eclipse.ui.internal.quickaccess.QuickAccessEntry;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+import org.eclipse.ui.quickaccess.QuickAccessElement;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests how the slots of the quick access table are distributed between the
+ * providers.
+ */
+public class QuickAccessSlotsTest {
+
+	private TestQuickAccessProvider first;
+
+	private TestQuickAccessProvider second;
+
+	private TestQuickAccessProvider third;
+
+	@Before
+	public void setUp() {
+		first = new TestQuickAccessProvider("First", labels("first", 10));
+		second = new TestQuickAccessProvider("Second", labels("second", 1));
+		third = new TestQuickAccessProvider("Third", labels("third", 10));
+	}
+
+	private static String[] labels(String prefix, int count) {
+		String[] labels = new String[count];
+		for (int i = 0; i < count; i++) {
+			labels[i] = prefix + i;
+		}
+		return labels;
+	}
+
+	private static List<QuickAccessEntry> entries(QuickAccessProvider provider) {
+		List<QuickAccessEntry> entries = new ArrayList<>();
+		for (QuickAccessElement element : provider.getElements()) {
+			entries.add(new QuickAccessEntry(element, provider, new int[0][0], new int[0][0],
+					QuickAccessEntry.MATCH_GOOD));
+		}
+		return entries;
+	}
+
+	private static Map<QuickAccessProvider, List<QuickAccessEntry>> entriesForProviders(
+			QuickAccessProvider... providers) {
+		Map<QuickAccessProvider, List<QuickAccessEntry>> entriesForProviders = new LinkedHashMap<>();
+		for (QuickAccessProvider provider : providers) {
+			entriesForProviders.put(provider, entries(provider));
+		}
+		return entriesForProviders;
+	}
+
+	@Test
+	public void testSlotsSharedEqually() {
+		Map<QuickAccessProvider, List<QuickAccessEntry>> entries = entriesForProviders(first, second, third);
+		Map<QuickAccessProvider, List<QuickAccessEntry>> picked = QuickAccessContents.distributeSlots(entries, 9);
+
+		assertEquals(Arrays.asList(first, second, third), new ArrayList<>(picked.keySet()));
+		// the slots left by the second provider go to the others
+		assertEquals(entries.get(first).subList(0, 4), picked.get(first));
+		assertEquals(entries.get(second), picked.get(second));
+		assertEquals(entries.get(third).subList(0, 4), picked.get(third));
+	}
+
+	@Test
+	public void testFewerSlotsThanProviders() {
+		Map<QuickAccessProvider, List<QuickAccessEntry>> entries = entriesForProviders(first, second, third);
+		Map<QuickAccessProvider, List<QuickAccessEntry>> picked = QuickAccessContents.distributeSlots(entries, 2);
+
+		// the first providers get one slot each
+		assertEquals(Arrays.asList(first, second), new ArrayList<>(picked.keySet()));
+		assertEquals(entries.get(first).subList(0, 1), picked.get(first));
+		assertEquals(entries.get(second), picked.get(second));
+	}
+
+	@Test
+	public void testMoreSlotsThanEntries() {
+		Map<QuickAccessProvider, List<QuickAccessEntry>> entries = entriesForProviders(first, second, third);
+		Map<QuickAccessProvider, List<QuickAccessEntry>> picked = QuickAccessContents.distributeSlots(entries, 100);
+
+		assertEquals(entries, picked);
+	}
+
+	@Test
+	public void testProviderWithoutEntries() {
+		Map<QuickAccessProvider, List<QuickAccessEntry>> entries = entriesForProviders(first, third);
+		entries.put(second, Collections.emptyList());
+		Map<QuickAccessProvider, List<QuickAccessEntry>> picked = QuickAccessContents.distributeSlots(entries, 5);
+
+		assertEquals(Arrays.asList(first, third), new ArrayList<>(picked.keySet()));
+		assertEquals(entries.get(first).subList(0, 3), picked.get(first));
+		assertEquals(entries.get(third).subList(0, 2), picked.get(third));
+	}
+
+	@Test
+	public void testNoSlots() {
+		assertTrue(QuickAccessContents.distributeSlots(entriesForProviders(first, second, third), 0).isEmpty());
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2021 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+import org.eclipse.ui.quickaccess.QuickAccessElement;
+
+/**
+ * A quick access provider of elements with the given labels.
+ */
+public class TestQuickAccessProvider extends QuickAccessProvider {
+
+	private final String name;
+
+	private final QuickAccessElement[] elements;
+
+	public TestQuickAccessProvider(String name, String... labels) {
+		this.name = name;
+		elements = new QuickAccessElement[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			String label = labels[i];
+			elements[i] = new QuickAccessElement() {
+
+				@Override
+				public String getLabel() {
+					return label;
+				}
+
+				@Override
+				public ImageDescriptor getImageDescriptor() {
+					return null;
+				}
+
+				@Override
+				public String getId() {
+					return label;
+				}
+
+				@Override
+				public void execute() {
+				}
+			};
+		}
+	}
+
+	@Override
+	public String getId() {
+		return name;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public ImageDescriptor getImageDescriptor() {
+		return null;
+	}
+
+	@Override
+	public QuickAccessElement[] getElements() {
+		return elements;
+	}
+
+	@Override
+	protected void doReset() {
+	}
+}